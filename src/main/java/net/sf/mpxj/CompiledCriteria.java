@@ -0,0 +1,42 @@
+/*
+ * file:       CompiledCriteria.java
+ * author:     Jon Iles
+ * copyright:  (c) Packwood Software 2019
+ * date:       26/02/2019
+ */
+
+/*
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation, Inc.,
+ * 59 Temple Place, Suite 330, Boston, MA 02111-1307, USA.
+ */
+
+package net.sf.mpxj;
+
+/**
+ * Criteria which have been compiled into a form which can be evaluated
+ * repeatedly against many tasks or resources. Field types, constant values
+ * and responses to prompts are resolved once when the criteria are compiled,
+ * rather than each time a row is evaluated. Instances are immutable and
+ * may be shared between threads.
+ */
+public interface CompiledCriteria
+{
+   /**
+    * Evaluate the criteria and return a boolean result.
+    *
+    * @param container Task or Resource instance
+    * @return boolean flag
+    */
+   public boolean evaluate(FieldContainer container);
+}
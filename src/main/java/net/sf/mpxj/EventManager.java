@@ -48,6 +48,11 @@ public class EventManager
             listener.taskRead(task);
          }
       }
+
+      if (m_streaming)
+      {
+         task.retainFields(TASK_LINKING_FIELDS);
+      }
    }
 
    /**
@@ -82,6 +87,11 @@ public class EventManager
             listener.resourceRead(resource);
          }
       }
+
+      if (m_streaming)
+      {
+         resource.retainFields(RESOURCE_LINKING_FIELDS);
+      }
    }
 
    /**
@@ -133,6 +143,11 @@ public class EventManager
             listener.assignmentRead(resourceAssignment);
          }
       }
+
+      if (m_streaming)
+      {
+         resourceAssignment.remove();
+      }
    }
 
    /**
@@ -233,6 +248,31 @@ public class EventManager
       }
    }
 
+   /**
+    * Set the streaming flag. When streaming is enabled, each resource
+    * assignment is removed from the project once its read event has been
+    * passed to the listeners. Tasks and resources are kept in the project,
+    * but their field values are discarded other than those required to
+    * link them to other entities. Listeners must therefore take any data
+    * they require from an entity when they are notified that it has been read.
+    *
+    * @param streaming true if entities are trimmed after their read events
+    */
+   public void setStreaming(boolean streaming)
+   {
+      m_streaming = streaming;
+   }
+
+   /**
+    * Retrieve the streaming flag.
+    *
+    * @return true if entities are trimmed after their read events
+    */
+   public boolean getStreaming()
+   {
+      return m_streaming;
+   }
+
    /**
     * Removes a listener from this project file.
     *
@@ -250,4 +290,41 @@ public class EventManager
     * List of project event listeners.
     */
    private List<ProjectListener> m_projectListeners;
+
+   /**
+    * Indicates that entities are trimmed after their read events.
+    */
+   private boolean m_streaming;
+
+   /**
+    * Task fields retained when streaming, used to build the task hierarchy
+    * and to link tasks to relations and resource assignments.
+    */
+   private static final FieldType[] TASK_LINKING_FIELDS =
+   {
+      TaskField.UNIQUE_ID,
+      TaskField.ID,
+      TaskField.NAME,
+      TaskField.OUTLINE_LEVEL,
+      TaskField.PARENT_TASK_UNIQUE_ID,
+      TaskField.PREDECESSORS,
+      TaskField.SUCCESSORS,
+      TaskField.CALENDAR,
+      TaskField.CALENDAR_UNIQUE_ID,
+      TaskField.IGNORE_RESOURCE_CALENDAR
+   };
+
+   /**
+    * Resource fields retained when streaming, used to link resources
+    * to resource assignments.
+    */
+   private static final FieldType[] RESOURCE_LINKING_FIELDS =
+   {
+      ResourceField.UNIQUE_ID,
+      ResourceField.ID,
+      ResourceField.NAME,
+      ResourceField.TYPE,
+      ResourceField.CALENDAR,
+      ResourceField.CALENDAR_UNIQUE_ID
+   };
 }
@@ -0,0 +1,50 @@
+/*
+ * file:       FieldLoader.java
+ * author:     Jon Iles
+ * copyright:  (c) Packwood Software 2019
+ * date:       25/02/2019
+ */
+
+
+/*
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation, Inc.,
+ * 59 Temple Place, Suite 330, Boston, MA 02111-1307, USA.
+ */
+
+package net.sf.mpxj;
+
+/**
+ * Implemented by classes which can supply field values to a task, resource
+ * or resource assignment on demand. This allows a reader to defer
+ * decoding each field value until it is first requested.
+ */
+public interface FieldLoader
+{
+   /**
+    * Retrieve the field type with the supplied value, if this
+    * loader is able to supply values for it.
+    *
+    * @param index field value
+    * @return field type, or null if this loader does not supply this field
+    */
+   public FieldType getFieldType(int index);
+
+   /**
+    * Load the value of a field.
+    *
+    * @param field field type
+    * @return field value
+    */
+   public Object loadField(FieldType field);
+}
@@ -0,0 +1,83 @@
+/*
+ * file:       FieldStore.java
+ * author:     Jon Iles
+ * copyright:  (c) Packwood Software 2019
+ * date:       22/02/2019
+ */
+
+/*
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation, Inc.,
+ * 59 Temple Place, Suite 330, Boston, MA 02111-1307, USA.
+ */
+
+package net.sf.mpxj;
+
+/**
+ * Storage for the field values held by a FieldContainer,
+ * indexed by the value of each field type.
+ */
+abstract class FieldStore
+{
+   /**
+    * Retrieve a field value.
+    *
+    * @param index field index
+    * @return field value
+    */
+   public abstract Object get(int index);
+
+   /**
+    * Set a field value.
+    *
+    * @param index field index
+    * @param value field value
+    */
+   public abstract void set(int index, Object value);
+
+   /**
+    * Create a FieldStore instance of the type selected by the project configuration.
+    *
+    * @param config project configuration
+    * @param size number of fields available
+    * @return new FieldStore instance
+    */
+   public static FieldStore getInstance(ProjectConfig config, int size)
+   {
+      return config.getCompactFieldStorage() ? new SparseFieldStore() : new ArrayFieldStore(size);
+   }
+
+   /**
+    * Create a FieldStore instance populated with the values of a subset
+    * of fields held by an existing FieldStore. As only a subset of
+    * fields is populated, compact storage is always used.
+    *
+    * @param source existing FieldStore
+    * @param fields fields to copy
+    * @return new FieldStore instance
+    */
+   public static FieldStore getInstance(FieldStore source, FieldType[] fields)
+   {
+      FieldStore result = new SparseFieldStore();
+      for (FieldType field : fields)
+      {
+         int index = field.getValue();
+         Object value = source.get(index);
+         if (value != null)
+         {
+            result.set(index, value);
+         }
+      }
+      return result;
+   }
+}
@@ -188,6 +188,54 @@ public final class Filter
       return (result);
    }
 
+   /**
+    * Compiles this filter into a form which can be evaluated efficiently
+    * against a large number of tasks or resources. The result of evaluating
+    * the compiled filter is the same as calling the evaluate method
+    * with the same prompt values.
+    *
+    * @param promptValues responses to prompts
+    * @return compiled filter
+    */
+   public CompiledCriteria compile(Map<GenericCriteriaPrompt, Object> promptValues)
+   {
+      final CompiledCriteria criteria = m_criteria == null ? null : m_criteria.compile(promptValues);
+      final boolean showRelatedSummaryRows = m_showRelatedSummaryRows;
+
+      return new CompiledCriteria()
+      {
+         /**
+          * {@inheritDoc}
+          */
+         @Override public boolean evaluate(FieldContainer container)
+         {
+            boolean result = true;
+            if (criteria != null)
+            {
+               result = criteria.evaluate(container);
+
+               //
+               // If this row has failed, but it is a summary row, and we are
+               // including related summary rows, then we need to recursively test
+               // its children
+               //
+               if (!result && showRelatedSummaryRows && container instanceof Task)
+               {
+                  for (Task task : ((Task) container).getChildTasks())
+                  {
+                     if (evaluate(task))
+                     {
+                        result = true;
+                        break;
+                     }
+                  }
+               }
+            }
+            return result;
+         }
+      };
+   }
+
    /**
     * Sets the prompts to supply the parameters required by this filter.
     *
@@ -96,7 +96,7 @@ public class GenericCriteria
    {
       m_definedRightValues[index] = value;
 
-      if (value instanceof FieldType)
+      if (value instanceof FieldType || value instanceof GenericCriteriaPrompt)
       {
          m_symbolicValues = true;
       }
@@ -146,43 +146,7 @@ public class GenericCriteria
       }
       else
       {
-         lhs = container.getCurrentValue(field);
-         switch (field.getDataType())
-         {
-            case DATE:
-            {
-               if (lhs != null)
-               {
-                  lhs = DateHelper.getDayStartDate((Date) lhs);
-               }
-               break;
-            }
-
-            case DURATION:
-            {
-               if (lhs != null)
-               {
-                  Duration dur = (Duration) lhs;
-                  lhs = dur.convertUnits(TimeUnit.HOURS, m_properties);
-               }
-               else
-               {
-                  lhs = Duration.getInstance(0, TimeUnit.HOURS);
-               }
-               break;
-            }
-
-            case STRING:
-            {
-               lhs = lhs == null ? "" : lhs;
-               break;
-            }
-
-            default:
-            {
-               break;
-            }
-         }
+         lhs = normalizeValue(m_properties, field.getDataType(), container.getCurrentValue(field));
       }
 
       //
@@ -276,55 +240,136 @@ public class GenericCriteria
          if (value instanceof FieldType)
          {
             FieldType type = (FieldType) value;
-            value = container.getCachedValue(type);
+            value = normalizeValue(m_properties, type.getDataType(), container.getCachedValue(type));
+         }
+         else
+         {
+            if (value instanceof GenericCriteriaPrompt && promptValues != null)
+            {
+               GenericCriteriaPrompt prompt = (GenericCriteriaPrompt) value;
+               value = promptValues.get(prompt);
+            }
+         }
+         newValues[loop] = value;
+      }
+      return (newValues);
+   }
 
-            switch (type.getDataType())
+   /**
+    * Converts a field value into the form used when evaluating criteria.
+    * Dates are truncated to the start of the day, durations are expressed
+    * in hours, and missing durations and strings are replaced by
+    * zero and the empty string respectively.
+    *
+    * @param properties project properties
+    * @param type field data type
+    * @param value field value
+    * @return normalized value
+    */
+   static Object normalizeValue(ProjectProperties properties, DataType type, Object value)
+   {
+      switch (type)
+      {
+         case DATE:
+         {
+            if (value != null)
             {
-               case DATE:
-               {
-                  if (value != null)
-                  {
-                     value = DateHelper.getDayStartDate((Date) value);
-                  }
-                  break;
-               }
+               value = DateHelper.getDayStartDate((Date) value);
+            }
+            break;
+         }
 
-               case DURATION:
+         case DURATION:
+         {
+            if (value == null)
+            {
+               value = Duration.getInstance(0, TimeUnit.HOURS);
+            }
+            else
+            {
+               if (((Duration) value).getUnits() != TimeUnit.HOURS)
                {
-                  if (value != null && ((Duration) value).getUnits() != TimeUnit.HOURS)
-                  {
-                     value = ((Duration) value).convertUnits(TimeUnit.HOURS, m_properties);
-                  }
-                  else
-                  {
-                     value = Duration.getInstance(0, TimeUnit.HOURS);
-                  }
-                  break;
+                  value = ((Duration) value).convertUnits(TimeUnit.HOURS, properties);
                }
+            }
+            break;
+         }
 
-               case STRING:
-               {
-                  value = value == null ? "" : value;
-                  break;
-               }
+         case STRING:
+         {
+            value = value == null ? "" : value;
+            break;
+         }
 
-               default:
-               {
-                  break;
-               }
+         default:
+         {
+            break;
+         }
+      }
+
+      return value;
+   }
+
+   /**
+    * Compiles these criteria into a form which can be evaluated efficiently
+    * against a large number of tasks or resources. The responses to any
+    * prompts are bound when the criteria are compiled. The compiled criteria
+    * do not reflect any subsequent changes made to this instance.
+    *
+    * @param promptValues responses to prompts
+    * @return compiled criteria
+    */
+   public CompiledCriteria compile(Map<GenericCriteriaPrompt, Object> promptValues)
+   {
+      CompiledCriteria result;
+
+      switch (m_operator)
+      {
+         case AND:
+         case OR:
+         {
+            CompiledCriteria[] criteria = new CompiledCriteria[m_criteriaList.size()];
+            int index = 0;
+            for (GenericCriteria c : m_criteriaList)
+            {
+               criteria[index++] = c.compile(promptValues);
             }
+            result = new CompiledLogicalCriteria(m_operator == TestOperator.AND, criteria);
+            break;
          }
-         else
+
+         default:
          {
-            if (value instanceof GenericCriteriaPrompt && promptValues != null)
+            Object[] values = new Object[2];
+            FieldType[] fields = null;
+
+            for (int loop = 0; loop < m_workingRightValues.length; loop++)
             {
-               GenericCriteriaPrompt prompt = (GenericCriteriaPrompt) value;
-               value = promptValues.get(prompt);
+               Object value = m_workingRightValues[loop];
+               if (value instanceof FieldType)
+               {
+                  if (fields == null)
+                  {
+                     fields = new FieldType[2];
+                  }
+                  fields[loop] = (FieldType) value;
+               }
+               else
+               {
+                  if (value instanceof GenericCriteriaPrompt && promptValues != null)
+                  {
+                     value = promptValues.get(value);
+                  }
+                  values[loop] = value;
+               }
             }
+
+            result = new CompiledFieldCriteria(m_properties, m_leftValue, m_operator, values, fields);
+            break;
          }
-         newValues[loop] = value;
       }
-      return (newValues);
+
+      return result;
    }
 
    /**
@@ -394,6 +439,100 @@ public class GenericCriteria
       return (sb.toString());
    }
 
+   /**
+    * Compiled form of the AND and OR operators.
+    */
+   private static final class CompiledLogicalCriteria implements CompiledCriteria
+   {
+      /**
+       * Constructor.
+       *
+       * @param and true for AND, false for OR
+       * @param criteria child criteria
+       */
+      public CompiledLogicalCriteria(boolean and, CompiledCriteria[] criteria)
+      {
+         m_and = and;
+         m_criteria = criteria;
+      }
+
+      /**
+       * {@inheritDoc}
+       */
+      @Override public boolean evaluate(FieldContainer container)
+      {
+         boolean result = true;
+         for (CompiledCriteria criteria : m_criteria)
+         {
+            result = criteria.evaluate(container);
+            if (result != m_and)
+            {
+               break;
+            }
+         }
+         return result;
+      }
+
+      private final boolean m_and;
+      private final CompiledCriteria[] m_criteria;
+   }
+
+   /**
+    * Compiled form of a test comparing a field with one or two values.
+    */
+   private static final class CompiledFieldCriteria implements CompiledCriteria
+   {
+      /**
+       * Constructor.
+       *
+       * @param properties project properties
+       * @param field field tested, or null
+       * @param operator test operator
+       * @param values constant right hand side values
+       * @param fields right hand side fields, or null if all values are constants
+       */
+      public CompiledFieldCriteria(ProjectProperties properties, FieldType field, TestOperator operator, Object[] values, FieldType[] fields)
+      {
+         m_properties = properties;
+         m_field = field;
+         m_dataType = field == null ? null : field.getDataType();
+         m_operator = operator;
+         m_values = values;
+         m_fields = fields;
+      }
+
+      /**
+       * {@inheritDoc}
+       */
+      @Override public boolean evaluate(FieldContainer container)
+      {
+         Object lhs = m_field == null ? null : normalizeValue(m_properties, m_dataType, container.getCurrentValue(m_field));
+
+         Object[] rhs = m_values;
+         if (m_fields != null)
+         {
+            rhs = rhs.clone();
+            for (int loop = 0; loop < m_fields.length; loop++)
+            {
+               FieldType field = m_fields[loop];
+               if (field != null)
+               {
+                  rhs[loop] = normalizeValue(m_properties, field.getDataType(), container.getCachedValue(field));
+               }
+            }
+         }
+
+         return m_operator.evaluate(lhs, rhs);
+      }
+
+      private final ProjectProperties m_properties;
+      private final FieldType m_field;
+      private final DataType m_dataType;
+      private final TestOperator m_operator;
+      private final Object[] m_values;
+      private final FieldType[] m_fields;
+   }
+
    private ProjectProperties m_properties;
    private FieldType m_leftValue;
    private TestOperator m_operator;
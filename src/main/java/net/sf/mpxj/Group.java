@@ -98,6 +98,23 @@ public final class Group
       return (m_clauses);
    }
 
+   /**
+    * Apply this group definition to a list of tasks or resources.
+    * The rows are sorted once using a composite key built from every
+    * group clause, then divided into a tree of buckets in a single pass.
+    * Totals of the requested aggregate fields are calculated for each bucket.
+    *
+    * @param properties project properties
+    * @param rows rows to group
+    * @param aggregateFields fields for which totals are calculated
+    * @param <T> row type
+    * @return root bucket, containing all of the grouped rows
+    */
+   public <T extends FieldContainer> GroupBucket<T> apply(ProjectProperties properties, List<T> rows, FieldType... aggregateFields)
+   {
+      return new GroupBuilder<T>(properties, this, aggregateFields).process(rows);
+   }
+
    /**
     * {@inheritDoc}
     */
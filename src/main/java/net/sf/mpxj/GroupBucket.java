@@ -0,0 +1,193 @@
+/*
+ * file:       GroupBucket.java
+ * author:     Jon Iles
+ * copyright:  (c) Packwood Software 2019
+ * date:       26/02/2019
+ */
+
+/*
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation, Inc.,
+ * 59 Temple Place, Suite 330, Boston, MA 02111-1307, USA.
+ */
+
+package net.sf.mpxj;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Represents one group of rows produced by applying a Group definition
+ * to a list of tasks or resources. The root bucket contains all of the
+ * rows, and has a child bucket for each distinct value of the field
+ * named in the first group clause. Each of these buckets has a child
+ * for each value of the field named in the second clause, and so on.
+ *
+ * @param <T> row type
+ */
+public final class GroupBucket<T>
+{
+   /**
+    * Constructor.
+    *
+    * @param clause clause which defines this bucket, null for the root bucket
+    * @param value value shared by the rows in this bucket
+    * @param intervalEnd end of the interval, if this bucket represents a range of values
+    * @param rows all rows, in group order
+    * @param start index of the first row in this bucket
+    * @param aggregateFields fields for which aggregates are calculated
+    * @param aggregateUnits units used for each duration or work total, null for other fields
+    */
+   GroupBucket(GroupClause clause, Object value, Object intervalEnd, List<T> rows, int start, FieldType[] aggregateFields, TimeUnit[] aggregateUnits)
+   {
+      m_clause = clause;
+      m_value = value;
+      m_intervalEnd = intervalEnd;
+      m_allRows = rows;
+      m_start = start;
+      m_end = start;
+      m_aggregateFields = aggregateFields;
+      m_totals = new double[aggregateFields.length];
+      m_aggregateUnits = aggregateUnits;
+   }
+
+   /**
+    * Retrieve the clause which defines this bucket.
+    *
+    * @return group clause, or null for the root bucket
+    */
+   public GroupClause getClause()
+   {
+      return m_clause;
+   }
+
+   /**
+    * Retrieve the value shared by the rows in this bucket. Where the
+    * clause defines a group interval, this is the start of the interval.
+    *
+    * @return bucket value
+    */
+   public Object getValue()
+   {
+      return m_value;
+   }
+
+   /**
+    * Where the clause defines a group interval, retrieve the end of the
+    * interval represented by this bucket. The end value itself is not
+    * included in the interval.
+    *
+    * @return end of the interval, or null if this bucket does not represent an interval
+    */
+   public Object getIntervalEnd()
+   {
+      return m_intervalEnd;
+   }
+
+   /**
+    * Retrieve the child buckets.
+    *
+    * @return list of child buckets, empty if this is the last level of grouping
+    */
+   public List<GroupBucket<T>> getBuckets()
+   {
+      return m_buckets;
+   }
+
+   /**
+    * Retrieve the rows in this bucket, in group order.
+    *
+    * @return list of rows
+    */
+   public List<T> getRows()
+   {
+      return m_allRows.subList(m_start, m_end);
+   }
+
+   /**
+    * Retrieve the number of rows in this bucket.
+    *
+    * @return row count
+    */
+   public int getCount()
+   {
+      return m_end - m_start;
+   }
+
+   /**
+    * Retrieve the total of a field's values for the rows in this bucket.
+    * Numeric values are totalled as Double instances, durations are
+    * totalled in the project's default duration units, and work
+    * is totalled in hours.
+    *
+    * @param field field for which an aggregate was requested
+    * @return total value, or null if no aggregate was requested for this field
+    */
+   public Object getAggregate(FieldType field)
+   {
+      Object result = null;
+      for (int index = 0; index < m_aggregateFields.length; index++)
+      {
+         if (m_aggregateFields[index] == field)
+         {
+            double total = m_totals[index];
+            TimeUnit units = m_aggregateUnits[index];
+            if (units != null)
+            {
+               result = Duration.getInstance(total, units);
+            }
+            else
+            {
+               result = Double.valueOf(total);
+            }
+            break;
+         }
+      }
+      return result;
+   }
+
+   /**
+    * Add a child bucket.
+    *
+    * @param bucket child bucket
+    */
+   void addBucket(GroupBucket<T> bucket)
+   {
+      m_buckets.add(bucket);
+   }
+
+   /**
+    * Add a row to this bucket. Rows must be added in group order.
+    *
+    * @param values values of the aggregate fields for this row
+    */
+   void addRow(double[] values)
+   {
+      ++m_end;
+      for (int index = 0; index < values.length; index++)
+      {
+         m_totals[index] += values[index];
+      }
+   }
+
+   private final GroupClause m_clause;
+   private final Object m_value;
+   private final Object m_intervalEnd;
+   private final List<T> m_allRows;
+   private final int m_start;
+   private int m_end;
+   private final FieldType[] m_aggregateFields;
+   private final double[] m_totals;
+   private final TimeUnit[] m_aggregateUnits;
+   private final List<GroupBucket<T>> m_buckets = new ArrayList<GroupBucket<T>>();
+}
@@ -0,0 +1,506 @@
+/*
+ * file:       GroupBuilder.java
+ * author:     Jon Iles
+ * copyright:  (c) Packwood Software 2019
+ * date:       26/02/2019
+ */
+
+/*
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation, Inc.,
+ * 59 Temple Place, Suite 330, Boston, MA 02111-1307, USA.
+ */
+
+package net.sf.mpxj;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+
+import net.sf.mpxj.common.DateHelper;
+
+/**
+ * Applies a Group definition to a list of rows. A composite key is
+ * calculated once for each row, the rows are sorted by this key, then
+ * the buckets for every level of the group, along with their aggregates,
+ * are built in a single pass over the sorted rows.
+ *
+ * @param <T> row type
+ */
+final class GroupBuilder<T extends FieldContainer>
+{
+   /**
+    * Constructor.
+    *
+    * @param properties project properties
+    * @param group group definition
+    * @param aggregateFields fields for which aggregates are calculated
+    */
+   public GroupBuilder(ProjectProperties properties, Group group, FieldType[] aggregateFields)
+   {
+      m_properties = properties;
+      m_group = group;
+      m_aggregateFields = aggregateFields;
+      m_aggregateUnits = new TimeUnit[aggregateFields.length];
+      for (int index = 0; index < aggregateFields.length; index++)
+      {
+         m_aggregateUnits[index] = getDurationUnits(properties, aggregateFields[index].getDataType());
+      }
+
+      List<GroupClause> clauses = group.getGroupClauses();
+      m_clauses = new ClauseKey[clauses.size()];
+      int index = 0;
+      for (GroupClause clause : clauses)
+      {
+         m_clauses[index++] = new ClauseKey(properties, clause);
+      }
+   }
+
+   /**
+    * Group the supplied rows.
+    *
+    * @param rows rows to group
+    * @return root bucket
+    */
+   public GroupBucket<T> process(List<T> rows)
+   {
+      //
+      // Calculate the key for each row, omitting summary tasks if required
+      //
+      List<Row<T>> keyedRows = new ArrayList<Row<T>>(rows.size());
+      for (T row : rows)
+      {
+         if (!m_group.getShowSummaryTasks() && row instanceof Task && ((Task) row).getSummary())
+         {
+            continue;
+         }
+
+         Object[] key = new Object[m_clauses.length];
+         for (int index = 0; index < key.length; index++)
+         {
+            key[index] = m_clauses[index].getKey(row);
+         }
+         keyedRows.add(new Row<T>(row, key));
+      }
+
+      //
+      // Sort using the composite key. The sort is stable, so rows
+      // with the same key retain their original order.
+      //
+      Collections.sort(keyedRows, new Comparator<Row<T>>()
+      {
+         @Override public int compare(Row<T> o1, Row<T> o2)
+         {
+            int result = 0;
+            for (int index = 0; index < m_clauses.length; index++)
+            {
+               result = m_clauses[index].compare(o1.m_key[index], o2.m_key[index]);
+               if (result != 0)
+               {
+                  break;
+               }
+            }
+            return result;
+         }
+      });
+
+      List<T> sortedRows = new ArrayList<T>(keyedRows.size());
+      for (Row<T> row : keyedRows)
+      {
+         sortedRows.add(row.m_row);
+      }
+
+      //
+      // Build the buckets in a single pass. The path array holds the
+      // bucket currently open at each level, with the root at level 0.
+      //
+      @SuppressWarnings("unchecked")
+      GroupBucket<T>[] path = new GroupBucket[m_clauses.length + 1];
+      path[0] = new GroupBucket<T>(null, null, null, sortedRows, 0, m_aggregateFields, m_aggregateUnits);
+      double[] values = new double[m_aggregateFields.length];
+      Object[] previousKey = null;
+
+      for (int rowIndex = 0; rowIndex < keyedRows.size(); rowIndex++)
+      {
+         Row<T> row = keyedRows.get(rowIndex);
+
+         int level = 0;
+         if (previousKey != null)
+         {
+            while (level < m_clauses.length && m_clauses[level].compare(previousKey[level], row.m_key[level]) == 0)
+            {
+               ++level;
+            }
+         }
+
+         for (; level < m_clauses.length; level++)
+         {
+            ClauseKey clause = m_clauses[level];
+            Object value = row.m_key[level];
+            GroupBucket<T> bucket = new GroupBucket<T>(clause.m_clause, value, clause.getIntervalEnd(value), sortedRows, rowIndex, m_aggregateFields, m_aggregateUnits);
+            path[level].addBucket(bucket);
+            path[level + 1] = bucket;
+         }
+
+         getAggregateValues(row.m_row, values);
+         for (GroupBucket<T> bucket : path)
+         {
+            bucket.addRow(values);
+         }
+
+         previousKey = row.m_key;
+      }
+
+      return path[0];
+   }
+
+   /**
+    * Retrieve the values of the aggregate fields for a row.
+    *
+    * @param row row
+    * @param values array to populate with the aggregate field values
+    */
+   private void getAggregateValues(T row, double[] values)
+   {
+      for (int index = 0; index < m_aggregateFields.length; index++)
+      {
+         Object value = row.getCurrentValue(m_aggregateFields[index]);
+         double result;
+         if (value instanceof Duration && m_aggregateUnits[index] != null)
+         {
+            result = ((Duration) value).convertUnits(m_aggregateUnits[index], m_properties).getDuration();
+         }
+         else
+         {
+            if (value instanceof Number)
+            {
+               result = ((Number) value).doubleValue();
+            }
+            else
+            {
+               result = 0;
+            }
+         }
+         values[index] = result;
+      }
+   }
+
+   /**
+    * Retrieve the units used to express values of the supplied data type
+    * when grouping and totalling. Durations use the project's default
+    * duration units, work is expressed in hours.
+    *
+    * @param properties project properties
+    * @param type data type
+    * @return time units, or null if the data type is not a duration or work
+    */
+   private static TimeUnit getDurationUnits(ProjectProperties properties, DataType type)
+   {
+      TimeUnit result;
+      if (type == DataType.DURATION)
+      {
+         result = properties.getDefaultDurationUnits();
+      }
+      else
+      {
+         result = type == DataType.WORK ? TimeUnit.HOURS : null;
+      }
+      return result;
+   }
+
+   /**
+    * A row, with the composite key used to sort and group it.
+    *
+    * @param <T> row type
+    */
+   private static final class Row<T>
+   {
+      /**
+       * Constructor.
+       *
+       * @param row row
+       * @param key composite key
+       */
+      public Row(T row, Object[] key)
+      {
+         m_row = row;
+         m_key = key;
+      }
+
+      final T m_row;
+      final Object[] m_key;
+   }
+
+   /**
+    * Calculates and compares the keys for a single group clause.
+    * Where the clause defines an interval, numeric, duration and work values
+    * are mapped to the start of the interval containing them, and dates are
+    * mapped to the start of an interval measured in days. Date intervals
+    * are counted from the clause's start date, or from the project start
+    * date if the clause does not define one.
+    */
+   private static final class ClauseKey
+   {
+      /**
+       * Constructor.
+       *
+       * @param properties project properties
+       * @param clause group clause
+       */
+      public ClauseKey(ProjectProperties properties, GroupClause clause)
+      {
+         m_properties = properties;
+         m_clause = clause;
+         m_field = clause.getField();
+         m_dataType = m_field == null ? null : m_field.getDataType();
+         m_durationUnits = getDurationUnits(properties, m_dataType);
+         m_ascending = clause.getAscending();
+
+         double interval = clause.getGroupInterval() instanceof Number ? ((Number) clause.getGroupInterval()).doubleValue() : 0;
+         m_interval = interval > 0 ? interval : 0;
+         m_startAt = clause.getStartAt();
+         m_dateOrigin = m_dataType == DataType.DATE && m_interval != 0 ? getDateOrigin(properties, m_startAt) : null;
+      }
+
+      /**
+       * Calculate the key for a row.
+       *
+       * @param row row
+       * @return key value
+       */
+      public Object getKey(FieldContainer row)
+      {
+         if (m_field == null)
+         {
+            return null;
+         }
+
+         Object value = row.getCurrentValue(m_field);
+         if (value == null || m_dataType == null)
+         {
+            return value;
+         }
+
+         switch (m_dataType)
+         {
+            case DATE:
+            {
+               value = getDateKey((Date) value);
+               break;
+            }
+
+            case DURATION:
+            case WORK:
+            {
+               Duration duration = ((Duration) value).convertUnits(m_durationUnits, m_properties);
+               value = m_interval == 0 ? duration : Duration.getInstance(getNumericKey(duration.getDuration()), m_durationUnits);
+               break;
+            }
+
+            case NUMERIC:
+            case INTEGER:
+            case SHORT:
+            case CURRENCY:
+            case PERCENTAGE:
+            {
+               if (m_interval != 0 && value instanceof Number)
+               {
+                  value = Double.valueOf(getNumericKey(((Number) value).doubleValue()));
+               }
+               break;
+            }
+
+            default:
+            {
+               break;
+            }
+         }
+
+         return value;
+      }
+
+      /**
+       * Retrieve the end of the interval which starts with the supplied key.
+       *
+       * @param key key value
+       * @return end of the interval, or null if this clause does not define an interval
+       */
+      public Object getIntervalEnd(Object key)
+      {
+         Object result = null;
+         if (m_interval != 0 && key != null)
+         {
+            if (key instanceof Date)
+            {
+               result = addDays((Date) key, (int) m_interval);
+            }
+            else
+            {
+               if (key instanceof Duration)
+               {
+                  result = Duration.getInstance(((Duration) key).getDuration() + m_interval, m_durationUnits);
+               }
+               else
+               {
+                  if (key instanceof Number)
+                  {
+                     result = Double.valueOf(((Number) key).doubleValue() + m_interval);
+                  }
+               }
+            }
+         }
+         return result;
+      }
+
+      /**
+       * Compare two keys. Null values sort before all other values
+       * when the clause is ascending. Numbers of different classes
+       * are compared by value.
+       *
+       * @param key1 first key
+       * @param key2 second key
+       * @return comparison result
+       */
+      @SuppressWarnings({
+         "unchecked",
+         "rawtypes"
+      }) public int compare(Object key1, Object key2)
+      {
+         int result;
+         if (key1 == key2)
+         {
+            result = 0;
+         }
+         else
+         {
+            if (key1 == null)
+            {
+               result = -1;
+            }
+            else
+            {
+               if (key2 == null)
+               {
+                  result = 1;
+               }
+               else
+               {
+                  if (key1 instanceof Comparable && key1.getClass() == key2.getClass())
+                  {
+                     result = ((Comparable) key1).compareTo(key2);
+                  }
+                  else
+                  {
+                     if (key1 instanceof Number && key2 instanceof Number)
+                     {
+                        result = Double.compare(((Number) key1).doubleValue(), ((Number) key2).doubleValue());
+                     }
+                     else
+                     {
+                        result = key1.toString().compareTo(key2.toString());
+                     }
+                  }
+               }
+            }
+         }
+         return m_ascending ? result : -result;
+      }
+
+      /**
+       * Map a numeric value to the start of the interval containing it.
+       *
+       * @param value numeric value
+       * @return start of the interval
+       */
+      private double getNumericKey(double value)
+      {
+         double startAt = m_startAt instanceof Number ? ((Number) m_startAt).doubleValue() : 0;
+         return startAt + Math.floor((value - startAt) / m_interval) * m_interval;
+      }
+
+      /**
+       * Map a date to the start of the interval containing it. If no
+       * interval is defined, the date is mapped to the start of the day.
+       *
+       * @param value date value
+       * @return start of the interval
+       */
+      private Date getDateKey(Date value)
+      {
+         Date day = DateHelper.getDayStartDate(value);
+         if (m_dateOrigin == null)
+         {
+            return day;
+         }
+
+         long days = Math.round((day.getTime() - m_dateOrigin.getTime()) / (double) DateHelper.MS_PER_DAY);
+         long intervals = (long) Math.floor(days / m_interval);
+         return addDays(m_dateOrigin, (int) (intervals * (long) m_interval));
+      }
+
+      /**
+       * Determine the date from which date intervals are counted. This is
+       * the clause's start date if one is defined, otherwise the project
+       * start date. If neither is available a fixed date is used, so that
+       * each key is always the start of an interval.
+       *
+       * @param properties project properties
+       * @param startAt clause start value
+       * @return start of the first interval
+       */
+      private static Date getDateOrigin(ProjectProperties properties, Object startAt)
+      {
+         Date origin = startAt instanceof Date ? (Date) startAt : properties.getStartDate();
+         if (origin == null)
+         {
+            origin = new Date(0);
+         }
+         return DateHelper.getDayStartDate(origin);
+      }
+
+      /**
+       * Add a number of days to a date.
+       *
+       * @param date start date
+       * @param days number of days
+       * @return new date
+       */
+      private Date addDays(Date date, int days)
+      {
+         Calendar cal = DateHelper.popCalendar(date);
+         cal.add(Calendar.DAY_OF_YEAR, days);
+         Date result = cal.getTime();
+         DateHelper.pushCalendar(cal);
+         return result;
+      }
+
+      private final ProjectProperties m_properties;
+      private final TimeUnit m_durationUnits;
+      final GroupClause m_clause;
+      private final FieldType m_field;
+      private final DataType m_dataType;
+      private final boolean m_ascending;
+      private final double m_interval;
+      private final Object m_startAt;
+      private final Date m_dateOrigin;
+   }
+
+   private final ProjectProperties m_properties;
+   private final Group m_group;
+   private final FieldType[] m_aggregateFields;
+   private final TimeUnit[] m_aggregateUnits;
+   private final ClauseKey[] m_clauses;
+}
@@ -0,0 +1,78 @@
+/*
+ * file:       LazyFieldStore.java
+ * author:     Jon Iles
+ * copyright:  (c) Packwood Software 2019
+ * date:       25/02/2019
+ */
+
+
+/*
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation, Inc.,
+ * 59 Temple Place, Suite 330, Boston, MA 02111-1307, USA.
+ */
+
+package net.sf.mpxj;
+
+import java.util.BitSet;
+
+/**
+ * Wraps another FieldStore, populating each field from a FieldLoader the
+ * first time it is accessed. A value set explicitly replaces any value
+ * which would otherwise have been loaded. Access is synchronized
+ * so that each field is only loaded once.
+ */
+final class LazyFieldStore extends FieldStore
+{
+   /**
+    * Constructor.
+    *
+    * @param store underlying field store
+    * @param loader source of field values
+    */
+   public LazyFieldStore(FieldStore store, FieldLoader loader)
+   {
+      m_store = store;
+      m_loader = loader;
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   @Override public synchronized Object get(int index)
+   {
+      if (!m_loaded.get(index))
+      {
+         m_loaded.set(index);
+         FieldType field = m_loader.getFieldType(index);
+         if (field != null)
+         {
+            m_store.set(index, m_loader.loadField(field));
+         }
+      }
+      return m_store.get(index);
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   @Override public synchronized void set(int index, Object value)
+   {
+      m_loaded.set(index);
+      m_store.set(index, value);
+   }
+
+   private final FieldStore m_store;
+   private final FieldLoader m_loader;
+   private final BitSet m_loaded = new BitSet();
+}
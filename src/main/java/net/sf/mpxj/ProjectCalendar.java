@@ -30,11 +30,10 @@ import java.util.Calendar;
 import java.util.Collections;
 import java.util.Date;
 import java.util.List;
-import java.util.Map;
-import java.util.WeakHashMap;
 
 import net.sf.mpxj.common.DateHelper;
 import net.sf.mpxj.common.NumberHelper;
+import net.sf.mpxj.common.TimeRangeCache;
 
 /**
  * This class represents the a Calendar Definition record. Both base calendars
@@ -356,7 +355,8 @@ public final class ProjectCalendar extends ProjectCalendarWeek implements Projec
     */
    public Date getStartTime(Date date)
    {
-      Date result = m_startTimeCache.get(date);
+      long time = date.getTime();
+      Date result = m_startTimeCache.get(time, time);
       if (result == null)
       {
          ProjectCalendarDateRanges ranges = getRanges(date, null, null);
@@ -369,7 +369,7 @@ public final class ProjectCalendar extends ProjectCalendarWeek implements Projec
             result = ranges.getRange(0).getStart();
          }
          result = DateHelper.getCanonicalTime(result);
-         m_startTimeCache.put(new Date(date.getTime()), result);
+         m_startTimeCache.put(time, time, result);
       }
       return result;
    }
@@ -503,6 +503,26 @@ public final class ProjectCalendar extends ProjectCalendarWeek implements Projec
             //
             Date startTime = getStartTime(cal.getTime());
             DateHelper.setTime(cal, startTime);
+
+            //
+            // If this calendar has a working time index, use it to move
+            // directly to the day on which the remaining work ends
+            //
+            if (remainingMinutes > 0)
+            {
+               WorkingTimeIndex index = getWorkingTimeIndex();
+               int startIndex = index.getDayIndex(DateHelper.getDayStartDate(cal.getTime()));
+               if (startIndex != -1)
+               {
+                  int endIndex = index.getDayIndex(startIndex, remainingMinutes);
+                  if (endIndex != startIndex)
+                  {
+                     remainingMinutes = NumberHelper.round(remainingMinutes - (index.getWork(startIndex, endIndex) / (60.0 * 1000.0)), 2);
+                     cal.setTime(index.getDayStart(endIndex));
+                     DateHelper.setTime(cal, getStartTime(cal.getTime()));
+                  }
+               }
+            }
          }
          else
          {
@@ -1201,8 +1221,9 @@ public final class ProjectCalendar extends ProjectCalendarWeek implements Projec
     */
    public Duration getWork(Date startDate, Date endDate, TimeUnit format)
    {
-      DateRange range = new DateRange(startDate, endDate);
-      Long cachedResult = m_workingDateCache.get(range);
+      long cacheStart = startDate.getTime();
+      long cacheEnd = endDate.getTime();
+      Long cachedResult = m_workingDateCache.get(cacheStart, cacheEnd);
       long totalTime = 0;
 
       if (cachedResult == null)
@@ -1256,35 +1277,48 @@ public final class ProjectCalendar extends ProjectCalendarWeek implements Projec
                totalTime += getTotalTime(getRanges(currentDate, null, day), currentDate, true);
 
                //
-               // Process each working day until we reach the last day
+               // Process each working day until we reach the last day,
+               // using the working time index if this calendar has one
                //
-               while (true)
+               WorkingTimeIndex index = getWorkingTimeIndex();
+               int startIndex = index.getDayIndex(DateHelper.getDayStartDate(currentDate));
+               int endIndex = index.getDayIndex(canonicalEndDate);
+               if (startIndex != -1 && endIndex != -1)
                {
-                  cal.add(Calendar.DAY_OF_YEAR, 1);
-                  currentDate = cal.getTime();
-                  day = day.getNextDay();
-
-                  //
-                  // We have reached the last day
-                  //
-                  if (currentDate.getTime() >= canonicalEndDate.getTime())
+                  totalTime += index.getWork(startIndex + 1, endIndex);
+                  cal.setTime(canonicalEndDate);
+                  day = Day.getInstance(cal.get(Calendar.DAY_OF_WEEK));
+               }
+               else
+               {
+                  while (true)
                   {
-                     break;
-                  }
+                     cal.add(Calendar.DAY_OF_YEAR, 1);
+                     currentDate = cal.getTime();
+                     day = day.getNextDay();
+
+                     //
+                     // We have reached the last day
+                     //
+                     if (currentDate.getTime() >= canonicalEndDate.getTime())
+                     {
+                        break;
+                     }
 
-                  //
-                  // Skip this day if it has no working time
-                  //
-                  ProjectCalendarDateRanges ranges = getRanges(currentDate, null, day);
-                  if (ranges.getRangeCount() == 0)
-                  {
-                     continue;
-                  }
+                     //
+                     // Skip this day if it has no working time
+                     //
+                     ProjectCalendarDateRanges ranges = getRanges(currentDate, null, day);
+                     if (ranges.getRangeCount() == 0)
+                     {
+                        continue;
+                     }
 
-                  //
-                  // Add the working time for the whole day
-                  //
-                  totalTime += getTotalTime(ranges);
+                     //
+                     // Add the working time for the whole day
+                     //
+                     totalTime += getTotalTime(ranges);
+                  }
                }
             }
 
@@ -1303,7 +1337,7 @@ public final class ProjectCalendar extends ProjectCalendarWeek implements Projec
             totalTime = -totalTime;
          }
 
-         m_workingDateCache.put(range, Long.valueOf(totalTime));
+         m_workingDateCache.put(cacheStart, cacheEnd, Long.valueOf(totalTime));
       }
       else
       {
@@ -1869,12 +1903,110 @@ public final class ProjectCalendar extends ProjectCalendarWeek implements Projec
       m_workingDateCache.clear();
       m_startTimeCache.clear();
       m_getDateLastResult = null;
+      m_workingTimeIndex = null;
       for (ProjectCalendar calendar : m_derivedCalendars)
       {
          calendar.clearWorkingDateCache();
       }
    }
 
+   /**
+    * Retrieve the working time index for this calendar, creating it if required.
+    *
+    * @return working time index
+    */
+   private WorkingTimeIndex getWorkingTimeIndex()
+   {
+      DateRange horizon = getParentFile().getProjectConfig().getWorkingTimeIndexHorizon();
+      WorkingTimeIndex index = m_workingTimeIndex;
+      if (index == null || index.getHorizon() != horizon)
+      {
+         index = createWorkingTimeIndex(horizon);
+         m_workingTimeIndex = index;
+      }
+      return index;
+   }
+
+   /**
+    * Create a working time index covering the supplied horizon.
+    * An empty index is returned if no horizon has been defined, or if the
+    * working time for a day may depend on the time of day, due to work
+    * weeks which start or finish part way through a day.
+    *
+    * @param horizon date range to index
+    * @return working time index
+    */
+   private WorkingTimeIndex createWorkingTimeIndex(DateRange horizon)
+   {
+      if (horizon == null || horizon.getStart() == null || horizon.getEnd() == null || horizon.getStart().getTime() > horizon.getEnd().getTime() || !hasDayAlignedWorkWeeks())
+      {
+         return new WorkingTimeIndex(horizon, WorkingTimeIndex.NO_DAYS, WorkingTimeIndex.NO_DAYS);
+      }
+
+      Date startDate = DateHelper.getDayStartDate(horizon.getStart());
+      Date endDate = DateHelper.getDayStartDate(horizon.getEnd());
+      int dayCount = getDaysInRange(startDate, endDate);
+      if (dayCount < 1)
+      {
+         return new WorkingTimeIndex(horizon, WorkingTimeIndex.NO_DAYS, WorkingTimeIndex.NO_DAYS);
+      }
+
+      long[] dayStarts = new long[dayCount + 1];
+      long[] cumulativeWork = new long[dayCount + 1];
+
+      Calendar cal = DateHelper.popCalendar(startDate);
+      Day day = Day.getInstance(cal.get(Calendar.DAY_OF_WEEK));
+      long totalTime = 0;
+
+      for (int dayIndex = 0; dayIndex < dayCount; dayIndex++)
+      {
+         Date currentDate = cal.getTime();
+         dayStarts[dayIndex] = currentDate.getTime();
+         cumulativeWork[dayIndex] = totalTime;
+         totalTime += getTotalTime(getRanges(currentDate, cal, day));
+         cal.add(Calendar.DAY_OF_YEAR, 1);
+         day = day.getNextDay();
+      }
+
+      dayStarts[dayCount] = cal.getTimeInMillis();
+      cumulativeWork[dayCount] = totalTime;
+      DateHelper.pushCalendar(cal);
+
+      return new WorkingTimeIndex(horizon, dayStarts, cumulativeWork);
+   }
+
+   /**
+    * Determine if all of the work weeks used by this calendar, and any
+    * calendars it is derived from, start at the beginning of a day
+    * and finish at the end of a day.
+    *
+    * @return true if all work weeks are aligned to whole days
+    */
+   private boolean hasDayAlignedWorkWeeks()
+   {
+      for (ProjectCalendarWeek week : m_workWeeks)
+      {
+         DateRange range = week.getDateRange();
+         if (range == null || range.getStart() == null || range.getEnd() == null)
+         {
+            continue;
+         }
+
+         if (range.getStart().getTime() != DateHelper.getDayStartDate(range.getStart()).getTime())
+         {
+            return false;
+         }
+
+         if (DateHelper.getDayEndDate(range.getEnd()).getTime() - range.getEnd().getTime() >= 60 * 1000)
+         {
+            return false;
+         }
+      }
+
+      ProjectCalendar parent = getParent();
+      return parent == null || parent.hasDayAlignedWorkWeeks();
+   }
+
    /**
     * Retrieves the working hours on the given date.
     *
@@ -2022,11 +2154,12 @@ public final class ProjectCalendar extends ProjectCalendarWeek implements Projec
    /**
     * Caches used to speed up date calculations.
     */
-   private Map<DateRange, Long> m_workingDateCache = new WeakHashMap<DateRange, Long>();
-   private Map<Date, Date> m_startTimeCache = new WeakHashMap<Date, Date>();
+   private TimeRangeCache<Long> m_workingDateCache = new TimeRangeCache<Long>(WORKING_DATE_CACHE_SIZE);
+   private TimeRangeCache<Date> m_startTimeCache = new TimeRangeCache<Date>(WORKING_DATE_CACHE_SIZE);
    private Date m_getDateLastStartDate;
    private double m_getDateLastRemainingMinutes;
    private Date m_getDateLastResult;
+   private volatile WorkingTimeIndex m_workingTimeIndex;
 
    /**
     * Work week definitions.
@@ -2051,4 +2184,9 @@ public final class ProjectCalendar extends ProjectCalendarWeek implements Projec
     * and take an alternative approach.
     */
    private static final int MAX_NONWORKING_DAYS = 1000;
+
+   /**
+    * Maximum number of entries held by each of the working time caches.
+    */
+   private static final int WORKING_DATE_CACHE_SIZE = 1024;
 }
@@ -23,6 +23,8 @@
 
 package net.sf.mpxj;
 
+import java.util.Set;
+
 import net.sf.mpxj.common.NumberHelper;
 
 /**
@@ -110,6 +112,95 @@ public class ProjectConfig
       m_autoTaskID = flag;
    }
 
+   /**
+    * Used to select compact storage of the field values held by tasks,
+    * resources and resource assignments created after this flag is set.
+    * Compact storage only holds populated fields, which significantly
+    * reduces the memory required for large projects, at the cost of
+    * slightly slower access to field values.
+    *
+    * @param flag true if compact field storage is required
+    */
+   public void setCompactFieldStorage(boolean flag)
+   {
+      m_compactFieldStorage = flag;
+   }
+
+   /**
+    * Retrieve the flag that determines whether compact storage is used for
+    * the field values held by tasks, resources and resource assignments.
+    *
+    * @return boolean, default is false
+    */
+   public boolean getCompactFieldStorage()
+   {
+      return m_compactFieldStorage;
+   }
+
+   /**
+    * Set the range of dates covered by the working time index built
+    * by each calendar. When set, calendars calculate the amount of working
+    * time between dates, and the date reached after a given amount of
+    * working time, using a cumulative index of working time per day rather
+    * than examining each day in turn. Calculations falling outside this
+    * range are performed as normal. Setting this to null disables the index.
+    *
+    * @param horizon date range covered by the working time index
+    */
+   public void setWorkingTimeIndexHorizon(DateRange horizon)
+   {
+      m_workingTimeIndexHorizon = horizon;
+   }
+
+   /**
+    * Retrieve the range of dates covered by the working time index
+    * built by each calendar.
+    *
+    * @return date range, default is null which disables the index
+    */
+   public DateRange getWorkingTimeIndexHorizon()
+   {
+      return m_workingTimeIndexHorizon;
+   }
+
+   /**
+    * Set the fields which will be retained by the tasks, resources and
+    * resource assignments in this project. Readers will skip decoding
+    * custom field values which are not included in this set, and once
+    * the project has been read any other values not included are discarded,
+    * with the exception of the identifiers and the fields linking entities
+    * together, such as task predecessors, successors and parent task unique
+    * ID, which are always retained. Setting this to null retains all fields.
+    *
+    * @param fields fields to retain
+    */
+   public void setFieldProjection(Set<FieldType> fields)
+   {
+      m_fieldProjection = fields;
+   }
+
+   /**
+    * Retrieve the fields which will be retained by the tasks, resources
+    * and resource assignments in this project.
+    *
+    * @return set of fields, default is null which retains all fields
+    */
+   public Set<FieldType> getFieldProjection()
+   {
+      return m_fieldProjection;
+   }
+
+   /**
+    * Determine if a field is included in the field projection.
+    *
+    * @param field field type
+    * @return true if values for this field should be retained
+    */
+   public boolean getFieldRequired(FieldType field)
+   {
+      return m_fieldProjection == null || (field != null && m_fieldProjection.contains(field));
+   }
+
    /**
     * Retrieve the flag that determines whether WBS is generated
     * automatically.
@@ -401,6 +492,21 @@ public class ProjectConfig
     */
    private boolean m_autoResourceID = true;
 
+   /**
+    * Indicating whether compact storage should be used for field values.
+    */
+   private boolean m_compactFieldStorage;
+
+   /**
+    * Range of dates covered by each calendar's working time index.
+    */
+   private DateRange m_workingTimeIndexHorizon;
+
+   /**
+    * Fields retained by tasks, resources and resource assignments.
+    */
+   private Set<FieldType> m_fieldProjection;
+
    /**
     * Counter used to populate the unique ID field of a task.
     */
@@ -23,9 +23,12 @@
 
 package net.sf.mpxj;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Set;
 
 import net.sf.mpxj.common.NumberHelper;
 
@@ -421,6 +424,63 @@ public final class ProjectFile implements ChildTaskContainer
       m_tasks.updateStructure();
    }
 
+   /**
+    * Discards any task, resource and resource assignment field values which
+    * are not included in the field projection defined by the project
+    * configuration. This is called by readers once a project has been read.
+    * The identifiers, along with the task predecessors, successors and
+    * parent task unique ID, are always retained, as readers may still
+    * link tasks together once the projection has been applied.
+    */
+   public void applyFieldProjection()
+   {
+      Set<FieldType> projection = m_config.getFieldProjection();
+      if (projection == null)
+      {
+         return;
+      }
+
+      FieldType[] taskFields = getProjectedFields(projection, FieldTypeClass.TASK, TaskField.UNIQUE_ID, TaskField.ID, TaskField.OUTLINE_LEVEL, TaskField.PREDECESSORS, TaskField.SUCCESSORS, TaskField.PARENT_TASK_UNIQUE_ID);
+      for (Task task : m_tasks)
+      {
+         task.retainFields(taskFields);
+      }
+
+      FieldType[] resourceFields = getProjectedFields(projection, FieldTypeClass.RESOURCE, ResourceField.UNIQUE_ID, ResourceField.ID);
+      for (Resource resource : m_resources)
+      {
+         resource.retainFields(resourceFields);
+      }
+
+      FieldType[] assignmentFields = getProjectedFields(projection, FieldTypeClass.ASSIGNMENT, AssignmentField.UNIQUE_ID, AssignmentField.TASK_UNIQUE_ID, AssignmentField.RESOURCE_UNIQUE_ID);
+      for (ResourceAssignment assignment : m_assignments)
+      {
+         assignment.retainFields(assignmentFields);
+      }
+   }
+
+   /**
+    * Select the fields from the field projection which belong to a
+    * particular class of entity, and add the fields which are always retained.
+    *
+    * @param projection field projection
+    * @param fieldTypeClass entity field type class
+    * @param requiredFields fields which are always retained
+    * @return array of fields to retain
+    */
+   private FieldType[] getProjectedFields(Set<FieldType> projection, FieldTypeClass fieldTypeClass, FieldType... requiredFields)
+   {
+      List<FieldType> result = new ArrayList<FieldType>(Arrays.asList(requiredFields));
+      for (FieldType field : projection)
+      {
+         if (field.getFieldTypeClass() == fieldTypeClass && !result.contains(field))
+         {
+            result.add(field);
+         }
+      }
+      return result.toArray(new FieldType[result.size()]);
+   }
+
    /**
     * Find the earliest task start date. We treat this as the
     * start date for the project.
@@ -48,6 +48,7 @@ public final class Resource extends ProjectEntity implements Comparable<Resource
    Resource(ProjectFile file)
    {
       super(file);
+      m_fields = FieldStore.getInstance(file.getProjectConfig(), ResourceField.MAX_VALUE);
 
       setType(ResourceType.WORK);
       ProjectConfig config = file.getProjectConfig();
@@ -2328,7 +2329,7 @@ public final class Resource extends ProjectEntity implements Comparable<Resource
     */
    @Override public Object getCachedValue(FieldType field)
    {
-      return (field == null ? null : m_array[field.getValue()]);
+      return (field == null ? null : m_fields.get(field.getValue()));
    }
 
    /**
@@ -2376,7 +2377,7 @@ public final class Resource extends ProjectEntity implements Comparable<Resource
 
             default:
             {
-               result = m_array[field.getValue()];
+               result = m_fields.get(field.getValue());
                break;
             }
          }
@@ -2395,12 +2396,36 @@ public final class Resource extends ProjectEntity implements Comparable<Resource
          int index = field.getValue();
          if (m_eventsEnabled)
          {
-            fireFieldChangeEvent((ResourceField) field, m_array[index], value);
+            fireFieldChangeEvent((ResourceField) field, m_fields.get(index), value);
          }
-         m_array[index] = value;
+         m_fields.set(index, value);
       }
    }
 
+   /**
+    * Supply a loader which will populate the fields of this resource
+    * on demand. Each field the loader supplies will be read from it the first
+    * time the field is accessed, replacing any value already held,
+    * unless a new value has been set in the meantime.
+    *
+    * @param loader field loader
+    */
+   public void setFieldLoader(FieldLoader loader)
+   {
+      m_fields = new LazyFieldStore(m_fields, loader);
+   }
+
+   /**
+    * Discard the values of all fields held by this resource other
+    * than those supplied.
+    *
+    * @param fields fields to retain
+    */
+   void retainFields(FieldType[] fields)
+   {
+      m_fields = FieldStore.getInstance(m_fields, fields);
+   }
+
    /**
     * Handle the change in a field value. Reset any cached calculated
     * values affected by this change, pass on the event to any external
@@ -2439,35 +2464,35 @@ public final class Resource extends ProjectEntity implements Comparable<Resource
          case COST:
          case BASELINE_COST:
          {
-            m_array[ResourceField.COST_VARIANCE.getValue()] = null;
+            m_fields.set(ResourceField.COST_VARIANCE.getValue(), null);
             break;
          }
 
          case WORK:
          case BASELINE_WORK:
          {
-            m_array[ResourceField.WORK_VARIANCE.getValue()] = null;
+            m_fields.set(ResourceField.WORK_VARIANCE.getValue(), null);
             break;
          }
 
          case BCWP:
          case ACWP:
          {
-            m_array[ResourceField.CV.getValue()] = null;
-            m_array[ResourceField.SV.getValue()] = null;
+            m_fields.set(ResourceField.CV.getValue(), null);
+            m_fields.set(ResourceField.SV.getValue(), null);
             break;
          }
 
          case BCWS:
          {
-            m_array[ResourceField.SV.getValue()] = null;
+            m_fields.set(ResourceField.SV.getValue(), null);
             break;
          }
 
          case PEAK:
          case MAX_UNITS:
          {
-            m_array[ResourceField.OVERALLOCATED.getValue()] = null;
+            m_fields.set(ResourceField.OVERALLOCATED.getValue(), null);
             break;
          }
 
@@ -2587,9 +2612,9 @@ public final class Resource extends ProjectEntity implements Comparable<Resource
    }
 
    /**
-    * Array of field values.
+    * Field values.
     */
-   private Object[] m_array = new Object[ResourceField.MAX_VALUE];
+   private FieldStore m_fields;
 
    /**
     * List of all assignments for this resource.
@@ -51,6 +51,7 @@ public final class ResourceAssignment extends ProjectEntity implements ProjectEn
    public ResourceAssignment(ProjectFile file, Task task)
    {
       super(file);
+      m_fields = FieldStore.getInstance(file.getProjectConfig(), AssignmentField.MAX_VALUE);
 
       if (file.getProjectConfig().getAutoAssignmentUniqueID() == true)
       {
@@ -2707,12 +2708,36 @@ public final class ResourceAssignment extends ProjectEntity implements ProjectEn
          int index = field.getValue();
          if (m_eventsEnabled)
          {
-            fireFieldChangeEvent((AssignmentField) field, m_array[index], value);
+            fireFieldChangeEvent((AssignmentField) field, m_fields.get(index), value);
          }
-         m_array[index] = value;
+         m_fields.set(index, value);
       }
    }
 
+   /**
+    * Supply a loader which will populate the fields of this resource assignment
+    * on demand. Each field the loader supplies will be read from it the first
+    * time the field is accessed, replacing any value already held,
+    * unless a new value has been set in the meantime.
+    *
+    * @param loader field loader
+    */
+   public void setFieldLoader(FieldLoader loader)
+   {
+      m_fields = new LazyFieldStore(m_fields, loader);
+   }
+
+   /**
+    * Discard the values of all fields held by this assignment other
+    * than those supplied.
+    *
+    * @param fields fields to retain
+    */
+   void retainFields(FieldType[] fields)
+   {
+      m_fields = FieldStore.getInstance(m_fields, fields);
+   }
+
    /**
     * This method inserts a name value pair into internal storage.
     *
@@ -2743,43 +2768,43 @@ public final class ResourceAssignment extends ProjectEntity implements ProjectEn
          case START:
          case BASELINE_START:
          {
-            m_array[AssignmentField.START_VARIANCE.getValue()] = null;
+            m_fields.set(AssignmentField.START_VARIANCE.getValue(), null);
             break;
          }
 
          case FINISH:
          case BASELINE_FINISH:
          {
-            m_array[AssignmentField.FINISH_VARIANCE.getValue()] = null;
+            m_fields.set(AssignmentField.FINISH_VARIANCE.getValue(), null);
             break;
          }
 
          case BCWP:
          case ACWP:
          {
-            m_array[AssignmentField.CV.getValue()] = null;
-            m_array[AssignmentField.SV.getValue()] = null;
+            m_fields.set(AssignmentField.CV.getValue(), null);
+            m_fields.set(AssignmentField.SV.getValue(), null);
             break;
          }
 
          case COST:
          case BASELINE_COST:
          {
-            m_array[AssignmentField.COST_VARIANCE.getValue()] = null;
+            m_fields.set(AssignmentField.COST_VARIANCE.getValue(), null);
             break;
          }
 
          case WORK:
          case BASELINE_WORK:
          {
-            m_array[AssignmentField.WORK_VARIANCE.getValue()] = null;
+            m_fields.set(AssignmentField.WORK_VARIANCE.getValue(), null);
             break;
          }
 
          case ACTUAL_OVERTIME_COST:
          case REMAINING_OVERTIME_COST:
          {
-            m_array[AssignmentField.OVERTIME_COST.getValue()] = null;
+            m_fields.set(AssignmentField.OVERTIME_COST.getValue(), null);
             break;
          }
 
@@ -2829,7 +2854,7 @@ public final class ResourceAssignment extends ProjectEntity implements ProjectEn
     */
    @Override public Object getCachedValue(FieldType field)
    {
-      return (field == null ? null : m_array[field.getValue()]);
+      return (field == null ? null : m_fields.get(field.getValue()));
    }
 
    /**
@@ -2843,7 +2868,7 @@ public final class ResourceAssignment extends ProjectEntity implements ProjectEn
       {
          int fieldValue = field.getValue();
 
-         result = m_array[fieldValue];
+         result = m_fields.get(fieldValue);
       }
 
       return (result);
@@ -2866,9 +2891,9 @@ public final class ResourceAssignment extends ProjectEntity implements ProjectEn
    }
 
    /**
-    * Array of field values.
+    * Field values.
     */
-   private Object[] m_array = new Object[AssignmentField.MAX_VALUE];
+   private FieldStore m_fields;
 
    private boolean m_eventsEnabled = true;
 
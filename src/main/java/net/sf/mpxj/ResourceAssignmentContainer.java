@@ -40,6 +40,7 @@ public class ResourceAssignmentContainer extends ProjectEntityContainer<Resource
 
    @Override public void removed(ResourceAssignment assignment)
    {
+      m_uniqueIDMap.remove(assignment.getUniqueID());
       assignment.getTask().removeResourceAssignment(assignment);
       Resource resource = assignment.getResource();
       if (resource != null)
@@ -24,7 +24,11 @@
 package net.sf.mpxj;
 
 import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
 
+import net.sf.mpxj.common.FilterHelper;
 import net.sf.mpxj.common.NumberHelper;
 
 /**
@@ -77,4 +81,45 @@ public class ResourceContainer extends ProjectEntityWithIDContainer<Resource>
       add(resource);
       return (resource);
    }
+
+   /**
+    * Apply a group definition to the resources in this container.
+    *
+    * @param group group definition
+    * @param aggregateFields fields for which totals are calculated
+    * @return root bucket, containing all of the grouped resources
+    */
+   public GroupBucket<Resource> group(Group group, FieldType... aggregateFields)
+   {
+      return group.apply(m_projectFile.getProjectProperties(), this, aggregateFields);
+   }
+
+   /**
+    * Apply a filter to the resources in this container. The filter's
+    * criteria are compiled once and evaluated for each resource.
+    *
+    * @param filter filter to apply
+    * @param promptValues responses to prompts
+    * @return resources matching the filter, in container order
+    */
+   public List<Resource> filter(Filter filter, Map<GenericCriteriaPrompt, Object> promptValues)
+   {
+      return FilterHelper.getMatches(this, FilterHelper.evaluate(this, filter, promptValues));
+   }
+
+   /**
+    * Apply a filter to the resources in this container, using the supplied
+    * ExecutorService to evaluate the filter criteria concurrently.
+    * The resources must not be modified while this method is running.
+    *
+    * @param filter filter to apply
+    * @param promptValues responses to prompts
+    * @param executor ExecutorService used to evaluate the criteria
+    * @return resources matching the filter, in container order
+    * @throws InterruptedException if interrupted while waiting for the results
+    */
+   public List<Resource> filter(Filter filter, Map<GenericCriteriaPrompt, Object> promptValues, ExecutorService executor) throws InterruptedException
+   {
+      return FilterHelper.getMatches(this, FilterHelper.evaluate(this, filter, promptValues, executor));
+   }
 }
@@ -0,0 +1,149 @@
+/*
+ * file:       SparseFieldStore.java
+ * author:     Jon Iles
+ * copyright:  (c) Packwood Software 2019
+ * date:       22/02/2019
+ */
+
+/*
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation, Inc.,
+ * 59 Temple Place, Suite 330, Boston, MA 02111-1307, USA.
+ */
+
+package net.sf.mpxj;
+
+/**
+ * Stores only the populated field values, held in order of their field
+ * index. As most entities only populate a small proportion of the available
+ * fields, this requires far less memory than an ArrayFieldStore, at the
+ * cost of a binary search to locate each value.
+ */
+final class SparseFieldStore extends FieldStore
+{
+   /**
+    * {@inheritDoc}
+    */
+   @Override public Object get(int index)
+   {
+      int position = find(index);
+      return position < 0 ? null : m_values[position];
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   @Override public void set(int index, Object value)
+   {
+      int position = find(index);
+      if (position >= 0)
+      {
+         if (value == null)
+         {
+            remove(position);
+         }
+         else
+         {
+            m_values[position] = value;
+         }
+      }
+      else
+      {
+         if (value != null)
+         {
+            insert(-(position + 1), index, value);
+         }
+      }
+   }
+
+   /**
+    * Locate a field index.
+    *
+    * @param index field index
+    * @return position of the field, or (-(insertion point) - 1) if not present
+    */
+   private int find(int index)
+   {
+      int low = 0;
+      int high = m_size - 1;
+
+      while (low <= high)
+      {
+         int mid = (low + high) >>> 1;
+         int key = m_keys[mid];
+         if (key < index)
+         {
+            low = mid + 1;
+         }
+         else
+         {
+            if (key > index)
+            {
+               high = mid - 1;
+            }
+            else
+            {
+               return mid;
+            }
+         }
+      }
+
+      return -(low + 1);
+   }
+
+   /**
+    * Insert a new value.
+    *
+    * @param position insertion point
+    * @param index field index
+    * @param value field value
+    */
+   private void insert(int position, int index, Object value)
+   {
+      if (m_size == m_keys.length)
+      {
+         int capacity = m_keys.length + (m_keys.length >> 1) + 1;
+         int[] keys = new int[capacity];
+         Object[] values = new Object[capacity];
+         System.arraycopy(m_keys, 0, keys, 0, m_size);
+         System.arraycopy(m_values, 0, values, 0, m_size);
+         m_keys = keys;
+         m_values = values;
+      }
+
+      System.arraycopy(m_keys, position, m_keys, position + 1, m_size - position);
+      System.arraycopy(m_values, position, m_values, position + 1, m_size - position);
+      m_keys[position] = index;
+      m_values[position] = value;
+      ++m_size;
+   }
+
+   /**
+    * Remove a value.
+    *
+    * @param position position of the value to remove
+    */
+   private void remove(int position)
+   {
+      --m_size;
+      System.arraycopy(m_keys, position + 1, m_keys, position, m_size - position);
+      System.arraycopy(m_values, position + 1, m_values, position, m_size - position);
+      m_values[m_size] = null;
+   }
+
+   private int[] m_keys = new int[INITIAL_CAPACITY];
+   private Object[] m_values = new Object[INITIAL_CAPACITY];
+   private int m_size;
+
+   private static final int INITIAL_CAPACITY = 16;
+}
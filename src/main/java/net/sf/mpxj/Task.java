@@ -24,11 +24,14 @@
 
 package net.sf.mpxj;
 
+import java.util.Arrays;
 import java.util.Date;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 
 import net.sf.mpxj.common.BooleanHelper;
 import net.sf.mpxj.common.DateHelper;
@@ -50,6 +53,7 @@ public final class Task extends ProjectEntity implements Comparable<Task>, Proje
    Task(ProjectFile file, Task parent)
    {
       super(file);
+      m_fields = FieldStore.getInstance(file.getProjectConfig(), TaskField.MAX_VALUE);
 
       setType(TaskType.FIXED_UNITS);
       setConstraintType(ConstraintType.AS_SOON_AS_POSSIBLE);
@@ -1848,7 +1852,7 @@ public final class Task extends ProjectEntity implements Comparable<Task>, Proje
          if (cost != null && baselineCost != null)
          {
             variance = NumberHelper.getDouble(cost.doubleValue() - baselineCost.doubleValue());
-            set(TaskField.COST_VARIANCE, variance);
+            variance = cache(TaskField.COST_VARIANCE, variance);
          }
       }
       return (variance);
@@ -1885,7 +1889,7 @@ public final class Task extends ProjectEntity implements Comparable<Task>, Proje
             totalSlack = totalSlack.convertUnits(TimeUnit.DAYS, props);
          }
          critical = Boolean.valueOf(totalSlack.getDuration() <= criticalSlackLimit && NumberHelper.getInt(getPercentageComplete()) != 100 && ((getTaskMode() == TaskMode.AUTO_SCHEDULED) || (getDurationText() == null && getStartText() == null && getFinishText() == null)));
-         set(TaskField.CRITICAL, critical);
+         critical = cache(TaskField.CRITICAL, critical);
       }
       return (BooleanHelper.getBoolean(critical));
    }
@@ -1908,7 +1912,7 @@ public final class Task extends ProjectEntity implements Comparable<Task>, Proje
       if (variance == null)
       {
          variance = Double.valueOf(NumberHelper.getDouble(getBCWP()) - NumberHelper.getDouble(getACWP()));
-         set(TaskField.CV, variance);
+         variance = cache(TaskField.CV, variance);
       }
       return (variance);
    }
@@ -1985,7 +1989,7 @@ public final class Task extends ProjectEntity implements Comparable<Task>, Proje
          if (duration != null && baselineDuration != null)
          {
             variance = Duration.getInstance(duration.getDuration() - baselineDuration.convertUnits(duration.getUnits(), getParentFile().getProjectProperties()).getDuration(), duration.getUnits());
-            set(TaskField.DURATION_VARIANCE, variance);
+            variance = cache(TaskField.DURATION_VARIANCE, variance);
          }
       }
       return (variance);
@@ -2092,7 +2096,7 @@ public final class Task extends ProjectEntity implements Comparable<Task>, Proje
       {
          TimeUnit format = getParentFile().getProjectProperties().getDefaultDurationUnits();
          variance = DateHelper.getVariance(this, getBaselineFinish(), getFinish(), format);
-         set(TaskField.FINISH_VARIANCE, variance);
+         variance = cache(TaskField.FINISH_VARIANCE, variance);
       }
       return (variance);
    }
@@ -2524,7 +2528,7 @@ public final class Task extends ProjectEntity implements Comparable<Task>, Proje
       {
          TimeUnit format = getParentFile().getProjectProperties().getDefaultDurationUnits();
          variance = DateHelper.getVariance(this, getBaselineStart(), getStart(), format);
-         set(TaskField.START_VARIANCE, variance);
+         variance = cache(TaskField.START_VARIANCE, variance);
       }
       return (variance);
    }
@@ -2580,7 +2584,7 @@ public final class Task extends ProjectEntity implements Comparable<Task>, Proje
          if (bcwp != null && bcws != null)
          {
             variance = NumberHelper.getDouble(bcwp.doubleValue() - bcws.doubleValue());
-            set(TaskField.SV, variance);
+            variance = cache(TaskField.SV, variance);
          }
       }
       return (variance);
@@ -2701,7 +2705,7 @@ public final class Task extends ProjectEntity implements Comparable<Task>, Proje
             }
          }
 
-         set(TaskField.TOTAL_SLACK, totalSlack);
+         totalSlack = cache(TaskField.TOTAL_SLACK, totalSlack);
       }
 
       return (totalSlack);
@@ -2773,7 +2777,7 @@ public final class Task extends ProjectEntity implements Comparable<Task>, Proje
          if (work != null && baselineWork != null)
          {
             variance = Duration.getInstance(work.getDuration() - baselineWork.convertUnits(work.getUnits(), getParentFile().getProjectProperties()).getDuration(), work.getUnits());
-            set(TaskField.WORK_VARIANCE, variance);
+            variance = cache(TaskField.WORK_VARIANCE, variance);
          }
       }
       return (variance);
@@ -3697,7 +3701,7 @@ public final class Task extends ProjectEntity implements Comparable<Task>, Proje
          if (duration != null)
          {
             startSlack = DateHelper.getVariance(this, getEarlyStart(), getLateStart(), duration.getUnits());
-            set(TaskField.START_SLACK, startSlack);
+            startSlack = cache(TaskField.START_SLACK, startSlack);
          }
       }
       return (startSlack);
@@ -3717,7 +3721,7 @@ public final class Task extends ProjectEntity implements Comparable<Task>, Proje
          if (duration != null)
          {
             finishSlack = DateHelper.getVariance(this, getEarlyFinish(), getLateFinish(), duration.getUnits());
-            set(TaskField.FINISH_SLACK, finishSlack);
+            finishSlack = cache(TaskField.FINISH_SLACK, finishSlack);
          }
       }
       return (finishSlack);
@@ -4246,7 +4250,7 @@ public final class Task extends ProjectEntity implements Comparable<Task>, Proje
             }
          }
 
-         set(TaskField.COMPLETE_THROUGH, value);
+         value = cache(TaskField.COMPLETE_THROUGH, value);
       }
       return value;
    }
@@ -4681,7 +4685,16 @@ public final class Task extends ProjectEntity implements Comparable<Task>, Proje
     */
    @Override public Object getCachedValue(FieldType field)
    {
-      return (field == null ? null : m_array[field.getValue()]);
+      Object result = null;
+      if (field != null)
+      {
+         result = m_fields.get(field.getValue());
+         if (result == null)
+         {
+            result = getCachedDerivedValue((TaskField) field);
+         }
+      }
+      return (result);
    }
 
    /**
@@ -4775,7 +4788,7 @@ public final class Task extends ProjectEntity implements Comparable<Task>, Proje
 
             default:
             {
-               result = m_array[field.getValue()];
+               result = m_fields.get(field.getValue());
                break;
             }
          }
@@ -4794,124 +4807,160 @@ public final class Task extends ProjectEntity implements Comparable<Task>, Proje
          int index = field.getValue();
          if (m_eventsEnabled)
          {
-            fireFieldChangeEvent((TaskField) field, m_array[index], value);
+            fireFieldChangeEvent((TaskField) field, m_fields.get(index), value);
          }
-         m_array[index] = value;
+         m_fields.set(index, value);
+         clearCachedDerivedValues((TaskField) field);
       }
    }
 
    /**
-    * Handle the change in a field value. Reset any cached calculated
-    * values affected by this change, pass on the event to any external
-    * listeners.
+    * Supply a loader which will populate the fields of this task
+    * on demand. Each field the loader supplies will be read from it the first
+    * time the field is accessed, replacing any value already held,
+    * unless a new value has been set in the meantime.
     *
-    * @param field field changed
-    * @param oldValue old field value
-    * @param newValue new field value
+    * @param loader field loader
     */
-   private void fireFieldChangeEvent(TaskField field, Object oldValue, Object newValue)
+   public void setFieldLoader(FieldLoader loader)
    {
-      //
-      // Internal event handling
-      //
-      switch (field)
-      {
-         case UNIQUE_ID:
-         {
-            ProjectFile parent = getParentFile();
-            if (oldValue != null)
-            {
-               parent.getTasks().unmapUniqueID((Integer) oldValue);
-            }
-            parent.getTasks().mapUniqueID((Integer) newValue, this);
-            break;
-         }
-
-         case START:
-         case BASELINE_START:
-         {
-            m_array[TaskField.START_VARIANCE.getValue()] = null;
-            break;
-         }
-
-         case FINISH:
-         case BASELINE_FINISH:
-         {
-            m_array[TaskField.FINISH_VARIANCE.getValue()] = null;
-            break;
-         }
-
-         case COST:
-         case BASELINE_COST:
-         {
-            m_array[TaskField.COST_VARIANCE.getValue()] = null;
-            break;
-         }
+      m_fields = new LazyFieldStore(m_fields, loader);
+   }
 
-         case DURATION:
-         {
-            m_array[TaskField.DURATION_VARIANCE.getValue()] = null;
-            m_array[TaskField.COMPLETE_THROUGH.getValue()] = null;
-            break;
-         }
+   /**
+    * Discard the values of all fields held by this task other
+    * than those supplied.
+    *
+    * @param fields fields to retain
+    */
+   void retainFields(FieldType[] fields)
+   {
+      m_fields = FieldStore.getInstance(m_fields, fields);
+      m_derivedValues = null;
+   }
 
-         case BASELINE_DURATION:
+   /**
+    * Cache a value calculated for a derived field. The value is held
+    * separately from the values set explicitly for this task, and no
+    * events are fired, so calculated values can be safely cached by
+    * multiple threads reading the same task concurrently. If another
+    * thread has already cached a value for this field, that value is returned
+    * so that all callers see the same instance.
+    *
+    * @param field derived field
+    * @param value calculated value
+    * @return cached value
+    */
+   @SuppressWarnings("unchecked") private <T> T cache(TaskField field, T value)
+   {
+      T result = value;
+      if (value != null)
+      {
+         AtomicReferenceArray<Object> cache = m_derivedValues;
+         if (cache == null)
          {
-            m_array[TaskField.DURATION_VARIANCE.getValue()] = null;
-            break;
+            DERIVED_VALUES_UPDATER.compareAndSet(this, null, new AtomicReferenceArray<Object>(DERIVED_FIELDS.length));
+            cache = m_derivedValues;
          }
 
-         case WORK:
-         case BASELINE_WORK:
+         int index = DERIVED_FIELD_INDEX[field.getValue()];
+         if (!cache.compareAndSet(index, null, value))
          {
-            m_array[TaskField.WORK_VARIANCE.getValue()] = null;
-            break;
+            Object existingValue = cache.get(index);
+            if (existingValue != null)
+            {
+               result = (T) existingValue;
+            }
+            else
+            {
+               cache.set(index, value);
+            }
          }
+      }
+      return result;
+   }
 
-         case BCWP:
-         case ACWP:
-         {
-            m_array[TaskField.CV.getValue()] = null;
-            m_array[TaskField.SV.getValue()] = null;
-            break;
-         }
+   /**
+    * Retrieve a cached value calculated for a derived field.
+    *
+    * @param field field
+    * @return cached value, or null if the field is not derived or has no cached value
+    */
+   private Object getCachedDerivedValue(TaskField field)
+   {
+      AtomicReferenceArray<Object> cache = m_derivedValues;
+      if (cache == null)
+      {
+         return null;
+      }
 
-         case BCWS:
-         {
-            m_array[TaskField.SV.getValue()] = null;
-            break;
-         }
+      int index = DERIVED_FIELD_INDEX[field.getValue()];
+      return index == -1 ? null : cache.get(index);
+   }
 
-         case START_SLACK:
-         case FINISH_SLACK:
+   /**
+    * Clear a cached value calculated for a derived field.
+    *
+    * @param field field
+    */
+   private void clearCachedDerivedValue(TaskField field)
+   {
+      AtomicReferenceArray<Object> cache = m_derivedValues;
+      if (cache != null)
+      {
+         int index = DERIVED_FIELD_INDEX[field.getValue()];
+         if (index != -1)
          {
-            m_array[TaskField.TOTAL_SLACK.getValue()] = null;
-            m_array[TaskField.CRITICAL.getValue()] = null;
-            break;
+            cache.set(index, null);
          }
+      }
+   }
 
-         case EARLY_FINISH:
-         case LATE_FINISH:
-         {
-            m_array[TaskField.FINISH_SLACK.getValue()] = null;
-            m_array[TaskField.TOTAL_SLACK.getValue()] = null;
-            m_array[TaskField.CRITICAL.getValue()] = null;
-            break;
-         }
+   /**
+    * Clear the cached value calculated for a field, along with the cached
+    * values of any derived fields calculated from it. Values which have been
+    * set explicitly, for example when a task is read from a file, are
+    * not affected.
+    *
+    * @param field field changed
+    */
+   private void clearCachedDerivedValues(TaskField field)
+   {
+      clearCachedDerivedValue(field);
 
-         case EARLY_START:
-         case LATE_START:
+      TaskField[] dependentFields = DEPENDENT_FIELDS[field.getValue()];
+      if (dependentFields != null)
+      {
+         for (TaskField dependentField : dependentFields)
          {
-            m_array[TaskField.START_SLACK.getValue()] = null;
-            m_array[TaskField.TOTAL_SLACK.getValue()] = null;
-            m_array[TaskField.CRITICAL.getValue()] = null;
-            break;
+            clearCachedDerivedValue(dependentField);
          }
+      }
+   }
 
-         case ACTUAL_START:
-         case PERCENT_COMPLETE:
+   /**
+    * Handle the change in a field value. Pass on the event to any external
+    * listeners.
+    *
+    * @param field field changed
+    * @param oldValue old field value
+    * @param newValue new field value
+    */
+   private void fireFieldChangeEvent(TaskField field, Object oldValue, Object newValue)
+   {
+      //
+      // Internal event handling
+      //
+      switch (field)
+      {
+         case UNIQUE_ID:
          {
-            m_array[TaskField.COMPLETE_THROUGH.getValue()] = null;
+            ProjectFile parent = getParentFile();
+            if (oldValue != null)
+            {
+               parent.getTasks().unmapUniqueID((Integer) oldValue);
+            }
+            parent.getTasks().mapUniqueID((Integer) newValue, this);
             break;
          }
 
@@ -5038,9 +5087,14 @@ public final class Task extends ProjectEntity implements Comparable<Task>, Proje
    }
 
    /**
-    * Array of field values.
+    * Field values.
+    */
+   private FieldStore m_fields;
+
+   /**
+    * Cached values calculated for derived fields, created when first required.
     */
-   private Object[] m_array = new Object[TaskField.MAX_VALUE];
+   private volatile AtomicReferenceArray<Object> m_derivedValues;
 
    /**
     * This is a reference to the parent task, as specified by the
@@ -5083,4 +5137,151 @@ public final class Task extends ProjectEntity implements Comparable<Task>, Proje
    private Date m_splitsComplete;
    private SubProject m_subProject;
    private List<FieldListener> m_listeners;
+
+   /**
+    * Updater used to lazily create the derived value cache. The class literal
+    * can only describe the raw AtomicReferenceArray type, hence the cast.
+    */
+   @SuppressWarnings(
+   {
+      "rawtypes",
+      "unchecked"
+   }) private static final AtomicReferenceFieldUpdater<Task, AtomicReferenceArray<Object>> DERIVED_VALUES_UPDATER = (AtomicReferenceFieldUpdater) AtomicReferenceFieldUpdater.newUpdater(Task.class, AtomicReferenceArray.class, "m_derivedValues");
+
+   /**
+    * Fields whose values can be calculated from other fields, and
+    * the fields from which each is derived. When one of the source fields
+    * changes, any value cached for the derived field is discarded. Values
+    * set explicitly for the derived field are retained.
+    * The first entry in each row is the derived field, the remaining
+    * entries are its source fields.
+    */
+   private static final TaskField[][] DERIVED_FIELD_DEPENDENCIES =
+   {
+      {
+         TaskField.START_VARIANCE,
+         TaskField.START,
+         TaskField.BASELINE_START
+      },
+      {
+         TaskField.FINISH_VARIANCE,
+         TaskField.FINISH,
+         TaskField.BASELINE_FINISH
+      },
+      {
+         TaskField.COST_VARIANCE,
+         TaskField.COST,
+         TaskField.BASELINE_COST
+      },
+      {
+         TaskField.DURATION_VARIANCE,
+         TaskField.DURATION,
+         TaskField.BASELINE_DURATION
+      },
+      {
+         TaskField.WORK_VARIANCE,
+         TaskField.WORK,
+         TaskField.BASELINE_WORK
+      },
+      {
+         TaskField.CV,
+         TaskField.BCWP,
+         TaskField.ACWP
+      },
+      {
+         TaskField.SV,
+         TaskField.BCWP,
+         TaskField.ACWP,
+         TaskField.BCWS
+      },
+      {
+         TaskField.START_SLACK,
+         TaskField.DURATION,
+         TaskField.EARLY_START,
+         TaskField.LATE_START
+      },
+      {
+         TaskField.FINISH_SLACK,
+         TaskField.DURATION,
+         TaskField.EARLY_FINISH,
+         TaskField.LATE_FINISH
+      },
+      {
+         TaskField.TOTAL_SLACK,
+         TaskField.DURATION,
+         TaskField.START_SLACK,
+         TaskField.FINISH_SLACK,
+         TaskField.EARLY_START,
+         TaskField.LATE_START,
+         TaskField.EARLY_FINISH,
+         TaskField.LATE_FINISH
+      },
+      {
+         TaskField.CRITICAL,
+         TaskField.DURATION,
+         TaskField.PERCENT_COMPLETE,
+         TaskField.TASK_MODE,
+         TaskField.DURATION_TEXT,
+         TaskField.START_TEXT,
+         TaskField.FINISH_TEXT,
+         TaskField.TOTAL_SLACK,
+         TaskField.START_SLACK,
+         TaskField.FINISH_SLACK,
+         TaskField.EARLY_START,
+         TaskField.LATE_START,
+         TaskField.EARLY_FINISH,
+         TaskField.LATE_FINISH
+      },
+      {
+         TaskField.COMPLETE_THROUGH,
+         TaskField.DURATION,
+         TaskField.ACTUAL_START,
+         TaskField.ACTUAL_FINISH,
+         TaskField.PERCENT_COMPLETE
+      }
+   };
+
+   /**
+    * Derived fields.
+    */
+   private static final TaskField[] DERIVED_FIELDS = new TaskField[DERIVED_FIELD_DEPENDENCIES.length];
+
+   /**
+    * Maps a field's value to its index in the derived value cache, -1 if the field is not derived.
+    */
+   private static final int[] DERIVED_FIELD_INDEX = new int[TaskField.MAX_VALUE];
+
+   /**
+    * Maps a field's value to the derived fields which depend on it.
+    */
+   private static final TaskField[][] DEPENDENT_FIELDS = new TaskField[TaskField.MAX_VALUE][];
+
+   static
+   {
+      Arrays.fill(DERIVED_FIELD_INDEX, -1);
+
+      for (int index = 0; index < DERIVED_FIELD_DEPENDENCIES.length; index++)
+      {
+         TaskField[] dependency = DERIVED_FIELD_DEPENDENCIES[index];
+         TaskField derivedField = dependency[0];
+         DERIVED_FIELDS[index] = derivedField;
+         DERIVED_FIELD_INDEX[derivedField.getValue()] = index;
+
+         for (int sourceIndex = 1; sourceIndex < dependency.length; sourceIndex++)
+         {
+            int sourceValue = dependency[sourceIndex].getValue();
+            TaskField[] dependentFields = DEPENDENT_FIELDS[sourceValue];
+            if (dependentFields == null)
+            {
+               dependentFields = new TaskField[1];
+            }
+            else
+            {
+               dependentFields = Arrays.copyOf(dependentFields, dependentFields.length + 1);
+            }
+            dependentFields[dependentFields.length - 1] = derivedField;
+            DEPENDENT_FIELDS[sourceValue] = dependentFields;
+         }
+      }
+   }
 }
@@ -24,9 +24,13 @@
 package net.sf.mpxj;
 
 import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
 
+import net.sf.mpxj.common.FilterHelper;
 import net.sf.mpxj.common.NumberHelper;
 
 /**
@@ -111,6 +115,109 @@ public class TaskContainer extends ProjectEntityWithIDContainer<Task>
       }
    }
 
+   /**
+    * Apply a group definition to the tasks in this container.
+    *
+    * @param group group definition
+    * @param aggregateFields fields for which totals are calculated
+    * @return root bucket, containing all of the grouped tasks
+    */
+   public GroupBucket<Task> group(Group group, FieldType... aggregateFields)
+   {
+      return group.apply(m_projectFile.getProjectProperties(), this, aggregateFields);
+   }
+
+   /**
+    * Apply a filter to the tasks in this container. The filter's criteria
+    * are compiled once and evaluated for each task. If the filter shows
+    * related summary rows, the summary tasks above each matching task
+    * are included in the result.
+    *
+    * @param filter filter to apply
+    * @param promptValues responses to prompts
+    * @return tasks matching the filter, in container order
+    */
+   public List<Task> filter(Filter filter, Map<GenericCriteriaPrompt, Object> promptValues)
+   {
+      return getFilterResults(filter, FilterHelper.evaluate(this, filter, promptValues));
+   }
+
+   /**
+    * Apply a filter to the tasks in this container, using the supplied
+    * ExecutorService to evaluate the filter criteria concurrently.
+    * The tasks must not be modified while this method is running.
+    *
+    * @param filter filter to apply
+    * @param promptValues responses to prompts
+    * @param executor ExecutorService used to evaluate the criteria
+    * @return tasks matching the filter, in container order
+    * @throws InterruptedException if interrupted while waiting for the results
+    */
+   public List<Task> filter(Filter filter, Map<GenericCriteriaPrompt, Object> promptValues, ExecutorService executor) throws InterruptedException
+   {
+      return getFilterResults(filter, FilterHelper.evaluate(this, filter, promptValues, executor));
+   }
+
+   /**
+    * Build the list of tasks matching a filter.
+    *
+    * @param filter filter being applied
+    * @param matches flags indicating which tasks match the filter criteria
+    * @return matching tasks
+    */
+   private List<Task> getFilterResults(Filter filter, boolean[] matches)
+   {
+      if (filter.getShowRelatedSummaryRows())
+      {
+         addRelatedSummaryRows(matches);
+      }
+      return FilterHelper.getMatches(this, matches);
+   }
+
+   /**
+    * Adds the ancestors of each matching task in a single pass. This is
+    * equivalent to the recursive test of child tasks performed by
+    * Filter.evaluate when related summary rows are shown.
+    *
+    * @param matches flags indicating which tasks match the filter
+    */
+   private void addRelatedSummaryRows(boolean[] matches)
+   {
+      Map<Task, Integer> indexMap = new IdentityHashMap<Task, Integer>(matches.length);
+      for (int index = 0; index < matches.length; index++)
+      {
+         indexMap.put(get(index), Integer.valueOf(index));
+      }
+
+      //
+      // Once a summary task has been added, its own ancestors
+      // will already have been added too, so we can stop there.
+      //
+      boolean[] summaryRows = new boolean[matches.length];
+      for (int index = 0; index < matches.length; index++)
+      {
+         if (matches[index])
+         {
+            Task parent = get(index).getParentTask();
+            while (parent != null)
+            {
+               Integer parentIndex = indexMap.get(parent);
+               if (parentIndex == null || summaryRows[parentIndex.intValue()])
+               {
+                  break;
+               }
+               summaryRows[parentIndex.intValue()] = true;
+               parent = parent.getParentTask();
+            }
+         }
+      }
+
+      for (int index = 0; index < matches.length; index++)
+      {
+         matches[index] |= summaryRows[index];
+      }
+   }
+
    /**
     * Microsoft Project bases the order of tasks displayed on their ID
     * value. This method takes the hierarchical structure of tasks
@@ -0,0 +1,138 @@
+/*
+ * file:       WorkingTimeIndex.java
+ * author:     Jon Iles
+ * copyright:  (c) Packwood Software 2019
+ * date:       24/02/2019
+ */
+
+/*
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation, Inc.,
+ * 59 Temple Place, Suite 330, Boston, MA 02111-1307, USA.
+ */
+
+package net.sf.mpxj;
+
+import java.util.Arrays;
+import java.util.Date;
+
+/**
+ * Cumulative index of the working time in each day of a calendar over
+ * a fixed range of days. Day N is represented by the start time of the day,
+ * and the total working time in the days preceding it. A final entry
+ * marks the end of the last day in the index.
+ */
+final class WorkingTimeIndex
+{
+   /**
+    * Constructor.
+    *
+    * @param horizon date range this index was created for
+    * @param dayStarts start time of each day in milliseconds, in ascending order
+    * @param cumulativeWork working time in milliseconds preceding each day
+    */
+   WorkingTimeIndex(DateRange horizon, long[] dayStarts, long[] cumulativeWork)
+   {
+      m_horizon = horizon;
+      m_dayStarts = dayStarts;
+      m_cumulativeWork = cumulativeWork;
+   }
+
+   /**
+    * Retrieve the date range this index was created for.
+    *
+    * @return date range
+    */
+   public DateRange getHorizon()
+   {
+      return m_horizon;
+   }
+
+   /**
+    * Retrieve the index of the day starting at the supplied date.
+    *
+    * @param dayStart start of the day
+    * @return day index, or -1 if this day is not covered by the index
+    */
+   public int getDayIndex(Date dayStart)
+   {
+      int index = Arrays.binarySearch(m_dayStarts, dayStart.getTime());
+      return index < 0 ? -1 : index;
+   }
+
+   /**
+    * Retrieve the start of a day.
+    *
+    * @param dayIndex day index
+    * @return start of the day
+    */
+   public Date getDayStart(int dayIndex)
+   {
+      return new Date(m_dayStarts[dayIndex]);
+   }
+
+   /**
+    * Retrieve the working time in the days from the start index up to but
+    * not including the end index.
+    *
+    * @param startIndex index of the first day
+    * @param endIndex index of the day following the last day
+    * @return working time in milliseconds
+    */
+   public long getWork(int startIndex, int endIndex)
+   {
+      return m_cumulativeWork[endIndex] - m_cumulativeWork[startIndex];
+   }
+
+   /**
+    * Starting from the given day, find the day during which the supplied
+    * amount of working time is exhausted. This is the last day
+    * for which the working time in the preceding days covered by the
+    * search is strictly less than the supplied amount.
+    *
+    * @param startIndex index of the first day
+    * @param minutes working time in minutes
+    * @return day index
+    */
+   public int getDayIndex(int startIndex, double minutes)
+   {
+      int low = startIndex;
+      int high = m_cumulativeWork.length - 1;
+      long startWork = m_cumulativeWork[startIndex];
+
+      while (low < high)
+      {
+         int mid = (low + high + 1) >>> 1;
+         double midMinutes = (m_cumulativeWork[mid] - startWork) / (60.0 * 1000.0);
+         if (midMinutes < minutes)
+         {
+            low = mid;
+         }
+         else
+         {
+            high = mid - 1;
+         }
+      }
+
+      return low;
+   }
+
+   private final DateRange m_horizon;
+   private final long[] m_dayStarts;
+   private final long[] m_cumulativeWork;
+
+   /**
+    * Used to represent a calendar which is not indexed.
+    */
+   static final long[] NO_DAYS = new long[0];
+}
@@ -118,6 +118,7 @@ final class AstaTextFileReader extends AbstractProjectReader
          };
 
          tk.setDelimiter(DELIMITER);
+         tk.setInternTokens(true);
          ArrayList<String> columns = new ArrayList<String>();
          String nextTokenPrefix = null;
 
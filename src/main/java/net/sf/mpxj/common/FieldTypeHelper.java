@@ -23,7 +23,10 @@
 
 package net.sf.mpxj.common;
 
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.Locale;
+import java.util.Set;
 
 import net.sf.mpxj.AssignmentField;
 import net.sf.mpxj.ConstraintField;
@@ -352,4 +355,68 @@ public final class FieldTypeHelper
       return result;
    }
 
+   /**
+    * Determines if a field holds a custom or enterprise custom field value.
+    *
+    * @param type field type
+    * @return true if this is a custom field
+    */
+   public static final boolean isCustomField(FieldType type)
+   {
+      return CUSTOM_FIELDS.contains(type);
+   }
+
+   private static final Set<FieldType> CUSTOM_FIELDS = new HashSet<FieldType>();
+   static
+   {
+      CUSTOM_FIELDS.addAll(Arrays.asList(TaskFieldLists.CUSTOM_COST));
+      CUSTOM_FIELDS.addAll(Arrays.asList(TaskFieldLists.CUSTOM_DATE));
+      CUSTOM_FIELDS.addAll(Arrays.asList(TaskFieldLists.CUSTOM_DURATION));
+      CUSTOM_FIELDS.addAll(Arrays.asList(TaskFieldLists.CUSTOM_FLAG));
+      CUSTOM_FIELDS.addAll(Arrays.asList(TaskFieldLists.CUSTOM_FINISH));
+      CUSTOM_FIELDS.addAll(Arrays.asList(TaskFieldLists.CUSTOM_NUMBER));
+      CUSTOM_FIELDS.addAll(Arrays.asList(TaskFieldLists.CUSTOM_START));
+      CUSTOM_FIELDS.addAll(Arrays.asList(TaskFieldLists.CUSTOM_TEXT));
+      CUSTOM_FIELDS.addAll(Arrays.asList(TaskFieldLists.CUSTOM_OUTLINE_CODE));
+      CUSTOM_FIELDS.addAll(Arrays.asList(TaskFieldLists.ENTERPRISE_COST));
+      CUSTOM_FIELDS.addAll(Arrays.asList(TaskFieldLists.ENTERPRISE_DATE));
+      CUSTOM_FIELDS.addAll(Arrays.asList(TaskFieldLists.ENTERPRISE_DURATION));
+      CUSTOM_FIELDS.addAll(Arrays.asList(TaskFieldLists.ENTERPRISE_FLAG));
+      CUSTOM_FIELDS.addAll(Arrays.asList(TaskFieldLists.ENTERPRISE_NUMBER));
+      CUSTOM_FIELDS.addAll(Arrays.asList(TaskFieldLists.ENTERPRISE_TEXT));
+      CUSTOM_FIELDS.addAll(Arrays.asList(TaskFieldLists.ENTERPRISE_CUSTOM_FIELD));
+      CUSTOM_FIELDS.addAll(Arrays.asList(ResourceFieldLists.CUSTOM_COST));
+      CUSTOM_FIELDS.addAll(Arrays.asList(ResourceFieldLists.CUSTOM_DATE));
+      CUSTOM_FIELDS.addAll(Arrays.asList(ResourceFieldLists.CUSTOM_DURATION));
+      CUSTOM_FIELDS.addAll(Arrays.asList(ResourceFieldLists.CUSTOM_FINISH));
+      CUSTOM_FIELDS.addAll(Arrays.asList(ResourceFieldLists.CUSTOM_START));
+      CUSTOM_FIELDS.addAll(Arrays.asList(ResourceFieldLists.CUSTOM_FLAG));
+      CUSTOM_FIELDS.addAll(Arrays.asList(ResourceFieldLists.CUSTOM_NUMBER));
+      CUSTOM_FIELDS.addAll(Arrays.asList(ResourceFieldLists.CUSTOM_TEXT));
+      CUSTOM_FIELDS.addAll(Arrays.asList(ResourceFieldLists.ENTERPRISE_COST));
+      CUSTOM_FIELDS.addAll(Arrays.asList(ResourceFieldLists.ENTERPRISE_DATE));
+      CUSTOM_FIELDS.addAll(Arrays.asList(ResourceFieldLists.ENTERPRISE_DURATION));
+      CUSTOM_FIELDS.addAll(Arrays.asList(ResourceFieldLists.ENTERPRISE_FLAG));
+      CUSTOM_FIELDS.addAll(Arrays.asList(ResourceFieldLists.ENTERPRISE_NUMBER));
+      CUSTOM_FIELDS.addAll(Arrays.asList(ResourceFieldLists.ENTERPRISE_TEXT));
+      CUSTOM_FIELDS.addAll(Arrays.asList(ResourceFieldLists.ENTERPRISE_CUSTOM_FIELD));
+      CUSTOM_FIELDS.addAll(Arrays.asList(ResourceFieldLists.CUSTOM_OUTLINE_CODE));
+      CUSTOM_FIELDS.addAll(Arrays.asList(AssignmentFieldLists.CUSTOM_TEXT));
+      CUSTOM_FIELDS.addAll(Arrays.asList(AssignmentFieldLists.CUSTOM_START));
+      CUSTOM_FIELDS.addAll(Arrays.asList(AssignmentFieldLists.CUSTOM_FINISH));
+      CUSTOM_FIELDS.addAll(Arrays.asList(AssignmentFieldLists.CUSTOM_DATE));
+      CUSTOM_FIELDS.addAll(Arrays.asList(AssignmentFieldLists.CUSTOM_NUMBER));
+      CUSTOM_FIELDS.addAll(Arrays.asList(AssignmentFieldLists.CUSTOM_DURATION));
+      CUSTOM_FIELDS.addAll(Arrays.asList(AssignmentFieldLists.CUSTOM_COST));
+      CUSTOM_FIELDS.addAll(Arrays.asList(AssignmentFieldLists.CUSTOM_FLAG));
+      CUSTOM_FIELDS.addAll(Arrays.asList(AssignmentFieldLists.ENTERPRISE_COST));
+      CUSTOM_FIELDS.addAll(Arrays.asList(AssignmentFieldLists.ENTERPRISE_DATE));
+      CUSTOM_FIELDS.addAll(Arrays.asList(AssignmentFieldLists.ENTERPRISE_DURATION));
+      CUSTOM_FIELDS.addAll(Arrays.asList(AssignmentFieldLists.ENTERPRISE_FLAG));
+      CUSTOM_FIELDS.addAll(Arrays.asList(AssignmentFieldLists.ENTERPRISE_NUMBER));
+      CUSTOM_FIELDS.addAll(Arrays.asList(AssignmentFieldLists.ENTERPRISE_TEXT));
+      CUSTOM_FIELDS.addAll(Arrays.asList(AssignmentFieldLists.ENTERPRISE_CUSTOM_FIELD));
+      CUSTOM_FIELDS.addAll(Arrays.asList(AssignmentFieldLists.ENTERPRISE_RESOURCE_MULTI_VALUE));
+      CUSTOM_FIELDS.addAll(Arrays.asList(AssignmentFieldLists.ENTERPRISE_RESOURCE_OUTLINE_CODE));
+   }
 }
@@ -0,0 +1,165 @@
+/*
+ * file:       FilterHelper.java
+ * author:     Jon Iles
+ * copyright:  (c) Packwood Software 2019
+ * date:       26/02/2019
+ */
+
+/*
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation, Inc.,
+ * 59 Temple Place, Suite 330, Boston, MA 02111-1307, USA.
+ */
+
+package net.sf.mpxj.common;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import net.sf.mpxj.CompiledCriteria;
+import net.sf.mpxj.FieldContainer;
+import net.sf.mpxj.Filter;
+import net.sf.mpxj.GenericCriteriaPrompt;
+
+/**
+ * Utility methods used to apply a filter to a list of tasks or resources.
+ * Note that these methods only evaluate the filter criteria, the caller
+ * is responsible for handling related summary rows.
+ */
+public final class FilterHelper
+{
+   /**
+    * Private constructor to prevent instantiation.
+    */
+   private FilterHelper()
+   {
+      // Private constructor to prevent instantiation.
+   }
+
+   /**
+    * Evaluate the filter criteria for each item in a list.
+    *
+    * @param items items to test
+    * @param filter filter to apply
+    * @param promptValues responses to prompts
+    * @return flags indicating which items match the filter criteria
+    */
+   public static boolean[] evaluate(List<? extends FieldContainer> items, Filter filter, Map<GenericCriteriaPrompt, Object> promptValues)
+   {
+      boolean[] matches = new boolean[items.size()];
+      if (filter.getCriteria() == null)
+      {
+         Arrays.fill(matches, true);
+      }
+      else
+      {
+         CompiledCriteria criteria = filter.getCriteria().compile(promptValues);
+         for (int index = 0; index < matches.length; index++)
+         {
+            matches[index] = criteria.evaluate(items.get(index));
+         }
+      }
+      return matches;
+   }
+
+   /**
+    * Evaluate the filter criteria for each item in a list. The list is
+    * divided into chunks which are evaluated concurrently by the supplied
+    * ExecutorService. The list must not be modified while this method is running.
+    *
+    * @param items items to test
+    * @param filter filter to apply
+    * @param promptValues responses to prompts
+    * @param executor ExecutorService used to evaluate each chunk
+    * @return flags indicating which items match the filter criteria
+    * @throws InterruptedException if interrupted while waiting for the results
+    */
+   public static boolean[] evaluate(final List<? extends FieldContainer> items, Filter filter, Map<GenericCriteriaPrompt, Object> promptValues, ExecutorService executor) throws InterruptedException
+   {
+      if (filter.getCriteria() == null)
+      {
+         return evaluate(items, filter, promptValues);
+      }
+
+      final CompiledCriteria criteria = filter.getCriteria().compile(promptValues);
+      final boolean[] matches = new boolean[items.size()];
+
+      List<Future<?>> futures = new ArrayList<Future<?>>();
+      for (int chunkStart = 0; chunkStart < matches.length; chunkStart += CHUNK_SIZE)
+      {
+         final int start = chunkStart;
+         final int end = Math.min(matches.length, chunkStart + CHUNK_SIZE);
+         futures.add(executor.submit(new Runnable()
+         {
+            @Override public void run()
+            {
+               for (int index = start; index < end; index++)
+               {
+                  matches[index] = criteria.evaluate(items.get(index));
+               }
+            }
+         }));
+      }
+
+      try
+      {
+         for (Future<?> future : futures)
+         {
+            future.get();
+         }
+      }
+
+      catch (ExecutionException ex)
+      {
+         Throwable cause = ex.getCause();
+         if (cause instanceof Error)
+         {
+            throw (Error) cause;
+         }
+         throw (RuntimeException) cause;
+      }
+
+      return matches;
+   }
+
+   /**
+    * Retrieve the items whose flags are set.
+    *
+    * @param items list of items
+    * @param matches flags indicating which items match the filter
+    * @param <T> item type
+    * @return matching items, in their original order
+    */
+   public static <T> List<T> getMatches(List<T> items, boolean[] matches)
+   {
+      List<T> result = new ArrayList<T>();
+      for (int index = 0; index < matches.length; index++)
+      {
+         if (matches[index])
+         {
+            result.add(items.get(index));
+         }
+      }
+      return result;
+   }
+
+   /**
+    * Number of items evaluated by each task submitted to the ExecutorService.
+    */
+   private static final int CHUNK_SIZE = 1024;
+}
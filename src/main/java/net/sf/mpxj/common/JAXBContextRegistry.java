@@ -0,0 +1,234 @@
+/*
+ * file:       JAXBContextRegistry.java
+ * author:     Jon Iles
+ * copyright:  (c) Packwood Software 2019
+ * date:       26/02/2019
+ */
+
+/*
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation, Inc.,
+ * 59 Temple Place, Suite 330, Boston, MA 02111-1307, USA.
+ */
+
+package net.sf.mpxj.common;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Marshaller;
+import javax.xml.bind.Unmarshaller;
+
+/**
+ * Central registry of the JAXB contexts used by the XML readers and writers.
+ * Each context is constructed once, either on first use or eagerly by calling
+ * one of the warm methods, and is then shared by all readers and writers
+ * working with the same schema. Marshallers and unmarshallers are not thread
+ * safe, so one instance of each is retained per thread for each context,
+ * and is reset to its default configuration before being handed out again.
+ * The time taken to construct each context is recorded, and can be retrieved
+ * to assess the benefit of warming the registry.
+ */
+public final class JAXBContextRegistry
+{
+   /**
+    * Private constructor to prevent instantiation.
+    */
+   private JAXBContextRegistry()
+   {
+      // Private constructor to prevent instantiation
+   }
+
+   /**
+    * Eagerly construct the contexts for all of the schemas used by MPXJ.
+    *
+    * @throws JAXBException if any context cannot be constructed
+    */
+   public static void warm() throws JAXBException
+   {
+      warm(CONTEXT_PATHS);
+   }
+
+   /**
+    * Eagerly construct the contexts for the supplied schemas.
+    *
+    * @param contextPaths JAXB context paths
+    * @throws JAXBException if any context cannot be constructed
+    */
+   public static void warm(String... contextPaths) throws JAXBException
+   {
+      for (String contextPath : contextPaths)
+      {
+         getContext(contextPath);
+      }
+   }
+
+   /**
+    * Retrieve the context for a schema, constructing it if necessary.
+    * If construction has previously failed, the original exception
+    * is thrown again rather than repeating the attempt.
+    *
+    * @param contextPath JAXB context path
+    * @return JAXB context
+    * @throws JAXBException if the context cannot be constructed
+    */
+   public static synchronized JAXBContext getContext(String contextPath) throws JAXBException
+   {
+      JAXBContext context = CONTEXTS.get(contextPath);
+      if (context == null)
+      {
+         JAXBException exception = EXCEPTIONS.get(contextPath);
+         if (exception != null)
+         {
+            throw exception;
+         }
+
+         long start = System.nanoTime();
+         try
+         {
+            context = JAXBContext.newInstance(contextPath, JAXBContextRegistry.class.getClassLoader());
+         }
+
+         catch (JAXBException ex)
+         {
+            EXCEPTIONS.put(contextPath, ex);
+            throw ex;
+         }
+
+         CREATION_TIMES.put(contextPath, Long.valueOf((System.nanoTime() - start) / 1000000));
+         CONTEXTS.put(contextPath, context);
+      }
+      return context;
+   }
+
+   /**
+    * Retrieve an unmarshaller for a schema. The same instance is returned
+    * for each call made on the same thread, so the caller must not retain
+    * the unmarshaller once it has finished with it.
+    *
+    * @param contextPath JAXB context path
+    * @return Unmarshaller instance
+    * @throws JAXBException if the context cannot be constructed
+    */
+   public static Unmarshaller getUnmarshaller(String contextPath) throws JAXBException
+   {
+      Map<String, Unmarshaller> map = UNMARSHALLERS.get();
+      Unmarshaller unmarshaller = map.get(contextPath);
+      if (unmarshaller == null)
+      {
+         unmarshaller = getContext(contextPath).createUnmarshaller();
+         map.put(contextPath, unmarshaller);
+      }
+      else
+      {
+         unmarshaller.setEventHandler(null);
+      }
+      return unmarshaller;
+   }
+
+   /**
+    * Retrieve a marshaller for a schema. The same instance is returned
+    * for each call made on the same thread, so the caller must not retain
+    * the marshaller once it has finished with it.
+    *
+    * @param contextPath JAXB context path
+    * @return Marshaller instance
+    * @throws JAXBException if the context cannot be constructed
+    */
+   public static Marshaller getMarshaller(String contextPath) throws JAXBException
+   {
+      Map<String, Marshaller> map = MARSHALLERS.get();
+      Marshaller marshaller = map.get(contextPath);
+      if (marshaller == null)
+      {
+         marshaller = getContext(contextPath).createMarshaller();
+         map.put(contextPath, marshaller);
+      }
+      else
+      {
+         marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, Boolean.FALSE);
+         marshaller.setProperty(Marshaller.JAXB_FRAGMENT, Boolean.FALSE);
+         marshaller.setProperty(Marshaller.JAXB_ENCODING, "UTF-8");
+         marshaller.setEventHandler(null);
+      }
+      return marshaller;
+   }
+
+   /**
+    * Retrieve the time taken to construct the context for a schema.
+    *
+    * @param contextPath JAXB context path
+    * @return construction time in milliseconds, or null if the context has not been constructed
+    */
+   public static synchronized Long getCreationTime(String contextPath)
+   {
+      return CREATION_TIMES.get(contextPath);
+   }
+
+   /**
+    * Retrieve the time taken to construct each context, in the order
+    * in which the contexts were constructed.
+    *
+    * @return map of context path to construction time in milliseconds
+    */
+   public static synchronized Map<String, Long> getCreationTimes()
+   {
+      return Collections.unmodifiableMap(new LinkedHashMap<String, Long>(CREATION_TIMES));
+   }
+
+   /**
+    * Context paths for the schemas used by MPXJ.
+    */
+   public static final String[] CONTEXT_PATHS =
+   {
+      "net.sf.mpxj.mspdi.schema",
+      "net.sf.mpxj.primavera.schema",
+      "net.sf.mpxj.planner.schema",
+      "net.sf.mpxj.conceptdraw.schema",
+      "net.sf.mpxj.ganttproject.schema",
+      "net.sf.mpxj.ganttdesigner.schema",
+      "net.sf.mpxj.phoenix.schema"
+   };
+
+   private static final Map<String, JAXBContext> CONTEXTS = new HashMap<String, JAXBContext>();
+   private static final Map<String, JAXBException> EXCEPTIONS = new HashMap<String, JAXBException>();
+   private static final Map<String, Long> CREATION_TIMES = new LinkedHashMap<String, Long>();
+
+   private static final ThreadLocal<Map<String, Unmarshaller>> UNMARSHALLERS = new ThreadLocal<Map<String, Unmarshaller>>()
+   {
+      @Override protected Map<String, Unmarshaller> initialValue()
+      {
+         return new HashMap<String, Unmarshaller>();
+      }
+   };
+
+   private static final ThreadLocal<Map<String, Marshaller>> MARSHALLERS = new ThreadLocal<Map<String, Marshaller>>()
+   {
+      @Override protected Map<String, Marshaller> initialValue()
+      {
+         return new HashMap<String, Marshaller>();
+      }
+   };
+
+   static
+   {
+      //
+      // JAXB RI property to speed up construction
+      //
+      System.setProperty("com.sun.xml.bind.v2.runtime.JAXBContextImpl.fastBoot", "true");
+   }
+}
@@ -28,7 +28,9 @@ import java.io.Reader;
 
 /**
  * This class implements a tokenizer as per the underlying Tokenizer class,
- * with characters being read from a Reader instance.
+ * with characters being read from a Reader instance. Characters are read
+ * from the Reader in blocks to avoid the cost of a call to the Reader
+ * for each character.
  */
 public class ReaderTokenizer extends Tokenizer
 {
@@ -47,8 +49,29 @@ public class ReaderTokenizer extends Tokenizer
     */
    @Override protected int read() throws IOException
    {
-      return (m_reader.read());
+      if (m_index == m_length)
+      {
+         m_index = 0;
+         do
+         {
+            m_length = m_reader.read(m_chars);
+         }
+         while (m_length == 0);
+
+         if (m_length == -1)
+         {
+            m_length = 0;
+            return TT_EOF;
+         }
+      }
+
+      return (m_chars[m_index++]);
    }
 
    private Reader m_reader;
+   private final char[] m_chars = new char[BUFFER_SIZE];
+   private int m_index;
+   private int m_length;
+
+   private static final int BUFFER_SIZE = 8192;
 }
@@ -0,0 +1,146 @@
+/*
+ * file:       TimeRangeCache.java
+ * author:     Jon Iles
+ * copyright:  (c) Packwood Software 2019
+ * date:       23/02/2019
+ */
+
+/*
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation, Inc.,
+ * 59 Temple Place, Suite 330, Boston, MA 02111-1307, USA.
+ */
+
+package net.sf.mpxj.common;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A fixed size cache of values keyed on a start and end time expressed
+ * in milliseconds. Each key hashes to a single slot, and a new entry replaces
+ * whatever currently occupies its slot, so the most recently stored values
+ * are retained and the memory used by the cache is bounded.
+ * Entries are immutable and are published through an atomic array,
+ * allowing the cache to be read and updated concurrently without locking.
+ *
+ * @param <V> value type
+ */
+public final class TimeRangeCache<V>
+{
+   /**
+    * Constructor.
+    *
+    * @param size maximum number of entries, rounded up to a power of two
+    */
+   public TimeRangeCache(int size)
+   {
+      int capacity = 1;
+      while (capacity < size)
+      {
+         capacity <<= 1;
+      }
+      m_capacity = capacity;
+      m_mask = capacity - 1;
+   }
+
+   /**
+    * Retrieve a cached value.
+    *
+    * @param start start time in milliseconds
+    * @param end end time in milliseconds
+    * @return cached value or null if no value is present
+    */
+   public V get(long start, long end)
+   {
+      V result = null;
+      AtomicReferenceArray<Entry<V>> entries = m_entries;
+      if (entries != null)
+      {
+         Entry<V> entry = entries.get(getIndex(start, end));
+         if (entry != null && entry.m_start == start && entry.m_end == end)
+         {
+            result = entry.m_value;
+         }
+      }
+      return result;
+   }
+
+   /**
+    * Add a value to the cache.
+    *
+    * @param start start time in milliseconds
+    * @param end end time in milliseconds
+    * @param value value to cache
+    */
+   public void put(long start, long end, V value)
+   {
+      AtomicReferenceArray<Entry<V>> entries = m_entries;
+      if (entries == null)
+      {
+         entries = new AtomicReferenceArray<Entry<V>>(m_capacity);
+         m_entries = entries;
+      }
+      entries.set(getIndex(start, end), new Entry<V>(start, end, value));
+   }
+
+   /**
+    * Discard all cached values.
+    */
+   public void clear()
+   {
+      m_entries = null;
+   }
+
+   /**
+    * Determine the slot used for a given key.
+    *
+    * @param start start time in milliseconds
+    * @param end end time in milliseconds
+    * @return slot index
+    */
+   private int getIndex(long start, long end)
+   {
+      long hash = (start * 31 + end) * 0x9E3779B97F4A7C15L;
+      return (int) (hash ^ (hash >>> 32)) & m_mask;
+   }
+
+   /**
+    * Immutable cache entry.
+    *
+    * @param <V> value type
+    */
+   private static final class Entry<V>
+   {
+      /**
+       * Constructor.
+       *
+       * @param start start time in milliseconds
+       * @param end end time in milliseconds
+       * @param value cached value
+       */
+      public Entry(long start, long end, V value)
+      {
+         m_start = start;
+         m_end = end;
+         m_value = value;
+      }
+
+      final long m_start;
+      final long m_end;
+      final V m_value;
+   }
+
+   private final int m_capacity;
+   private final int m_mask;
+   private volatile AtomicReferenceArray<Entry<V>> m_entries;
+}
@@ -182,7 +182,55 @@ public abstract class Tokenizer
     */
    public String getToken()
    {
-      return (m_buffer.toString());
+      String result;
+      int length = m_buffer.length();
+      if (m_internCache == null || length > MAX_INTERN_LENGTH)
+      {
+         result = m_buffer.toString();
+      }
+      else
+      {
+         int hash = 0;
+         for (int index = 0; index < length; index++)
+         {
+            hash = 31 * hash + m_buffer.charAt(index);
+         }
+
+         int slot = (hash ^ (hash >>> 16)) & (INTERN_CACHE_SIZE - 1);
+         result = m_internCache[slot];
+         if (result == null || result.length() != length || !result.contentEquals(m_buffer))
+         {
+            result = m_buffer.toString();
+            m_internCache[slot] = result;
+         }
+      }
+      return (result);
+   }
+
+   /**
+    * This method retrieves the text of the last token found without
+    * creating a new String instance. The returned value is only valid
+    * until the next call to nextToken, at which point its contents
+    * will be replaced.
+    *
+    * @return last token text
+    */
+   public CharSequence getTokenSequence()
+   {
+      return (m_buffer);
+   }
+
+   /**
+    * If set to true, short tokens which have been seen recently are returned
+    * by getToken as the same String instance, rather than creating a new
+    * String for each token. This reduces the memory used to hold
+    * repeated values such as flags, codes and IDs.
+    *
+    * @param internTokens true if tokens should be interned
+    */
+   public void setInternTokens(boolean internTokens)
+   {
+      m_internCache = internTokens ? new String[INTERN_CACHE_SIZE] : null;
    }
 
    /**
@@ -215,4 +263,8 @@ public abstract class Tokenizer
    private int m_next;
    private int m_type;
    private StringBuilder m_buffer = new StringBuilder();
+   private String[] m_internCache;
+
+   private static final int MAX_INTERN_LENGTH = 32;
+   private static final int INTERN_CACHE_SIZE = 4096;
 }
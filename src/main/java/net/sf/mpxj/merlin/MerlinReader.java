@@ -34,6 +34,8 @@ import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.LinkedList;
@@ -102,6 +104,31 @@ public final class MerlinReader implements ProjectReader
       m_projectListeners.add(listener);
    }
 
+   /**
+    * Setting this flag to true causes the reader to retrieve all tasks
+    * and calendar rules using a small number of queries, and to rebuild
+    * the task hierarchy and calendar structure in memory, rather than
+    * issuing a query for each parent task and each calendar.
+    * This substantially reduces the time taken to read large projects.
+    * The default is false.
+    *
+    * @param bulkLoad bulk load flag
+    */
+   public void setBulkLoad(boolean bulkLoad)
+   {
+      m_bulkLoad = bulkLoad;
+   }
+
+   /**
+    * Retrieve the flag indicating if bulk loading is enabled.
+    *
+    * @return bulk load flag
+    */
+   public boolean getBulkLoad()
+   {
+      return m_bulkLoad;
+   }
+
    /**
     * {@inheritDoc}
     */
@@ -197,6 +224,9 @@ public final class MerlinReader implements ProjectReader
          m_documentBuilder = null;
          m_dayTimeIntervals = null;
          m_entityMap = null;
+         m_dayRules = null;
+         m_exceptionRules = null;
+         m_childTasks = null;
       }
    }
 
@@ -265,6 +295,16 @@ public final class MerlinReader implements ProjectReader
     */
    private void processCalendars() throws Exception
    {
+      //
+      // When bulk loading, the rules for all of the project's calendars
+      // are retrieved in a single query for each rule type.
+      //
+      if (m_bulkLoad)
+      {
+         m_dayRules = getRowMap("select r.* from zcalendarrule r join zcalendar c on r.zcalendar1=c.z_pk where c.zproject=? and r.z_ent=?", "ZCALENDAR1", m_projectID, m_entityMap.get("CalendarWeekDayRule"));
+         m_exceptionRules = getRowMap("select r.* from zcalendarrule r join zcalendar c on r.zcalendar=c.z_pk where c.zproject=? and r.z_ent=?", "ZCALENDAR", m_projectID, m_entityMap.get("CalendarExceptionRule"));
+      }
+
       List<Row> rows = getRows("select * from zcalendar where zproject=?", m_projectID);
       for (Row row : rows)
       {
@@ -290,7 +330,16 @@ public final class MerlinReader implements ProjectReader
          calendar.setWorkingDay(day, false);
       }
 
-      List<Row> rows = getRows("select * from zcalendarrule where zcalendar1=? and z_ent=?", calendar.getUniqueID(), m_entityMap.get("CalendarWeekDayRule"));
+      List<Row> rows;
+      if (m_dayRules == null)
+      {
+         rows = getRows("select * from zcalendarrule where zcalendar1=? and z_ent=?", calendar.getUniqueID(), m_entityMap.get("CalendarWeekDayRule"));
+      }
+      else
+      {
+         rows = getMapRows(m_dayRules, calendar.getUniqueID());
+      }
+
       for (Row row : rows)
       {
          Day day = row.getDay("ZWEEKDAY");
@@ -329,7 +378,16 @@ public final class MerlinReader implements ProjectReader
     */
    private void processExceptions(ProjectCalendar calendar) throws Exception
    {
-      List<Row> rows = getRows("select * from zcalendarrule where zcalendar=? and z_ent=?", calendar.getUniqueID(), m_entityMap.get("CalendarExceptionRule"));
+      List<Row> rows;
+      if (m_exceptionRules == null)
+      {
+         rows = getRows("select * from zcalendarrule where zcalendar=? and z_ent=?", calendar.getUniqueID(), m_entityMap.get("CalendarExceptionRule"));
+      }
+      else
+      {
+         rows = getMapRows(m_exceptionRules, calendar.getUniqueID());
+      }
+
       for (Row row : rows)
       {
          Date startDay = row.getDate("ZSTARTDAY");
@@ -402,7 +460,14 @@ public final class MerlinReader implements ProjectReader
       //
       // Yes... we could probably read this in one query in the right order
       // using a CTE... but life's too short.
+      // When bulk loading, all child activities are retrieved in a single
+      // query and grouped by parent, preserving their order within each parent.
       //
+      if (m_bulkLoad)
+      {
+         m_childTasks = getRowMap("select * from zscheduleitem where zproject=? and zparentactivity_ is not null and z_ent=? order by zorderinparentactivity", "ZPARENTACTIVITY_", m_projectID, m_entityMap.get("Activity"));
+      }
+
       List<Row> rows = getRows("select * from zscheduleitem where zproject=? and zparentactivity_ is null and z_ent=? order by zorderinparentactivity", m_projectID, m_entityMap.get("Activity"));
       for (Row row : rows)
       {
@@ -419,7 +484,16 @@ public final class MerlinReader implements ProjectReader
     */
    private void processChildTasks(Task parentTask) throws SQLException
    {
-      List<Row> rows = getRows("select * from zscheduleitem where zparentactivity_=? and z_ent=? order by zorderinparentactivity", parentTask.getUniqueID(), m_entityMap.get("Activity"));
+      List<Row> rows;
+      if (m_childTasks == null)
+      {
+         rows = getRows("select * from zscheduleitem where zparentactivity_=? and z_ent=? order by zorderinparentactivity", parentTask.getUniqueID(), m_entityMap.get("Activity"));
+      }
+      else
+      {
+         rows = getMapRows(m_childTasks, parentTask.getUniqueID());
+      }
+
       for (Row row : rows)
       {
          Task task = parentTask.addTask();
@@ -637,6 +711,51 @@ public final class MerlinReader implements ProjectReader
       return (result);
    }
 
+   /**
+    * Retrieve rows matching the supplied query, grouped by the value
+    * of a key column. The order of the rows returned by the query
+    * is preserved within each group.
+    *
+    * @param sql query statement
+    * @param keyColumn name of the column used to group rows
+    * @param values bind variable values
+    * @return map of key value to rows
+    * @throws SQLException
+    */
+   private Map<Integer, List<Row>> getRowMap(String sql, String keyColumn, Integer... values) throws SQLException
+   {
+      Map<Integer, List<Row>> result = new HashMap<Integer, List<Row>>();
+      for (Row row : getRows(sql, values))
+      {
+         Integer key = row.getInteger(keyColumn);
+         List<Row> list = result.get(key);
+         if (list == null)
+         {
+            list = new ArrayList<Row>();
+            result.put(key, list);
+         }
+         list.add(row);
+      }
+      return result;
+   }
+
+   /**
+    * Retrieve the rows for a key from a map populated by getRowMap.
+    *
+    * @param map rows grouped by key
+    * @param key key value
+    * @return list of rows, empty if no rows match the key
+    */
+   private List<Row> getMapRows(Map<Integer, List<Row>> map, Integer key)
+   {
+      List<Row> result = map.get(key);
+      if (result == null)
+      {
+         result = Collections.emptyList();
+      }
+      return result;
+   }
+
    /**
     * Retrieves basic meta data from the result set.
     *
@@ -681,4 +800,8 @@ public final class MerlinReader implements ProjectReader
    private DateFormat m_calendarTimeFormat = new SimpleDateFormat("HH:mm:ss");
    private XPathExpression m_dayTimeIntervals;
    private Map<String, Integer> m_entityMap;
+   private boolean m_bulkLoad;
+   private Map<Integer, List<Row>> m_dayRules;
+   private Map<Integer, List<Row>> m_exceptionRules;
+   private Map<Integer, List<Row>> m_childTasks;
 }
@@ -23,6 +23,8 @@
 
 package net.sf.mpxj.mpp;
 
+import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.io.PrintWriter;
 import java.io.StringWriter;
 import java.util.ArrayList;
@@ -30,8 +32,12 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 import net.sf.mpxj.AccrueType;
 import net.sf.mpxj.BookingType;
@@ -41,8 +47,10 @@ import net.sf.mpxj.DataType;
 import net.sf.mpxj.Duration;
 import net.sf.mpxj.EarnedValueMethod;
 import net.sf.mpxj.FieldContainer;
+import net.sf.mpxj.FieldLoader;
 import net.sf.mpxj.FieldType;
 import net.sf.mpxj.Priority;
+import net.sf.mpxj.ProjectConfig;
 import net.sf.mpxj.ProjectProperties;
 import net.sf.mpxj.Rate;
 import net.sf.mpxj.ResourceRequestType;
@@ -50,6 +58,7 @@ import net.sf.mpxj.TaskType;
 import net.sf.mpxj.TimeUnit;
 import net.sf.mpxj.WorkGroup;
 import net.sf.mpxj.common.ByteArrayHelper;
+import net.sf.mpxj.common.FieldTypeHelper;
 import net.sf.mpxj.common.NumberHelper;
 
 /**
@@ -278,6 +287,8 @@ abstract class FieldMap
       {
          createFieldMap(fieldMapData);
       }
+
+      compileFieldItems();
    }
 
    /**
@@ -305,6 +316,8 @@ abstract class FieldMap
       {
          createFieldMap(fieldMapData);
       }
+
+      compileFieldItems();
    }
 
    /**
@@ -346,6 +359,8 @@ abstract class FieldMap
             index += 4;
          }
       }
+
+      compileFieldItems();
    }
 
    /**
@@ -373,6 +388,8 @@ abstract class FieldMap
       {
          createFieldMap(fieldMapData);
       }
+
+      compileFieldItems();
    }
 
    /**
@@ -401,6 +418,8 @@ abstract class FieldMap
       {
          createFieldMap(fieldMapData);
       }
+
+      compileFieldItems();
    }
 
    /**
@@ -429,865 +448,1506 @@ abstract class FieldMap
     */
    public void populateContainer(Class<? extends FieldType> type, FieldContainer container, Integer id, byte[][] fixedData, Var2Data varData)
    {
-      //System.out.println(container.getClass().getSimpleName()+": " + id);
-      for (FieldItem item : m_map.values())
+      FieldReader[] readers = m_compiledReaders.get(type);
+      if (readers != null)
       {
-         if (item.getType().getClass().equals(type))
+         for (FieldReader reader : readers)
          {
-            //System.out.println(item.m_type);
-            Object value = item.read(id, fixedData, varData);
-            //System.out.println(item.m_type.getClass().getSimpleName() + "." + item.m_type +  ": " + value);
-            container.set(item.getType(), value);
+            container.set(reader.getType(), reader.read(id, fixedData, varData));
          }
       }
    }
 
    /**
-    * Retrieve the maximum offset in the fixed data block.
+    * Given a container, and a set of field values extracted by the
+    * readValues method, this method writes the field values into the container.
     *
-    * @param blockIndex required block index
-    * @return maximum offset
+    * @param type expected type
+    * @param container field container
+    * @param values field values
     */
-   public int getMaxFixedDataSize(int blockIndex)
+   public void populateContainer(Class<? extends FieldType> type, FieldContainer container, Object[] values)
    {
-      return m_maxFixedDataSize[blockIndex];
+      FieldReader[] readers = m_compiledReaders.get(type);
+      if (readers != null)
+      {
+         for (int index = 0; index < readers.length; index++)
+         {
+            container.set(readers[index].getType(), values[index]);
+         }
+      }
    }
 
    /**
-    * Retrieve the fixed data offset for a specific field.
+    * Extracts the field values for a set of entities from their raw data
+    * blocks, ready to be written into the containers for those entities
+    * using the populateContainer method. The entities are divided into
+    * chunks which are decoded concurrently by the supplied ExecutorService.
+    * The caller must not modify the raw data blocks while this method is running.
     *
-    * @param type field type
-    * @return offset
+    * @param type expected type
+    * @param ids entity IDs, entities with a null ID are skipped
+    * @param fixedData fixed data blocks for each entity, may be null
+    * @param varData var data block
+    * @param executor ExecutorService used to decode each chunk
+    * @return field values for each entity, in the same order as the entity IDs
     */
-   public int getFixedDataOffset(FieldType type)
+   public Object[][] readValues(Class<? extends FieldType> type, final Integer[] ids, final byte[][][] fixedData, final Var2Data varData, ExecutorService executor) throws IOException
    {
-      int result;
-      FieldItem item = m_map.get(type);
-      if (item != null)
-      {
-         result = item.getFixedDataOffset();
-      }
-      else
+      final Object[][] result = new Object[ids.length][];
+      final FieldReader[] readers = m_compiledReaders.get(type);
+      if (readers == null)
       {
-         result = -1;
+         return result;
       }
-      return result;
-   }
 
-   /**
-    * Retrieve the var data key for a specific field.
-    *
-    * @param type field type
-    * @return var data key
-    */
-   public Integer getVarDataKey(FieldType type)
-   {
-      Integer result = null;
-      FieldItem item = m_map.get(type);
-      if (item != null)
+      List<Future<?>> futures = new ArrayList<Future<?>>();
+      for (int chunkStart = 0; chunkStart < ids.length; chunkStart += DECODE_CHUNK_SIZE)
       {
-         result = item.getVarDataKey();
+         final int start = chunkStart;
+         final int end = Math.min(ids.length, chunkStart + DECODE_CHUNK_SIZE);
+         futures.add(executor.submit(new Runnable()
+         {
+            @Override public void run()
+            {
+               for (int index = start; index < end; index++)
+               {
+                  Integer id = ids[index];
+                  if (id != null)
+                  {
+                     byte[][] entityFixedData = fixedData == null ? null : fixedData[index];
+                     Object[] values = new Object[readers.length];
+                     for (int readerIndex = 0; readerIndex < readers.length; readerIndex++)
+                     {
+                        values[readerIndex] = readers[readerIndex].read(id, entityFixedData, varData);
+                     }
+                     result[index] = values;
+                  }
+               }
+            }
+         }));
       }
-      return result;
-   }
 
-   /**
-    * Used to map from a var data key to a field type. Note this
-    * is designed for diagnostic use only, and uses an inefficient search.
-    *
-    * @param key var data key
-    * @return field type
-    */
-   public FieldType getFieldTypeFromVarDataKey(Integer key)
-   {
-      FieldType result = null;
-      for (Entry<FieldType, FieldMap.FieldItem> entry : m_map.entrySet())
+      try
       {
-         if (entry.getValue().getFieldLocation() == FieldLocation.VAR_DATA && entry.getValue().getVarDataKey().equals(key))
+         for (Future<?> future : futures)
          {
-            result = entry.getKey();
-            break;
+            future.get();
          }
       }
-      return result;
-   }
 
-   /**
-    * Retrieve the field location for a specific field.
-    *
-    * @param type field type
-    * @return field location
-    */
-   public FieldLocation getFieldLocation(FieldType type)
-   {
-      FieldLocation result = null;
+      catch (InterruptedException ex)
+      {
+         Thread.currentThread().interrupt();
+         throw new InterruptedIOException();
+      }
 
-      FieldItem item = m_map.get(type);
-      if (item != null)
+      catch (ExecutionException ex)
       {
-         result = item.getFieldLocation();
+         Throwable cause = ex.getCause();
+         if (cause instanceof RuntimeException)
+         {
+            throw (RuntimeException) cause;
+         }
+
+         if (cause instanceof Error)
+         {
+            throw (Error) cause;
+         }
+
+         throw new IOException(cause);
       }
+
       return result;
    }
 
    /**
-    * Retrieve a single field value.
-    *
-    * @param id parent entity ID
-    * @param type field type
-    * @param fixedData fixed data block
-    * @param varData var data block
-    * @return field value
+    * Once the field map has been populated, this method creates a reader
+    * for each field item, specialised for the location and data type of the
+    * field, so that reading a value does not need to examine either. The
+    * readers are then grouped by the class of entity they belong to, so that
+    * each entity can be populated from a single array of readers without
+    * examining the rest of the map. Custom fields excluded by the field
+    * projection are omitted from these arrays, so they are never decoded.
     */
-   protected Object getFieldData(Integer id, FieldType type, byte[][] fixedData, Var2Data varData)
+   private void compileFieldItems()
    {
-      Object result = null;
+      for (FieldItem item : m_map.values())
+      {
+         item.m_reader = createFieldReader(item);
+      }
 
-      FieldItem item = m_map.get(type);
-      if (item != null)
+      ProjectConfig config = m_properties.getParentFile().getProjectConfig();
+      Map<Class<?>, List<FieldReader>> readerLists = new HashMap<Class<?>, List<FieldReader>>();
+      for (FieldItem item : m_map.values())
       {
-         result = item.read(id, fixedData, varData);
+         if (!config.getFieldRequired(item.getType()) && FieldTypeHelper.isCustomField(item.getType()))
+         {
+            continue;
+         }
+
+         Class<?> itemClass = item.getType().getClass();
+         List<FieldReader> list = readerLists.get(itemClass);
+         if (list == null)
+         {
+            list = new ArrayList<FieldReader>();
+            readerLists.put(itemClass, list);
+         }
+         list.add(item.m_reader);
       }
 
-      return result;
-   }
+      Map<Class<?>, FieldReader[]> compiledReaders = new HashMap<Class<?>, FieldReader[]>();
+      Map<Class<?>, FieldReader[]> readersByValue = new HashMap<Class<?>, FieldReader[]>();
+      for (Entry<Class<?>, List<FieldReader>> entry : readerLists.entrySet())
+      {
+         List<FieldReader> list = entry.getValue();
+         compiledReaders.put(entry.getKey(), list.toArray(new FieldReader[list.size()]));
 
-   /**
-    * Retrieve the project properties.
-    *
-    * @return project file
-    */
-   protected ProjectProperties getProjectProperties()
-   {
-      return m_properties;
-   }
+         int maxValue = -1;
+         for (FieldReader reader : list)
+         {
+            maxValue = Math.max(maxValue, reader.getType().getValue());
+         }
 
-   /**
-    * Clear the field map.
-    */
-   public void clear()
-   {
-      m_map.clear();
-      Arrays.fill(m_maxFixedDataSize, 0);
+         FieldReader[] readers = new FieldReader[maxValue + 1];
+         for (FieldReader reader : list)
+         {
+            readers[reader.getType().getValue()] = reader;
+         }
+         readersByValue.put(entry.getKey(), readers);
+      }
+      m_compiledReaders = compiledReaders;
+      m_readersByValue = readersByValue;
    }
 
    /**
-    * Diagnostic method used to dump known field map data.
+    * Create the reader used to extract the value of a field item.
     *
-    * @param props props block containing field map data
+    * @param item field item
+    * @return FieldReader instance
     */
-   public void dumpKnownFieldMaps(Props props)
+   private FieldReader createFieldReader(FieldItem item)
    {
-      //for (int key=131092; key < 131098; key++)
-      for (int key = 50331668; key < 50331674; key++)
+      FieldReader reader;
+
+      switch (item.getFieldLocation())
       {
-         byte[] fieldMapData = props.getByteArray(Integer.valueOf(key));
-         if (fieldMapData != null)
+         case FIXED_DATA:
          {
-            System.out.println("KEY: " + key);
-            createFieldMap(fieldMapData);
-            System.out.println(toString());
-            clear();
+            reader = createFixedDataReader(item);
+            break;
+         }
+
+         case VAR_DATA:
+         {
+            reader = createVarDataReader(item);
+            break;
+         }
+
+         case META_DATA:
+         {
+            // We know that the Boolean flags are stored in the
+            // "meta data" block, and can see that the first
+            // four bytes of each row read from the field map
+            // data in the MPP file represents a bit mask... but
+            // we just haven't worked out how to convert this into
+            // the actual location in the data. For now we rely on
+            // the location in the file being fixed. This is why
+            // we ignore the META_DATA case.
+            reader = new NullReader(item);
+            break;
+         }
+
+         default:
+         {
+            // Unknown location - ignore this.
+            reader = new NullReader(item);
+            break;
          }
       }
+
+      return reader;
    }
 
    /**
-    * Determine the size of a field in a fixed data block.
+    * Create the reader used to extract a field value from a fixed data block.
     *
-    * @param type field data type
-    * @return field size in bytes
+    * @param item field item
+    * @return FieldReader instance
     */
-   private int getFixedDataFieldSize(FieldType type)
+   private FieldReader createFixedDataReader(FieldItem item)
    {
-      int result = 0;
-      DataType dataType = type.getDataType();
-      if (dataType != null)
+      FieldReader reader;
+
+      switch (item.getType().getDataType())
       {
-         switch (dataType)
+         case DATE:
          {
-            case DATE:
-            case INTEGER:
-            case DURATION:
+            reader = new FixedDataReader(item)
             {
-               result = 4;
-               break;
-            }
+               @Override protected Object read(byte[] data, int offset, Integer id, byte[][] fixedData, Var2Data varData)
+               {
+                  return MPPUtility.getTimestamp(data, offset);
+               }
+            };
+            break;
+         }
 
-            case TIME_UNITS:
-            case CONSTRAINT:
-            case PRIORITY:
-            case PERCENTAGE:
-            case TASK_TYPE:
-            case ACCRUE:
-            case SHORT:
-            case BOOLEAN:
-            case DELAY:
-            case WORKGROUP:
-            case RATE_UNITS:
-            case EARNED_VALUE_METHOD:
-            case RESOURCE_REQUEST_TYPE:
+         case INTEGER:
+         {
+            reader = new FixedDataReader(item)
             {
-               result = 2;
-               break;
-            }
+               @Override protected Object read(byte[] data, int offset, Integer id, byte[][] fixedData, Var2Data varData)
+               {
+                  return Integer.valueOf(MPPUtility.getInt(data, offset));
+               }
+            };
+            break;
+         }
 
-            case CURRENCY:
-            case UNITS:
-            case RATE:
-            case WORK:
+         case DURATION:
+         {
+            final FieldItem unitsItem = getUnitsItem(item);
+            reader = new FixedDataReader(item)
             {
-               result = 8;
-               break;
-            }
+               @Override protected Object read(byte[] data, int offset, Integer id, byte[][] fixedData, Var2Data varData)
+               {
+                  TimeUnit units = readUnits(unitsItem, id, fixedData, varData);
+                  if (units == null)
+                  {
+                     units = getProjectProperties().getDefaultDurationUnits();
+                  }
 
-            case WORK_UNITS:
+                  return MPPUtility.getAdjustedDuration(getProjectProperties(), MPPUtility.getInt(data, offset), units);
+               }
+            };
+            break;
+         }
+
+         case TIME_UNITS:
+         {
+            reader = new FixedDataReader(item)
             {
-               result = 1;
-               break;
-            }
+               @Override protected Object read(byte[] data, int offset, Integer id, byte[][] fixedData, Var2Data varData)
+               {
+                  return MPPUtility.getDurationTimeUnits(MPPUtility.getShort(data, offset), getProjectProperties().getDefaultDurationUnits());
+               }
+            };
+            break;
+         }
 
-            case GUID:
+         case CONSTRAINT:
+         {
+            reader = new FixedDataReader(item)
             {
-               result = 16;
-               break;
-            }
+               @Override protected Object read(byte[] data, int offset, Integer id, byte[][] fixedData, Var2Data varData)
+               {
+                  return ConstraintType.getInstance(MPPUtility.getShort(data, offset));
+               }
+            };
+            break;
+         }
 
-            default:
+         case PRIORITY:
+         {
+            reader = new FixedDataReader(item)
             {
-               result = 0;
-               break;
-            }
+               @Override protected Object read(byte[] data, int offset, Integer id, byte[][] fixedData, Var2Data varData)
+               {
+                  return Priority.getInstance(MPPUtility.getShort(data, offset));
+               }
+            };
+            break;
          }
-      }
 
-      return result;
-   }
+         case PERCENTAGE:
+         {
+            reader = new FixedDataReader(item)
+            {
+               @Override protected Object read(byte[] data, int offset, Integer id, byte[][] fixedData, Var2Data varData)
+               {
+                  return MPPUtility.getPercentage(data, offset);
+               }
+            };
+            break;
+         }
 
-   /**
-    * {@inheritDoc}
-    */
-   @Override public String toString()
-   {
-      StringWriter sw = new StringWriter();
-      PrintWriter pw = new PrintWriter(sw);
-
-      ArrayList<FieldItem> items = new ArrayList<FieldItem>(m_map.values());
-      Collections.sort(items);
-
-      pw.println("[FieldMap");
+         case TASK_TYPE:
+         {
+            reader = new FixedDataReader(item)
+            {
+               @Override protected Object read(byte[] data, int offset, Integer id, byte[][] fixedData, Var2Data varData)
+               {
+                  return TaskType.getInstance(MPPUtility.getShort(data, offset));
+               }
+            };
+            break;
+         }
 
-      for (int loop = 0; loop < m_maxFixedDataSize.length; loop++)
-      {
-         pw.print(" MaxFixedOffset (block ");
-         pw.print(loop);
-         pw.print(")=");
-         pw.println(m_maxFixedDataSize[loop]);
-      }
+         case ACCRUE:
+         {
+            reader = new FixedDataReader(item)
+            {
+               @Override protected Object read(byte[] data, int offset, Integer id, byte[][] fixedData, Var2Data varData)
+               {
+                  return AccrueType.getInstance(MPPUtility.getShort(data, offset));
+               }
+            };
+            break;
+         }
 
-      for (FieldItem item : items)
-      {
-         pw.print(" ");
-         pw.println(item);
-      }
-      pw.println("]");
+         case CURRENCY:
+         case UNITS:
+         {
+            reader = new FixedDataReader(item)
+            {
+               @Override protected Object read(byte[] data, int offset, Integer id, byte[][] fixedData, Var2Data varData)
+               {
+                  return NumberHelper.getDouble(MPPUtility.getDouble(data, offset) / 100);
+               }
+            };
+            break;
+         }
 
-      pw.close();
-      return sw.toString();
-   }
-   /**
-    * Enumeration representing the location of field data.
-    */
-   enum FieldLocation
-   {
-      FIXED_DATA,
-      VAR_DATA,
-      META_DATA,
-      UNKNOWN
-   }
+         case RATE:
+         {
+            reader = new FixedDataReader(item)
+            {
+               @Override protected Object read(byte[] data, int offset, Integer id, byte[][] fixedData, Var2Data varData)
+               {
+                  return new Rate(MPPUtility.getDouble(data, offset), TimeUnit.HOURS);
+               }
+            };
+            break;
+         }
 
-   /**
-    * This class is used to collect together the attributes necessary to
-    * describe the location of each field within the MPP file. It also provides
-    * the methods used to extract an individual field value.
-    */
-   public class FieldItem implements Comparable<FieldItem>
-   {
-      /**
-       * Constructor.
-       *
-       * @param type field type
-       * @param location identifies which block the field is present in
-       * @param fixedDataBlockIndex identifies which block the data comes from
-       * @param fixedDataOffset fixed data block offset
-       * @param varDataKey var data block key
-       * @param mask TODO
-       * @param metaBlock TODO
-       */
-      FieldItem(FieldType type, FieldLocation location, int fixedDataBlockIndex, int fixedDataOffset, int varDataKey, long mask, int metaBlock)
-      {
-         m_type = type;
-         m_location = location;
-         m_fixedDataBlockIndex = fixedDataBlockIndex;
-         m_fixedDataOffset = fixedDataOffset;
-         m_varDataKey = Integer.valueOf(varDataKey);
-         m_mask = mask;
-         m_metaBlock = metaBlock;
-      }
+         case WORK:
+         {
+            reader = new FixedDataReader(item)
+            {
+               @Override protected Object read(byte[] data, int offset, Integer id, byte[][] fixedData, Var2Data varData)
+               {
+                  return Duration.getInstance(MPPUtility.getDouble(data, offset) / 60000, TimeUnit.HOURS);
+               }
+            };
+            break;
+         }
 
-      /**
-       * Reads a single field value.
-       *
-       * @param id parent entity ID
-       * @param fixedData fixed data block
-       * @param varData var data block
-       * @return field value
-       */
-      public Object read(Integer id, byte[][] fixedData, Var2Data varData)
-      {
-         Object result = null;
+         case SHORT:
+         {
+            reader = new FixedDataReader(item)
+            {
+               @Override protected Object read(byte[] data, int offset, Integer id, byte[][] fixedData, Var2Data varData)
+               {
+                  return Integer.valueOf(MPPUtility.getShort(data, offset));
+               }
+            };
+            break;
+         }
 
-         switch (m_location)
+         case BOOLEAN:
          {
-            case FIXED_DATA:
+            reader = new FixedDataReader(item)
             {
-               result = readFixedData(id, fixedData, varData);
-               break;
-            }
+               @Override protected Object read(byte[] data, int offset, Integer id, byte[][] fixedData, Var2Data varData)
+               {
+                  return Boolean.valueOf(MPPUtility.getShort(data, offset) != 0);
+               }
+            };
+            break;
+         }
 
-            case VAR_DATA:
+         case DELAY:
+         {
+            reader = new FixedDataReader(item)
             {
-               result = readVarData(id, fixedData, varData);
-               break;
-            }
+               @Override protected Object read(byte[] data, int offset, Integer id, byte[][] fixedData, Var2Data varData)
+               {
+                  return MPPUtility.getDuration(MPPUtility.getShort(data, offset), TimeUnit.HOURS);
+               }
+            };
+            break;
+         }
 
-            case META_DATA:
+         case WORK_UNITS:
+         {
+            reader = new FixedDataReader(item)
             {
-               // We know that the Boolean flags are stored in the
-               // "meta data" block, and can see that the first
-               // four bytes of each row read from the field map
-               // data in the MPP file represents a bit mask... but
-               // we just haven't worked out how to convert this into
-               // the actual location in the data. For now we rely on
-               // the location in the file being fixed. This is why
-               // we ignore the META_DATA case.
-               break;
-            }
+               @Override protected Object read(byte[] data, int offset, Integer id, byte[][] fixedData, Var2Data varData)
+               {
+                  int variableRateUnitsValue = MPPUtility.getByte(data, offset);
+                  return variableRateUnitsValue == 0 ? null : MPPUtility.getWorkTimeUnits(variableRateUnitsValue);
+               }
+            };
+            break;
+         }
 
-            default:
+         case WORKGROUP:
+         {
+            reader = new FixedDataReader(item)
             {
-               // Unknown location - ignore this.
-               break;
-            }
+               @Override protected Object read(byte[] data, int offset, Integer id, byte[][] fixedData, Var2Data varData)
+               {
+                  return WorkGroup.getInstance(MPPUtility.getShort(data, offset));
+               }
+            };
+            break;
          }
 
-         return result;
-      }
+         case RATE_UNITS:
+         {
+            reader = new FixedDataReader(item)
+            {
+               @Override protected Object read(byte[] data, int offset, Integer id, byte[][] fixedData, Var2Data varData)
+               {
+                  return TimeUnit.getInstance(MPPUtility.getShort(data, offset) - 1);
+               }
+            };
+            break;
+         }
 
-      /**
-       * Read a field from the fixed data block.
-       *
-       * @param id parent entity ID
-       * @param fixedData fixed data block
-       * @param varData var data block
-       * @return field value
-       */
-      private Object readFixedData(Integer id, byte[][] fixedData, Var2Data varData)
-      {
-         Object result = null;
-         if (m_fixedDataBlockIndex < fixedData.length)
+         case EARNED_VALUE_METHOD:
          {
-            byte[] data = fixedData[m_fixedDataBlockIndex];
-            if (data != null && m_fixedDataOffset < data.length)
+            reader = new FixedDataReader(item)
             {
-               switch (m_type.getDataType())
+               @Override protected Object read(byte[] data, int offset, Integer id, byte[][] fixedData, Var2Data varData)
                {
-                  case DATE:
-                  {
-                     result = MPPUtility.getTimestamp(data, m_fixedDataOffset);
-                     break;
-                  }
+                  return EarnedValueMethod.getInstance(MPPUtility.getShort(data, offset));
+               }
+            };
+            break;
+         }
 
-                  case INTEGER:
-                  {
-                     result = Integer.valueOf(MPPUtility.getInt(data, m_fixedDataOffset));
-                     break;
-                  }
+         case RESOURCE_REQUEST_TYPE:
+         {
+            reader = new FixedDataReader(item)
+            {
+               @Override protected Object read(byte[] data, int offset, Integer id, byte[][] fixedData, Var2Data varData)
+               {
+                  return ResourceRequestType.getInstance(MPPUtility.getShort(data, offset));
+               }
+            };
+            break;
+         }
 
-                  case DURATION:
-                  {
-                     FieldType unitsType = m_type.getUnitsType();
-                     TimeUnit units = (TimeUnit) getFieldData(id, unitsType, fixedData, varData);
-                     if (units == null)
-                     {
-                        units = getProjectProperties().getDefaultDurationUnits();
-                     }
+         case GUID:
+         {
+            reader = new FixedDataReader(item)
+            {
+               @Override protected Object read(byte[] data, int offset, Integer id, byte[][] fixedData, Var2Data varData)
+               {
+                  return MPPUtility.getGUID(data, offset);
+               }
+            };
+            break;
+         }
 
-                     result = MPPUtility.getAdjustedDuration(getProjectProperties(), MPPUtility.getInt(data, m_fixedDataOffset), units);
-                     break;
-                  }
+         case BINARY:
+         {
+            // Do nothing for binary data
+            reader = new NullReader(item);
+            break;
+         }
 
-                  case TIME_UNITS:
-                  {
-                     result = MPPUtility.getDurationTimeUnits(MPPUtility.getShort(data, m_fixedDataOffset), getProjectProperties().getDefaultDurationUnits());
-                     break;
-                  }
+         default:
+         {
+            //System.out.println("**** UNSUPPORTED FIXED DATA TYPE");
+            reader = new NullReader(item);
+            break;
+         }
+      }
 
-                  case CONSTRAINT:
-                  {
-                     result = ConstraintType.getInstance(MPPUtility.getShort(data, m_fixedDataOffset));
-                     break;
-                  }
+      return reader;
+   }
 
-                  case PRIORITY:
-                  {
-                     result = Priority.getInstance(MPPUtility.getShort(data, m_fixedDataOffset));
-                     break;
-                  }
+   /**
+    * Create the reader used to extract a field value from a var data block.
+    *
+    * @param item field item
+    * @return FieldReader instance
+    */
+   private FieldReader createVarDataReader(FieldItem item)
+   {
+      FieldReader reader;
 
-                  case PERCENTAGE:
+      switch (item.getType().getDataType())
+      {
+         case DURATION:
+         {
+            final FieldItem unitsItem = getUnitsItem(item);
+            reader = new VarDataReader(item)
+            {
+               @Override public Object read(Integer id, byte[][] fixedData, Var2Data varData)
+               {
+                  TimeUnit units = readUnits(unitsItem, id, fixedData, varData);
+                  if (units == null)
                   {
-                     result = MPPUtility.getPercentage(data, m_fixedDataOffset);
-                     break;
+                     units = TimeUnit.HOURS;
                   }
+                  return getCustomFieldDurationValue(varData, id, m_key, units);
+               }
+            };
+            break;
+         }
 
-                  case TASK_TYPE:
-                  {
-                     result = TaskType.getInstance(MPPUtility.getShort(data, m_fixedDataOffset));
-                     break;
-                  }
+         case TIME_UNITS:
+         {
+            reader = new VarDataReader(item)
+            {
+               @Override public Object read(Integer id, byte[][] fixedData, Var2Data varData)
+               {
+                  return MPPUtility.getDurationTimeUnits(varData.getShort(id, m_key), getProjectProperties().getDefaultDurationUnits());
+               }
+            };
+            break;
+         }
 
-                  case ACCRUE:
-                  {
-                     result = AccrueType.getInstance(MPPUtility.getShort(data, m_fixedDataOffset));
-                     break;
-                  }
+         case CURRENCY:
+         {
+            reader = new VarDataReader(item)
+            {
+               @Override public Object read(Integer id, byte[][] fixedData, Var2Data varData)
+               {
+                  return NumberHelper.getDouble(varData.getDouble(id, m_key) / 100);
+               }
+            };
+            break;
+         }
 
-                  case CURRENCY:
-                  case UNITS:
-                  {
-                     result = NumberHelper.getDouble(MPPUtility.getDouble(data, m_fixedDataOffset) / 100);
-                     break;
-                  }
+         case STRING:
+         {
+            reader = new VarDataReader(item)
+            {
+               @Override public Object read(Integer id, byte[][] fixedData, Var2Data varData)
+               {
+                  return getCustomFieldUnicodeStringValue(varData, id, m_key);
+               }
+            };
+            break;
+         }
 
-                  case RATE:
-                  {
-                     result = new Rate(MPPUtility.getDouble(data, m_fixedDataOffset), TimeUnit.HOURS);
-                     break;
-                  }
+         case DATE:
+         {
+            reader = new VarDataReader(item)
+            {
+               @Override public Object read(Integer id, byte[][] fixedData, Var2Data varData)
+               {
+                  return getCustomFieldTimestampValue(varData, id, m_key);
+               }
+            };
+            break;
+         }
 
-                  case WORK:
-                  {
-                     result = Duration.getInstance(MPPUtility.getDouble(data, m_fixedDataOffset) / 60000, TimeUnit.HOURS);
-                     break;
-                  }
+         case NUMERIC:
+         {
+            reader = new VarDataReader(item)
+            {
+               @Override public Object read(Integer id, byte[][] fixedData, Var2Data varData)
+               {
+                  return getCustomFieldDoubleValue(varData, id, m_key);
+               }
+            };
+            break;
+         }
 
-                  case SHORT:
-                  {
-                     result = Integer.valueOf(MPPUtility.getShort(data, m_fixedDataOffset));
-                     break;
-                  }
+         case INTEGER:
+         {
+            reader = new VarDataReader(item)
+            {
+               @Override public Object read(Integer id, byte[][] fixedData, Var2Data varData)
+               {
+                  return Integer.valueOf(varData.getInt(id, m_key));
+               }
+            };
+            break;
+         }
 
-                  case BOOLEAN:
-                  {
-                     result = Boolean.valueOf(MPPUtility.getShort(data, m_fixedDataOffset) != 0);
-                     break;
-                  }
-
-                  case DELAY:
-                  {
-                     result = MPPUtility.getDuration(MPPUtility.getShort(data, m_fixedDataOffset), TimeUnit.HOURS);
-                     break;
-                  }
-
-                  case WORK_UNITS:
-                  {
-                     int variableRateUnitsValue = MPPUtility.getByte(data, m_fixedDataOffset);
-                     result = variableRateUnitsValue == 0 ? null : MPPUtility.getWorkTimeUnits(variableRateUnitsValue);
-                     break;
-                  }
-
-                  case WORKGROUP:
-                  {
-                     result = WorkGroup.getInstance(MPPUtility.getShort(data, m_fixedDataOffset));
-                     break;
-                  }
-
-                  case RATE_UNITS:
-                  {
-                     result = TimeUnit.getInstance(MPPUtility.getShort(data, m_fixedDataOffset) - 1);
-                     break;
-                  }
-
-                  case EARNED_VALUE_METHOD:
-                  {
-                     result = EarnedValueMethod.getInstance(MPPUtility.getShort(data, m_fixedDataOffset));
-                     break;
-                  }
-
-                  case RESOURCE_REQUEST_TYPE:
-                  {
-                     result = ResourceRequestType.getInstance(MPPUtility.getShort(data, m_fixedDataOffset));
-                     break;
-                  }
+         case WORK:
+         {
+            reader = new VarDataReader(item)
+            {
+               @Override public Object read(Integer id, byte[][] fixedData, Var2Data varData)
+               {
+                  return Duration.getInstance(varData.getDouble(id, m_key) / 60000, TimeUnit.HOURS);
+               }
+            };
+            break;
+         }
 
-                  case GUID:
-                  {
-                     result = MPPUtility.getGUID(data, m_fixedDataOffset);
-                     break;
-                  }
+         case ASCII_STRING:
+         {
+            reader = new VarDataReader(item)
+            {
+               @Override public Object read(Integer id, byte[][] fixedData, Var2Data varData)
+               {
+                  return varData.getString(id, m_key);
+               }
+            };
+            break;
+         }
 
-                  case BINARY:
-                  {
-                     // Do nothing for binary data
-                     break;
-                  }
+         case DELAY:
+         {
+            reader = new VarDataReader(item)
+            {
+               @Override public Object read(Integer id, byte[][] fixedData, Var2Data varData)
+               {
+                  return MPPUtility.getDuration(varData.getShort(id, m_key), TimeUnit.HOURS);
+               }
+            };
+            break;
+         }
 
-                  default:
-                  {
-                     //System.out.println("**** UNSUPPORTED FIXED DATA TYPE");
-                     break;
-                  }
+         case WORK_UNITS:
+         {
+            reader = new VarDataReader(item)
+            {
+               @Override public Object read(Integer id, byte[][] fixedData, Var2Data varData)
+               {
+                  int variableRateUnitsValue = varData.getByte(id, m_key);
+                  return variableRateUnitsValue == 0 ? null : MPPUtility.getWorkTimeUnits(variableRateUnitsValue);
                }
-            }
+            };
+            break;
          }
-         return result;
-      }
 
-      /**
-       * Read a field value from a var data block.
-       *
-       * @param id parent entity ID
-       * @param fixedData fixed data block
-       * @param varData var data block
-       * @return field value
-       */
-      private Object readVarData(Integer id, byte[][] fixedData, Var2Data varData)
-      {
-         Object result = null;
+         case RATE_UNITS:
+         {
+            reader = new VarDataReader(item)
+            {
+               @Override public Object read(Integer id, byte[][] fixedData, Var2Data varData)
+               {
+                  return TimeUnit.getInstance(varData.getShort(id, m_key) - 1);
+               }
+            };
+            break;
+         }
 
-         switch (m_type.getDataType())
+         case EARNED_VALUE_METHOD:
          {
-            case DURATION:
+            reader = new VarDataReader(item)
             {
-               FieldType unitsType = m_type.getUnitsType();
-               TimeUnit units = (TimeUnit) getFieldData(id, unitsType, fixedData, varData);
-               if (units == null)
+               @Override public Object read(Integer id, byte[][] fixedData, Var2Data varData)
                {
-                  units = TimeUnit.HOURS;
+                  return EarnedValueMethod.getInstance(varData.getShort(id, m_key));
                }
-               result = getCustomFieldDurationValue(varData, id, m_varDataKey, units);
-               break;
-            }
+            };
+            break;
+         }
 
-            case TIME_UNITS:
+         case RESOURCE_REQUEST_TYPE:
+         {
+            reader = new VarDataReader(item)
             {
-               result = MPPUtility.getDurationTimeUnits(varData.getShort(id, m_varDataKey), getProjectProperties().getDefaultDurationUnits());
-               break;
-            }
+               @Override public Object read(Integer id, byte[][] fixedData, Var2Data varData)
+               {
+                  return ResourceRequestType.getInstance(varData.getShort(id, m_key));
+               }
+            };
+            break;
+         }
 
-            case CURRENCY:
+         case ACCRUE:
+         {
+            reader = new VarDataReader(item)
             {
-               result = NumberHelper.getDouble(varData.getDouble(id, m_varDataKey) / 100);
-               break;
-            }
+               @Override public Object read(Integer id, byte[][] fixedData, Var2Data varData)
+               {
+                  return AccrueType.getInstance(varData.getShort(id, m_key));
+               }
+            };
+            break;
+         }
 
-            case STRING:
+         case SHORT:
+         {
+            reader = new VarDataReader(item)
             {
-               result = getCustomFieldUnicodeStringValue(varData, id, m_varDataKey);
-               break;
-            }
+               @Override public Object read(Integer id, byte[][] fixedData, Var2Data varData)
+               {
+                  return Integer.valueOf(varData.getShort(id, m_key));
+               }
+            };
+            break;
+         }
 
-            case DATE:
+         case BOOLEAN:
+         {
+            reader = new VarDataReader(item)
             {
-               result = getCustomFieldTimestampValue(varData, id, m_varDataKey);
-               break;
-            }
+               @Override public Object read(Integer id, byte[][] fixedData, Var2Data varData)
+               {
+                  return Boolean.valueOf(varData.getShort(id, m_key) != 0);
+               }
+            };
+            break;
+         }
 
-            case NUMERIC:
+         case WORKGROUP:
+         {
+            reader = new VarDataReader(item)
             {
-               result = getCustomFieldDoubleValue(varData, id, m_varDataKey);
-               break;
-            }
+               @Override public Object read(Integer id, byte[][] fixedData, Var2Data varData)
+               {
+                  return WorkGroup.getInstance(varData.getShort(id, m_key));
+               }
+            };
+            break;
+         }
 
-            case INTEGER:
+         case GUID:
+         {
+            reader = new VarDataReader(item)
             {
-               result = Integer.valueOf(varData.getInt(id, m_varDataKey));
-               break;
-            }
+               @Override public Object read(Integer id, byte[][] fixedData, Var2Data varData)
+               {
+                  return MPPUtility.getGUID(varData.getByteArray(id, m_key), 0);
+               }
+            };
+            break;
+         }
 
-            case WORK:
+         case BOOKING_TYPE:
+         {
+            reader = new VarDataReader(item)
             {
-               result = Duration.getInstance(varData.getDouble(id, m_varDataKey) / 60000, TimeUnit.HOURS);
-               break;
-            }
+               @Override public Object read(Integer id, byte[][] fixedData, Var2Data varData)
+               {
+                  return BookingType.getInstance(varData.getShort(id, m_key));
+               }
+            };
+            break;
+         }
+
+         case BINARY:
+         {
+            // Do nothing for binary data
+            reader = new NullReader(item);
+            break;
+         }
+
+         default:
+         {
+            //System.out.println("**** UNSUPPORTED VAR DATA TYPE");
+            reader = new NullReader(item);
+            break;
+         }
+      }
+
+      return reader;
+   }
+
+   /**
+    * Retrieve the item holding the units for a field item.
+    *
+    * @param item field item
+    * @return units field item, or null if not present
+    */
+   private FieldItem getUnitsItem(FieldItem item)
+   {
+      FieldType unitsType = item.getType().getUnitsType();
+      return unitsType == null ? null : m_map.get(unitsType);
+   }
+
+   /**
+    * Read the units for a field from the item holding them.
+    *
+    * @param unitsItem units field item, may be null
+    * @param id parent entity ID
+    * @param fixedData fixed data block
+    * @param varData var data block
+    * @return units or null if not present
+    */
+   private TimeUnit readUnits(FieldItem unitsItem, Integer id, byte[][] fixedData, Var2Data varData)
+   {
+      return unitsItem == null ? null : (TimeUnit) unitsItem.read(id, fixedData, varData);
+   }
+
+   /**
+    * Retrieve custom field value.
+    *
+    * @param varData var data block
+    * @param id item ID
+    * @param type item type
+    * @return item value
+    */
+   private Object getCustomFieldTimestampValue(Var2Data varData, Integer id, Integer type)
+   {
+      Object result = null;
 
-            case ASCII_STRING:
+      //
+      // Note that this simplistic approach could produce false positives
+      //
+      int mask = varData.getShort(id, type);
+      if ((mask & 0xFF00) != VALUE_LIST_MASK)
+      {
+         result = getRawTimestampValue(varData, id, type);
+      }
+      else
+      {
+         int uniqueId = varData.getInt(id, 2, type);
+         CustomFieldValueItem item = m_customFields.getCustomFieldValueItemByUniqueID(uniqueId);
+         if (item != null)
+         {
+            Object value = item.getValue();
+            if (value instanceof Date)
             {
-               result = varData.getString(id, m_varDataKey);
-               break;
+               result = value;
             }
+         }
 
-            case DELAY:
+         //
+         // If we can't find a custom field value with this ID, fall back to treating this as a normal value
+         //
+         if (result == null)
+         {
+            result = getRawTimestampValue(varData, id, type);
+         }
+      }
+      return result;
+   }
+
+   /**
+    * Retrieve a timestamp value.
+    *
+    * @param varData var data block
+    * @param id item ID
+    * @param type item type
+    * @return item value
+    */
+   private Object getRawTimestampValue(Var2Data varData, Integer id, Integer type)
+   {
+      Object result = null;
+      byte[] data = varData.getByteArray(id, type);
+      if (data != null)
+      {
+         if (data.length == 512)
+         {
+            result = MPPUtility.getUnicodeString(data, 0);
+         }
+         else
+         {
+            if (data.length >= 4)
             {
-               result = MPPUtility.getDuration(varData.getShort(id, m_varDataKey), TimeUnit.HOURS);
-               break;
+               result = MPPUtility.getTimestamp(data, 0);
             }
+         }
+      }
+      return result;
+   }
 
-            case WORK_UNITS:
+   /**
+    * Retrieve custom field value.
+    *
+    * @param varData var data block
+    * @param id item ID
+    * @param type item type
+    * @param units duration units
+    * @return item value
+    */
+   private Object getCustomFieldDurationValue(Var2Data varData, Integer id, Integer type, TimeUnit units)
+   {
+      Object result = null;
+
+      byte[] data = varData.getByteArray(id, type);
+
+      if (data != null)
+      {
+         if (data.length == 512)
+         {
+            result = MPPUtility.getUnicodeString(data, 0);
+         }
+         else
+         {
+            if (data.length >= 4)
             {
-               int variableRateUnitsValue = varData.getByte(id, m_varDataKey);
-               result = variableRateUnitsValue == 0 ? null : MPPUtility.getWorkTimeUnits(variableRateUnitsValue);
-               break;
+               int duration = MPPUtility.getInt(data, 0);
+               result = MPPUtility.getAdjustedDuration(getProjectProperties(), duration, units);
             }
+         }
+      }
 
-            case RATE_UNITS:
+      return result;
+   }
+
+   /**
+    * Retrieve custom field value.
+    *
+    * @param varData var data block
+    * @param id item ID
+    * @param type item type
+    * @return item value
+    */
+   private Double getCustomFieldDoubleValue(Var2Data varData, Integer id, Integer type)
+   {
+      double result = 0;
+
+      //
+      // Note that this simplistic approach could produce false positives
+      //
+      int mask = varData.getShort(id, type);
+      if ((mask & 0xFF00) != VALUE_LIST_MASK)
+      {
+         result = varData.getDouble(id, type);
+      }
+      else
+      {
+         int uniqueId = varData.getInt(id, 2, type);
+         CustomFieldValueItem item = m_customFields.getCustomFieldValueItemByUniqueID(uniqueId);
+         if (item != null)
+         {
+            Object value = item.getValue();
+            if (value instanceof Number)
             {
-               result = TimeUnit.getInstance(varData.getShort(id, m_varDataKey) - 1);
-               break;
+               result = ((Number) value).doubleValue();
             }
+         }
+      }
+      return NumberHelper.getDouble(result);
+   }
 
-            case EARNED_VALUE_METHOD:
+   /**
+    * Retrieve custom field value.
+    *
+    * @param varData var data block
+    * @param id item ID
+    * @param type item type
+    * @return item value
+    */
+   private String getCustomFieldUnicodeStringValue(Var2Data varData, Integer id, Integer type)
+   {
+      String result = null;
+
+      //
+      // Note that this simplistic approach could produce false positives
+      //
+      int mask = varData.getShort(id, type);
+      if ((mask & 0xFF00) != VALUE_LIST_MASK)
+      {
+         result = varData.getUnicodeString(id, type);
+      }
+      else
+      {
+         int uniqueId = varData.getInt(id, 2, type);
+         CustomFieldValueItem item = m_customFields.getCustomFieldValueItemByUniqueID(uniqueId);
+         if (item != null)
+         {
+            Object value = item.getValue();
+            if (value instanceof String)
             {
-               result = EarnedValueMethod.getInstance(varData.getShort(id, m_varDataKey));
-               break;
+               result = (String) value;
             }
+         }
+      }
+      return result;
+   }
 
-            case RESOURCE_REQUEST_TYPE:
+   /**
+    * Creates a FieldLoader which will decode field values from the supplied
+    * raw data blocks on demand, as an alternative to populating a container
+    * with every field value up front using the populateContainer method.
+    * The caller must not modify the raw data blocks once they have
+    * been passed to this method.
+    *
+    * @param type expected type
+    * @param id entity ID
+    * @param fixedData fixed data block
+    * @param varData var data block
+    * @return FieldLoader instance
+    */
+   public FieldLoader getFieldLoader(Class<? extends FieldType> type, Integer id, byte[][] fixedData, Var2Data varData)
+   {
+      FieldReader[] readers = m_readersByValue.get(type);
+      return new FieldMapLoader(readers == null ? new FieldReader[0] : readers, id, fixedData, varData);
+   }
+
+   /**
+    * Retrieve the maximum offset in the fixed data block.
+    *
+    * @param blockIndex required block index
+    * @return maximum offset
+    */
+   public int getMaxFixedDataSize(int blockIndex)
+   {
+      return m_maxFixedDataSize[blockIndex];
+   }
+
+   /**
+    * Retrieve the fixed data offset for a specific field.
+    *
+    * @param type field type
+    * @return offset
+    */
+   public int getFixedDataOffset(FieldType type)
+   {
+      int result;
+      FieldItem item = m_map.get(type);
+      if (item != null)
+      {
+         result = item.getFixedDataOffset();
+      }
+      else
+      {
+         result = -1;
+      }
+      return result;
+   }
+
+   /**
+    * Retrieve the var data key for a specific field.
+    *
+    * @param type field type
+    * @return var data key
+    */
+   public Integer getVarDataKey(FieldType type)
+   {
+      Integer result = null;
+      FieldItem item = m_map.get(type);
+      if (item != null)
+      {
+         result = item.getVarDataKey();
+      }
+      return result;
+   }
+
+   /**
+    * Used to map from a var data key to a field type. Note this
+    * is designed for diagnostic use only, and uses an inefficient search.
+    *
+    * @param key var data key
+    * @return field type
+    */
+   public FieldType getFieldTypeFromVarDataKey(Integer key)
+   {
+      FieldType result = null;
+      for (Entry<FieldType, FieldMap.FieldItem> entry : m_map.entrySet())
+      {
+         if (entry.getValue().getFieldLocation() == FieldLocation.VAR_DATA && entry.getValue().getVarDataKey().equals(key))
+         {
+            result = entry.getKey();
+            break;
+         }
+      }
+      return result;
+   }
+
+   /**
+    * Retrieve the field location for a specific field.
+    *
+    * @param type field type
+    * @return field location
+    */
+   public FieldLocation getFieldLocation(FieldType type)
+   {
+      FieldLocation result = null;
+
+      FieldItem item = m_map.get(type);
+      if (item != null)
+      {
+         result = item.getFieldLocation();
+      }
+      return result;
+   }
+
+   /**
+    * Retrieve a single field value.
+    *
+    * @param id parent entity ID
+    * @param type field type
+    * @param fixedData fixed data block
+    * @param varData var data block
+    * @return field value
+    */
+   protected Object getFieldData(Integer id, FieldType type, byte[][] fixedData, Var2Data varData)
+   {
+      Object result = null;
+
+      FieldItem item = m_map.get(type);
+      if (item != null)
+      {
+         result = item.read(id, fixedData, varData);
+      }
+
+      return result;
+   }
+
+   /**
+    * Retrieve the project properties.
+    *
+    * @return project file
+    */
+   protected ProjectProperties getProjectProperties()
+   {
+      return m_properties;
+   }
+
+   /**
+    * Clear the field map.
+    */
+   public void clear()
+   {
+      m_map.clear();
+      m_compiledReaders = Collections.emptyMap();
+      m_readersByValue = Collections.emptyMap();
+      Arrays.fill(m_maxFixedDataSize, 0);
+   }
+
+   /**
+    * Diagnostic method used to dump known field map data.
+    *
+    * @param props props block containing field map data
+    */
+   public void dumpKnownFieldMaps(Props props)
+   {
+      //for (int key=131092; key < 131098; key++)
+      for (int key = 50331668; key < 50331674; key++)
+      {
+         byte[] fieldMapData = props.getByteArray(Integer.valueOf(key));
+         if (fieldMapData != null)
+         {
+            System.out.println("KEY: " + key);
+            createFieldMap(fieldMapData);
+            System.out.println(toString());
+            clear();
+         }
+      }
+   }
+
+   /**
+    * Determine the size of a field in a fixed data block.
+    *
+    * @param type field data type
+    * @return field size in bytes
+    */
+   private int getFixedDataFieldSize(FieldType type)
+   {
+      int result = 0;
+      DataType dataType = type.getDataType();
+      if (dataType != null)
+      {
+         switch (dataType)
+         {
+            case DATE:
+            case INTEGER:
+            case DURATION:
             {
-               result = ResourceRequestType.getInstance(varData.getShort(id, m_varDataKey));
+               result = 4;
                break;
             }
 
+            case TIME_UNITS:
+            case CONSTRAINT:
+            case PRIORITY:
+            case PERCENTAGE:
+            case TASK_TYPE:
             case ACCRUE:
-            {
-               result = AccrueType.getInstance(varData.getShort(id, m_varDataKey));
-               break;
-            }
-
             case SHORT:
-            {
-               result = Integer.valueOf(varData.getShort(id, m_varDataKey));
-               break;
-            }
-
             case BOOLEAN:
-            {
-               result = Boolean.valueOf(varData.getShort(id, m_varDataKey) != 0);
-               break;
-            }
-
+            case DELAY:
             case WORKGROUP:
+            case RATE_UNITS:
+            case EARNED_VALUE_METHOD:
+            case RESOURCE_REQUEST_TYPE:
             {
-               result = WorkGroup.getInstance(varData.getShort(id, m_varDataKey));
+               result = 2;
                break;
             }
 
-            case GUID:
+            case CURRENCY:
+            case UNITS:
+            case RATE:
+            case WORK:
             {
-               result = MPPUtility.getGUID(varData.getByteArray(id, m_varDataKey), 0);
+               result = 8;
                break;
             }
 
-            case BOOKING_TYPE:
+            case WORK_UNITS:
             {
-               result = BookingType.getInstance(varData.getShort(id, m_varDataKey));
+               result = 1;
                break;
             }
 
-            case BINARY:
+            case GUID:
             {
-               // Do nothing for binary data
+               result = 16;
                break;
             }
 
             default:
             {
-               //System.out.println("**** UNSUPPORTED VAR DATA TYPE");
+               result = 0;
                break;
             }
          }
+      }
 
-         return result;
+      return result;
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   @Override public String toString()
+   {
+      StringWriter sw = new StringWriter();
+      PrintWriter pw = new PrintWriter(sw);
+
+      ArrayList<FieldItem> items = new ArrayList<FieldItem>(m_map.values());
+      Collections.sort(items);
+
+      pw.println("[FieldMap");
+
+      for (int loop = 0; loop < m_maxFixedDataSize.length; loop++)
+      {
+         pw.print(" MaxFixedOffset (block ");
+         pw.print(loop);
+         pw.print(")=");
+         pw.println(m_maxFixedDataSize[loop]);
+      }
+
+      for (FieldItem item : items)
+      {
+         pw.print(" ");
+         pw.println(item);
       }
+      pw.println("]");
+
+      pw.close();
+      return sw.toString();
+   }
+   /**
+    * Enumeration representing the location of field data.
+    */
+   enum FieldLocation
+   {
+      FIXED_DATA,
+      VAR_DATA,
+      META_DATA,
+      UNKNOWN
+   }
 
+   /**
+    * Decodes the field values for a single entity on demand, using the
+    * raw data blocks retained for that entity.
+    */
+   private static final class FieldMapLoader implements FieldLoader
+   {
       /**
-       * Retrieve custom field value.
+       * Constructor.
        *
+       * @param readers field readers indexed by field value
+       * @param id entity ID
+       * @param fixedData fixed data block
        * @param varData var data block
-       * @param id item ID
-       * @param type item type
-       * @return item value
        */
-      private Object getCustomFieldTimestampValue(Var2Data varData, Integer id, Integer type)
+      public FieldMapLoader(FieldReader[] readers, Integer id, byte[][] fixedData, Var2Data varData)
       {
-         Object result = null;
+         m_readers = readers;
+         m_id = id;
+         m_fixedData = fixedData;
+         m_varData = varData;
+      }
 
-         //
-         // Note that this simplistic approach could produce false positives
-         //
-         int mask = varData.getShort(id, type);
-         if ((mask & 0xFF00) != VALUE_LIST_MASK)
-         {
-            result = getRawTimestampValue(varData, id, type);
-         }
-         else
-         {
-            int uniqueId = varData.getInt(id, 2, type);
-            CustomFieldValueItem item = m_customFields.getCustomFieldValueItemByUniqueID(uniqueId);
-            if (item != null)
-            {
-               Object value = item.getValue();
-               if (value instanceof Date)
-               {
-                  result = value;
-               }
-            }
+      /**
+       * {@inheritDoc}
+       */
+      @Override public FieldType getFieldType(int index)
+      {
+         FieldReader reader = index < m_readers.length ? m_readers[index] : null;
+         return reader == null ? null : reader.getType();
+      }
 
-            //
-            // If we can't find a custom field value with this ID, fall back to treating this as a normal value
-            //
-            if (result == null)
-            {
-               result = getRawTimestampValue(varData, id, type);
-            }
-         }
-         return result;
+      /**
+       * {@inheritDoc}
+       */
+      @Override public Object loadField(FieldType field)
+      {
+         return m_readers[field.getValue()].read(m_id, m_fixedData, m_varData);
       }
 
+      private final FieldReader[] m_readers;
+      private final Integer m_id;
+      private final byte[][] m_fixedData;
+      private final Var2Data m_varData;
+   }
+
+   /**
+    * Extracts the value of a single field from the raw data blocks of an
+    * entity. Each field item is given a reader specialised for the location
+    * and data type of the field when the field map is compiled.
+    */
+   private abstract static class FieldReader
+   {
       /**
-       * Retrieve a timestamp value.
+       * Constructor.
        *
-       * @param varData var data block
-       * @param id item ID
-       * @param type item type
-       * @return item value
+       * @param item field item
        */
-      private Object getRawTimestampValue(Var2Data varData, Integer id, Integer type)
+      public FieldReader(FieldItem item)
       {
-         Object result = null;
-         byte[] data = varData.getByteArray(id, type);
-         if (data != null)
-         {
-            if (data.length == 512)
-            {
-               result = MPPUtility.getUnicodeString(data, 0);
-            }
-            else
-            {
-               if (data.length >= 4)
-               {
-                  result = MPPUtility.getTimestamp(data, 0);
-               }
-            }
-         }
-         return result;
+         m_type = item.getType();
+      }
+
+      /**
+       * Retrieve the type of the field read by this reader.
+       *
+       * @return field type
+       */
+      public FieldType getType()
+      {
+         return m_type;
       }
 
       /**
-       * Retrieve custom field value.
+       * Reads a single field value.
        *
+       * @param id parent entity ID
+       * @param fixedData fixed data block
        * @param varData var data block
-       * @param id item ID
-       * @param type item type
-       * @param units duration units
-       * @return item value
+       * @return field value
+       */
+      public abstract Object read(Integer id, byte[][] fixedData, Var2Data varData);
+
+      private final FieldType m_type;
+   }
+
+   /**
+    * Reader for fields whose values we can't extract, which always
+    * returns null.
+    */
+   private static final class NullReader extends FieldReader
+   {
+      /**
+       * Constructor.
+       *
+       * @param item field item
        */
-      private Object getCustomFieldDurationValue(Var2Data varData, Integer id, Integer type, TimeUnit units)
+      public NullReader(FieldItem item)
       {
-         Object result = null;
+         super(item);
+      }
+
+      /**
+       * {@inheritDoc}
+       */
+      @Override public Object read(Integer id, byte[][] fixedData, Var2Data varData)
+      {
+         return null;
+      }
+   }
 
-         byte[] data = varData.getByteArray(id, type);
+   /**
+    * Base class for readers which extract a field value from a fixed data
+    * block. Returns null if the block is not long enough to contain the field.
+    */
+   private abstract static class FixedDataReader extends FieldReader
+   {
+      /**
+       * Constructor.
+       *
+       * @param item field item
+       */
+      public FixedDataReader(FieldItem item)
+      {
+         super(item);
+         m_blockIndex = item.getFixedDataBlockIndex();
+         m_offset = item.getFixedDataOffset();
+      }
 
-         if (data != null)
+      /**
+       * {@inheritDoc}
+       */
+      @Override public final Object read(Integer id, byte[][] fixedData, Var2Data varData)
+      {
+         Object result = null;
+         if (m_blockIndex < fixedData.length)
          {
-            if (data.length == 512)
-            {
-               result = MPPUtility.getUnicodeString(data, 0);
-            }
-            else
+            byte[] data = fixedData[m_blockIndex];
+            if (data != null && m_offset < data.length)
             {
-               if (data.length >= 4)
-               {
-                  int duration = MPPUtility.getInt(data, 0);
-                  result = MPPUtility.getAdjustedDuration(getProjectProperties(), duration, units);
-               }
+               result = read(data, m_offset, id, fixedData, varData);
             }
          }
-
          return result;
       }
 
       /**
-       * Retrieve custom field value.
+       * Read the field value from the fixed data block.
        *
+       * @param data fixed data block containing the field
+       * @param offset offset of the field in the block
+       * @param id parent entity ID
+       * @param fixedData all fixed data blocks
        * @param varData var data block
-       * @param id item ID
-       * @param type item type
-       * @return item value
+       * @return field value
+       */
+      protected abstract Object read(byte[] data, int offset, Integer id, byte[][] fixedData, Var2Data varData);
+
+      private final int m_blockIndex;
+      private final int m_offset;
+   }
+
+   /**
+    * Base class for readers which extract a field value from a var data block.
+    */
+   private abstract static class VarDataReader extends FieldReader
+   {
+      /**
+       * Constructor.
+       *
+       * @param item field item
        */
-      private Double getCustomFieldDoubleValue(Var2Data varData, Integer id, Integer type)
+      public VarDataReader(FieldItem item)
       {
-         double result = 0;
+         super(item);
+         m_key = item.getVarDataKey();
+      }
 
-         //
-         // Note that this simplistic approach could produce false positives
-         //
-         int mask = varData.getShort(id, type);
-         if ((mask & 0xFF00) != VALUE_LIST_MASK)
-         {
-            result = varData.getDouble(id, type);
-         }
-         else
-         {
-            int uniqueId = varData.getInt(id, 2, type);
-            CustomFieldValueItem item = m_customFields.getCustomFieldValueItemByUniqueID(uniqueId);
-            if (item != null)
-            {
-               Object value = item.getValue();
-               if (value instanceof Number)
-               {
-                  result = ((Number) value).doubleValue();
-               }
-            }
-         }
-         return NumberHelper.getDouble(result);
+      protected final Integer m_key;
+   }
+
+   /**
+    * This class is used to collect together the attributes necessary to
+    * describe the location of each field within the MPP file. It also provides
+    * the method used to extract an individual field value.
+    */
+   public class FieldItem implements Comparable<FieldItem>
+   {
+      /**
+       * Constructor.
+       *
+       * @param type field type
+       * @param location identifies which block the field is present in
+       * @param fixedDataBlockIndex identifies which block the data comes from
+       * @param fixedDataOffset fixed data block offset
+       * @param varDataKey var data block key
+       * @param mask TODO
+       * @param metaBlock TODO
+       */
+      FieldItem(FieldType type, FieldLocation location, int fixedDataBlockIndex, int fixedDataOffset, int varDataKey, long mask, int metaBlock)
+      {
+         m_type = type;
+         m_location = location;
+         m_fixedDataBlockIndex = fixedDataBlockIndex;
+         m_fixedDataOffset = fixedDataOffset;
+         m_varDataKey = Integer.valueOf(varDataKey);
+         m_mask = mask;
+         m_metaBlock = metaBlock;
       }
 
       /**
-       * Retrieve custom field value.
+       * Reads a single field value using the reader created for this
+       * item when the field map was compiled.
        *
+       * @param id parent entity ID
+       * @param fixedData fixed data block
        * @param varData var data block
-       * @param id item ID
-       * @param type item type
-       * @return item value
+       * @return field value
        */
-      private String getCustomFieldUnicodeStringValue(Var2Data varData, Integer id, Integer type)
+      public Object read(Integer id, byte[][] fixedData, Var2Data varData)
       {
-         String result = null;
-
-         //
-         // Note that this simplistic approach could produce false positives
-         //
-         int mask = varData.getShort(id, type);
-         if ((mask & 0xFF00) != VALUE_LIST_MASK)
-         {
-            result = varData.getUnicodeString(id, type);
-         }
-         else
-         {
-            int uniqueId = varData.getInt(id, 2, type);
-            CustomFieldValueItem item = m_customFields.getCustomFieldValueItemByUniqueID(uniqueId);
-            if (item != null)
-            {
-               Object value = item.getValue();
-               if (value instanceof String)
-               {
-                  result = (String) value;
-               }
-            }
-         }
-         return result;
+         return m_reader.read(id, fixedData, varData);
       }
 
       /**
@@ -1437,11 +2097,14 @@ abstract class FieldMap
       private Integer m_varDataKey;
       private long m_mask;
       private int m_metaBlock;
+      private FieldReader m_reader;
    }
 
    private ProjectProperties m_properties;
    protected CustomFieldContainer m_customFields;
    private Map<FieldType, FieldItem> m_map = new HashMap<FieldType, FieldItem>();
+   private Map<Class<?>, FieldReader[]> m_compiledReaders = Collections.emptyMap();
+   private Map<Class<?>, FieldReader[]> m_readersByValue = Collections.emptyMap();
    private int[] m_maxFixedDataSize = new int[MAX_FIXED_DATA_BLOCKS];
    private boolean m_debug;
 
@@ -1476,4 +2139,9 @@ abstract class FieldMap
    private static final int VALUE_LIST_MASK = 0x0700;
 
    private static final int MAX_FIXED_DATA_BLOCKS = 2;
+
+   /**
+    * Number of entities decoded by each task submitted by the readValues method.
+    */
+   private static final int DECODE_CHUNK_SIZE = 256;
 }
@@ -31,6 +31,7 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
 
 import org.apache.poi.poifs.filesystem.DirectoryEntry;
 import org.apache.poi.poifs.filesystem.DocumentEntry;
@@ -978,6 +979,40 @@ final class MPP12Reader implements MPPVariantReader
       RecurringTaskReader recurringTaskReader = null;
       String notes;
 
+      //
+      // If we have an executor, decode the field values for all of the
+      // tasks concurrently before creating the tasks themselves
+      //
+      Object[][] taskValues = null;
+      Object[][] enterpriseTaskValues = null;
+      ExecutorService executor = m_reader.getDecodingExecutor();
+      if (executor != null)
+      {
+         Integer[] decodeIDs = new Integer[uniqueIdArray.length];
+         byte[][][] decodeBlocks = new byte[uniqueIdArray.length][][];
+         for (int loop = 0; loop < uniqueIdArray.length; loop++)
+         {
+            Integer uniqueID = (Integer) uniqueIdArray[loop];
+            offset = taskMap.get(uniqueID);
+            if (taskFixedData.isValidOffset(offset))
+            {
+               data = taskFixedData.getByteArrayValue(offset.intValue());
+               data = data.length == NULL_TASK_BLOCK_SIZE ? null : getTaskFixedData(fieldMap, uniqueID, data);
+               if (data != null)
+               {
+                  decodeIDs[loop] = uniqueID;
+                  decodeBlocks[loop] = new byte[][]
+                  {
+                     data,
+                     taskFixed2Data.getByteArrayValue(offset.intValue())
+                  };
+               }
+            }
+         }
+         taskValues = fieldMap.readValues(TaskField.class, decodeIDs, decodeBlocks, taskVarData, executor);
+         enterpriseTaskValues = enterpriseCustomFieldMap.readValues(TaskField.class, decodeIDs, null, taskVarData, executor);
+      }
+
       for (int loop = 0; loop < uniqueIdArray.length; loop++)
       {
          Integer uniqueID = (Integer) uniqueIdArray[loop];
@@ -1001,18 +1036,10 @@ final class MPP12Reader implements MPPVariantReader
             continue;
          }
 
-         if (data.length < fieldMap.getMaxFixedDataSize(0))
+         data = getTaskFixedData(fieldMap, uniqueID, data);
+         if (data == null)
          {
-            if (uniqueID.intValue() == 0)
-            {
-               byte[] newData = new byte[fieldMap.getMaxFixedDataSize(0) + 8];
-               System.arraycopy(data, 0, newData, 0, data.length);
-               data = newData;
-            }
-            else
-            {
-               continue;
-            }
+            continue;
          }
 
          //System.out.println (id+": "+ByteArrayHelper.hexdump(data, false, 16, ""));
@@ -1055,13 +1082,21 @@ final class MPP12Reader implements MPPVariantReader
 
          task.disableEvents();
 
-         fieldMap.populateContainer(TaskField.class, task, uniqueID, new byte[][]
+         if (taskValues != null && taskValues[loop] != null)
          {
-            data,
-            data2
-         }, taskVarData);
+            fieldMap.populateContainer(TaskField.class, task, taskValues[loop]);
+            enterpriseCustomFieldMap.populateContainer(TaskField.class, task, enterpriseTaskValues[loop]);
+         }
+         else
+         {
+            fieldMap.populateContainer(TaskField.class, task, uniqueID, new byte[][]
+            {
+               data,
+               data2
+            }, taskVarData);
 
-         enterpriseCustomFieldMap.populateContainer(TaskField.class, task, uniqueID, null, taskVarData);
+            enterpriseCustomFieldMap.populateContainer(TaskField.class, task, uniqueID, null, taskVarData);
+         }
 
          task.enableEvents();
 
@@ -1279,6 +1314,34 @@ final class MPP12Reader implements MPPVariantReader
       }
    }
 
+   /**
+    * Task fixed data blocks shorter than the size described by the field map
+    * are ignored, with the exception of the task with unique ID zero, whose
+    * data is padded to the required size.
+    *
+    * @param fieldMap task field map
+    * @param uniqueID task unique ID
+    * @param data task fixed data
+    * @return fixed data to decode, or null if the task should be ignored
+    */
+   private byte[] getTaskFixedData(FieldMap fieldMap, Integer uniqueID, byte[] data)
+   {
+      byte[] result = data;
+      if (data.length < fieldMap.getMaxFixedDataSize(0))
+      {
+         if (uniqueID.intValue() == 0)
+         {
+            result = new byte[fieldMap.getMaxFixedDataSize(0) + 8];
+            System.arraycopy(data, 0, result, 0, data.length);
+         }
+         else
+         {
+            result = null;
+         }
+      }
+      return result;
+   }
+
    /**
     * MPP14 files seem to exhibit some occasional weirdness
     * with duplicate ID values which leads to the task structure
@@ -1725,6 +1788,34 @@ final class MPP12Reader implements MPPVariantReader
 
       String notes;
 
+      //
+      // If we have an executor, decode the field values for all of the
+      // resources concurrently before creating the resources themselves
+      //
+      Object[][] resourceValues = null;
+      Object[][] enterpriseResourceValues = null;
+      ExecutorService executor = m_reader.getDecodingExecutor();
+      if (executor != null)
+      {
+         Integer[] decodeIDs = new Integer[uniqueid.length];
+         byte[][][] decodeBlocks = new byte[uniqueid.length][][];
+         for (int loop = 0; loop < uniqueid.length; loop++)
+         {
+            offset = resourceMap.get(uniqueid[loop]);
+            if (offset != null)
+            {
+               decodeIDs[loop] = uniqueid[loop];
+               decodeBlocks[loop] = new byte[][]
+               {
+                  rscFixedData.getByteArrayValue(offset.intValue()),
+                  rscFixed2Data.getByteArrayValue(offset.intValue())
+               };
+            }
+         }
+         resourceValues = fieldMap.readValues(ResourceField.class, decodeIDs, decodeBlocks, rscVarData, executor);
+         enterpriseResourceValues = enterpriseCustomFieldMap.readValues(ResourceField.class, decodeIDs, null, rscVarData, executor);
+      }
+
       for (int loop = 0; loop < uniqueid.length; loop++)
       {
          id = uniqueid[loop];
@@ -1745,13 +1836,21 @@ final class MPP12Reader implements MPPVariantReader
          resource = m_file.addResource();
 
          resource.disableEvents();
-         fieldMap.populateContainer(ResourceField.class, resource, id, new byte[][]
+         if (resourceValues != null && resourceValues[loop] != null)
+         {
+            fieldMap.populateContainer(ResourceField.class, resource, resourceValues[loop]);
+            enterpriseCustomFieldMap.populateContainer(ResourceField.class, resource, enterpriseResourceValues[loop]);
+         }
+         else
          {
-            data,
-            data2
-         }, rscVarData);
+            fieldMap.populateContainer(ResourceField.class, resource, id, new byte[][]
+            {
+               data,
+               data2
+            }, rscVarData);
 
-         enterpriseCustomFieldMap.populateContainer(ResourceField.class, resource, id, null, rscVarData);
+            enterpriseCustomFieldMap.populateContainer(ResourceField.class, resource, id, null, rscVarData);
+         }
 
          resource.enableEvents();
 
@@ -33,6 +33,7 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
 
 import org.apache.poi.poifs.filesystem.DirectoryEntry;
 import org.apache.poi.poifs.filesystem.DocumentEntry;
@@ -1011,6 +1012,39 @@ final class MPP14Reader implements MPPVariantReader
          metaData2BitFlags = PROJECT2010_TASK_META_DATA2_BIT_FLAGS;
       }
 
+      //
+      // If we have an executor, decode the field values for all of the
+      // tasks concurrently before creating the tasks themselves
+      //
+      Object[][] taskValues = null;
+      Object[][] enterpriseTaskValues = null;
+      ExecutorService executor = m_reader.getLazyFieldDecoding() ? null : m_reader.getDecodingExecutor();
+      if (executor != null)
+      {
+         Integer[] decodeIDs = new Integer[uniqueIdArray.length];
+         byte[][][] decodeBlocks = new byte[uniqueIdArray.length][][];
+         for (int loop = 0; loop < uniqueIdArray.length; loop++)
+         {
+            Integer uniqueID = (Integer) uniqueIdArray[loop];
+            offset = taskMap.get(uniqueID);
+            if (taskFixedData.isValidOffset(offset))
+            {
+               data = taskFixedData.getByteArrayValue(offset.intValue());
+               if (data.length != NULL_TASK_BLOCK_SIZE)
+               {
+                  decodeIDs[loop] = uniqueID;
+                  decodeBlocks[loop] = new byte[][]
+                  {
+                     padTaskFixedData(fieldMap, data),
+                     taskFixed2Data.getByteArrayValue(offset.intValue())
+                  };
+               }
+            }
+         }
+         taskValues = fieldMap.readValues(TaskField.class, decodeIDs, decodeBlocks, taskVarData, executor);
+         enterpriseTaskValues = enterpriseCustomFieldMap.readValues(TaskField.class, decodeIDs, null, taskVarData, executor);
+      }
+
       for (int loop = 0; loop < uniqueIdArray.length; loop++)
       {
          Integer uniqueID = (Integer) uniqueIdArray[loop];
@@ -1035,12 +1069,7 @@ final class MPP14Reader implements MPPVariantReader
             continue;
          }
 
-         if (data.length < fieldMap.getMaxFixedDataSize(0))
-         {
-            byte[] newData = new byte[fieldMap.getMaxFixedDataSize(0) + 8];
-            System.arraycopy(data, 0, newData, 0, data.length);
-            data = newData;
-         }
+         data = padTaskFixedData(fieldMap, data);
 
          //System.out.println (ByteArrayHelper.hexdump(data, false, 16, ""));
          //System.out.println (ByteArrayHelper.hexdump(data,false));
@@ -1081,13 +1110,28 @@ final class MPP14Reader implements MPPVariantReader
 
          task.disableEvents();
 
-         fieldMap.populateContainer(TaskField.class, task, uniqueID, new byte[][]
+         byte[][] taskFixedDataBlocks = new byte[][]
          {
             data,
             data2
-         }, taskVarData);
+         };
 
-         enterpriseCustomFieldMap.populateContainer(TaskField.class, task, uniqueID, null, taskVarData);
+         if (m_reader.getLazyFieldDecoding())
+         {
+            task.setFieldLoader(fieldMap.getFieldLoader(TaskField.class, uniqueID, taskFixedDataBlocks, taskVarData));
+            task.setFieldLoader(enterpriseCustomFieldMap.getFieldLoader(TaskField.class, uniqueID, null, taskVarData));
+         }
+         else
+            if (taskValues != null && taskValues[loop] != null)
+            {
+               fieldMap.populateContainer(TaskField.class, task, taskValues[loop]);
+               enterpriseCustomFieldMap.populateContainer(TaskField.class, task, enterpriseTaskValues[loop]);
+            }
+            else
+            {
+               fieldMap.populateContainer(TaskField.class, task, uniqueID, taskFixedDataBlocks, taskVarData);
+               enterpriseCustomFieldMap.populateContainer(TaskField.class, task, uniqueID, null, taskVarData);
+            }
 
          task.enableEvents();
 
@@ -1307,6 +1351,25 @@ final class MPP14Reader implements MPPVariantReader
       }
    }
 
+   /**
+    * Ensure that the fixed data block for a task is at least as large
+    * as the fixed data size expected by the field map.
+    *
+    * @param fieldMap task field map
+    * @param data fixed data block
+    * @return fixed data block, padded if necessary
+    */
+   private byte[] padTaskFixedData(FieldMap fieldMap, byte[] data)
+   {
+      if (data.length < fieldMap.getMaxFixedDataSize(0))
+      {
+         byte[] newData = new byte[fieldMap.getMaxFixedDataSize(0) + 8];
+         System.arraycopy(data, 0, newData, 0, data.length);
+         data = newData;
+      }
+      return data;
+   }
+
    /**
     * MPP14 files seem to exhibit some occasional weirdness
     * with duplicate ID values which leads to the task structure
@@ -1649,6 +1712,34 @@ final class MPP14Reader implements MPPVariantReader
          metaData2BitFlags = PROJECT2010_RESOURCE_META_DATA2_BIT_FLAGS;
       }
 
+      //
+      // If we have an executor, decode the field values for all of the
+      // resources concurrently before creating the resources themselves
+      //
+      Object[][] resourceValues = null;
+      Object[][] enterpriseResourceValues = null;
+      ExecutorService executor = m_reader.getLazyFieldDecoding() ? null : m_reader.getDecodingExecutor();
+      if (executor != null)
+      {
+         Integer[] decodeIDs = new Integer[uniqueid.length];
+         byte[][][] decodeBlocks = new byte[uniqueid.length][][];
+         for (int loop = 0; loop < uniqueid.length; loop++)
+         {
+            offset = resourceMap.get(uniqueid[loop]);
+            if (offset != null)
+            {
+               decodeIDs[loop] = uniqueid[loop];
+               decodeBlocks[loop] = new byte[][]
+               {
+                  rscFixedData.getByteArrayValue(offset.intValue()),
+                  rscFixed2Data.getByteArrayValue(offset.intValue())
+               };
+            }
+         }
+         resourceValues = fieldMap.readValues(ResourceField.class, decodeIDs, decodeBlocks, rscVarData, executor);
+         enterpriseResourceValues = enterpriseCustomFieldMap.readValues(ResourceField.class, decodeIDs, null, rscVarData, executor);
+      }
+
       for (int loop = 0; loop < uniqueid.length; loop++)
       {
          id = uniqueid[loop];
@@ -1670,13 +1761,28 @@ final class MPP14Reader implements MPPVariantReader
 
          resource.disableEvents();
 
-         fieldMap.populateContainer(ResourceField.class, resource, id, new byte[][]
+         byte[][] resourceFixedDataBlocks = new byte[][]
          {
             data,
             data2
-         }, rscVarData);
+         };
 
-         enterpriseCustomFieldMap.populateContainer(ResourceField.class, resource, id, null, rscVarData);
+         if (m_reader.getLazyFieldDecoding())
+         {
+            resource.setFieldLoader(fieldMap.getFieldLoader(ResourceField.class, id, resourceFixedDataBlocks, rscVarData));
+            resource.setFieldLoader(enterpriseCustomFieldMap.getFieldLoader(ResourceField.class, id, null, rscVarData));
+         }
+         else
+            if (resourceValues != null && resourceValues[loop] != null)
+            {
+               fieldMap.populateContainer(ResourceField.class, resource, resourceValues[loop]);
+               enterpriseCustomFieldMap.populateContainer(ResourceField.class, resource, enterpriseResourceValues[loop]);
+            }
+            else
+            {
+               fieldMap.populateContainer(ResourceField.class, resource, id, resourceFixedDataBlocks, rscVarData);
+               enterpriseCustomFieldMap.populateContainer(ResourceField.class, resource, id, null, rscVarData);
+            }
 
          resource.enableEvents();
 
@@ -23,6 +23,7 @@
 
 package net.sf.mpxj.mpp;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
@@ -30,6 +31,7 @@ import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
 
 import org.apache.poi.poifs.filesystem.DirectoryEntry;
 import org.apache.poi.poifs.filesystem.DocumentEntry;
@@ -88,6 +90,55 @@ public final class MPPReader extends AbstractProjectReader
       }
    }
 
+   /**
+    * {@inheritDoc}
+    */
+   @Override public ProjectFile read(String fileName) throws MPXJException
+   {
+      return read(new File(fileName));
+   }
+
+   /**
+    * Reads an MPP file directly from the file system. Rather than
+    * copying the entire compound document onto the heap, as happens
+    * when reading from a stream, the file is opened read-only and
+    * POI retrieves the blocks it needs from the file on demand,
+    * using memory-mapped access where possible.
+    *
+    * {@inheritDoc}
+    */
+   @Override public ProjectFile read(File file) throws MPXJException
+   {
+      POIFSFileSystem fs = null;
+
+      try
+      {
+         fs = new POIFSFileSystem(file, true);
+         return read(fs);
+      }
+
+      catch (IOException ex)
+      {
+         throw new MPXJException(MPXJException.READ_ERROR, ex);
+      }
+
+      finally
+      {
+         if (fs != null)
+         {
+            try
+            {
+               fs.close();
+            }
+
+            catch (IOException ex)
+            {
+               // Ignore errors on close
+            }
+         }
+      }
+   }
+
    /**
     * This method allows us to peek into the OLE compound document to extract the file format.
     * This allows the UniversalProjectReader to determine if this is an MPP file, or if
@@ -119,9 +170,10 @@ public final class MPPReader extends AbstractProjectReader
     */
    public ProjectFile read(POIFSFileSystem fs) throws MPXJException
    {
+      ProjectFile projectFile = new ProjectFile();
+
       try
       {
-         ProjectFile projectFile = new ProjectFile();
          ProjectConfig config = projectFile.getProjectConfig();
 
          config.setAutoTaskID(false);
@@ -133,8 +185,11 @@ public final class MPPReader extends AbstractProjectReader
          config.setAutoWBS(false);
          config.setAutoCalendarUniqueID(false);
          config.setAutoAssignmentUniqueID(false);
+         config.setCompactFieldStorage(getCompactFieldStorage());
+         config.setFieldProjection(getFieldProjection());
 
          projectFile.getEventManager().addProjectListeners(m_projectListeners);
+         projectFile.getEventManager().setStreaming(getStreaming());
 
          //
          // Open the file system and retrieve the root directory
@@ -186,6 +241,11 @@ public final class MPPReader extends AbstractProjectReader
          //
          config.updateUniqueCounters();
 
+         //
+         // Discard any fields which are not required
+         //
+         projectFile.applyFieldProjection();
+
          //
          // Add some analytics
          //
@@ -217,6 +277,11 @@ public final class MPPReader extends AbstractProjectReader
       {
          throw new MPXJException(MPXJException.READ_ERROR, ex);
       }
+
+      finally
+      {
+         projectFile.getEventManager().setStreaming(false);
+      }
    }
 
    /**
@@ -319,6 +384,60 @@ public final class MPPReader extends AbstractProjectReader
       m_readPresentationData = readPresentationData;
    }
 
+   /**
+    * Retrieves a flag which indicates whether task and resource field
+    * values are decoded when they are first accessed, rather than
+    * when the file is read.
+    *
+    * @return lazy field decoding flag
+    */
+   public boolean getLazyFieldDecoding()
+   {
+      return m_lazyFieldDecoding;
+   }
+
+   /**
+    * Setting this flag to true retains the raw data read for each task
+    * and resource, and decodes each field value the first time it is
+    * accessed. This saves time and memory when only a small number of
+    * fields are used, but the raw data is held for as long as the tasks
+    * and resources are in use. This is currently supported for files
+    * written by Microsoft Project 2010 and later.
+    *
+    * @param lazyFieldDecoding set to true to decode field values on demand
+    */
+   public void setLazyFieldDecoding(boolean lazyFieldDecoding)
+   {
+      m_lazyFieldDecoding = lazyFieldDecoding;
+   }
+
+   /**
+    * Retrieves the ExecutorService used to decode task and resource
+    * field values concurrently.
+    *
+    * @return ExecutorService instance, or null if field values are decoded sequentially
+    */
+   public ExecutorService getDecodingExecutor()
+   {
+      return m_decodingExecutor;
+   }
+
+   /**
+    * Supplying an ExecutorService allows the field values for the tasks
+    * and resources in a file to be decoded concurrently, in chunks submitted
+    * to the executor, before the tasks and resources themselves are
+    * created and linked together by the calling thread. This reduces the
+    * time taken to read large files on multi-core hosts. This is currently
+    * supported for files written by Microsoft Project 2007 and later,
+    * and is not used when lazy field decoding is enabled.
+    *
+    * @param executor ExecutorService instance, or null to decode field values sequentially
+    */
+   public void setDecodingExecutor(ExecutorService executor)
+   {
+      m_decodingExecutor = executor;
+   }
+
    /**
     * Flag to determine if the reader should only read the project properties.
     * This allows for rapid access to the document properties, without the
@@ -384,6 +503,8 @@ public final class MPPReader extends AbstractProjectReader
     */
    private boolean m_readPresentationData = true;
    private boolean m_readPropertiesOnly;
+   private boolean m_lazyFieldDecoding;
+   private ExecutorService m_decodingExecutor;
 
    private String m_readPassword;
    private List<ProjectListener> m_projectListeners;
@@ -27,18 +27,19 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.PrintWriter;
 import java.io.StringWriter;
+import java.util.Arrays;
 import java.util.Date;
-import java.util.Map;
-import java.util.TreeMap;
 
 import net.sf.mpxj.common.ByteArrayHelper;
-import net.sf.mpxj.common.StreamHelper;
+import net.sf.mpxj.common.CharsetHelper;
 
 /**
  * This class represents a block of variable data. Each block of
  * data is represented by a 4 byte size, followed by the data itself.
  * Each Var2Data block should be associated with a MetaData block
  * which describes the layout of the data in the Var2Data block.
+ * The whole block is read into a single buffer, and an index of the
+ * start and length of each item allows values to be decoded in place.
  */
 final class Var2Data extends MPPComponent
 {
@@ -54,58 +55,127 @@ final class Var2Data extends MPPComponent
       throws IOException
    {
       m_meta = meta;
-      byte[] data;
 
-      int currentOffset = 0;
       int available = is.available();
+      m_data = readData(is, available);
 
-      for (int itemOffset : meta.getOffsets())
+      int[] itemOffsets = meta.getOffsets();
+      long[] entries = new long[itemOffsets.length];
+      int[] starts = new int[itemOffsets.length];
+      int[] lengths = new int[itemOffsets.length];
+      int count = 0;
+
+      for (int itemOffset : itemOffsets)
       {
-         if (itemOffset >= available)
+         if (itemOffset < 0 || itemOffset >= available || itemOffset + 4 > m_data.length)
          {
             continue;
          }
 
-         if (currentOffset > itemOffset)
-         {
-            is.reset();
-            StreamHelper.skip(is, itemOffset);
-         }
-         else
-         {
-            if (currentOffset < itemOffset)
-            {
-               StreamHelper.skip(is, itemOffset - currentOffset);
-            }
-         }
-
-         int size = readInt(is);
+         int size = MPPUtility.getInt(m_data, itemOffset);
+         int start = itemOffset + 4;
 
          //
          // Try our best to handle corrupt files gracefully
          //
-         if (size < 0 || size > is.available())
+         if (size < 0 || size > available - start || size > m_data.length - start)
          {
             continue;
          }
 
-         try
+         entries[count] = (((long) itemOffset) << 32) | count;
+         starts[count] = start;
+         lengths[count] = size;
+         ++count;
+      }
+
+      //
+      // Sort the items by offset to allow them to be located
+      // using a binary search.
+      //
+      Arrays.sort(entries, 0, count);
+      m_offsets = new int[count];
+      m_starts = new int[count];
+      m_lengths = new int[count];
+
+      int uniqueCount = 0;
+      for (int index = 0; index < count; index++)
+      {
+         int itemOffset = (int) (entries[index] >>> 32);
+         if (uniqueCount != 0 && m_offsets[uniqueCount - 1] == itemOffset)
          {
-            data = readByteArray(is, size);
+            continue;
          }
+         int itemIndex = (int) entries[index];
+         m_offsets[uniqueCount] = itemOffset;
+         m_starts[uniqueCount] = starts[itemIndex];
+         m_lengths[uniqueCount] = lengths[itemIndex];
+         ++uniqueCount;
+      }
+
+      m_count = uniqueCount;
+   }
+
+   /**
+    * Read the content of the stream into a single buffer.
+    *
+    * @param is input stream
+    * @param size number of bytes available
+    * @return buffer containing the data which could be read
+    * @throws IOException on file read error
+    */
+   private byte[] readData(InputStream is, int size) throws IOException
+   {
+      byte[] data = new byte[size];
+      int length = 0;
 
-         catch (IndexOutOfBoundsException ex)
+      try
+      {
+         while (length < size)
          {
-            // POI fails to read certain MPP files with this exception:
-            // https://bz.apache.org/bugzilla/show_bug.cgi?id=61677
-            // There is no fix presently, we just have to bail out at
-            // this point - we're unable to read any more data.
-            break;
+            int bytesRead = is.read(data, length, size - length);
+            if (bytesRead < 1)
+            {
+               break;
+            }
+            length += bytesRead;
          }
+      }
+
+      catch (IndexOutOfBoundsException ex)
+      {
+         // POI fails to read certain MPP files with this exception:
+         // https://bz.apache.org/bugzilla/show_bug.cgi?id=61677
+         // There is no fix presently, we just have to bail out at
+         // this point - we're unable to read any more data.
+      }
 
-         m_map.put(Integer.valueOf(itemOffset), data);
-         currentOffset = itemOffset + 4 + size;
+      if (length < size)
+      {
+         data = Arrays.copyOf(data, length);
       }
+
+      return data;
+   }
+
+   /**
+    * Locate the index entry for the item at the given offset.
+    *
+    * @param offset offset of required data
+    * @return index entry, or -1 if no data is present at this offset
+    */
+   private int getIndex(Integer offset)
+   {
+      int result = -1;
+      if (offset != null)
+      {
+         result = Arrays.binarySearch(m_offsets, 0, m_count, offset.intValue());
+         if (result < 0)
+         {
+            result = -1;
+         }
+      }
+      return result;
    }
 
    /**
@@ -120,9 +190,10 @@ final class Var2Data extends MPPComponent
    {
       byte[] result = null;
 
-      if (offset != null)
+      int index = getIndex(offset);
+      if (index != -1)
       {
-         result = m_map.get(offset);
+         result = MPPUtility.cloneSubArray(m_data, m_starts[index], m_lengths[index]);
       }
 
       return (result);
@@ -153,13 +224,23 @@ final class Var2Data extends MPPComponent
    {
       String result = null;
 
-      if (offset != null)
+      int index = getIndex(offset);
+      if (index != -1)
       {
-         byte[] value = m_map.get(offset);
-         if (value != null)
+         int start = m_starts[index];
+         int end = start + m_lengths[index];
+         int length = end - start;
+
+         for (int loop = start; loop < (end - 1); loop += 2)
          {
-            result = MPPUtility.getUnicodeString(value, 0);
+            if (m_data[loop] == 0 && m_data[loop + 1] == 0)
+            {
+               length = loop - start;
+               break;
+            }
          }
+
+         result = length == 0 ? "" : new String(m_data, start, length, CharsetHelper.UTF16LE);
       }
 
       return (result);
@@ -190,15 +271,10 @@ final class Var2Data extends MPPComponent
    {
       Date result = null;
 
-      Integer offset = m_meta.getOffset(id, type);
-
-      if (offset != null)
+      int index = getIndex(m_meta.getOffset(id, type));
+      if (index != -1 && m_lengths[index] >= 4)
       {
-         byte[] value = m_map.get(offset);
-         if (value != null && value.length >= 4)
-         {
-            result = MPPUtility.getTimestamp(value, 0);
-         }
+         result = MPPUtility.getTimestamp(m_data, m_starts[index]);
       }
 
       return (result);
@@ -216,13 +292,24 @@ final class Var2Data extends MPPComponent
    {
       String result = null;
 
-      if (offset != null)
+      int index = getIndex(offset);
+      if (index != -1)
       {
-         byte[] value = m_map.get(offset);
-         if (value != null)
+         StringBuilder buffer = new StringBuilder();
+         int start = m_starts[index];
+         int end = start + m_lengths[index];
+
+         for (int loop = start; loop < end; loop++)
          {
-            result = MPPUtility.getString(value, 0);
+            char c = (char) m_data[loop];
+            if (c == 0)
+            {
+               break;
+            }
+            buffer.append(c);
          }
+
+         result = buffer.toString();
       }
 
       return (result);
@@ -253,16 +340,10 @@ final class Var2Data extends MPPComponent
    {
       int result = 0;
 
-      Integer offset = m_meta.getOffset(id, type);
-
-      if (offset != null)
+      int index = getIndex(m_meta.getOffset(id, type));
+      if (index != -1 && m_lengths[index] >= 2)
       {
-         byte[] value = m_map.get(offset);
-
-         if (value != null && value.length >= 2)
-         {
-            result = MPPUtility.getShort(value, 0);
-         }
+         result = MPPUtility.getShort(m_data, m_starts[index]);
       }
 
       return (result);
@@ -280,16 +361,10 @@ final class Var2Data extends MPPComponent
    {
       int result = 0;
 
-      Integer offset = m_meta.getOffset(id, type);
-
-      if (offset != null)
+      int index = getIndex(m_meta.getOffset(id, type));
+      if (index != -1 && m_lengths[index] >= 1)
       {
-         byte[] value = m_map.get(offset);
-
-         if (value != null)
-         {
-            result = MPPUtility.getByte(value, 0);
-         }
+         result = MPPUtility.getByte(m_data, m_starts[index]);
       }
 
       return (result);
@@ -307,16 +382,10 @@ final class Var2Data extends MPPComponent
    {
       int result = 0;
 
-      Integer offset = m_meta.getOffset(id, type);
-
-      if (offset != null)
+      int index = getIndex(m_meta.getOffset(id, type));
+      if (index != -1 && m_lengths[index] >= 4)
       {
-         byte[] value = m_map.get(offset);
-
-         if (value != null && value.length >= 4)
-         {
-            result = MPPUtility.getInt(value, 0);
-         }
+         result = MPPUtility.getInt(m_data, m_starts[index]);
       }
 
       return (result);
@@ -337,16 +406,10 @@ final class Var2Data extends MPPComponent
    {
       int result = 0;
 
-      Integer metaOffset = m_meta.getOffset(id, type);
-
-      if (metaOffset != null)
+      int index = getIndex(m_meta.getOffset(id, type));
+      if (index != -1 && m_lengths[index] >= offset + 4)
       {
-         byte[] value = m_map.get(metaOffset);
-
-         if (value != null && value.length >= offset + 4)
-         {
-            result = MPPUtility.getInt(value, offset);
-         }
+         result = MPPUtility.getInt(m_data, m_starts[index] + offset);
       }
 
       return (result);
@@ -364,16 +427,10 @@ final class Var2Data extends MPPComponent
    {
       long result = 0;
 
-      Integer offset = m_meta.getOffset(id, type);
-
-      if (offset != null)
+      int index = getIndex(m_meta.getOffset(id, type));
+      if (index != -1 && m_lengths[index] >= 8)
       {
-         byte[] value = m_map.get(offset);
-
-         if (value != null && value.length >= 8)
-         {
-            result = MPPUtility.getLong(value, 0);
-         }
+         result = MPPUtility.getLong(m_data, m_starts[index]);
       }
 
       return (result);
@@ -420,10 +477,10 @@ final class Var2Data extends MPPComponent
       PrintWriter pw = new PrintWriter(sw);
 
       pw.println("BEGIN Var2Data");
-      for (Map.Entry<Integer, byte[]> entry : m_map.entrySet())
+      for (int index = 0; index < m_count; index++)
       {
-         pw.println("   Data at offset: " + entry.getKey() + " size: " + entry.getValue().length);
-         pw.println(ByteArrayHelper.hexdump(entry.getValue(), true, 16, "   "));
+         pw.println("   Data at offset: " + m_offsets[index] + " size: " + m_lengths[index]);
+         pw.println(ByteArrayHelper.hexdump(MPPUtility.cloneSubArray(m_data, m_starts[index], m_lengths[index]), true, 16, "   "));
       }
 
       pw.println("END Var2Data");
@@ -448,7 +505,7 @@ final class Var2Data extends MPPComponent
       for (Integer type : m_meta.getTypes(id))
       {
          Integer offset = m_meta.getOffset(id, type);
-         byte[] data = m_map.get(offset);
+         byte[] data = getByteArray(offset);
          pw.println("   Data at offset: " + offset + " size: " + data.length);
          pw.println(ByteArrayHelper.hexdump(data, true, 16, "   "));
       }
@@ -459,9 +516,29 @@ final class Var2Data extends MPPComponent
    }
 
    /**
-    * Map containing data items indexed by offset.
+    * Buffer containing the whole data block.
+    */
+   private final byte[] m_data;
+
+   /**
+    * Offsets of the data items present in the block, in ascending order.
+    */
+   private final int[] m_offsets;
+
+   /**
+    * Start of the data for each item in the buffer.
+    */
+   private final int[] m_starts;
+
+   /**
+    * Length of the data for each item.
+    */
+   private final int[] m_lengths;
+
+   /**
+    * Number of items present in the block.
     */
-   private TreeMap<Integer, byte[]> m_map = new TreeMap<Integer, byte[]>();
+   private final int m_count;
 
    /**
     * Reference to the meta data associated with this block.
@@ -59,6 +59,7 @@ import net.sf.mpxj.TaskField;
 import net.sf.mpxj.TaskType;
 import net.sf.mpxj.TimeUnit;
 import net.sf.mpxj.common.DateHelper;
+import net.sf.mpxj.common.FieldTypeHelper;
 import net.sf.mpxj.common.InputStreamTokenizer;
 import net.sf.mpxj.common.NumberHelper;
 import net.sf.mpxj.common.ReaderTokenizer;
@@ -116,6 +117,8 @@ public final class MPXReader extends AbstractProjectReader
          m_eventManager = m_projectFile.getEventManager();
 
          m_projectConfig = m_projectFile.getProjectConfig();
+         m_projectConfig.setCompactFieldStorage(getCompactFieldStorage());
+         m_projectConfig.setFieldProjection(getFieldProjection());
          m_projectConfig.setAutoTaskID(false);
          m_projectConfig.setAutoTaskUniqueID(false);
          m_projectConfig.setAutoResourceID(false);
@@ -166,6 +169,7 @@ public final class MPXReader extends AbstractProjectReader
          InputStreamReader reader = new InputStreamReader(bis, m_projectFile.getProjectProperties().getMpxCodePage().getCharset());
          tk = new ReaderTokenizer(reader);
          tk.setDelimiter(m_delimiter);
+         tk.setInternTokens(true);
 
          //
          // Read the remainder of the records
@@ -195,6 +199,11 @@ public final class MPXReader extends AbstractProjectReader
          //
          m_projectConfig.updateUniqueCounters();
 
+         //
+         // Discard any fields which are not required
+         //
+         m_projectFile.applyFieldProjection();
+
          m_projectConfig.setAutoCalendarUniqueID(false);
 
          return (m_projectFile);
@@ -766,6 +775,11 @@ public final class MPXReader extends AbstractProjectReader
          }
 
          ResourceField resourceField = MPXResourceField.getMpxjField(mpxFieldType);
+         if (!m_projectConfig.getFieldRequired(resourceField) && FieldTypeHelper.isCustomField(resourceField))
+         {
+            continue;
+         }
+
          switch (resourceField)
          {
             case OBJECTS:
@@ -1070,6 +1084,11 @@ public final class MPXReader extends AbstractProjectReader
             continue;
          }
 
+         if (!m_projectConfig.getFieldRequired(taskField) && FieldTypeHelper.isCustomField(taskField))
+         {
+            continue;
+         }
+
          switch (taskField)
          {
             case PREDECESSORS:
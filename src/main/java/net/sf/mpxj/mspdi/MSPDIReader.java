@@ -26,8 +26,11 @@ package net.sf.mpxj.mspdi;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.StringReader;
+import java.io.StringWriter;
 import java.math.BigInteger;
 import java.nio.charset.Charset;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
@@ -36,7 +39,6 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Set;
 
-import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBException;
 import javax.xml.bind.Unmarshaller;
 import javax.xml.bind.UnmarshallerHandler;
@@ -45,6 +47,13 @@ import javax.xml.bind.ValidationEventHandler;
 import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.parsers.SAXParser;
 import javax.xml.parsers.SAXParserFactory;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
+import javax.xml.transform.stream.StreamSource;
 
 import org.xml.sax.InputSource;
 import org.xml.sax.SAXException;
@@ -91,6 +100,7 @@ import net.sf.mpxj.common.CharsetHelper;
 import net.sf.mpxj.common.DateHelper;
 import net.sf.mpxj.common.DefaultTimephasedWorkContainer;
 import net.sf.mpxj.common.FieldTypeHelper;
+import net.sf.mpxj.common.JAXBContextRegistry;
 import net.sf.mpxj.common.MPPAssignmentField;
 import net.sf.mpxj.common.MPPResourceField;
 import net.sf.mpxj.common.MPPTaskField;
@@ -174,6 +184,8 @@ public final class MSPDIReader extends AbstractProjectReader
          m_eventManager = m_projectFile.getEventManager();
 
          ProjectConfig config = m_projectFile.getProjectConfig();
+         config.setCompactFieldStorage(getCompactFieldStorage());
+         config.setFieldProjection(getFieldProjection());
          config.setAutoTaskID(false);
          config.setAutoTaskUniqueID(false);
          config.setAutoResourceID(false);
@@ -185,52 +197,41 @@ public final class MSPDIReader extends AbstractProjectReader
          config.setAutoAssignmentUniqueID(false);
 
          m_eventManager.addProjectListeners(m_projectListeners);
+         m_eventManager.setStreaming(getStreaming());
 
-         SAXParserFactory factory = SAXParserFactory.newInstance();
-         factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
-         factory.setNamespaceAware(true);
-         SAXParser saxParser = factory.newSAXParser();
-         XMLReader xmlReader = saxParser.getXMLReader();
+         DatatypeConverter.setParentFile(m_projectFile);
+         Unmarshaller unmarshaller = createUnmarshaller();
+
+         HashMap<BigInteger, ProjectCalendar> calendarMap = new HashMap<BigInteger, ProjectCalendar>();
+         Project project;
 
-         if (CONTEXT == null)
+         if (m_incrementalParsing)
          {
-            throw CONTEXT_EXCEPTION;
+            project = readIncrementally(stream, unmarshaller, calendarMap);
          }
-
-         DatatypeConverter.setParentFile(m_projectFile);
-         Unmarshaller unmarshaller = CONTEXT.createUnmarshaller();
-
-         //
-         // If we are matching the behaviour of MS project, then we need to
-         // ignore validation warnings.
-         //
-         if (m_compatibleInput == true)
+         else
          {
-            unmarshaller.setEventHandler(new ValidationEventHandler()
-            {
-               @Override public boolean handleEvent(ValidationEvent event)
-               {
-                  return (true);
-               }
-            });
+            SAXParserFactory factory = SAXParserFactory.newInstance();
+            factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+            factory.setNamespaceAware(true);
+            SAXParser saxParser = factory.newSAXParser();
+            XMLReader xmlReader = saxParser.getXMLReader();
+
+            XMLFilter filter = new NamespaceFilter();
+            filter.setParent(xmlReader);
+            UnmarshallerHandler unmarshallerHandler = unmarshaller.getUnmarshallerHandler();
+            filter.setContentHandler(unmarshallerHandler);
+            filter.parse(new InputSource(new InputStreamReader(stream, getCharset())));
+            project = (Project) unmarshallerHandler.getResult();
+
+            readProjectProperties(project);
+            readProjectExtendedAttributes(project);
+            readCalendars(project, calendarMap);
+            readResources(project, calendarMap);
+            readTasks(project);
+            readAssignments(project);
          }
 
-         XMLFilter filter = new NamespaceFilter();
-         filter.setParent(xmlReader);
-         UnmarshallerHandler unmarshallerHandler = unmarshaller.getUnmarshallerHandler();
-         filter.setContentHandler(unmarshallerHandler);
-         filter.parse(new InputSource(new InputStreamReader(stream, getCharset())));
-         Project project = (Project) unmarshallerHandler.getResult();
-
-         HashMap<BigInteger, ProjectCalendar> calendarMap = new HashMap<BigInteger, ProjectCalendar>();
-
-         readProjectProperties(project);
-         readProjectExtendedAttributes(project);
-         readCalendars(project, calendarMap);
-         readResources(project, calendarMap);
-         readTasks(project);
-         readAssignments(project);
-
          //
          // Ensure that the unique ID counters are correct
          //
@@ -245,6 +246,11 @@ public final class MSPDIReader extends AbstractProjectReader
             m_projectFile.getProjectProperties().setDefaultCalendarName(defaultCalendar.getName());
          }
 
+         //
+         // Discard any fields which are not required
+         //
+         m_projectFile.applyFieldProjection();
+
          return (m_projectFile);
       }
 
@@ -268,12 +274,246 @@ public final class MSPDIReader extends AbstractProjectReader
          throw new MPXJException("Failed to parse file", ex);
       }
 
+      catch (XMLStreamException ex)
+      {
+         throw new MPXJException("Failed to parse file", ex);
+      }
+
       finally
       {
+         if (m_eventManager != null)
+         {
+            m_eventManager.setStreaming(false);
+         }
          m_projectFile = null;
       }
    }
 
+   /**
+    * Create an unmarshaller for MSPDI data.
+    *
+    * @return Unmarshaller instance
+    */
+   private Unmarshaller createUnmarshaller() throws JAXBException
+   {
+      Unmarshaller unmarshaller = JAXBContextRegistry.getUnmarshaller(CONTEXT_PATH);
+
+      //
+      // If we are matching the behaviour of MS project, then we need to
+      // ignore validation warnings.
+      //
+      if (m_compatibleInput == true)
+      {
+         unmarshaller.setEventHandler(new ValidationEventHandler()
+         {
+            @Override public boolean handleEvent(ValidationEvent event)
+            {
+               return (true);
+            }
+         });
+      }
+
+      return unmarshaller;
+   }
+
+   /**
+    * Walks the MSPDI document using StAX. Each calendar, task, resource
+    * and assignment is unmarshalled individually, converted, then discarded,
+    * so only one of these elements is held in memory at any time.
+    * The project properties and other elements which precede these
+    * collections are buffered and unmarshalled together as a Project
+    * instance containing no calendars, tasks, resources or assignments.
+    *
+    * @param stream input stream
+    * @param unmarshaller unmarshaller
+    * @param calendarMap map of calendar UIDs to calendars, populated by this method
+    * @return Project instance containing the project properties
+    */
+   private Project readIncrementally(InputStream stream, Unmarshaller unmarshaller, HashMap<BigInteger, ProjectCalendar> calendarMap) throws XMLStreamException, JAXBException
+   {
+      XMLInputFactory inputFactory = XMLInputFactory.newInstance();
+      inputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+      inputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
+      XMLStreamReader reader = new NamespaceStreamReader(inputFactory.createXMLStreamReader(new InputStreamReader(stream, getCharset())));
+
+      StringWriter headerText = new StringWriter();
+      XMLStreamWriter header = XMLOutputFactory.newInstance().createXMLStreamWriter(headerText);
+      header.writeStartDocument();
+      header.writeStartElement("Project");
+      header.writeDefaultNamespace(NamespaceStreamReader.NAMESPACE);
+
+      Project project = null;
+      boolean calendarsRead = false;
+      boolean tasksRead = false;
+
+      reader.nextTag();
+      reader.next();
+
+      while (!reader.isEndElement())
+      {
+         if (reader.isStartElement())
+         {
+            String name = reader.getLocalName();
+            if (INCREMENTAL_COLLECTIONS.contains(name))
+            {
+               if (project == null)
+               {
+                  project = readProjectHeader(unmarshaller, header, headerText);
+               }
+
+               reader.next();
+
+               if (name.equals("Calendars"))
+               {
+                  readCalendars(reader, unmarshaller, calendarMap);
+                  calendarsRead = true;
+               }
+               else
+                  if (name.equals("Tasks"))
+                  {
+                     readTasks(reader, unmarshaller);
+                     tasksRead = true;
+                  }
+                  else
+                     if (name.equals("Resources"))
+                     {
+                        readResources(reader, unmarshaller, calendarMap);
+                     }
+                     else
+                     {
+                        readAssignments(reader, unmarshaller);
+                     }
+            }
+            else
+            {
+               copyElement(reader, header);
+            }
+         }
+         reader.next();
+      }
+
+      reader.close();
+
+      if (project == null)
+      {
+         project = readProjectHeader(unmarshaller, header, headerText);
+      }
+
+      if (!calendarsRead)
+      {
+         readDefaultCalendar(calendarMap);
+      }
+
+      if (!tasksRead)
+      {
+         m_projectFile.updateStructure();
+      }
+
+      return project;
+   }
+
+   /**
+    * Complete the buffered project header, unmarshal it and read
+    * the project properties and extended attribute definitions.
+    *
+    * @param unmarshaller unmarshaller
+    * @param header writer used to buffer the project header
+    * @param headerText buffered project header
+    * @return Project instance
+    */
+   private Project readProjectHeader(Unmarshaller unmarshaller, XMLStreamWriter header, StringWriter headerText) throws XMLStreamException, JAXBException
+   {
+      header.writeEndElement();
+      header.writeEndDocument();
+      header.close();
+
+      Project project = (Project) unmarshaller.unmarshal(new StreamSource(new StringReader(headerText.toString())));
+      readProjectProperties(project);
+      readProjectExtendedAttributes(project);
+
+      return project;
+   }
+
+   /**
+    * Copy the element at the current reader position to the writer.
+    * On return the reader is positioned at the end of the element.
+    *
+    * @param reader XML reader
+    * @param writer XML writer
+    */
+   private void copyElement(XMLStreamReader reader, XMLStreamWriter writer) throws XMLStreamException
+   {
+      int depth = 0;
+      while (true)
+      {
+         switch (reader.getEventType())
+         {
+            case XMLStreamConstants.START_ELEMENT:
+            {
+               writer.writeStartElement(reader.getLocalName());
+               for (int index = 0; index < reader.getAttributeCount(); index++)
+               {
+                  String namespace = reader.getAttributeNamespace(index);
+                  if (namespace == null || namespace.length() == 0)
+                  {
+                     writer.writeAttribute(reader.getAttributeLocalName(index), reader.getAttributeValue(index));
+                  }
+               }
+               ++depth;
+               break;
+            }
+
+            case XMLStreamConstants.END_ELEMENT:
+            {
+               writer.writeEndElement();
+               --depth;
+               break;
+            }
+
+            case XMLStreamConstants.CHARACTERS:
+            case XMLStreamConstants.CDATA:
+            case XMLStreamConstants.SPACE:
+            {
+               writer.writeCharacters(reader.getText());
+               break;
+            }
+
+            default:
+            {
+               break;
+            }
+         }
+
+         if (depth == 0)
+         {
+            break;
+         }
+
+         reader.next();
+      }
+   }
+
+   /**
+    * Unmarshal the next child of the collection element currently being read.
+    * If the end of the collection has been reached, the reader is left
+    * positioned at the end of the collection element.
+    *
+    * @param reader XML reader
+    * @param unmarshaller unmarshaller
+    * @param type expected element type
+    * @param <T> element type
+    * @return unmarshalled element, or null at the end of the collection
+    */
+   private <T> T readNextElement(XMLStreamReader reader, Unmarshaller unmarshaller, Class<T> type) throws XMLStreamException, JAXBException
+   {
+      while (!reader.isStartElement() && !reader.isEndElement())
+      {
+         reader.next();
+      }
+
+      return reader.isEndElement() ? null : unmarshaller.unmarshal(reader, type).getValue();
+   }
+
    /**
     * This method extracts project properties from an MSPDI file.
     *
@@ -394,6 +634,36 @@ public final class MSPDIReader extends AbstractProjectReader
          updateBaseCalendarNames(baseCalendars, map);
       }
 
+      readDefaultCalendar(map);
+   }
+
+   /**
+    * This method reads calendar data from an MSPDI file, one calendar at a time.
+    *
+    * @param reader XML reader positioned within the Calendars element
+    * @param unmarshaller unmarshaller
+    * @param map Map of calendar UIDs to names
+    */
+   private void readCalendars(XMLStreamReader reader, Unmarshaller unmarshaller, HashMap<BigInteger, ProjectCalendar> map) throws XMLStreamException, JAXBException
+   {
+      LinkedList<Pair<ProjectCalendar, BigInteger>> baseCalendars = new LinkedList<Pair<ProjectCalendar, BigInteger>>();
+      Project.Calendars.Calendar cal;
+      while ((cal = readNextElement(reader, unmarshaller, Project.Calendars.Calendar.class)) != null)
+      {
+         readCalendar(cal, map, baseCalendars);
+      }
+      updateBaseCalendarNames(baseCalendars, map);
+      readDefaultCalendar(map);
+   }
+
+   /**
+    * Set the project's default calendar, using the calendar UID
+    * read from the project properties.
+    *
+    * @param map Map of calendar UIDs to names
+    */
+   private void readDefaultCalendar(HashMap<BigInteger, ProjectCalendar> map)
+   {
       try
       {
          ProjectProperties properties = m_projectFile.getProjectProperties();
@@ -870,6 +1140,22 @@ public final class MSPDIReader extends AbstractProjectReader
       }
    }
 
+   /**
+    * This method reads resource data from an MSPDI file, one resource at a time.
+    *
+    * @param reader XML reader positioned within the Resources element
+    * @param unmarshaller unmarshaller
+    * @param calendarMap Map of calendar UIDs to names
+    */
+   private void readResources(XMLStreamReader reader, Unmarshaller unmarshaller, HashMap<BigInteger, ProjectCalendar> calendarMap) throws XMLStreamException, JAXBException
+   {
+      Project.Resources.Resource resource;
+      while ((resource = readNextElement(reader, unmarshaller, Project.Resources.Resource.class)) != null)
+      {
+         readResource(resource, calendarMap);
+      }
+   }
+
    /**
     * This method extracts data for a single resource from an MSPDI file.
     *
@@ -1009,8 +1295,11 @@ public final class MSPDIReader extends AbstractProjectReader
       {
          int xmlFieldID = Integer.parseInt(attrib.getFieldID()) & 0x0000FFFF;
          ResourceField mpxFieldID = MPPResourceField.getInstance(xmlFieldID);
-         TimeUnit durationFormat = DatatypeConverter.parseDurationTimeUnits(attrib.getDurationFormat(), null);
-         DatatypeConverter.parseExtendedAttribute(m_projectFile, mpx, attrib.getValue(), mpxFieldID, durationFormat);
+         if (m_projectFile.getProjectConfig().getFieldRequired(mpxFieldID))
+         {
+            TimeUnit durationFormat = DatatypeConverter.parseDurationTimeUnits(attrib.getDurationFormat(), null);
+            DatatypeConverter.parseExtendedAttribute(m_projectFile, mpx, attrib.getValue(), mpxFieldID, durationFormat);
+         }
       }
    }
 
@@ -1141,6 +1430,52 @@ public final class MSPDIReader extends AbstractProjectReader
       m_projectFile.updateStructure();
    }
 
+   /**
+    * This method reads task data from an MSPDI file, one task at a time.
+    * Predecessor links are retained until all tasks have been read,
+    * the remainder of each task's XML data is discarded once it has been read.
+    *
+    * @param reader XML reader positioned within the Tasks element
+    * @param unmarshaller unmarshaller
+    */
+   private void readTasks(XMLStreamReader reader, Unmarshaller unmarshaller) throws XMLStreamException, JAXBException
+   {
+      int taskCount = 0;
+      int tasksWithoutIDCount = 0;
+      List<Project.Tasks.Task> predecessors = new LinkedList<Project.Tasks.Task>();
+
+      Project.Tasks.Task task;
+      while ((task = readNextElement(reader, unmarshaller, Project.Tasks.Task.class)) != null)
+      {
+         ++taskCount;
+         Task mpxjTask = readTask(task);
+         if (mpxjTask.getID() == null)
+         {
+            ++tasksWithoutIDCount;
+         }
+
+         if (!task.getPredecessorLink().isEmpty())
+         {
+            Project.Tasks.Task links = new Project.Tasks.Task();
+            links.setUID(task.getUID());
+            links.getPredecessorLink().addAll(task.getPredecessorLink());
+            predecessors.add(links);
+         }
+      }
+
+      for (Project.Tasks.Task links : predecessors)
+      {
+         readPredecessors(links);
+      }
+
+      if (taskCount != 0 && tasksWithoutIDCount == taskCount)
+      {
+         m_projectFile.getTasks().renumberIDs();
+      }
+
+      m_projectFile.updateStructure();
+   }
+
    /**
     * This method extracts data for a single task from an MSPDI file.
     *
@@ -1447,8 +1782,11 @@ public final class MSPDIReader extends AbstractProjectReader
       {
          int xmlFieldID = Integer.parseInt(attrib.getFieldID()) & 0x0000FFFF;
          TaskField mpxFieldID = MPPTaskField.getInstance(xmlFieldID);
-         TimeUnit durationFormat = DatatypeConverter.parseDurationTimeUnits(attrib.getDurationFormat(), null);
-         DatatypeConverter.parseExtendedAttribute(m_projectFile, mpx, attrib.getValue(), mpxFieldID, durationFormat);
+         if (m_projectFile.getProjectConfig().getFieldRequired(mpxFieldID))
+         {
+            TimeUnit durationFormat = DatatypeConverter.parseDurationTimeUnits(attrib.getDurationFormat(), null);
+            DatatypeConverter.parseExtendedAttribute(m_projectFile, mpx, attrib.getValue(), mpxFieldID, durationFormat);
+         }
       }
    }
 
@@ -1563,6 +1901,23 @@ public final class MSPDIReader extends AbstractProjectReader
       }
    }
 
+   /**
+    * This method reads assignment data from an MSPDI file, one assignment at a time.
+    *
+    * @param reader XML reader positioned within the Assignments element
+    * @param unmarshaller unmarshaller
+    */
+   private void readAssignments(XMLStreamReader reader, Unmarshaller unmarshaller) throws XMLStreamException, JAXBException
+   {
+      SplitTaskFactory splitFactory = new SplitTaskFactory();
+      TimephasedWorkNormaliser normaliser = new MSPDITimephasedWorkNormaliser();
+      Project.Assignments.Assignment assignment;
+      while ((assignment = readNextElement(reader, unmarshaller, Project.Assignments.Assignment.class)) != null)
+      {
+         readAssignment(assignment, splitFactory, normaliser);
+      }
+   }
+
    /**
     * This method extracts data for a single assignment from an MSPDI file.
     *
@@ -1724,8 +2079,11 @@ public final class MSPDIReader extends AbstractProjectReader
       {
          int xmlFieldID = Integer.parseInt(attrib.getFieldID()) & 0x0000FFFF;
          AssignmentField mpxFieldID = MPPAssignmentField.getInstance(xmlFieldID);
-         TimeUnit durationFormat = DatatypeConverter.parseDurationTimeUnits(attrib.getDurationFormat(), null);
-         DatatypeConverter.parseExtendedAttribute(m_projectFile, mpx, attrib.getValue(), mpxFieldID, durationFormat);
+         if (m_projectFile.getProjectConfig().getFieldRequired(mpxFieldID))
+         {
+            TimeUnit durationFormat = DatatypeConverter.parseDurationTimeUnits(attrib.getDurationFormat(), null);
+            DatatypeConverter.parseExtendedAttribute(m_projectFile, mpx, attrib.getValue(), mpxFieldID, durationFormat);
+         }
       }
    }
 
@@ -1831,44 +2189,43 @@ public final class MSPDIReader extends AbstractProjectReader
    }
 
    /**
-    * Cached context to minimise construction cost.
+    * Sets a flag indicating that the file should be read incrementally.
+    * Rather than unmarshalling the whole document into memory before
+    * it is processed, the file is read using StAX and each calendar, task,
+    * resource and assignment is unmarshalled and processed individually.
+    * This substantially reduces the memory required to read large files,
+    * particularly those containing timephased data.
+    *
+    * @param flag incremental parsing flag
     */
-   private static JAXBContext CONTEXT;
+   public void setIncrementalParsing(boolean flag)
+   {
+      m_incrementalParsing = flag;
+   }
 
    /**
-    * Note any error occurring during context construction.
+    * Retrieves a flag indicating that the file should be read incrementally.
+    *
+    * @return Boolean flag
     */
-   private static JAXBException CONTEXT_EXCEPTION;
-
-   static
+   public boolean getIncrementalParsing()
    {
-      try
-      {
-         //
-         // JAXB RI property to speed up construction
-         //
-         System.setProperty("com.sun.xml.bind.v2.runtime.JAXBContextImpl.fastBoot", "true");
-
-         //
-         // Construct the context
-         //
-         CONTEXT = JAXBContext.newInstance("net.sf.mpxj.mspdi.schema", MSPDIReader.class.getClassLoader());
-      }
-
-      catch (JAXBException ex)
-      {
-         CONTEXT_EXCEPTION = ex;
-         CONTEXT = null;
-      }
+      return (m_incrementalParsing);
    }
 
    private boolean m_compatibleInput = true;
+   private boolean m_incrementalParsing;
    private String m_encoding;
    private Charset m_charset;
    private ProjectFile m_projectFile;
    private EventManager m_eventManager;
    private List<ProjectListener> m_projectListeners;
 
+   /**
+    * Collection elements whose children are unmarshalled individually when reading incrementally.
+    */
+   private static final Set<String> INCREMENTAL_COLLECTIONS = new HashSet<String>(Arrays.asList("Calendars", "Tasks", "Resources", "Assignments"));
+
    private static final RecurrenceType[] RECURRENCE_TYPES =
    {
       null,
@@ -1902,4 +2259,6 @@ public final class MSPDIReader extends AbstractProjectReader
       0x20, // Friday
       0x40, // Saturday
    };
+
+   private static final String CONTEXT_PATH = "net.sf.mpxj.mspdi.schema";
 }
@@ -25,6 +25,8 @@ package net.sf.mpxj.mspdi;
 
 import java.io.IOException;
 import java.io.OutputStream;
+import java.io.StringReader;
+import java.io.StringWriter;
 import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -37,9 +39,16 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Set;
 
-import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBElement;
 import javax.xml.bind.JAXBException;
 import javax.xml.bind.Marshaller;
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
 
 import net.sf.mpxj.AccrueType;
 import net.sf.mpxj.AssignmentField;
@@ -77,6 +86,7 @@ import net.sf.mpxj.TimephasedWork;
 import net.sf.mpxj.common.AssignmentFieldLists;
 import net.sf.mpxj.common.DateHelper;
 import net.sf.mpxj.common.FieldTypeHelper;
+import net.sf.mpxj.common.JAXBContextRegistry;
 import net.sf.mpxj.common.MPPAssignmentField;
 import net.sf.mpxj.common.MPPResourceField;
 import net.sf.mpxj.common.MPPTaskField;
@@ -165,6 +175,32 @@ public final class MSPDIWriter extends AbstractProjectWriter
       return m_saveVersion;
    }
 
+   /**
+    * Sets a flag to control whether the file is written incrementally.
+    * Rather than building the complete JAXB representation of the project
+    * before it is written, each calendar, task, resource and assignment
+    * is marshalled as soon as it has been converted. This substantially
+    * reduces the memory required to write large files, particularly those
+    * containing timephased data. The default is false.
+    *
+    * @param flag boolean flag
+    */
+   public void setIncrementalWriting(boolean flag)
+   {
+      m_incrementalWriting = flag;
+   }
+
+   /**
+    * Retrieves a flag to control whether the file is written incrementally.
+    * The default is false.
+    *
+    * @return boolean flag
+    */
+   public boolean getIncrementalWriting()
+   {
+      return m_incrementalWriting;
+   }
+
    /**
     * {@inheritDoc}
     */
@@ -172,17 +208,12 @@ public final class MSPDIWriter extends AbstractProjectWriter
    {
       try
       {
-         if (CONTEXT == null)
-         {
-            throw CONTEXT_EXCEPTION;
-         }
-
          m_projectFile = projectFile;
          m_projectFile.validateUniqueIDsForMicrosoftProject();
          m_eventManager = m_projectFile.getEventManager();
          DatatypeConverter.setParentFile(m_projectFile);
 
-         Marshaller marshaller = CONTEXT.createMarshaller();
+         Marshaller marshaller = JAXBContextRegistry.getMarshaller(CONTEXT_PATH);
          marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, Boolean.TRUE);
 
          m_extendedAttributesInUse = new HashSet<FieldType>();
@@ -190,14 +221,21 @@ public final class MSPDIWriter extends AbstractProjectWriter
          m_factory = new ObjectFactory();
          Project project = m_factory.createProject();
 
-         writeProjectProperties(project);
-         writeCalendars(project);
-         writeResources(project);
-         writeTasks(project);
-         writeAssignments(project);
-         writeProjectExtendedAttributes(project);
-
-         marshaller.marshal(project, stream);
+         if (m_incrementalWriting)
+         {
+            writeIncrementally(marshaller, project, stream);
+         }
+         else
+         {
+            writeProjectProperties(project);
+            writeCalendars(project);
+            writeResources(project);
+            writeTasks(project);
+            writeAssignments(project);
+            writeProjectExtendedAttributes(project);
+
+            marshaller.marshal(project, stream);
+         }
       }
 
       catch (JAXBException ex)
@@ -205,6 +243,11 @@ public final class MSPDIWriter extends AbstractProjectWriter
          throw new IOException(ex.toString());
       }
 
+      catch (XMLStreamException ex)
+      {
+         throw new IOException(ex.toString());
+      }
+
       finally
       {
          m_projectFile = null;
@@ -213,6 +256,183 @@ public final class MSPDIWriter extends AbstractProjectWriter
       }
    }
 
+   /**
+    * Writes the MSPDI file incrementally. The project properties and
+    * extended attribute definitions are marshalled first, then each
+    * calendar, task, resource and assignment is converted and marshalled
+    * individually, so the complete JAXB representation of the
+    * project is never held in memory.
+    *
+    * @param marshaller marshaller
+    * @param project Root node of the MSPDI file, used for the project properties
+    * @param stream output stream
+    */
+   private void writeIncrementally(Marshaller marshaller, Project project, OutputStream stream) throws JAXBException, XMLStreamException
+   {
+      //
+      // The extended attribute definitions precede the tasks, resources
+      // and assignments in the file, so we need to find out which
+      // extended attributes are in use before we write anything.
+      //
+      findExtendedAttributesInUse();
+      writeProjectProperties(project);
+      writeProjectExtendedAttributes(project);
+
+      XMLStreamWriter writer = XMLOutputFactory.newInstance().createXMLStreamWriter(stream, "UTF-8");
+      writer.writeStartDocument("UTF-8", "1.0");
+      writeProjectHeader(marshaller, project, writer);
+
+      marshaller.setProperty(Marshaller.JAXB_FRAGMENT, Boolean.TRUE);
+
+      writer.writeStartElement("Calendars");
+      for (ProjectCalendar cal : m_projectFile.getCalendars())
+      {
+         marshaller.marshal(new JAXBElement<Project.Calendars.Calendar>(new QName(NAMESPACE, "Calendar"), Project.Calendars.Calendar.class, writeCalendar(cal)), writer);
+      }
+      writer.writeEndElement();
+
+      writer.writeStartElement("Tasks");
+      for (Task task : m_projectFile.getTasks())
+      {
+         marshaller.marshal(new JAXBElement<Project.Tasks.Task>(new QName(NAMESPACE, "Task"), Project.Tasks.Task.class, writeTask(task)), writer);
+      }
+      writer.writeEndElement();
+
+      writer.writeStartElement("Resources");
+      for (Resource resource : m_projectFile.getResources())
+      {
+         marshaller.marshal(new JAXBElement<Project.Resources.Resource>(new QName(NAMESPACE, "Resource"), Project.Resources.Resource.class, writeResource(resource)), writer);
+      }
+      writer.writeEndElement();
+
+      writer.writeStartElement("Assignments");
+      for (ResourceAssignment assignment : m_projectFile.getResourceAssignments())
+      {
+         marshaller.marshal(new JAXBElement<Project.Assignments.Assignment>(new QName(NAMESPACE, "Assignment"), Project.Assignments.Assignment.class, writeAssignment(assignment)), writer);
+      }
+
+      for (ResourceAssignment assignment : createDummyAssignments())
+      {
+         marshaller.marshal(new JAXBElement<Project.Assignments.Assignment>(new QName(NAMESPACE, "Assignment"), Project.Assignments.Assignment.class, writeAssignment(assignment)), writer);
+      }
+      writer.writeEndElement();
+
+      writer.writeEndElement();
+      writer.writeEndDocument();
+      writer.flush();
+   }
+
+   /**
+    * Marshals the project properties, and writes them to the output
+    * leaving the root element open so that the calendars, tasks,
+    * resources and assignments can be added to it.
+    *
+    * @param marshaller marshaller
+    * @param project Root node of the MSPDI file
+    * @param writer XML output
+    */
+   private void writeProjectHeader(Marshaller marshaller, Project project, XMLStreamWriter writer) throws JAXBException, XMLStreamException
+   {
+      StringWriter headerText = new StringWriter();
+      marshaller.setProperty(Marshaller.JAXB_FRAGMENT, Boolean.TRUE);
+      marshaller.marshal(project, headerText);
+
+      XMLStreamReader reader = XMLInputFactory.newInstance().createXMLStreamReader(new StringReader(headerText.toString()));
+      int depth = 0;
+      while (reader.hasNext())
+      {
+         switch (reader.next())
+         {
+            case XMLStreamConstants.START_ELEMENT:
+            {
+               if (depth == 0)
+               {
+                  writer.writeStartElement(reader.getLocalName());
+                  writer.writeDefaultNamespace(NAMESPACE);
+               }
+               else
+               {
+                  writer.writeStartElement(reader.getLocalName());
+               }
+
+               for (int index = 0; index < reader.getAttributeCount(); index++)
+               {
+                  writer.writeAttribute(reader.getAttributeLocalName(index), reader.getAttributeValue(index));
+               }
+               ++depth;
+               break;
+            }
+
+            case XMLStreamConstants.END_ELEMENT:
+            {
+               --depth;
+               if (depth != 0)
+               {
+                  writer.writeEndElement();
+               }
+               break;
+            }
+
+            case XMLStreamConstants.CHARACTERS:
+            case XMLStreamConstants.CDATA:
+            {
+               writer.writeCharacters(reader.getText());
+               break;
+            }
+
+            default:
+            {
+               break;
+            }
+         }
+      }
+      reader.close();
+   }
+
+   /**
+    * When writing incrementally, this method determines which extended
+    * attributes are used by tasks, resources and assignments before
+    * they are written.
+    */
+   private void findExtendedAttributesInUse()
+   {
+      List<TaskField> taskFields = getAllTaskExtendedAttributes();
+      for (Task task : m_projectFile.getTasks())
+      {
+         for (TaskField field : taskFields)
+         {
+            if (FieldTypeHelper.valueIsNotDefault(field, task.getCachedValue(field)))
+            {
+               m_extendedAttributesInUse.add(field);
+            }
+         }
+      }
+
+      List<ResourceField> resourceFields = getAllResourceExtendedAttributes();
+      for (Resource resource : m_projectFile.getResources())
+      {
+         for (ResourceField field : resourceFields)
+         {
+            if (FieldTypeHelper.valueIsNotDefault(field, resource.getCachedValue(field)))
+            {
+               m_extendedAttributesInUse.add(field);
+            }
+         }
+      }
+
+      List<AssignmentField> assignmentFields = getAllAssignmentExtendedAttributes();
+      for (ResourceAssignment assignment : m_projectFile.getResourceAssignments())
+      {
+         for (AssignmentField field : assignmentFields)
+         {
+            if (FieldTypeHelper.valueIsNotDefault(field, assignment.getCachedValue(field)))
+            {
+               m_extendedAttributesInUse.add(field);
+            }
+         }
+      }
+   }
+
    /**
     * This method writes project properties to an MSPDI file.
     *
@@ -1449,12 +1669,23 @@ public final class MSPDIWriter extends AbstractProjectWriter
          list.add(writeAssignment(assignment));
       }
 
-      //
-      // Check to see if we have any tasks that have a percent complete value
-      // but do not have resource assignments. If any exist, then we must
-      // write a dummy resource assignment record to ensure that the MSPDI
-      // file shows the correct percent complete amount for the task.
-      //
+      for (ResourceAssignment assignment : createDummyAssignments())
+      {
+         list.add(writeAssignment(assignment));
+      }
+   }
+
+   /**
+    * Check to see if we have any tasks that have a percent complete value
+    * but do not have resource assignments. If any exist, then we must
+    * write a dummy resource assignment record to ensure that the MSPDI
+    * file shows the correct percent complete amount for the task.
+    *
+    * @return dummy resource assignments
+    */
+   private List<ResourceAssignment> createDummyAssignments()
+   {
+      List<ResourceAssignment> result = new ArrayList<ResourceAssignment>();
       ProjectConfig config = m_projectFile.getProjectConfig();
       boolean autoUniqueID = config.getAutoAssignmentUniqueID();
       if (!autoUniqueID)
@@ -1489,11 +1720,13 @@ public final class MSPDIWriter extends AbstractProjectWriter
                dummy.setActualFinish(task.getActualStart());
             }
             
-            list.add(writeAssignment(dummy));
+            result.add(dummy);
          }
       }
 
       config.setAutoAssignmentUniqueID(autoUniqueID);
+
+      return result;
    }
 
    /**
@@ -1997,38 +2230,6 @@ public final class MSPDIWriter extends AbstractProjectWriter
       return (m_projectFile);
    }
 
-   /**
-    * Cached context to minimise construction cost.
-    */
-   private static JAXBContext CONTEXT;
-
-   /**
-    * Note any error occurring during context construction.
-    */
-   private static JAXBException CONTEXT_EXCEPTION;
-
-   static
-   {
-      try
-      {
-         //
-         // JAXB RI property to speed up construction
-         //
-         System.setProperty("com.sun.xml.bind.v2.runtime.JAXBContextImpl.fastBoot", "true");
-
-         //
-         // Construct the context
-         //
-         CONTEXT = JAXBContext.newInstance("net.sf.mpxj.mspdi.schema", MSPDIWriter.class.getClassLoader());
-      }
-
-      catch (JAXBException ex)
-      {
-         CONTEXT_EXCEPTION = ex;
-         CONTEXT = null;
-      }
-   }
-
    // TODO share this
    private static final int[] DAY_MASKS =
    {
@@ -2054,11 +2255,17 @@ public final class MSPDIWriter extends AbstractProjectWriter
 
    private boolean m_writeTimphasedData;
 
+   private boolean m_incrementalWriting;
+
    private SaveVersion m_saveVersion = SaveVersion.Project2016;
 
+   private static final String NAMESPACE = "http://schemas.microsoft.com/project";
+
    private static final BigInteger BIGINTEGER_ZERO = BigInteger.valueOf(0);
 
    private static final Integer NULL_RESOURCE_ID = Integer.valueOf(-65535);
 
    private static final BigInteger NULL_CALENDAR_ID = BigInteger.valueOf(-1);
+
+   private static final String CONTEXT_PATH = "net.sf.mpxj.mspdi.schema";
 }
@@ -0,0 +1,57 @@
+/*
+ * file:       NamespaceStreamReader.java
+ * author:     Jon Iles
+ * copyright:  (c) Packwood Software 2019
+ * date:       27/02/2019
+ */
+
+/*
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation, Inc.,
+ * 59 Temple Place, Suite 330, Boston, MA 02111-1307, USA.
+ */
+
+package net.sf.mpxj.mspdi;
+
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.util.StreamReaderDelegate;
+
+/**
+ * This class ensures that JAXB sees the namespace it is expecting when it
+ * reads the file using StAX. This is the StAX equivalent of NamespaceFilter.
+ */
+class NamespaceStreamReader extends StreamReaderDelegate
+{
+   /**
+    * Constructor.
+    *
+    * @param reader underlying reader
+    */
+   public NamespaceStreamReader(XMLStreamReader reader)
+   {
+      super(reader);
+   }
+
+   @Override public String getNamespaceURI()
+   {
+      return isStartElement() || isEndElement() ? NAMESPACE : super.getNamespaceURI();
+   }
+
+   @Override public QName getName()
+   {
+      return new QName(NAMESPACE, getLocalName());
+   }
+
+   static final String NAMESPACE = "http://schemas.microsoft.com/project";
+}
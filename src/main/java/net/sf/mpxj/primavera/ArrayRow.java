@@ -0,0 +1,58 @@
+/*
+ * file:       ArrayRow.java
+ * author:     Jon Iles
+ * copyright:  (c) Packwood Software 2019
+ * date:       18/02/2019
+ */
+
+/*
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation, Inc.,
+ * 59 Temple Place, Suite 330, Boston, MA 02111-1307, USA.
+ */
+
+package net.sf.mpxj.primavera;
+
+import java.util.Map;
+
+/**
+ * Implementation of the Row interface, holding column values in a flat array.
+ * The mapping from column name to array index is shared by all rows
+ * belonging to the same table, avoiding the cost of a map per row.
+ */
+final class ArrayRow extends AbstractRow
+{
+   /**
+    * Constructor.
+    *
+    * @param columns column name to array index map shared by all rows in the table
+    * @param values column values
+    */
+   public ArrayRow(Map<String, Integer> columns, Object[] values)
+   {
+      m_columns = columns;
+      m_values = values;
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   @Override protected Object getObject(String name)
+   {
+      Integer index = m_columns.get(name);
+      return index == null ? null : m_values[index.intValue()];
+   }
+
+   private final Map<String, Integer> m_columns;
+   private final Object[] m_values;
+}
@@ -33,9 +33,11 @@ import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import javax.sql.DataSource;
 
@@ -162,14 +164,71 @@ public final class PrimaveraDatabaseReader implements ProjectReader
    {
       Map<Integer, String> projects = listProjects();
       List<ProjectFile> result = new ArrayList<ProjectFile>(projects.keySet().size());
-      for (Integer id : projects.keySet())
+
+      try
       {
-         setProjectID(id.intValue());
-         result.add(read());
+         if (m_bulkLoad)
+         {
+            loadTables();
+         }
+
+         for (Integer id : projects.keySet())
+         {
+            setProjectID(id.intValue());
+            result.add(read());
+         }
       }
+
+      catch (SQLException ex)
+      {
+         throw new MPXJException(MPXJException.READ_ERROR, ex);
+      }
+
+      finally
+      {
+         m_tables = null;
+         m_tableIndexes = null;
+      }
+
       return result;
    }
 
+   /**
+    * Used when bulk loading to read each table once. Tables shared by
+    * all projects are held as lists of rows, tables with a proj_id column
+    * are indexed by project ID. Calendars and user defined field values
+    * which are not associated with a project are read separately, as a null
+    * proj_id is read as zero rather than null. Subsequent calls to read draw
+    * their data from these tables rather than querying the database.
+    *
+    * @throws SQLException
+    */
+   private void loadTables() throws SQLException
+   {
+      m_tables = new HashMap<String, List<Row>>();
+      m_tableIndexes = new HashMap<String, Map<Integer, List<Row>>>();
+
+      m_tables.put("prefer", getRows("select * from " + m_schema + "prefer where prefer.delete_date is null"));
+      m_tables.put("currtype", getRows("select * from " + m_schema + "currtype"));
+      m_tables.put("actvtype", getRows("select * from " + m_schema + "actvtype"));
+      m_tables.put("actvcode", getRows("select * from " + m_schema + "actvcode"));
+      m_tables.put("udftype", getRows("select * from " + m_schema + "udftype"));
+      m_tables.put("rsrc", getRows("select * from " + m_schema + "rsrc where delete_date is null order by rsrc_seq_num"));
+      m_tables.put("rsrcrate", getRows("select * from " + m_schema + "rsrcrate where delete_date is null order by rsrc_rate_id"));
+      m_tables.put("udfvalue", getRows("select * from " + m_schema + "udfvalue where proj_id is null"));
+      m_tables.put("calendar", getRows("select * from " + m_schema + "calendar where proj_id is null and delete_date is null"));
+
+      m_tableIndexes.put("project", getIndexedRows("select * from " + m_schema + "project"));
+      m_tableIndexes.put("projprop", getIndexedRows("select * from " + m_schema + "projprop where prop_name='scheduling'"));
+      m_tableIndexes.put("taskactv", getIndexedRows("select * from " + m_schema + "taskactv"));
+      m_tableIndexes.put("udfvalue", getIndexedRows("select * from " + m_schema + "udfvalue where proj_id is not null"));
+      m_tableIndexes.put("calendar", getIndexedRows("select * from " + m_schema + "calendar where proj_id is not null and delete_date is null"));
+      m_tableIndexes.put("projwbs", getIndexedRows("select * from " + m_schema + "projwbs where delete_date is null order by parent_wbs_id,seq_num"));
+      m_tableIndexes.put("task", getIndexedRows("select * from " + m_schema + "task where delete_date is null"));
+      m_tableIndexes.put("taskpred", getIndexedRows("select * from " + m_schema + "taskpred where delete_date is null"));
+      m_tableIndexes.put("taskrsrc", getIndexedRows("select * from " + m_schema + "taskrsrc where delete_date is null"));
+   }
+
    /**
     * Populate data for analytics.
     */
@@ -211,13 +270,13 @@ public final class PrimaveraDatabaseReader implements ProjectReader
       //
       // Process common attributes
       //
-      List<Row> rows = getRows("select * from " + m_schema + "project where proj_id=?", m_projectID);
+      List<Row> rows = getProjectRows("project", "select * from " + m_schema + "project where proj_id=?");
       m_reader.processProjectProperties(rows, m_projectID);
 
       //
       // Process PMDB-specific attributes
       //
-      rows = getRows("select * from " + m_schema + "prefer where prefer.delete_date is null");
+      rows = m_tables == null ? getRows("select * from " + m_schema + "prefer where prefer.delete_date is null") : m_tables.get("prefer");
       if (!rows.isEmpty())
       {
          Row row = rows.get(0);
@@ -239,9 +298,23 @@ public final class PrimaveraDatabaseReader implements ProjectReader
     */
    private void processActivityCodes() throws SQLException
    {
-      List<Row> types = getRows("select * from " + m_schema + "actvtype where actv_code_type_id in (select distinct actv_code_type_id from taskactv where proj_id=?)", m_projectID);
-      List<Row> typeValues = getRows("select * from " + m_schema + "actvcode where actv_code_id in (select distinct actv_code_id from taskactv where proj_id=?)", m_projectID);
-      List<Row> assignments = getRows("select * from " + m_schema + "taskactv where proj_id=?", m_projectID);
+      List<Row> types;
+      List<Row> typeValues;
+      List<Row> assignments;
+
+      if (m_tables == null)
+      {
+         types = getRows("select * from " + m_schema + "actvtype where actv_code_type_id in (select distinct actv_code_type_id from taskactv where proj_id=?)", m_projectID);
+         typeValues = getRows("select * from " + m_schema + "actvcode where actv_code_id in (select distinct actv_code_id from taskactv where proj_id=?)", m_projectID);
+         assignments = getRows("select * from " + m_schema + "taskactv where proj_id=?", m_projectID);
+      }
+      else
+      {
+         assignments = getProjectRows("taskactv", null);
+         types = getMatchingRows("actvtype", "actv_code_type_id", assignments);
+         typeValues = getMatchingRows("actvcode", "actv_code_id", assignments);
+      }
+
       m_reader.processActivityCodes(types, typeValues, assignments);
    }
 
@@ -250,8 +323,20 @@ public final class PrimaveraDatabaseReader implements ProjectReader
     */
    private void processUserDefinedFields() throws SQLException
    {
-      List<Row> fields = getRows("select * from " + m_schema + "udftype");
-      List<Row> values = getRows("select * from " + m_schema + "udfvalue where proj_id=? or proj_id is null", m_projectID);
+      List<Row> fields;
+      List<Row> values;
+
+      if (m_tables == null)
+      {
+         fields = getRows("select * from " + m_schema + "udftype");
+         values = getRows("select * from " + m_schema + "udfvalue where proj_id=? or proj_id is null", m_projectID);
+      }
+      else
+      {
+         fields = m_tables.get("udftype");
+         values = getProjectAndGlobalRows("udfvalue");
+      }
+
       m_reader.processUserDefinedFields(fields, values);
    }
 
@@ -263,7 +348,7 @@ public final class PrimaveraDatabaseReader implements ProjectReader
     */
    private void processSchedulingProjectProperties() throws SQLException
    {
-      List<Row> rows = getRows("select * from " + m_schema + "projprop where proj_id=? and prop_name='scheduling'", m_projectID);
+      List<Row> rows = getProjectRows("projprop", "select * from " + m_schema + "projprop where proj_id=? and prop_name='scheduling'");
       if (!rows.isEmpty())
       {
          Row row = rows.get(0);
@@ -292,7 +377,23 @@ public final class PrimaveraDatabaseReader implements ProjectReader
     */
    private void processDefaultCurrency(Integer currencyID) throws SQLException
    {
-      List<Row> rows = getRows("select * from " + m_schema + "currtype where curr_id=?", currencyID);
+      List<Row> rows;
+      if (m_tables == null)
+      {
+         rows = getRows("select * from " + m_schema + "currtype where curr_id=?", currencyID);
+      }
+      else
+      {
+         rows = new LinkedList<Row>();
+         for (Row row : m_tables.get("currtype"))
+         {
+            if (NumberHelper.equals(currencyID, row.getInteger("curr_id")))
+            {
+               rows.add(row);
+            }
+         }
+      }
+
       if (!rows.isEmpty())
       {
          Row row = rows.get(0);
@@ -307,7 +408,16 @@ public final class PrimaveraDatabaseReader implements ProjectReader
     */
    private void processResources() throws SQLException
    {
-      List<Row> rows = getRows("select * from " + m_schema + "rsrc where delete_date is null and rsrc_id in (select rsrc_id from " + m_schema + "taskrsrc t where proj_id=? and delete_date is null) order by rsrc_seq_num", m_projectID);
+      List<Row> rows;
+      if (m_tables == null)
+      {
+         rows = getRows("select * from " + m_schema + "rsrc where delete_date is null and rsrc_id in (select rsrc_id from " + m_schema + "taskrsrc t where proj_id=? and delete_date is null) order by rsrc_seq_num", m_projectID);
+      }
+      else
+      {
+         rows = getMatchingRows("rsrc", "rsrc_id", getProjectRows("taskrsrc", null));
+      }
+
       m_reader.processResources(rows);
    }
 
@@ -318,7 +428,16 @@ public final class PrimaveraDatabaseReader implements ProjectReader
     */
    private void processResourceRates() throws SQLException
    {
-      List<Row> rows = getRows("select * from " + m_schema + "rsrcrate where delete_date is null and rsrc_id in (select rsrc_id from " + m_schema + "taskrsrc t where proj_id=? and delete_date is null) order by rsrc_rate_id", m_projectID);
+      List<Row> rows;
+      if (m_tables == null)
+      {
+         rows = getRows("select * from " + m_schema + "rsrcrate where delete_date is null and rsrc_id in (select rsrc_id from " + m_schema + "taskrsrc t where proj_id=? and delete_date is null) order by rsrc_rate_id", m_projectID);
+      }
+      else
+      {
+         rows = getMatchingRows("rsrcrate", "rsrc_id", getProjectRows("taskrsrc", null));
+      }
+
       m_reader.processResourceRates(rows);
    }
 
@@ -329,8 +448,8 @@ public final class PrimaveraDatabaseReader implements ProjectReader
     */
    private void processTasks() throws SQLException
    {
-      List<Row> wbs = getRows("select * from " + m_schema + "projwbs where proj_id=? and delete_date is null order by parent_wbs_id,seq_num", m_projectID);
-      List<Row> tasks = getRows("select * from " + m_schema + "task where proj_id=? and delete_date is null", m_projectID);
+      List<Row> wbs = getProjectRows("projwbs", "select * from " + m_schema + "projwbs where proj_id=? and delete_date is null order by parent_wbs_id,seq_num");
+      List<Row> tasks = getProjectRows("task", "select * from " + m_schema + "task where proj_id=? and delete_date is null");
       m_reader.processTasks(wbs, tasks);
    }
 
@@ -341,7 +460,7 @@ public final class PrimaveraDatabaseReader implements ProjectReader
     */
    private void processPredecessors() throws SQLException
    {
-      List<Row> rows = getRows("select * from " + m_schema + "taskpred where proj_id=? and delete_date is null", m_projectID);
+      List<Row> rows = getProjectRows("taskpred", "select * from " + m_schema + "taskpred where proj_id=? and delete_date is null");
       m_reader.processPredecessors(rows);
    }
 
@@ -352,7 +471,16 @@ public final class PrimaveraDatabaseReader implements ProjectReader
     */
    private void processCalendars() throws SQLException
    {
-      List<Row> rows = getRows("select * from " + m_schema + "calendar where (proj_id is null or proj_id=?) and delete_date is null", m_projectID);
+      List<Row> rows;
+      if (m_tables == null)
+      {
+         rows = getRows("select * from " + m_schema + "calendar where (proj_id is null or proj_id=?) and delete_date is null", m_projectID);
+      }
+      else
+      {
+         rows = getProjectAndGlobalRows("calendar");
+      }
+
       m_reader.processCalendars(rows);
    }
 
@@ -363,7 +491,7 @@ public final class PrimaveraDatabaseReader implements ProjectReader
     */
    private void processAssignments() throws SQLException
    {
-      List<Row> rows = getRows("select * from " + m_schema + "taskrsrc where proj_id=? and delete_date is null", m_projectID);
+      List<Row> rows = getProjectRows("taskrsrc", "select * from " + m_schema + "taskrsrc where proj_id=? and delete_date is null");
       m_reader.processAssignments(rows);
    }
 
@@ -439,6 +567,10 @@ public final class PrimaveraDatabaseReader implements ProjectReader
          List<Row> result = new LinkedList<Row>();
 
          m_ps = m_connection.prepareStatement(sql);
+         if (m_fetchSize > 0)
+         {
+            m_ps.setFetchSize(m_fetchSize);
+         }
          m_rs = m_ps.executeQuery();
          populateMetaData();
          while (m_rs.next())
@@ -473,6 +605,10 @@ public final class PrimaveraDatabaseReader implements ProjectReader
          List<Row> result = new LinkedList<Row>();
 
          m_ps = m_connection.prepareStatement(sql);
+         if (m_fetchSize > 0)
+         {
+            m_ps.setFetchSize(m_fetchSize);
+         }
          m_ps.setInt(1, NumberHelper.getInt(var));
          m_rs = m_ps.executeQuery();
          populateMetaData();
@@ -490,6 +626,103 @@ public final class PrimaveraDatabaseReader implements ProjectReader
       }
    }
 
+   /**
+    * Retrieve the rows matching the supplied query, indexed by project ID.
+    *
+    * @param sql query statement
+    * @return rows indexed by project ID
+    * @throws SQLException
+    */
+   private Map<Integer, List<Row>> getIndexedRows(String sql) throws SQLException
+   {
+      Map<Integer, List<Row>> result = new HashMap<Integer, List<Row>>();
+      for (Row row : getRows(sql))
+      {
+         Integer key = row.getInteger("proj_id");
+         List<Row> rows = result.get(key);
+         if (rows == null)
+         {
+            rows = new ArrayList<Row>();
+            result.put(key, rows);
+         }
+         rows.add(row);
+      }
+      return result;
+   }
+
+   /**
+    * Retrieve the rows from a table for the current project. If the tables
+    * have been bulk loaded, the rows are retrieved from the table index,
+    * otherwise the supplied query is executed with the current project ID.
+    *
+    * @param tableName table name
+    * @param sql query statement taking the project ID as its parameter
+    * @return rows for the current project
+    * @throws SQLException
+    */
+   private List<Row> getProjectRows(String tableName, String sql) throws SQLException
+   {
+      List<Row> result;
+      if (m_tableIndexes == null)
+      {
+         result = getRows(sql, m_projectID);
+      }
+      else
+      {
+         List<Row> rows = m_tableIndexes.get(tableName).get(m_projectID);
+         result = rows == null ? new LinkedList<Row>() : new LinkedList<Row>(rows);
+      }
+      return result;
+   }
+
+   /**
+    * Retrieve the rows from a bulk loaded table which either belong to the
+    * current project, or are not associated with any project.
+    *
+    * @param tableName table name
+    * @return list of rows
+    */
+   private List<Row> getProjectAndGlobalRows(String tableName)
+   {
+      List<Row> result = new LinkedList<Row>(m_tables.get(tableName));
+      List<Row> rows = m_tableIndexes.get(tableName).get(m_projectID);
+      if (rows != null)
+      {
+         result.addAll(rows);
+      }
+      return result;
+   }
+
+   /**
+    * Retrieve the rows from a bulk loaded table whose key column value
+    * appears in the same column of the supplied rows. This replaces
+    * the "in (select ...)" subqueries used when reading a single project.
+    * The order of the rows in the bulk loaded table is preserved.
+    *
+    * @param tableName table name
+    * @param columnName key column name
+    * @param keyRows rows providing the key values
+    * @return list of rows
+    */
+   private List<Row> getMatchingRows(String tableName, String columnName, List<Row> keyRows)
+   {
+      Set<Integer> keys = new HashSet<Integer>();
+      for (Row row : keyRows)
+      {
+         keys.add(row.getInteger(columnName));
+      }
+
+      List<Row> result = new LinkedList<Row>();
+      for (Row row : m_tables.get(tableName))
+      {
+         if (keys.contains(row.getInteger(columnName)))
+         {
+            result.add(row);
+         }
+      }
+      return result;
+   }
+
    /**
     * Allocates a database connection.
     *
@@ -698,6 +931,60 @@ public final class PrimaveraDatabaseReader implements ProjectReader
       m_matchPrimaveraWBS = matchPrimaveraWBS;
    }
 
+   /**
+    * If set to true, the readAll method will read each table from the
+    * database once, and group the rows by project in memory, rather than
+    * querying each table separately for every project.
+    * This trades memory for a substantial reduction in the number of queries
+    * issued when reading many projects.
+    * Defaults to false.
+    *
+    * @return flag value
+    */
+   public boolean getBulkLoad()
+   {
+      return m_bulkLoad;
+   }
+
+   /**
+    * If set to true, the readAll method will read each table from the
+    * database once, and group the rows by project in memory, rather than
+    * querying each table separately for every project.
+    * This trades memory for a substantial reduction in the number of queries
+    * issued when reading many projects.
+    * Defaults to false.
+    *
+    * @param bulkLoad flag value
+    */
+   public void setBulkLoad(boolean bulkLoad)
+   {
+      m_bulkLoad = bulkLoad;
+   }
+
+   /**
+    * Retrieve the JDBC fetch size used by the queries issued by this reader.
+    *
+    * @return fetch size
+    */
+   public int getFetchSize()
+   {
+      return m_fetchSize;
+   }
+
+   /**
+    * Set the JDBC fetch size used by the queries issued by this reader.
+    * This is a hint to the driver of the number of rows to retrieve in each
+    * round trip to the database. Larger values reduce the number of round
+    * trips when reading large tables. Defaults to zero, which uses the
+    * driver's default fetch size.
+    *
+    * @param fetchSize fetch size
+    */
+   public void setFetchSize(int fetchSize)
+   {
+      m_fetchSize = fetchSize;
+   }
+
    private PrimaveraReader m_reader;
    private Integer m_projectID;
    private String m_schema = "";
@@ -712,6 +999,10 @@ public final class PrimaveraDatabaseReader implements ProjectReader
    private UserFieldCounters m_resourceUdfCounters = new UserFieldCounters();
    private UserFieldCounters m_assignmentUdfCounters = new UserFieldCounters();
    private boolean m_matchPrimaveraWBS = true;
+   private boolean m_bulkLoad;
+   private int m_fetchSize;
+   private Map<String, List<Row>> m_tables;
+   private Map<String, Map<Integer, List<Row>>> m_tableIndexes;
 
    private Map<FieldType, String> m_resourceFields = PrimaveraReader.getDefaultResourceFieldMap();
    private Map<FieldType, String> m_wbsFields = PrimaveraReader.getDefaultWbsFieldMap();
@@ -35,7 +35,6 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
-import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBException;
 import javax.xml.bind.Unmarshaller;
 import javax.xml.bind.UnmarshallerHandler;
@@ -80,6 +79,7 @@ import net.sf.mpxj.TaskField;
 import net.sf.mpxj.TimeUnit;
 import net.sf.mpxj.common.BooleanHelper;
 import net.sf.mpxj.common.DateHelper;
+import net.sf.mpxj.common.JAXBContextRegistry;
 import net.sf.mpxj.common.NumberHelper;
 import net.sf.mpxj.listener.ProjectListener;
 import net.sf.mpxj.primavera.schema.APIBusinessObjects;
@@ -132,6 +132,8 @@ public final class PrimaveraPMFileReader extends AbstractProjectReader
          m_eventManager = m_projectFile.getEventManager();
 
          ProjectConfig config = m_projectFile.getProjectConfig();
+         config.setCompactFieldStorage(getCompactFieldStorage());
+         config.setFieldProjection(getFieldProjection());
          config.setAutoTaskUniqueID(false);
          config.setAutoResourceUniqueID(false);
          config.setAutoCalendarUniqueID(false);
@@ -155,12 +157,7 @@ public final class PrimaveraPMFileReader extends AbstractProjectReader
          SAXParser saxParser = factory.newSAXParser();
          XMLReader xmlReader = saxParser.getXMLReader();
 
-         if (CONTEXT == null)
-         {
-            throw CONTEXT_EXCEPTION;
-         }
-
-         Unmarshaller unmarshaller = CONTEXT.createUnmarshaller();
+         Unmarshaller unmarshaller = JAXBContextRegistry.getUnmarshaller(CONTEXT_PATH);
          XMLFilter filter = new NamespaceFilter();
          filter.setParent(xmlReader);
          UnmarshallerHandler unmarshallerHandler = unmarshaller.getUnmarshallerHandler();
@@ -198,6 +195,11 @@ public final class PrimaveraPMFileReader extends AbstractProjectReader
          //
          config.updateUniqueCounters();
 
+         //
+         // Discard any fields which are not required
+         //
+         m_projectFile.applyFieldProjection();
+
          return (m_projectFile);
       }
 
@@ -1054,7 +1056,7 @@ public final class PrimaveraPMFileReader extends AbstractProjectReader
       for (UDFAssignmentType udf : udfs)
       {
          FieldType fieldType = m_fieldTypeMap.get(Integer.valueOf(udf.getTypeObjectId()));
-         if (fieldType != null)
+         if (fieldType != null && m_projectFile.getProjectConfig().getFieldRequired(fieldType))
          {
             mpxj.set(fieldType, getUdfValue(udf));
          }
@@ -1124,38 +1126,6 @@ public final class PrimaveraPMFileReader extends AbstractProjectReader
       }
    }
 
-   /**
-    * Cached context to minimise construction cost.
-    */
-   private static JAXBContext CONTEXT;
-
-   /**
-    * Note any error occurring during context construction.
-    */
-   private static JAXBException CONTEXT_EXCEPTION;
-
-   static
-   {
-      try
-      {
-         //
-         // JAXB RI property to speed up construction
-         //
-         System.setProperty("com.sun.xml.bind.v2.runtime.JAXBContextImpl.fastBoot", "true");
-
-         //
-         // Construct the context
-         //
-         CONTEXT = JAXBContext.newInstance("net.sf.mpxj.primavera.schema", PrimaveraPMFileReader.class.getClassLoader());
-      }
-
-      catch (JAXBException ex)
-      {
-         CONTEXT_EXCEPTION = ex;
-         CONTEXT = null;
-      }
-   }
-
    /**
     * Deals with the case where we have had to map a task ID to a new value.
     *
@@ -1276,4 +1246,6 @@ public final class PrimaveraPMFileReader extends AbstractProjectReader
    }
    
    private static final WbsRowComparatorPMXML WBS_ROW_COMPARATOR = new WbsRowComparatorPMXML();
+
+   private static final String CONTEXT_PATH = "net.sf.mpxj.primavera.schema";
 }
@@ -37,7 +37,6 @@ import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
-import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBException;
 import javax.xml.bind.Marshaller;
 import javax.xml.transform.OutputKeys;
@@ -75,6 +74,7 @@ import net.sf.mpxj.TimeUnit;
 import net.sf.mpxj.common.BooleanHelper;
 import net.sf.mpxj.common.DateHelper;
 import net.sf.mpxj.common.FieldTypeHelper;
+import net.sf.mpxj.common.JAXBContextRegistry;
 import net.sf.mpxj.common.NumberHelper;
 import net.sf.mpxj.primavera.schema.APIBusinessObjects;
 import net.sf.mpxj.primavera.schema.ActivityType;
@@ -155,11 +155,6 @@ public final class PrimaveraPMFileWriter extends AbstractProjectWriter
    {
       try
       {
-         if (CONTEXT == null)
-         {
-            throw CONTEXT_EXCEPTION;
-         }
-
          //
          // The Primavera schema defines elements as nillable, which by
          // default results in
@@ -190,7 +185,7 @@ public final class PrimaveraPMFileWriter extends AbstractProjectWriter
 
          m_projectFile = projectFile;
 
-         Marshaller marshaller = CONTEXT.createMarshaller();
+         Marshaller marshaller = JAXBContextRegistry.getMarshaller(CONTEXT_PATH);
 
          marshaller.setProperty(Marshaller.JAXB_SCHEMA_LOCATION, "");
 
@@ -1132,38 +1127,6 @@ public final class PrimaveraPMFileWriter extends AbstractProjectWriter
       return (m_projectFile);
    }
 
-   /**
-    * Cached context to minimise construction cost.
-    */
-   private static JAXBContext CONTEXT;
-
-   /**
-    * Note any error occurring during context construction.
-    */
-   private static JAXBException CONTEXT_EXCEPTION;
-
-   static
-   {
-      try
-      {
-         //
-         // JAXB RI property to speed up construction
-         //
-         System.setProperty("com.sun.xml.bind.v2.runtime.JAXBContextImpl.fastBoot", "true");
-
-         //
-         // Construct the context
-         //
-         CONTEXT = JAXBContext.newInstance("net.sf.mpxj.primavera.schema", PrimaveraPMFileWriter.class.getClassLoader());
-      }
-
-      catch (JAXBException ex)
-      {
-         CONTEXT_EXCEPTION = ex;
-         CONTEXT = null;
-      }
-   }
-
    private static final String NILLABLE_STYLESHEET = "<xsl:stylesheet version=\"1.0\" xmlns:xsl=\"http://www.w3.org/1999/XSL/Transform\" xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\"><xsl:output method=\"xml\" indent=\"yes\"/><xsl:template match=\"node()[not(@xsi:nil = 'true')]|@*\"><xsl:copy><xsl:apply-templates select=\"node()|@*\"/></xsl:copy></xsl:template></xsl:stylesheet>";
    private static final Integer PROJECT_OBJECT_ID = Integer.valueOf(1);
    private static final String PROJECT_ID = "PROJECT";
@@ -1232,4 +1195,6 @@ public final class PrimaveraPMFileWriter extends AbstractProjectWriter
    private TaskField m_activityIDField;
    private TaskField m_activityTypeField;
    private List<CustomField> m_sortedCustomFieldsList;
+
+   private static final String CONTEXT_PATH = "net.sf.mpxj.primavera.schema";
 }
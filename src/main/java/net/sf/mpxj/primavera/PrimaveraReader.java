@@ -883,7 +883,7 @@ final class PrimaveraReader
 
       Object value = null;
       FieldType field = m_project.getCustomFields().getFieldByAlias(fieldType, fieldName);
-      if (field != null)
+      if (field != null && m_project.getProjectConfig().getFieldRequired(field))
       {
          DataType fieldDataType = field.getDataType();
 
@@ -40,6 +40,10 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 import net.sf.mpxj.FieldType;
 import net.sf.mpxj.MPXJException;
@@ -81,6 +85,22 @@ public final class PrimaveraXERFileReader extends AbstractProjectReader
       m_projectID = Integer.valueOf(projectID);
    }
 
+   /**
+    * Restrict the data read from an XER file to the projects with the
+    * supplied IDs. Rows which belong to other projects are discarded as
+    * the file is read, rather than being retained until the project data
+    * is processed. This reduces the memory required to read a single project
+    * from a file containing many projects. When this filter is set,
+    * {@code readAll} will only return the selected projects. Set to null to
+    * read all rows.
+    *
+    * @param projectIDs IDs of the projects to read, or null for all projects
+    */
+   public void setProjectFilter(Set<Integer> projectIDs)
+   {
+      m_projectFilter = projectIDs;
+   }
+
    /**
     * Sets the character encoding used when reading an XER file.
     *
@@ -110,40 +130,46 @@ public final class PrimaveraXERFileReader extends AbstractProjectReader
       try
       {
          m_tables = new HashMap<String, List<Row>>();
-         m_numberFormat = new DecimalFormat();
+         m_tableIndexes = new HashMap<String, Map<Integer, List<Row>>>();
+         setNumberFormat(new DecimalFormat());
 
          processFile(is);
 
-         m_reader = new PrimaveraReader(m_taskUdfCounters, m_resourceUdfCounters, m_assignmentUdfCounters, m_resourceFields, m_wbsFields, m_taskFields, m_assignmentFields, m_aliases, m_matchPrimaveraWBS);
-         ProjectFile project = m_reader.getProject();
+         PrimaveraReader reader = new PrimaveraReader(m_taskUdfCounters, m_resourceUdfCounters, m_assignmentUdfCounters, m_resourceFields, m_wbsFields, m_taskFields, m_assignmentFields, m_aliases, m_matchPrimaveraWBS);
+         ProjectFile project = reader.getProject();
+         project.getProjectConfig().setCompactFieldStorage(getCompactFieldStorage());
+         project.getProjectConfig().setFieldProjection(getFieldProjection());
          project.getProjectProperties().setFileApplication("Primavera");
          project.getProjectProperties().setFileType("XER");
          project.getEventManager().addProjectListeners(m_projectListeners);
 
          processProjectID();
-         processProjectProperties();
-         processActivityCodes();
-         processUserDefinedFields();
-         processCalendars();
-         processResources();
-         processResourceRates();
-         processTasks();
-         processPredecessors();
-         processAssignments();
-
-         m_reader = null;
+         processProjectProperties(reader, m_projectID);
+         processActivityCodes(reader);
+         processUserDefinedFields(reader);
+         processCalendars(reader);
+         processResources(reader);
+         processResourceRates(reader);
+         processTasks(reader, m_projectID);
+         processPredecessors(reader, m_projectID);
+         processAssignments(reader, m_projectID);
+
          project.updateStructure();
+         project.applyFieldProjection();
 
          return (project);
       }
 
       finally
       {
-         m_reader = null;
          m_tables = null;
+         m_tableIndexes = null;
          m_currentTableName = null;
          m_currentTable = null;
+         m_currentTableIndex = null;
          m_currentFieldNames = null;
+         m_currentFieldTypes = null;
+         m_currentColumns = null;
          m_defaultCurrencyName = null;
          m_currencyMap.clear();
          m_numberFormat = null;
@@ -175,40 +201,73 @@ public final class PrimaveraXERFileReader extends AbstractProjectReader
     * @throws MPXJException
     */
    public List<ProjectFile> readAll(InputStream is, boolean linkCrossProjectRelations) throws MPXJException
+   {
+      return readAll(is, linkCrossProjectRelations, null);
+   }
+
+   /**
+    * This is a convenience method which allows all projects in an
+    * XER file to be read in a single pass. Once the file has been read,
+    * each project is constructed as a separate task submitted to the
+    * supplied ExecutorService, allowing projects to be built concurrently.
+    * Relations which cross project boundaries are linked once all
+    * projects have been built. Note that any ProjectListener instances
+    * added to this reader may be called concurrently from the executor's threads.
+    * If no ExecutorService is supplied, projects are built sequentially
+    * by the calling thread.
+    *
+    * @param is input stream
+    * @param linkCrossProjectRelations add Relation links that cross ProjectFile boundaries
+    * @param executor ExecutorService used to build each project, may be null
+    * @return list of ProjectFile instances
+    * @throws MPXJException
+    */
+   public List<ProjectFile> readAll(InputStream is, boolean linkCrossProjectRelations, ExecutorService executor) throws MPXJException
    {
       try
       {
          m_tables = new HashMap<String, List<Row>>();
-         m_numberFormat = new DecimalFormat();
+         m_tableIndexes = new HashMap<String, Map<Integer, List<Row>>>();
+         setNumberFormat(new DecimalFormat());
 
          processFile(is);
 
          List<Row> rows = getRows("project", null, null);
-         List<ProjectFile> result = new ArrayList<ProjectFile>(rows.size());
-         List<ExternalPredecessorRelation> externalPredecessors = new ArrayList<ExternalPredecessorRelation>();
-         for (Row row : rows)
+         List<PrimaveraReader> readers = new ArrayList<PrimaveraReader>(rows.size());
+         if (executor == null)
          {
-            setProjectID(row.getInt("proj_id"));
-
-            m_reader = new PrimaveraReader(m_taskUdfCounters, m_resourceUdfCounters, m_assignmentUdfCounters, m_resourceFields, m_wbsFields, m_taskFields, m_assignmentFields, m_aliases, m_matchPrimaveraWBS);
-            ProjectFile project = m_reader.getProject();
-            project.getEventManager().addProjectListeners(m_projectListeners);
-
-            processProjectProperties();
-            processUserDefinedFields();
-            processCalendars();
-            processResources();
-            processResourceRates();
-            processTasks();
-            processPredecessors();
-            processAssignments();
-
-            externalPredecessors.addAll(m_reader.getExternalPredecessors());
+            for (Row row : rows)
+            {
+               readers.add(readProject(row.getInteger("proj_id")));
+            }
+         }
+         else
+         {
+            List<Future<PrimaveraReader>> futures = new ArrayList<Future<PrimaveraReader>>(rows.size());
+            for (Row row : rows)
+            {
+               final Integer projectID = row.getInteger("proj_id");
+               futures.add(executor.submit(new Callable<PrimaveraReader>()
+               {
+                  @Override public PrimaveraReader call()
+                  {
+                     return readProject(projectID);
+                  }
+               }));
+            }
 
-            m_reader = null;
-            project.updateStructure();
+            for (Future<PrimaveraReader> future : futures)
+            {
+               readers.add(future.get());
+            }
+         }
 
-            result.add(project);
+         List<ProjectFile> result = new ArrayList<ProjectFile>(readers.size());
+         List<ExternalPredecessorRelation> externalPredecessors = new ArrayList<ExternalPredecessorRelation>();
+         for (PrimaveraReader reader : readers)
+         {
+            result.add(reader.getProject());
+            externalPredecessors.addAll(reader.getExternalPredecessors());
          }
 
          if (linkCrossProjectRelations)
@@ -235,13 +294,27 @@ public final class PrimaveraXERFileReader extends AbstractProjectReader
          return result;
       }
 
+      catch (InterruptedException ex)
+      {
+         Thread.currentThread().interrupt();
+         throw new MPXJException(MPXJException.READ_ERROR, ex);
+      }
+
+      catch (ExecutionException ex)
+      {
+         throw new MPXJException(MPXJException.READ_ERROR, ex);
+      }
+
       finally
       {
-         m_reader = null;
          m_tables = null;
+         m_tableIndexes = null;
          m_currentTableName = null;
          m_currentTable = null;
+         m_currentTableIndex = null;
          m_currentFieldNames = null;
+         m_currentFieldTypes = null;
+         m_currentColumns = null;
          m_defaultCurrencyName = null;
          m_currencyMap.clear();
          m_numberFormat = null;
@@ -249,6 +322,38 @@ public final class PrimaveraXERFileReader extends AbstractProjectReader
       }
    }
 
+   /**
+    * Build a single project from the tables read from an XER file.
+    * This method only reads the shared table data, and creates its own
+    * user defined field counters, so it can be called concurrently
+    * for different projects.
+    *
+    * @param projectID ID of the project to build
+    * @return PrimaveraReader instance holding the project
+    */
+   private PrimaveraReader readProject(Integer projectID)
+   {
+      PrimaveraReader reader = new PrimaveraReader(new UserFieldCounters(m_taskUdfCounters), new UserFieldCounters(m_resourceUdfCounters), new UserFieldCounters(m_assignmentUdfCounters), m_resourceFields, m_wbsFields, m_taskFields, m_assignmentFields, m_aliases, m_matchPrimaveraWBS);
+      ProjectFile project = reader.getProject();
+      project.getProjectConfig().setCompactFieldStorage(getCompactFieldStorage());
+      project.getProjectConfig().setFieldProjection(getFieldProjection());
+      project.getEventManager().addProjectListeners(m_projectListeners);
+
+      processProjectProperties(reader, projectID);
+      processUserDefinedFields(reader);
+      processCalendars(reader);
+      processResources(reader);
+      processResourceRates(reader);
+      processTasks(reader, projectID);
+      processPredecessors(reader, projectID);
+      processAssignments(reader, projectID);
+
+      project.updateStructure();
+      project.applyFieldProjection();
+
+      return reader;
+   }
+
    /**
     * Reads the XER file table and row structure ready for processing.
     *
@@ -284,6 +389,7 @@ public final class PrimaveraXERFileReader extends AbstractProjectReader
          InputStreamReader reader = new InputStreamReader(bis, getCharset());
          Tokenizer tk = new ReaderTokenizer(reader);
          tk.setDelimiter('\t');
+         tk.setInternTokens(true);
          List<String> record = new ArrayList<String>();
 
          while (tk.getType() != Tokenizer.TT_EOF)
@@ -357,11 +463,23 @@ public final class PrimaveraXERFileReader extends AbstractProjectReader
 
       if (currencyName.equalsIgnoreCase(m_defaultCurrencyName))
       {
-         m_numberFormat = nf;
+         setNumberFormat(nf);
          m_defaultCurrencyData = row;
       }
    }
 
+   /**
+    * Set the number format used to parse numeric values,
+    * and retrieve its decimal separator for use by the fast parser.
+    *
+    * @param format number format
+    */
+   private void setNumberFormat(DecimalFormat format)
+   {
+      m_numberFormat = format;
+      m_decimalSeparator = format.getDecimalFormatSymbols().getDecimalSeparator();
+   }
+
    /**
     * Populates a Map instance representing the IDs and names of
     * projects available in the current file.
@@ -375,6 +493,9 @@ public final class PrimaveraXERFileReader extends AbstractProjectReader
       try
       {
          m_tables = new HashMap<String, List<Row>>();
+         m_tableIndexes = new HashMap<String, Map<Integer, List<Row>>>();
+         setNumberFormat(new DecimalFormat());
+         m_listProjectsOnly = true;
          processFile(is);
 
          Map<Integer, String> result = new HashMap<Integer, String>();
@@ -392,52 +513,66 @@ public final class PrimaveraXERFileReader extends AbstractProjectReader
 
       finally
       {
+         m_listProjectsOnly = false;
          m_tables = null;
+         m_tableIndexes = null;
+         m_numberFormat = null;
          m_currentTable = null;
+         m_currentTableIndex = null;
          m_currentFieldNames = null;
+         m_currentFieldTypes = null;
+         m_currentColumns = null;
       }
    }
 
    /**
     * Process project properties.
+    *
+    * @param reader PrimaveraReader instance
+    * @param projectID project ID
     */
-   private void processProjectProperties()
+   private void processProjectProperties(PrimaveraReader reader, Integer projectID)
    {
       //
       // Process common attributes
       //
-      List<Row> rows = getRows("project", "proj_id", m_projectID);
-      m_reader.processProjectProperties(rows, m_projectID);
+      List<Row> rows = getRows("project", "proj_id", projectID);
+      reader.processProjectProperties(rows, projectID);
 
       //
       // Process XER-specific attributes
       //
       if (m_defaultCurrencyData != null)
       {
-         m_reader.processDefaultCurrency(m_defaultCurrencyData);
+         reader.processDefaultCurrency(m_defaultCurrencyData);
       }
 
-      processScheduleOptions();
+      processScheduleOptions(reader, projectID);
    }
 
    /**
     * Process activity code data.
+    *
+    * @param reader PrimaveraReader instance
     */
-   private void processActivityCodes()
+   private void processActivityCodes(PrimaveraReader reader)
    {
       List<Row> types = getRows("actvtype", null, null);
       List<Row> typeValues = getRows("actvcode", null, null);
       List<Row> assignments = getRows("taskactv", null, null);
-      m_reader.processActivityCodes(types, typeValues, assignments);
+      reader.processActivityCodes(types, typeValues, assignments);
    }
 
    /**
     * Process schedule options from SCHEDOPTIONS. This table only seems to exist
     * in XER files, not P6 databases.
+    *
+    * @param reader PrimaveraReader instance
+    * @param projectID project ID
     */
-   private void processScheduleOptions()
+   private void processScheduleOptions(PrimaveraReader reader, Integer projectID)
    {
-      List<Row> rows = getRows("schedoptions", "proj_id", m_projectID);
+      List<Row> rows = getRows("schedoptions", "proj_id", projectID);
       if (rows.isEmpty() == false)
       {
          Row row = rows.get(0);
@@ -447,80 +582,101 @@ public final class PrimaveraXERFileReader extends AbstractProjectReader
          customProperties.put("ProgressOverride", Boolean.valueOf(row.getBoolean("sched_progress_override")));
          customProperties.put("IgnoreOtherProjectRelationships", row.getString("sched_outer_depend_type"));
          customProperties.put("StartToStartLagCalculationType", Boolean.valueOf(row.getBoolean("sched_lag_early_start_flag")));
-         m_reader.getProject().getProjectProperties().setCustomProperties(customProperties);
+         reader.getProject().getProjectProperties().setCustomProperties(customProperties);
       }
    }
 
    /**
     * Process user defined fields.
+    *
+    * @param reader PrimaveraReader instance
     */
-   private void processUserDefinedFields()
+   private void processUserDefinedFields(PrimaveraReader reader)
    {
       List<Row> fields = getRows("udftype", null, null);
       List<Row> values = getRows("udfvalue", null, null);
-      m_reader.processUserDefinedFields(fields, values);
+      reader.processUserDefinedFields(fields, values);
    }
 
    /**
     * Process project calendars.
+    *
+    * @param reader PrimaveraReader instance
     */
-   private void processCalendars()
+   private void processCalendars(PrimaveraReader reader)
    {
       List<Row> rows = getRows("calendar", null, null);
-      m_reader.processCalendars(rows);
+      reader.processCalendars(rows);
    }
 
    /**
     * Process resources.
+    *
+    * @param reader PrimaveraReader instance
     */
-   private void processResources()
+   private void processResources(PrimaveraReader reader)
    {
       List<Row> rows = getRows("rsrc", null, null);
-      m_reader.processResources(rows);
+      reader.processResources(rows);
    }
 
    /**
     * Process resource rates.
+    *
+    * @param reader PrimaveraReader instance
     */
-   private void processResourceRates()
+   private void processResourceRates(PrimaveraReader reader)
    {
-      List<Row> rows = getRows("rsrcrate", null, null);
-      m_reader.processResourceRates(rows);
+      // processResourceRates sorts the rows, so we pass a copy of the shared table
+      List<Row> rows = new ArrayList<Row>(getRows("rsrcrate", null, null));
+      reader.processResourceRates(rows);
    }
 
    /**
     * Process tasks.
+    *
+    * @param reader PrimaveraReader instance
+    * @param projectID project ID
     */
-   private void processTasks()
+   private void processTasks(PrimaveraReader reader, Integer projectID)
    {
-      List<Row> wbs = getRows("projwbs", "proj_id", m_projectID);
-      List<Row> tasks = getRows("task", "proj_id", m_projectID);
-      //List<Row> wbsmemos = getRows("wbsmemo", "proj_id", m_projectID);
-      //List<Row> taskmemos = getRows("taskmemo", "proj_id", m_projectID);
+      List<Row> wbs = getRows("projwbs", "proj_id", projectID);
+      List<Row> tasks = getRows("task", "proj_id", projectID);
+      //List<Row> wbsmemos = getRows("wbsmemo", "proj_id", projectID);
+      //List<Row> taskmemos = getRows("taskmemo", "proj_id", projectID);
       Collections.sort(wbs, WBS_ROW_COMPARATOR);
-      m_reader.processTasks(wbs, tasks/*, wbsmemos, taskmemos*/);
+      reader.processTasks(wbs, tasks/*, wbsmemos, taskmemos*/);
    }
 
    /**
     * Process predecessors.
+    *
+    * @param reader PrimaveraReader instance
+    * @param projectID project ID
     */
-   private void processPredecessors()
+   private void processPredecessors(PrimaveraReader reader, Integer projectID)
    {
-      List<Row> rows = getRows("taskpred", "proj_id", m_projectID);
-      m_reader.processPredecessors(rows);
+      List<Row> rows = getRows("taskpred", "proj_id", projectID);
+      reader.processPredecessors(rows);
    }
 
    /**
     * Process resource assignments.
+    *
+    * @param reader PrimaveraReader instance
+    * @param projectID project ID
     */
-   private void processAssignments()
+   private void processAssignments(PrimaveraReader reader, Integer projectID)
    {
-      List<Row> rows = getRows("taskrsrc", "proj_id", m_projectID);
-      m_reader.processAssignments(rows);
+      List<Row> rows = getRows("taskrsrc", "proj_id", projectID);
+      reader.processAssignments(rows);
    }
 
    /**
     * Reads each token from a single record and adds it to a list.
+    * If this is a data record from a table we are skipping, only
+    * the record type is added to the list, the remaining tokens are
+    * consumed without creating String instances for them.
     *
     * @param tk tokenizer
     * @param record list of tokens
@@ -529,12 +685,31 @@ public final class PrimaveraXERFileReader extends AbstractProjectReader
    private void readRecord(Tokenizer tk, List<String> record) throws IOException
    {
       record.clear();
+      boolean skipRecord = false;
       while (tk.nextToken() == Tokenizer.TT_WORD)
       {
-         record.add(tk.getToken());
+         if (!skipRecord)
+         {
+            if (record.isEmpty() && m_skipTable && isDataRecord(tk.getTokenSequence()))
+            {
+               skipRecord = true;
+            }
+            record.add(tk.getToken());
+         }
       }
    }
 
+   /**
+    * Determine if the supplied record type represents a data record.
+    *
+    * @param recordType record type token
+    * @return true if this is a data record
+    */
+   private boolean isDataRecord(CharSequence recordType)
+   {
+      return recordType.length() == 0 || (recordType.length() == 2 && recordType.charAt(0) == '%' && recordType.charAt(1) == 'R');
+   }
+
    /**
     * Handles a complete record at a time, stores it in a form ready for
     * further processing.
@@ -563,15 +738,27 @@ public final class PrimaveraXERFileReader extends AbstractProjectReader
 
          case TABLE:
          {
+            //
+            // If we're only listing projects, there is no need
+            // to read anything after the project table.
+            //
+            if (m_listProjectsOnly && m_tables.containsKey("project"))
+            {
+               done = true;
+               break;
+            }
+
             m_currentTableName = record.get(1).toLowerCase();
-            m_skipTable = !REQUIRED_TABLES.contains(m_currentTableName);
+            m_skipTable = m_listProjectsOnly ? !m_currentTableName.equals("project") : !REQUIRED_TABLES.contains(m_currentTableName);
+            m_currentTableIndex = null;
+            m_currentIndexColumn = -1;
             if (m_skipTable)
             {
                m_currentTable = null;
             }
             else
             {
-               m_currentTable = new LinkedList<Row>();
+               m_currentTable = new ArrayList<Row>();
                m_tables.put(m_currentTableName, m_currentTable);
             }
             break;
@@ -582,13 +769,33 @@ public final class PrimaveraXERFileReader extends AbstractProjectReader
             if (m_skipTable)
             {
                m_currentFieldNames = null;
+               m_currentFieldTypes = null;
+               m_currentColumns = null;
             }
             else
             {
                m_currentFieldNames = record.toArray(new String[record.size()]);
+               m_currentFieldTypes = new XerFieldType[m_currentFieldNames.length];
+               m_currentColumns = new HashMap<String, Integer>();
                for (int loop = 0; loop < m_currentFieldNames.length; loop++)
                {
-                  m_currentFieldNames[loop] = m_currentFieldNames[loop].toLowerCase();
+                  String fieldName = m_currentFieldNames[loop].toLowerCase();
+                  m_currentFieldNames[loop] = fieldName;
+
+                  XerFieldType fieldType = FIELD_TYPE_MAP.get(fieldName);
+                  m_currentFieldTypes[loop] = fieldType == null ? XerFieldType.STRING : fieldType;
+
+                  if (loop != 0)
+                  {
+                     m_currentColumns.put(fieldName, Integer.valueOf(loop - 1));
+                  }
+
+                  if (fieldName.equals(INDEX_COLUMN_NAME))
+                  {
+                     m_currentIndexColumn = loop;
+                     m_currentTableIndex = new HashMap<Integer, List<Row>>();
+                     m_tableIndexes.put(m_currentTableName, m_currentTableIndex);
+                  }
                }
             }
             break;
@@ -596,18 +803,13 @@ public final class PrimaveraXERFileReader extends AbstractProjectReader
 
          case DATA:
          {
-            if (!m_skipTable)
+            if (!m_skipTable && includeRecord(record))
             {
-               Map<String, Object> map = new HashMap<String, Object>();
+               Object[] values = new Object[m_currentFieldNames.length - 1];
                for (int loop = 1; loop < record.size(); loop++)
                {
-                  String fieldName = m_currentFieldNames[loop];
                   String fieldValue = record.get(loop);
-                  XerFieldType fieldType = FIELD_TYPE_MAP.get(fieldName);
-                  if (fieldType == null)
-                  {
-                     fieldType = XerFieldType.STRING;
-                  }
+                  XerFieldType fieldType = m_currentFieldTypes[loop];
 
                   Object objectValue;
                   if (fieldValue.length() == 0)
@@ -620,16 +822,19 @@ public final class PrimaveraXERFileReader extends AbstractProjectReader
                      {
                         case DATE:
                         {
-                           try
+                           objectValue = m_fieldParser.parseDate(fieldValue);
+                           if (objectValue == null)
                            {
-                              objectValue = m_df.parseObject(fieldValue);
+                              try
+                              {
+                                 objectValue = m_df.parseObject(fieldValue);
+                              }
+
+                              catch (ParseException ex)
+                              {
+                                 objectValue = fieldValue;
+                              }
                            }
-
-                           catch (ParseException ex)
-                           {
-                              objectValue = fieldValue;
-                           }
-
                            break;
                         }
 
@@ -637,14 +842,18 @@ public final class PrimaveraXERFileReader extends AbstractProjectReader
                         case DOUBLE:
                         case DURATION:
                         {
-                           try
+                           objectValue = m_fieldParser.parseDouble(fieldValue, m_decimalSeparator);
+                           if (objectValue == null)
                            {
-                              objectValue = Double.valueOf(m_numberFormat.parse(fieldValue.trim()).doubleValue());
-                           }
-
-                           catch (ParseException ex)
-                           {
-                              objectValue = fieldValue;
+                              try
+                              {
+                                 objectValue = Double.valueOf(m_numberFormat.parse(fieldValue.trim()).doubleValue());
+                              }
+
+                              catch (ParseException ex)
+                              {
+                                 objectValue = fieldValue;
+                              }
                            }
                            break;
                         }
@@ -663,12 +872,24 @@ public final class PrimaveraXERFileReader extends AbstractProjectReader
                      }
                   }
 
-                  map.put(fieldName, objectValue);
+                  values[loop - 1] = objectValue;
                }
 
-               Row currentRow = new MapRow(map);
+               Row currentRow = new ArrayRow(m_currentColumns, values);
                m_currentTable.add(currentRow);
 
+               if (m_currentTableIndex != null)
+               {
+                  Integer key = currentRow.getInteger(INDEX_COLUMN_NAME);
+                  List<Row> indexedRows = m_currentTableIndex.get(key);
+                  if (indexedRows == null)
+                  {
+                     indexedRows = new ArrayList<Row>();
+                     m_currentTableIndex.put(key, indexedRows);
+                  }
+                  indexedRows.add(currentRow);
+               }
+
                //
                // Special case - we need to know the default currency format
                // ahead of time, so process each row as we get it so that
@@ -697,6 +918,27 @@ public final class PrimaveraXERFileReader extends AbstractProjectReader
       return done;
    }
 
+   /**
+    * If a project filter has been supplied, determine if a data record
+    * should be retained. The project ID column is examined before any other
+    * values are converted, so records belonging to other projects are
+    * discarded as cheaply as possible. Records from tables without a
+    * project ID column, or without a project ID value, are always retained.
+    *
+    * @param record data record
+    * @return true if the record should be retained
+    */
+   private boolean includeRecord(List<String> record)
+   {
+      if (m_projectFilter == null || m_currentIndexColumn == -1 || m_currentIndexColumn >= record.size())
+      {
+         return true;
+      }
+
+      String value = record.get(m_currentIndexColumn).trim();
+      return value.length() == 0 || m_projectFilter.contains(Integer.valueOf(value));
+   }
+
    /**
     * Extract any useful attributes from the header record.
     *
@@ -793,7 +1035,8 @@ public final class PrimaveraXERFileReader extends AbstractProjectReader
    /**
     * Filters a list of rows from the named table. If a column name and a value
     * are supplied, then use this to filter the rows. If no column name is
-    * supplied, then return all rows.
+    * supplied, then return all rows. Filtering on the indexed column is
+    * satisfied directly from the index built as the rows were read.
     *
     * @param tableName table name
     * @param columnName filter column name
@@ -816,12 +1059,24 @@ public final class PrimaveraXERFileReader extends AbstractProjectReader
          }
          else
          {
-            result = new LinkedList<Row>();
-            for (Row row : table)
+            Map<Integer, List<Row>> index = columnName.equals(INDEX_COLUMN_NAME) ? m_tableIndexes.get(tableName) : null;
+            if (index != null)
             {
-               if (NumberHelper.equals(id, row.getInteger(columnName)))
+               result = index.get(id);
+               if (result == null)
                {
-                  result.add(row);
+                  result = Collections.<Row> emptyList();
+               }
+            }
+            else
+            {
+               result = new LinkedList<Row>();
+               for (Row row : table)
+               {
+                  if (NumberHelper.equals(id, row.getInteger(columnName)))
+                  {
+                     result.add(row);
+                  }
                }
             }
          }
@@ -855,16 +1110,24 @@ public final class PrimaveraXERFileReader extends AbstractProjectReader
 
    private String m_encoding;
    private Charset m_charset;
-   private PrimaveraReader m_reader;
    private Integer m_projectID;
    boolean m_skipTable;
    private Map<String, List<Row>> m_tables;
+   private Map<String, Map<Integer, List<Row>>> m_tableIndexes;
    private String m_currentTableName;
    private List<Row> m_currentTable;
+   private Map<Integer, List<Row>> m_currentTableIndex;
+   private int m_currentIndexColumn;
+   private Set<Integer> m_projectFilter;
+   private boolean m_listProjectsOnly;
    private String[] m_currentFieldNames;
+   private XerFieldType[] m_currentFieldTypes;
+   private Map<String, Integer> m_currentColumns;
    private String m_defaultCurrencyName;
    private Map<String, DecimalFormat> m_currencyMap = new HashMap<String, DecimalFormat>();
    private DecimalFormat m_numberFormat;
+   private char m_decimalSeparator;
+   private final XerFieldParser m_fieldParser = new XerFieldParser();
    private Row m_defaultCurrencyData;
    private DateFormat m_df = new MultiDateFormat("yyyy-MM-dd HH:mm", "yyyy-MM-dd");
    private List<ProjectListener> m_projectListeners;
@@ -1048,5 +1311,10 @@ public final class PrimaveraXERFileReader extends AbstractProjectReader
       REQUIRED_TABLES.add("taskactv");
    }
 
+   /**
+    * Name of the column used to index rows in each table which contains it.
+    */
+   private static final String INDEX_COLUMN_NAME = "proj_id";
+
    private static final WbsRowComparatorXER WBS_ROW_COMPARATOR = new WbsRowComparatorXER();
 }
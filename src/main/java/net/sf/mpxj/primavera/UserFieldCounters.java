@@ -47,6 +47,17 @@ class UserFieldCounters
       }
    }
 
+   /**
+    * Copy constructor. Creates a new instance with the same field
+    * name mappings as the source, and with its counters reset.
+    *
+    * @param source instance to copy
+    */
+   public UserFieldCounters(UserFieldCounters source)
+   {
+      System.arraycopy(source.m_names, 0, m_names, 0, m_names.length);
+   }
+
    /**
     * Allow the caller to override the default field name assigned
     * to a user defined data type.
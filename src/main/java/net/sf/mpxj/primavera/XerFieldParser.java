@@ -0,0 +1,263 @@
+/*
+ * file:       XerFieldParser.java
+ * author:     Jon Iles
+ * copyright:  (c) Packwood Software 2019
+ * date:       20/02/2019
+ */
+
+/*
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation, Inc.,
+ * 59 Temple Place, Suite 330, Boston, MA 02111-1307, USA.
+ */
+
+package net.sf.mpxj.primavera;
+
+import java.util.Calendar;
+import java.util.Date;
+
+/**
+ * Parses the fixed layout dates and plain decimal numbers found in XER files
+ * directly from the characters supplied by the tokenizer, avoiding the cost of
+ * the general purpose DateFormat and DecimalFormat classes. Values which don't
+ * conform to the expected layout are rejected by returning null, allowing the
+ * caller to fall back to the more flexible formatters.
+ * Instances of this class are not thread safe.
+ */
+final class XerFieldParser
+{
+   /**
+    * Parse a date in the form yyyy-MM-dd HH:mm or yyyy-MM-dd,
+    * interpreted using the default time zone.
+    *
+    * @param value text to parse
+    * @return Date instance, or null if the text is not in the expected form
+    */
+   public Date parseDate(CharSequence value)
+   {
+      int length = value.length();
+      if (length != DATE_LENGTH && length != DATE_TIME_LENGTH)
+      {
+         return null;
+      }
+
+      int year = parseDigits(value, 0, 4);
+      int month = parseDigits(value, 5, 2);
+      int day = parseDigits(value, 8, 2);
+      if (year == -1 || month == -1 || day == -1 || value.charAt(4) != '-' || value.charAt(7) != '-')
+      {
+         return null;
+      }
+
+      int hour = 0;
+      int minute = 0;
+      if (length == DATE_TIME_LENGTH)
+      {
+         hour = parseDigits(value, 11, 2);
+         minute = parseDigits(value, 14, 2);
+         if (hour == -1 || minute == -1 || value.charAt(10) != ' ' || value.charAt(13) != ':')
+         {
+            return null;
+         }
+      }
+
+      //
+      // Dates tend to repeat, so we can avoid using the calendar
+      // if this is the same value we saw last time.
+      //
+      long key = ((((year * 100L + month) * 100L + day) * 100L + hour) * 100L) + minute;
+      if (key != m_lastKey)
+      {
+         m_calendar.clear();
+         m_calendar.set(year, month - 1, day, hour, minute);
+         m_lastMillis = m_calendar.getTimeInMillis();
+         m_lastKey = key;
+      }
+
+      return new Date(m_lastMillis);
+   }
+
+   /**
+    * Parse a plain decimal number consisting of an optional leading minus sign,
+    * digits, and an optional decimal separator followed by further digits.
+    * Leading and trailing spaces are ignored.
+    *
+    * @param value text to parse
+    * @param decimalSeparator decimal separator character
+    * @return Double instance, or null if the text is not a plain decimal number
+    */
+   public Double parseDouble(CharSequence value, char decimalSeparator)
+   {
+      int start = 0;
+      int end = value.length();
+      while (start < end && value.charAt(start) == ' ')
+      {
+         ++start;
+      }
+
+      while (end > start && value.charAt(end - 1) == ' ')
+      {
+         --end;
+      }
+
+      boolean negative = false;
+      if (start < end && value.charAt(start) == '-')
+      {
+         negative = true;
+         ++start;
+      }
+
+      if (start == end)
+      {
+         return null;
+      }
+
+      long mantissa = 0;
+      boolean hasDigits = false;
+      int digits = 0;
+      int scale = -1;
+      for (int index = start; index < end; index++)
+      {
+         char c = value.charAt(index);
+         if (c >= '0' && c <= '9')
+         {
+            hasDigits = true;
+            if (mantissa != 0 || c != '0')
+            {
+               ++digits;
+            }
+            mantissa = (mantissa * 10) + (c - '0');
+            if (scale != -1)
+            {
+               ++scale;
+            }
+         }
+         else
+         {
+            if (c == decimalSeparator && scale == -1)
+            {
+               scale = 0;
+            }
+            else
+            {
+               return null;
+            }
+         }
+
+         if (digits > MAX_EXACT_DIGITS)
+         {
+            return Double.valueOf(Double.parseDouble(normalise(value, start, end, decimalSeparator, negative)));
+         }
+      }
+
+      if (!hasDigits)
+      {
+         return null;
+      }
+
+      if (scale > MAX_EXACT_SCALE)
+      {
+         return Double.valueOf(Double.parseDouble(normalise(value, start, end, decimalSeparator, negative)));
+      }
+
+      //
+      // The mantissa and the power of ten are both exactly representable,
+      // so a single division gives the correctly rounded result.
+      //
+      double result = mantissa;
+      if (scale > 0)
+      {
+         result = result / POWERS_OF_TEN[scale];
+      }
+
+      return Double.valueOf(negative ? -result : result);
+   }
+
+   /**
+    * Parse a fixed number of decimal digits.
+    *
+    * @param value text to parse
+    * @param offset offset of the first digit
+    * @param count number of digits
+    * @return parsed value, or -1 if a non-digit character is found
+    */
+   private int parseDigits(CharSequence value, int offset, int count)
+   {
+      int result = 0;
+      for (int index = offset; index < offset + count; index++)
+      {
+         char c = value.charAt(index);
+         if (c < '0' || c > '9')
+         {
+            return -1;
+         }
+         result = (result * 10) + (c - '0');
+      }
+      return result;
+   }
+
+   /**
+    * Convert a number which is too long to parse exactly here into a form
+    * which can be handled by Double.parseDouble.
+    *
+    * @param value text to parse
+    * @param start start offset of the digits
+    * @param end end offset of the digits
+    * @param decimalSeparator decimal separator character
+    * @param negative true if the number is negative
+    * @return normalised number
+    */
+   private String normalise(CharSequence value, int start, int end, char decimalSeparator, boolean negative)
+   {
+      StringBuilder sb = new StringBuilder(end - start + 1);
+      if (negative)
+      {
+         sb.append('-');
+      }
+
+      for (int index = start; index < end; index++)
+      {
+         char c = value.charAt(index);
+         sb.append(c == decimalSeparator ? '.' : c);
+      }
+      return sb.toString();
+   }
+
+   private final Calendar m_calendar = Calendar.getInstance();
+   private long m_lastKey = -1;
+   private long m_lastMillis;
+
+   private static final int DATE_LENGTH = 10;
+   private static final int DATE_TIME_LENGTH = 16;
+
+   /**
+    * Maximum number of significant digits which can be held exactly in a double.
+    */
+   private static final int MAX_EXACT_DIGITS = 15;
+
+   /**
+    * Maximum power of ten which can be held exactly in a double.
+    */
+   private static final int MAX_EXACT_SCALE = 22;
+
+   private static final double[] POWERS_OF_TEN = new double[MAX_EXACT_SCALE + 1];
+   static
+   {
+      double value = 1;
+      for (int index = 0; index < POWERS_OF_TEN.length; index++)
+      {
+         POWERS_OF_TEN[index] = value;
+         value *= 10;
+      }
+   }
+}
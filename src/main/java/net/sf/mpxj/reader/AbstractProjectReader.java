@@ -26,7 +26,9 @@ package net.sf.mpxj.reader;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.util.Set;
 
+import net.sf.mpxj.FieldType;
 import net.sf.mpxj.MPXJException;
 import net.sf.mpxj.ProjectFile;
 import net.sf.mpxj.common.StreamHelper;
@@ -37,6 +39,86 @@ import net.sf.mpxj.common.StreamHelper;
  */
 public abstract class AbstractProjectReader implements ProjectReader
 {
+   /**
+    * If set to true, the tasks, resources and resource assignments in the
+    * ProjectFile instance created by this reader will use compact storage
+    * for their field values. This significantly reduces the memory required
+    * to hold large projects. This option is currently supported by the MPP,
+    * MSPDI, MPX, XER and PMXML readers.
+    *
+    * @param compactFieldStorage true if compact field storage should be used
+    */
+   public void setCompactFieldStorage(boolean compactFieldStorage)
+   {
+      m_compactFieldStorage = compactFieldStorage;
+   }
+
+   /**
+    * Retrieve the flag indicating if compact field storage should be used.
+    *
+    * @return true if compact field storage should be used
+    */
+   public boolean getCompactFieldStorage()
+   {
+      return m_compactFieldStorage;
+   }
+
+   /**
+    * Set the fields which will be retained by the tasks, resources and
+    * resource assignments in the ProjectFile instance created by this reader.
+    * Custom field values which are not required are not decoded, and once
+    * the project has been read any other values not required are discarded.
+    * The identifiers and the fields linking entities together are always
+    * retained. This option is currently supported by the MPP, MSPDI, MPX,
+    * XER and PMXML readers.
+    *
+    * @param fields fields to retain, or null to retain all fields
+    */
+   public void setFieldProjection(Set<FieldType> fields)
+   {
+      m_fieldProjection = fields;
+   }
+
+   /**
+    * Retrieve the fields which will be retained by the tasks, resources
+    * and resource assignments read by this reader.
+    *
+    * @return set of fields, or null if all fields are retained
+    */
+   public Set<FieldType> getFieldProjection()
+   {
+      return m_fieldProjection;
+   }
+
+   /**
+    * If set to true, each task, resource and resource assignment is passed
+    * to the ProjectListener instances attached to this reader as it is read.
+    * Resource assignments are then removed from the project. Task and
+    * Resource instances are kept in the project, as they are needed to
+    * build the task hierarchy and to link relations and assignments, but
+    * all of their field values are discarded other than the identifiers,
+    * the task hierarchy, relations and calendars. This reduces the memory
+    * required to read very large files, but listeners must take any data
+    * they require from an entity when they are notified that it has been
+    * read. This option is currently supported by the MPP and MSPDI readers.
+    *
+    * @param streaming true if entities should be trimmed once read
+    */
+   public void setStreaming(boolean streaming)
+   {
+      m_streaming = streaming;
+   }
+
+   /**
+    * Retrieve the flag indicating if entities are trimmed once read.
+    *
+    * @return true if entities are trimmed once read
+    */
+   public boolean getStreaming()
+   {
+      return m_streaming;
+   }
+
    /**
     * {@inheritDoc}
     */
@@ -89,4 +171,8 @@ public abstract class AbstractProjectReader implements ProjectReader
          StreamHelper.closeQuietly(fis);
       }
    }
+
+   private boolean m_compactFieldStorage;
+   private Set<FieldType> m_fieldProjection;
+   private boolean m_streaming;
 }
@@ -26,6 +26,7 @@ package net.sf.mpxj.reader;
 import java.io.BufferedInputStream;
 import java.io.File;
 import java.io.FileInputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.Charset;
 import java.sql.Connection;
@@ -44,6 +45,7 @@ import java.util.regex.Pattern;
 
 import org.apache.poi.poifs.filesystem.POIFSFileSystem;
 
+import net.sf.mpxj.FieldType;
 import net.sf.mpxj.MPXJException;
 import net.sf.mpxj.ProjectFile;
 import net.sf.mpxj.asta.AstaDatabaseFileReader;
@@ -96,6 +98,31 @@ public final class UniversalProjectReader implements ProjectReader
       m_projectListeners.add(listener);
    }
 
+   /**
+    * Set the fields which will be retained by the tasks, resources and
+    * resource assignments in the ProjectFile instance created by this reader.
+    * This is passed on to the reader selected for the file, where supported,
+    * otherwise field values which are not required are discarded once
+    * the file has been read.
+    *
+    * @param fields fields to retain, or null to retain all fields
+    */
+   public void setFieldProjection(Set<FieldType> fields)
+   {
+      m_fieldProjection = fields;
+   }
+
+   /**
+    * Retrieve the fields which will be retained by the tasks, resources
+    * and resource assignments read by this reader.
+    *
+    * @return set of fields, or null if all fields are retained
+    */
+   public Set<FieldType> getFieldProjection()
+   {
+      return m_fieldProjection;
+   }
+
    /**
     * Package private method used when handling byte order mark.
     * Tells the reader to skip a number of bytes before starting to read from the stream.
@@ -134,6 +161,11 @@ public final class UniversalProjectReader implements ProjectReader
          }
          else
          {
+            if (m_skipBytes == 0 && isOleCompoundDocument(file))
+            {
+               return handleOleCompoundDocument(file);
+            }
+
             FileInputStream fis = null;
 
             try
@@ -217,6 +249,7 @@ public final class UniversalProjectReader implements ProjectReader
          {
             MSPDIReader reader = new MSPDIReader();
             reader.setCharset(m_charset);
+            reader.setFieldProjection(m_fieldProjection);
             return reader.read(bis);
          }
 
@@ -353,7 +386,7 @@ public final class UniversalProjectReader implements ProjectReader
    private ProjectFile readProjectFile(ProjectReader reader, InputStream stream) throws MPXJException
    {
       addListeners(reader);
-      return reader.read(stream);
+      return applyFieldProjection(reader.read(stream));
    }
 
    /**
@@ -366,7 +399,7 @@ public final class UniversalProjectReader implements ProjectReader
    private ProjectFile readProjectFile(ProjectReader reader, File file) throws MPXJException
    {
       addListeners(reader);
-      return reader.read(file);
+      return applyFieldProjection(reader.read(file));
    }
 
    /**
@@ -388,6 +421,60 @@ public final class UniversalProjectReader implements ProjectReader
       return null;
    }
 
+   /**
+    * Determine if a file starts with the OLE compound document fingerprint.
+    *
+    * @param file file to test
+    * @return true if this is an OLE compound document
+    */
+   private boolean isOleCompoundDocument(File file) throws IOException
+   {
+      FileInputStream fis = null;
+
+      try
+      {
+         fis = new FileInputStream(file);
+         byte[] buffer = new byte[BUFFER_SIZE];
+         int bytesRead = fis.read(buffer);
+         return bytesRead == BUFFER_SIZE && matchesFingerprint(buffer, OLE_COMPOUND_DOC_FINGERPRINT);
+      }
+
+      finally
+      {
+         StreamHelper.closeQuietly(fis);
+      }
+   }
+
+   /**
+    * We have an OLE compound document in a file... but is it an MPP file?
+    * Opening the file directly allows POI to read blocks on demand
+    * rather than buffering the whole document in memory.
+    *
+    * @param file OLE compound document
+    * @return ProjectFile instance
+    */
+   private ProjectFile handleOleCompoundDocument(File file) throws Exception
+   {
+      POIFSFileSystem fs = new POIFSFileSystem(file, true);
+
+      try
+      {
+         String fileFormat = MPPReader.getFileFormat(fs);
+         if (fileFormat != null && fileFormat.startsWith("MSProject"))
+         {
+            MPPReader reader = new MPPReader();
+            addListeners(reader);
+            return reader.read(fs);
+         }
+         return null;
+      }
+
+      finally
+      {
+         fs.close();
+      }
+   }
+
    /**
     * We have a binary property list.
     *
@@ -477,7 +564,7 @@ public final class UniversalProjectReader implements ProjectReader
                PrimaveraDatabaseReader reader = new PrimaveraDatabaseReader();
                reader.setConnection(connection);
                addListeners(reader);
-               return reader.read();
+               return applyFieldProjection(reader.read());
             }
             finally
             {
@@ -620,6 +707,7 @@ public final class UniversalProjectReader implements ProjectReader
             else
             {
                UniversalProjectReader reader = new UniversalProjectReader();
+               reader.setFieldProjection(m_fieldProjection);
                ProjectFile result = reader.read(file);
                if (result != null)
                {
@@ -676,6 +764,7 @@ public final class UniversalProjectReader implements ProjectReader
       UniversalProjectReader reader = new UniversalProjectReader();
       reader.setSkipBytes(length);
       reader.setCharset(charset);
+      reader.setFieldProjection(m_fieldProjection);
       return reader.read(stream);
    }
 
@@ -756,6 +845,7 @@ public final class UniversalProjectReader implements ProjectReader
    {
       PrimaveraXERFileReader reader = new PrimaveraXERFileReader();
       reader.setCharset(m_charset);
+      reader.setFieldProjection(m_fieldProjection);
       List<ProjectFile> projects = reader.readAll(stream);
       ProjectFile project = null;
       for (ProjectFile file : projects)
@@ -826,11 +916,34 @@ public final class UniversalProjectReader implements ProjectReader
             reader.addProjectListener(listener);
          }
       }
+
+      if (reader instanceof AbstractProjectReader)
+      {
+         ((AbstractProjectReader) reader).setFieldProjection(m_fieldProjection);
+      }
+   }
+
+   /**
+    * If the reader used for a file has not applied the field projection
+    * to the project it has read, apply it here.
+    *
+    * @param project project read from the file
+    * @return ProjectFile instance
+    */
+   private ProjectFile applyFieldProjection(ProjectFile project)
+   {
+      if (project != null && m_fieldProjection != null && project.getProjectConfig().getFieldProjection() == null)
+      {
+         project.getProjectConfig().setFieldProjection(m_fieldProjection);
+         project.applyFieldProjection();
+      }
+      return project;
    }
 
    private int m_skipBytes;
    private Charset m_charset;
    private List<ProjectListener> m_projectListeners;
+   private Set<FieldType> m_fieldProjection;
 
    private static final int BUFFER_SIZE = 512;
 
@@ -127,12 +127,9 @@ public class MpxjFilter
     */
    private static void processTaskFilter(ProjectFile project, Filter filter)
    {
-      for (Task task : project.getTasks())
+      for (Task task : project.getTasks().filter(filter, null))
       {
-         if (filter.evaluate(task, null))
-         {
-            System.out.println(task.getID() + "," + task.getUniqueID() + "," + task.getName());
-         }
+         System.out.println(task.getID() + "," + task.getUniqueID() + "," + task.getName());
       }
    }
 
@@ -144,12 +141,9 @@ public class MpxjFilter
     */
    private static void processResourceFilter(ProjectFile project, Filter filter)
    {
-      for (Resource resource : project.getResources())
+      for (Resource resource : project.getResources().filter(filter, null))
       {
-         if (filter.evaluate(resource, null))
-         {
-            System.out.println(resource.getID() + "," + resource.getUniqueID() + "," + resource.getName());
-         }
+         System.out.println(resource.getID() + "," + resource.getUniqueID() + "," + resource.getName());
       }
    }
 
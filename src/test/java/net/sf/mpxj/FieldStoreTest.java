@@ -0,0 +1,173 @@
+/*
+ * file:       FieldStoreTest.java
+ * author:     Jon Iles
+ * copyright:  (c) Packwood Software 2019
+ * date:       27/02/2019
+ */
+
+/*
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation, Inc.,
+ * 59 Temple Place, Suite 330, Boston, MA 02111-1307, USA.
+ */
+
+package net.sf.mpxj;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.util.Random;
+
+import org.junit.Test;
+
+import net.sf.mpxj.junit.MpxjTestData;
+import net.sf.mpxj.mpx.MPXReader;
+import net.sf.mpxj.primavera.PrimaveraXERFileReader;
+import net.sf.mpxj.reader.AbstractProjectReader;
+
+/**
+ * Tests to ensure that the compact and array field stores behave identically.
+ * The field store classes are package-private, so unlike the other tests
+ * this class is placed in the net.sf.mpxj package.
+ */
+public class FieldStoreTest
+{
+   /**
+    * Apply the same random sequence of updates to both store types,
+    * ensuring that every field value matches after each update.
+    */
+   @Test public void testStores()
+   {
+      int size = TaskField.MAX_VALUE;
+      Random random = new Random(1);
+      FieldStore array = new ArrayFieldStore(size);
+      FieldStore sparse = new SparseFieldStore();
+
+      for (int loop = 0; loop < 5000; loop++)
+      {
+         int index = random.nextInt(size);
+         Object value = random.nextInt(3) == 0 ? null : Integer.valueOf(random.nextInt());
+         array.set(index, value);
+         sparse.set(index, value);
+
+         assertSame(array.get(index), sparse.get(index));
+         if (loop % 100 == 0)
+         {
+            for (int field = 0; field < size; field++)
+            {
+               assertSame(array.get(field), sparse.get(field));
+            }
+         }
+      }
+
+      for (int field = 0; field < size; field++)
+      {
+         array.set(field, null);
+         sparse.set(field, null);
+         assertNull(sparse.get(field));
+      }
+   }
+
+   /**
+    * Ensure that MPX files read using compact field storage
+    * have the same field values as those read using array storage.
+    */
+   @Test public void testMpx() throws Exception
+   {
+      for (String name : MPX_FILES)
+      {
+         testFile(new MPXReader(), new MPXReader(), name);
+      }
+   }
+
+   /**
+    * Ensure that XER files read using compact field storage
+    * have the same field values as those read using array storage.
+    */
+   @Test public void testXer() throws Exception
+   {
+      for (String name : XER_FILES)
+      {
+         testFile(new PrimaveraXERFileReader(), new PrimaveraXERFileReader(), name);
+      }
+   }
+
+   /**
+    * Read a file with and without compact storage and compare the results.
+    *
+    * @param arrayReader reader using array storage
+    * @param compactReader reader using compact storage
+    * @param name file name
+    */
+   private void testFile(AbstractProjectReader arrayReader, AbstractProjectReader compactReader, String name) throws Exception
+   {
+      File file = new File(MpxjTestData.filePath(name));
+      compactReader.setCompactFieldStorage(true);
+
+      ProjectFile expected = arrayReader.read(file);
+      ProjectFile actual = compactReader.read(file);
+      assertFalse(expected.getProjectConfig().getCompactFieldStorage());
+      assertTrue(actual.getProjectConfig().getCompactFieldStorage());
+
+      assertEquals(name, expected.getTasks().size(), actual.getTasks().size());
+      for (int index = 0; index < expected.getTasks().size(); index++)
+      {
+         compare(name, expected.getTasks().get(index), actual.getTasks().get(index), TaskField.values());
+      }
+
+      assertEquals(name, expected.getResources().size(), actual.getResources().size());
+      for (int index = 0; index < expected.getResources().size(); index++)
+      {
+         compare(name, expected.getResources().get(index), actual.getResources().get(index), ResourceField.values());
+      }
+
+      assertEquals(name, expected.getResourceAssignments().size(), actual.getResourceAssignments().size());
+      for (int index = 0; index < expected.getResourceAssignments().size(); index++)
+      {
+         compare(name, expected.getResourceAssignments().get(index), actual.getResourceAssignments().get(index), AssignmentField.values());
+      }
+   }
+
+   /**
+    * Compare the values of each field held by two containers.
+    *
+    * @param name file name
+    * @param expected expected values
+    * @param actual actual values
+    * @param fields fields to compare
+    */
+   private void compare(String name, FieldContainer expected, FieldContainer actual, FieldType[] fields)
+   {
+      for (FieldType field : fields)
+      {
+         assertEquals(name + " " + field, String.valueOf(expected.getCurrentValue(field)), String.valueOf(actual.getCurrentValue(field)));
+      }
+   }
+
+   private static final String[] MPX_FILES =
+   {
+      "legacy/sample.mpx",
+      "legacy/sample1.mpx",
+      "generated/task-text/task-text-project98.mpx",
+      "generated/task-links/task-links-project98.mpx",
+      "generated/task-costs/task-costs-project98.mpx",
+      "generated/task-durations/task-durations-project98.mpx",
+      "generated/resource-misc/resource-misc-project98.mpx"
+   };
+
+   private static final String[] XER_FILES =
+   {
+      "generated/task-percentcomplete/percent-complete-8.4.xer",
+      "calendar/invalid/invalid-8.4.xer"
+   };
+}
@@ -0,0 +1,177 @@
+/*
+ * file:       LazyFieldStoreTest.java
+ * author:     Jon Iles
+ * copyright:  (c) Packwood Software 2019
+ * date:       27/02/2019
+ */
+
+/*
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation, Inc.,
+ * 59 Temple Place, Suite 330, Boston, MA 02111-1307, USA.
+ */
+
+package net.sf.mpxj;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import net.sf.mpxj.junit.MpxjTestData;
+import net.sf.mpxj.mpp.MPPReader;
+
+/**
+ * Tests to ensure that decoding field values on demand gives
+ * the same results as decoding them when the file is read. The field
+ * store classes are package-private, hence this test is placed in the
+ * net.sf.mpxj package.
+ */
+public class LazyFieldStoreTest
+{
+   /**
+    * Ensure that each field is loaded once, on first access, and that
+    * explicitly set values are not replaced by loaded values.
+    */
+   @Test public void testStore()
+   {
+      CountingLoader loader = new CountingLoader();
+      FieldStore store = new LazyFieldStore(new ArrayFieldStore(TaskField.MAX_VALUE), loader);
+
+      int nameIndex = TaskField.NAME.getValue();
+      assertEquals(TaskField.NAME.toString(), store.get(nameIndex));
+      assertEquals(TaskField.NAME.toString(), store.get(nameIndex));
+      assertEquals(1, loader.m_loaded.size());
+
+      int textIndex = TaskField.TEXT1.getValue();
+      store.set(textIndex, "Explicit");
+      assertEquals("Explicit", store.get(textIndex));
+
+      int numberIndex = TaskField.NUMBER1.getValue();
+      store.set(numberIndex, null);
+      assertNull(store.get(numberIndex));
+      assertEquals(1, loader.m_loaded.size());
+
+      store.set(nameIndex, "Renamed");
+      assertEquals("Renamed", store.get(nameIndex));
+      assertEquals(1, loader.m_loaded.size());
+   }
+
+   /**
+    * Ensure that MPP files read with lazy field decoding have the
+    * same field values as those decoded when the file is read.
+    */
+   @Test public void testMppFiles() throws Exception
+   {
+      for (File file : listMpp14Files())
+      {
+         MPPReader eagerReader = new MPPReader();
+         MPPReader lazyReader = new MPPReader();
+         lazyReader.setLazyFieldDecoding(true);
+
+         ProjectFile expected = eagerReader.read(file);
+         ProjectFile actual = lazyReader.read(file);
+         String name = file.getName();
+
+         assertEquals(name, expected.getTasks().size(), actual.getTasks().size());
+         for (int index = 0; index < expected.getTasks().size(); index++)
+         {
+            compare(name, expected.getTasks().get(index), actual.getTasks().get(index), TaskField.values());
+         }
+
+         assertEquals(name, expected.getResources().size(), actual.getResources().size());
+         for (int index = 0; index < expected.getResources().size(); index++)
+         {
+            compare(name, expected.getResources().get(index), actual.getResources().get(index), ResourceField.values());
+         }
+      }
+   }
+
+   /**
+    * Compare the values of each field held by two containers.
+    *
+    * @param name file name
+    * @param expected expected values
+    * @param actual actual values
+    * @param fields fields to compare
+    */
+   private void compare(String name, FieldContainer expected, FieldContainer actual, FieldType[] fields)
+   {
+      for (FieldType field : fields)
+      {
+         assertEquals(name + " " + field, String.valueOf(expected.getCurrentValue(field)), String.valueOf(actual.getCurrentValue(field)));
+      }
+   }
+
+   /**
+    * Retrieve the MPP14 files from the generated test data.
+    *
+    * @return list of files
+    */
+   private List<File> listMpp14Files()
+   {
+      List<File> result = new ArrayList<File>();
+      for (String directory : DIRECTORIES)
+      {
+         File[] files = new File(MpxjTestData.filePath(directory)).listFiles();
+         if (files != null)
+         {
+            for (File file : files)
+            {
+               if (file.getName().endsWith("-mpp14.mpp"))
+               {
+                  result.add(file);
+               }
+            }
+         }
+      }
+      assertFalse(result.isEmpty());
+      return result;
+   }
+
+   /**
+    * Loader which returns the name of each field as its value,
+    * recording the fields it has loaded.
+    */
+   private static final class CountingLoader implements FieldLoader
+   {
+      @Override public FieldType getFieldType(int index)
+      {
+         return TaskField.getInstance(index);
+      }
+
+      @Override public Object loadField(FieldType field)
+      {
+         m_loaded.add(field);
+         return field.toString();
+      }
+
+      final List<FieldType> m_loaded = new ArrayList<FieldType>();
+   }
+
+   private static final String[] DIRECTORIES =
+   {
+      "generated/task-text",
+      "generated/task-numbers",
+      "generated/task-durations",
+      "generated/task-costs",
+      "generated/task-starts",
+      "generated/task-finishes",
+      "generated/task-flags",
+      "generated/task-links",
+      "generated/resource-misc"
+   };
+}
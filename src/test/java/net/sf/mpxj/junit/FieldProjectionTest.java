@@ -0,0 +1,138 @@
+/*
+ * file:       FieldProjectionTest.java
+ * author:     Jon Iles
+ * copyright:  (c) Packwood Software 2019
+ * date:       27/02/2019
+ */
+
+/*
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation, Inc.,
+ * 59 Temple Place, Suite 330, Boston, MA 02111-1307, USA.
+ */
+
+package net.sf.mpxj.junit;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Test;
+
+import net.sf.mpxj.FieldContainer;
+import net.sf.mpxj.FieldType;
+import net.sf.mpxj.ProjectFile;
+import net.sf.mpxj.ResourceField;
+import net.sf.mpxj.TaskField;
+import net.sf.mpxj.mpp.MPPReader;
+import net.sf.mpxj.mpx.MPXReader;
+import net.sf.mpxj.primavera.PrimaveraXERFileReader;
+import net.sf.mpxj.reader.AbstractProjectReader;
+
+/**
+ * Tests to ensure that readers retain only the projected fields,
+ * and that the values of those fields are unchanged.
+ */
+public class FieldProjectionTest
+{
+   /**
+    * Test MPX files.
+    */
+   @Test public void testMpx() throws Exception
+   {
+      testFile(new MPXReader(), new MPXReader(), "generated/task-text/task-text-project98.mpx");
+      testFile(new MPXReader(), new MPXReader(), "generated/task-numbers/task-numbers-project98.mpx");
+      testFile(new MPXReader(), new MPXReader(), "generated/resource-misc/resource-misc-project98.mpx");
+      testFile(new MPXReader(), new MPXReader(), "generated/task-links/task-links-project98.mpx");
+   }
+
+   /**
+    * Test XER files.
+    */
+   @Test public void testXer() throws Exception
+   {
+      testFile(new PrimaveraXERFileReader(), new PrimaveraXERFileReader(), "generated/task-percentcomplete/percent-complete-8.4.xer");
+   }
+
+   /**
+    * Test MPP files.
+    */
+   @Test public void testMpp() throws Exception
+   {
+      testFile(new MPPReader(), new MPPReader(), "generated/task-text/task-text-project2010-mpp14.mpp");
+      testFile(new MPPReader(), new MPPReader(), "generated/task-numbers/task-numbers-project2007-mpp12.mpp");
+      testFile(new MPPReader(), new MPPReader(), "generated/task-text/task-text-project2003-mpp9.mpp");
+      testFile(new MPPReader(), new MPPReader(), "generated/task-links/task-links-project2010-mpp14.mpp");
+   }
+
+   /**
+    * Read a file with and without a field projection, and compare the results.
+    *
+    * @param reader reader without a projection
+    * @param projectedReader reader with a projection
+    * @param name file name
+    */
+   private void testFile(AbstractProjectReader reader, AbstractProjectReader projectedReader, String name) throws Exception
+   {
+      File file = new File(MpxjTestData.filePath(name));
+      projectedReader.setFieldProjection(PROJECTION);
+
+      ProjectFile expected = reader.read(file);
+      ProjectFile actual = projectedReader.read(file);
+
+      assertEquals(name, expected.getTasks().size(), actual.getTasks().size());
+      for (int index = 0; index < expected.getTasks().size(); index++)
+      {
+         compare(name, expected.getTasks().get(index), actual.getTasks().get(index), TaskField.values(), TASK_FIELDS);
+      }
+
+      assertEquals(name, expected.getResources().size(), actual.getResources().size());
+      for (int index = 0; index < expected.getResources().size(); index++)
+      {
+         compare(name, expected.getResources().get(index), actual.getResources().get(index), ResourceField.values(), RESOURCE_FIELDS);
+      }
+   }
+
+   /**
+    * Ensure that the retained fields have the same values as the unprojected
+    * read, and that all other fields have been discarded. Values are compared
+    * as text, as relations are not comparable between the two reads.
+    *
+    * @param name file name
+    * @param expected container read without a projection
+    * @param actual container read with a projection
+    * @param fields all fields
+    * @param retainedFields fields which should be retained
+    */
+   private void compare(String name, FieldContainer expected, FieldContainer actual, FieldType[] fields, Set<FieldType> retainedFields)
+   {
+      for (FieldType field : fields)
+      {
+         if (retainedFields.contains(field))
+         {
+            assertEquals(name + " " + field, String.valueOf(expected.getCachedValue(field)), String.valueOf(actual.getCachedValue(field)));
+         }
+         else
+         {
+            assertNull(name + " " + field, actual.getCachedValue(field));
+         }
+      }
+   }
+
+   private static final Set<FieldType> PROJECTION = new HashSet<FieldType>(Arrays.<FieldType> asList(TaskField.NAME, TaskField.START, TaskField.TEXT1, TaskField.NUMBER1, ResourceField.NAME, ResourceField.TEXT1));
+   private static final Set<FieldType> TASK_FIELDS = new HashSet<FieldType>(Arrays.<FieldType> asList(TaskField.NAME, TaskField.START, TaskField.TEXT1, TaskField.NUMBER1, TaskField.UNIQUE_ID, TaskField.ID, TaskField.OUTLINE_LEVEL, TaskField.PREDECESSORS, TaskField.SUCCESSORS, TaskField.PARENT_TASK_UNIQUE_ID));
+   private static final Set<FieldType> RESOURCE_FIELDS = new HashSet<FieldType>(Arrays.<FieldType> asList(ResourceField.NAME, ResourceField.TEXT1, ResourceField.UNIQUE_ID, ResourceField.ID));
+}
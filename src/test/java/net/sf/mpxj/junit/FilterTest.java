@@ -0,0 +1,267 @@
+/*
+ * file:       FilterTest.java
+ * author:     Jon Iles
+ * copyright:  (c) Packwood Software 2019
+ * date:       27/02/2019
+ */
+
+/*
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation, Inc.,
+ * 59 Temple Place, Suite 330, Boston, MA 02111-1307, USA.
+ */
+
+package net.sf.mpxj.junit;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.Test;
+
+import net.sf.mpxj.DataType;
+import net.sf.mpxj.Duration;
+import net.sf.mpxj.FieldContainer;
+import net.sf.mpxj.FieldType;
+import net.sf.mpxj.Filter;
+import net.sf.mpxj.GenericCriteria;
+import net.sf.mpxj.GenericCriteriaPrompt;
+import net.sf.mpxj.ProjectFile;
+import net.sf.mpxj.Resource;
+import net.sf.mpxj.ResourceField;
+import net.sf.mpxj.Task;
+import net.sf.mpxj.TaskField;
+import net.sf.mpxj.TestOperator;
+import net.sf.mpxj.TimeUnit;
+import net.sf.mpxj.mpx.MPXReader;
+
+/**
+ * Tests to ensure that the bulk filter methods return the same
+ * results as evaluating the filter for each row in turn.
+ */
+public class FilterTest
+{
+   /**
+    * Compare filter results for a large generated project, with and
+    * without related summary rows, evaluated serially and concurrently.
+    */
+   @Test public void testGeneratedProject() throws Exception
+   {
+      testFilters(createProject());
+   }
+
+   /**
+    * Compare filter results for a project read from an MPX file.
+    */
+   @Test public void testMpxFile() throws Exception
+   {
+      testFilters(new MPXReader().read(MpxjTestData.filePath("legacy/sample.mpx")));
+   }
+
+   /**
+    * Ensure that related summary rows include every ancestor of a
+    * matching task, but not unrelated summary tasks.
+    */
+   @Test public void testRelatedSummaryRows() throws Exception
+   {
+      ProjectFile file = new ProjectFile();
+      Task top = addTask(file, null, "Top", 0);
+      Task middle = addTask(file, top, "Middle", 0);
+      Task leaf = addTask(file, middle, "Match", 0);
+      Task other = addTask(file, null, "Other", 0);
+      addTask(file, other, "Leaf", 0);
+
+      Filter filter = createTaskFilter(createCriteria(file, TaskField.NAME, TestOperator.EQUALS, "Match"), true);
+      List<Task> expected = new ArrayList<Task>();
+      expected.add(top);
+      expected.add(middle);
+      expected.add(leaf);
+      assertEquals(expected, file.getTasks().filter(filter, null));
+
+      filter.setShowRelatedSummaryRows(false);
+      assertEquals(Collections.singletonList(leaf), file.getTasks().filter(filter, null));
+   }
+
+   /**
+    * Apply a set of task and resource filters to a project and compare
+    * the results with those produced by Filter.evaluate.
+    *
+    * @param file project to test
+    */
+   private void testFilters(ProjectFile file) throws Exception
+   {
+      GenericCriteriaPrompt prompt = new GenericCriteriaPrompt(DataType.STRING, "Name");
+      Map<GenericCriteriaPrompt, Object> promptValues = Collections.<GenericCriteriaPrompt, Object> singletonMap(prompt, "7");
+
+      List<GenericCriteria> taskCriteria = new ArrayList<GenericCriteria>();
+      taskCriteria.add(null);
+      taskCriteria.add(createCriteria(file, TaskField.NAME, TestOperator.CONTAINS, prompt));
+      taskCriteria.add(createCriteria(file, TaskField.DURATION, TestOperator.IS_GREATER_THAN, Duration.getInstance(3, TimeUnit.DAYS)));
+      taskCriteria.add(createCriteria(file, TaskField.SUMMARY, TestOperator.EQUALS, Boolean.TRUE));
+      taskCriteria.add(createCriteria(file, TaskField.NAME, TestOperator.EQUALS, "No Such Task"));
+
+      ExecutorService executor = Executors.newFixedThreadPool(4);
+      try
+      {
+         for (GenericCriteria criteria : taskCriteria)
+         {
+            for (boolean showRelatedSummaryRows : new boolean[]
+            {
+               false,
+               true
+            })
+            {
+               Filter filter = createTaskFilter(criteria, showRelatedSummaryRows);
+               List<Task> expected = evaluate(file.getTasks(), filter, promptValues);
+               assertEquals(filter.toString(), expected, file.getTasks().filter(filter, promptValues));
+               assertEquals(filter.toString(), expected, file.getTasks().filter(filter, promptValues, executor));
+            }
+         }
+
+         List<GenericCriteria> resourceCriteria = new ArrayList<GenericCriteria>();
+         resourceCriteria.add(null);
+         resourceCriteria.add(createCriteria(file, ResourceField.NAME, TestOperator.CONTAINS, prompt));
+         resourceCriteria.add(createCriteria(file, ResourceField.NAME, TestOperator.DOES_NOT_CONTAIN, "e"));
+
+         for (GenericCriteria criteria : resourceCriteria)
+         {
+            Filter filter = new Filter();
+            filter.setIsResourceFilter(true);
+            filter.setCriteria(criteria);
+            List<Resource> expected = evaluate(file.getResources(), filter, promptValues);
+            assertEquals(expected, file.getResources().filter(filter, promptValues));
+            assertEquals(expected, file.getResources().filter(filter, promptValues, executor));
+         }
+      }
+
+      finally
+      {
+         executor.shutdown();
+      }
+   }
+
+   /**
+    * Apply a filter to each item in a list using Filter.evaluate.
+    *
+    * @param items items to test
+    * @param filter filter to apply
+    * @param promptValues responses to prompts
+    * @return matching items
+    */
+   private <T extends FieldContainer> List<T> evaluate(List<T> items, Filter filter, Map<GenericCriteriaPrompt, Object> promptValues)
+   {
+      List<T> result = new ArrayList<T>();
+      for (T item : items)
+      {
+         if (filter.evaluate(item, promptValues))
+         {
+            result.add(item);
+         }
+      }
+      return result;
+   }
+
+   /**
+    * Create a project with enough tasks to be split into several chunks
+    * when evaluated concurrently, arranged in a randomly nested hierarchy.
+    *
+    * @return project file
+    */
+   private ProjectFile createProject()
+   {
+      ProjectFile file = new ProjectFile();
+      Random random = new Random(42);
+      List<Task> parents = new ArrayList<Task>();
+
+      for (int index = 0; index < 5000; index++)
+      {
+         Task parent = parents.isEmpty() || random.nextInt(10) == 0 ? null : parents.get(random.nextInt(parents.size()));
+         Task task = addTask(file, parent, "Task " + index, random.nextInt(10));
+         if (random.nextInt(4) == 0)
+         {
+            parents.add(task);
+         }
+      }
+
+      for (Task task : file.getTasks())
+      {
+         task.setSummary(!task.getChildTasks().isEmpty());
+      }
+
+      for (int index = 0; index < 50; index++)
+      {
+         Resource resource = file.addResource();
+         resource.setName("Resource " + index);
+      }
+
+      return file;
+   }
+
+   /**
+    * Add a task to the project.
+    *
+    * @param file parent project
+    * @param parent parent task, or null for a top level task
+    * @param name task name
+    * @param days task duration in days
+    * @return new task
+    */
+   private Task addTask(ProjectFile file, Task parent, String name, int days)
+   {
+      Task task = parent == null ? file.addTask() : parent.addTask();
+      task.setName(name);
+      task.setDuration(Duration.getInstance(days, TimeUnit.DAYS));
+      task.setID(Integer.valueOf(file.getTasks().size()));
+      return task;
+   }
+
+   /**
+    * Create a task filter.
+    *
+    * @param criteria filter criteria
+    * @param showRelatedSummaryRows true if related summary rows are shown
+    * @return filter
+    */
+   private Filter createTaskFilter(GenericCriteria criteria, boolean showRelatedSummaryRows)
+   {
+      Filter filter = new Filter();
+      filter.setIsTaskFilter(true);
+      filter.setCriteria(criteria);
+      filter.setShowRelatedSummaryRows(showRelatedSummaryRows);
+      return filter;
+   }
+
+   /**
+    * Create a criteria testing a field against a value.
+    *
+    * @param file parent project
+    * @param field left hand field
+    * @param operator test operator
+    * @param value right hand value
+    * @return criteria
+    */
+   private GenericCriteria createCriteria(ProjectFile file, FieldType field, TestOperator operator, Object value)
+   {
+      GenericCriteria criteria = new GenericCriteria(file.getProjectProperties());
+      criteria.setLeftValue(field);
+      criteria.setOperator(operator);
+      criteria.setRightValue(0, value);
+      return criteria;
+   }
+}
@@ -0,0 +1,240 @@
+/*
+ * file:       GenericCriteriaTest.java
+ * author:     Jon Iles
+ * copyright:  (c) Packwood Software 2019
+ * date:       27/02/2019
+ */
+
+/*
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation, Inc.,
+ * 59 Temple Place, Suite 330, Boston, MA 02111-1307, USA.
+ */
+
+package net.sf.mpxj.junit;
+
+import static org.junit.Assert.*;
+
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import net.sf.mpxj.CompiledCriteria;
+import net.sf.mpxj.DataType;
+import net.sf.mpxj.Duration;
+import net.sf.mpxj.FieldType;
+import net.sf.mpxj.GenericCriteria;
+import net.sf.mpxj.GenericCriteriaPrompt;
+import net.sf.mpxj.ProjectFile;
+import net.sf.mpxj.Task;
+import net.sf.mpxj.TaskField;
+import net.sf.mpxj.TestOperator;
+import net.sf.mpxj.TimeUnit;
+import net.sf.mpxj.mpx.MPXReader;
+
+/**
+ * Tests to ensure that compiled criteria produce the same results
+ * as the interpreted evaluation of the criteria.
+ */
+public class GenericCriteriaTest
+{
+   /**
+    * Ensure that a duration field on the right hand side which is
+    * already expressed in hours is compared using its actual value.
+    */
+   @Test public void testHoursDurationField() throws Exception
+   {
+      ProjectFile file = createProject();
+      Task beta = file.getTaskByID(Integer.valueOf(3));
+      assertEquals(TimeUnit.HOURS, beta.getDuration().getUnits());
+
+      GenericCriteria criteria = createCriteria(file, TaskField.WORK, TestOperator.IS_LESS_THAN, TaskField.DURATION);
+      assertTrue(criteria.evaluate(beta, null));
+      assertTrue(criteria.compile(null).evaluate(beta));
+
+      criteria = createCriteria(file, TaskField.DURATION, TestOperator.EQUALS, TaskField.DURATION);
+      assertTrue(criteria.evaluate(beta, null));
+      assertTrue(criteria.compile(null).evaluate(beta));
+   }
+
+   /**
+    * Ensure that prompt values are resolved when the criteria
+    * does not otherwise reference a field on the right hand side.
+    */
+   @Test public void testPromptWithoutField() throws Exception
+   {
+      ProjectFile file = createProject();
+      GenericCriteriaPrompt prompt = new GenericCriteriaPrompt(DataType.STRING, "Name");
+      Map<GenericCriteriaPrompt, Object> promptValues = Collections.<GenericCriteriaPrompt, Object> singletonMap(prompt, "Alpha");
+
+      GenericCriteria criteria = createCriteria(file, TaskField.NAME, TestOperator.EQUALS, prompt);
+      CompiledCriteria compiled = criteria.compile(promptValues);
+      for (Task task : file.getTasks())
+      {
+         boolean expected = "Alpha".equals(task.getName());
+         assertEquals(task.getName(), Boolean.valueOf(expected), Boolean.valueOf(criteria.evaluate(task, promptValues)));
+         assertEquals(task.getName(), Boolean.valueOf(expected), Boolean.valueOf(compiled.evaluate(task)));
+      }
+   }
+
+   /**
+    * Compare compiled and interpreted evaluation of a range of criteria
+    * against a programmatically constructed project.
+    */
+   @Test public void testCreatedProject() throws Exception
+   {
+      testCriteria(createProject());
+   }
+
+   /**
+    * Compare compiled and interpreted evaluation of a range of criteria
+    * against a project read from an MPX file.
+    */
+   @Test public void testMpxFile() throws Exception
+   {
+      testCriteria(new MPXReader().read(MpxjTestData.filePath("legacy/sample.mpx")));
+   }
+
+   /**
+    * Evaluate each criteria against each task in the project using
+    * both the compiled and interpreted forms, and compare the results.
+    *
+    * @param file project to test
+    */
+   private void testCriteria(ProjectFile file) throws Exception
+   {
+      GenericCriteriaPrompt namePrompt = new GenericCriteriaPrompt(DataType.STRING, "Name");
+      GenericCriteriaPrompt durationPrompt = new GenericCriteriaPrompt(DataType.DURATION, "Duration");
+      Map<GenericCriteriaPrompt, Object> promptValues = new HashMap<GenericCriteriaPrompt, Object>();
+      promptValues.put(namePrompt, "a");
+      promptValues.put(durationPrompt, Duration.getInstance(16, TimeUnit.HOURS));
+
+      List<GenericCriteria> list = new ArrayList<GenericCriteria>();
+      list.add(createCriteria(file, TaskField.DURATION, TestOperator.IS_GREATER_THAN, Duration.getInstance(1, TimeUnit.DAYS)));
+      list.add(createCriteria(file, TaskField.DURATION, TestOperator.IS_LESS_THAN_OR_EQUAL_TO, Duration.getInstance(10, TimeUnit.HOURS)));
+      list.add(createCriteria(file, TaskField.DURATION, TestOperator.IS_GREATER_THAN_OR_EQUAL_TO, durationPrompt));
+      list.add(createCriteria(file, TaskField.WORK, TestOperator.IS_LESS_THAN, TaskField.DURATION));
+      list.add(createCriteria(file, TaskField.WORK, TestOperator.IS_WITHIN, Duration.getInstance(0, TimeUnit.HOURS), TaskField.DURATION));
+      list.add(createCriteria(file, TaskField.NAME, TestOperator.CONTAINS, namePrompt));
+      list.add(createCriteria(file, TaskField.NAME, TestOperator.DOES_NOT_CONTAIN, "e"));
+      list.add(createCriteria(file, TaskField.NAME, TestOperator.EQUALS, TaskField.TEXT1));
+      list.add(createCriteria(file, TaskField.START, TestOperator.IS_WITHIN, DATE_FORMAT.parse("01/01/2019"), DATE_FORMAT.parse("31/01/2019")));
+      list.add(createCriteria(file, TaskField.START, TestOperator.IS_NOT_WITHIN, DATE_FORMAT.parse("01/01/2019"), DATE_FORMAT.parse("31/01/2019")));
+      list.add(createCriteria(file, TaskField.SUMMARY, TestOperator.EQUALS, Boolean.TRUE));
+      list.add(createCriteria(file, TaskField.UNIQUE_ID, TestOperator.IS_GREATER_THAN, Integer.valueOf(1)));
+      list.add(createCriteria(file, TaskField.ID, TestOperator.DOES_NOT_EQUAL, Integer.valueOf(2)));
+
+      GenericCriteria and = createLogicalCriteria(file, TestOperator.AND, list.get(0), list.get(5));
+      GenericCriteria or = createLogicalCriteria(file, TestOperator.OR, list.get(1), list.get(6), and);
+      list.add(and);
+      list.add(or);
+      list.add(createLogicalCriteria(file, TestOperator.AND, or, list.get(12)));
+
+      for (GenericCriteria criteria : list)
+      {
+         CompiledCriteria compiled = criteria.compile(promptValues);
+         for (Task task : file.getTasks())
+         {
+            boolean expected = criteria.evaluate(task, promptValues);
+            assertEquals(criteria + " " + task.getName(), Boolean.valueOf(expected), Boolean.valueOf(compiled.evaluate(task)));
+         }
+      }
+   }
+
+   /**
+    * Create a small project with a summary task and a mixture
+    * of duration units.
+    *
+    * @return project file
+    */
+   private ProjectFile createProject() throws Exception
+   {
+      ProjectFile file = new ProjectFile();
+      file.addDefaultBaseCalendar();
+
+      Task summary = file.addTask();
+      summary.setID(Integer.valueOf(1));
+      summary.setName("Summary");
+      summary.setSummary(true);
+      summary.setStart(DATE_FORMAT.parse("07/01/2019"));
+      summary.setDuration(Duration.getInstance(3, TimeUnit.WEEKS));
+
+      Task alpha = summary.addTask();
+      alpha.setID(Integer.valueOf(2));
+      alpha.setName("Alpha");
+      alpha.setText(1, "Alpha");
+      alpha.setStart(DATE_FORMAT.parse("07/01/2019"));
+      alpha.setDuration(Duration.getInstance(2, TimeUnit.DAYS));
+      alpha.setWork(Duration.getInstance(960, TimeUnit.MINUTES));
+
+      Task beta = summary.addTask();
+      beta.setID(Integer.valueOf(3));
+      beta.setName("Beta");
+      beta.setStart(DATE_FORMAT.parse("04/02/2019"));
+      beta.setDuration(Duration.getInstance(10, TimeUnit.HOURS));
+      beta.setWork(Duration.getInstance(4, TimeUnit.HOURS));
+
+      Task gamma = file.addTask();
+      gamma.setID(Integer.valueOf(4));
+      gamma.setName("Gamma");
+
+      return file;
+   }
+
+   /**
+    * Create a criteria testing a field against one or more values.
+    *
+    * @param file parent project
+    * @param field left hand field
+    * @param operator test operator
+    * @param values right hand values
+    * @return criteria
+    */
+   private GenericCriteria createCriteria(ProjectFile file, FieldType field, TestOperator operator, Object... values)
+   {
+      GenericCriteria criteria = new GenericCriteria(file.getProjectProperties());
+      criteria.setLeftValue(field);
+      criteria.setOperator(operator);
+      for (int index = 0; index < values.length; index++)
+      {
+         criteria.setRightValue(index, values[index]);
+      }
+      return criteria;
+   }
+
+   /**
+    * Create a criteria combining other criteria with a logical operator.
+    *
+    * @param file parent project
+    * @param operator AND or OR
+    * @param children child criteria
+    * @return criteria
+    */
+   private GenericCriteria createLogicalCriteria(ProjectFile file, TestOperator operator, GenericCriteria... children)
+   {
+      GenericCriteria criteria = new GenericCriteria(file.getProjectProperties());
+      criteria.setOperator(operator);
+      for (GenericCriteria child : children)
+      {
+         criteria.addCriteria(child);
+      }
+      return criteria;
+   }
+
+   private static final SimpleDateFormat DATE_FORMAT = new SimpleDateFormat("dd/MM/yyyy");
+}
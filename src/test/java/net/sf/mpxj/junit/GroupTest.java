@@ -0,0 +1,251 @@
+/*
+ * file:       GroupTest.java
+ * author:     Jon Iles
+ * copyright:  (c) Packwood Software 2019
+ * date:       27/02/2019
+ */
+
+/*
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation, Inc.,
+ * 59 Temple Place, Suite 330, Boston, MA 02111-1307, USA.
+ */
+
+package net.sf.mpxj.junit;
+
+import static org.junit.Assert.*;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.List;
+
+import org.junit.Test;
+
+import net.sf.mpxj.Duration;
+import net.sf.mpxj.FieldType;
+import net.sf.mpxj.Group;
+import net.sf.mpxj.GroupBucket;
+import net.sf.mpxj.GroupClause;
+import net.sf.mpxj.ProjectFile;
+import net.sf.mpxj.Task;
+import net.sf.mpxj.TaskField;
+import net.sf.mpxj.TimeUnit;
+
+/**
+ * Tests applying group definitions to tasks.
+ */
+public class GroupTest
+{
+   /**
+    * Ensure that work and duration totals are returned as durations.
+    */
+   @Test public void testAggregates() throws Exception
+   {
+      ProjectFile file = createProject();
+      GroupBucket<Task> root = file.getTasks().group(createGroup(TaskField.NAME, null, null), TaskField.WORK, TaskField.DURATION, TaskField.NUMBER1);
+
+      assertEquals(5, root.getCount());
+      assertEquals(Duration.getInstance(72, TimeUnit.HOURS), root.getAggregate(TaskField.WORK));
+      assertEquals(Duration.getInstance(11, TimeUnit.DAYS), root.getAggregate(TaskField.DURATION));
+      assertEquals(Double.valueOf(15), root.getAggregate(TaskField.NUMBER1));
+      assertNull(root.getAggregate(TaskField.COST));
+   }
+
+   /**
+    * Ensure that work values are grouped into intervals.
+    */
+   @Test public void testWorkInterval() throws Exception
+   {
+      ProjectFile file = createProject();
+      GroupBucket<Task> root = file.getTasks().group(createGroup(TaskField.WORK, Integer.valueOf(10), null), TaskField.WORK);
+
+      List<GroupBucket<Task>> buckets = root.getBuckets();
+      assertEquals(3, buckets.size());
+      assertBucket(buckets.get(0), Duration.getInstance(0, TimeUnit.HOURS), Duration.getInstance(10, TimeUnit.HOURS), 2);
+      assertBucket(buckets.get(1), Duration.getInstance(10, TimeUnit.HOURS), Duration.getInstance(20, TimeUnit.HOURS), 2);
+      assertBucket(buckets.get(2), Duration.getInstance(40, TimeUnit.HOURS), Duration.getInstance(50, TimeUnit.HOURS), 1);
+      assertEquals(Duration.getInstance(22, TimeUnit.HOURS), buckets.get(1).getAggregate(TaskField.WORK));
+   }
+
+   /**
+    * Ensure that integer values are grouped into intervals.
+    */
+   @Test public void testIntegerInterval() throws Exception
+   {
+      ProjectFile file = createProject();
+      GroupBucket<Task> root = file.getTasks().group(createGroup(TaskField.ID, Integer.valueOf(2), Integer.valueOf(1)));
+
+      List<GroupBucket<Task>> buckets = root.getBuckets();
+      assertEquals(3, buckets.size());
+      assertBucket(buckets.get(0), Double.valueOf(1), Double.valueOf(3), 2);
+      assertBucket(buckets.get(1), Double.valueOf(3), Double.valueOf(5), 2);
+      assertBucket(buckets.get(2), Double.valueOf(5), Double.valueOf(7), 1);
+   }
+
+   /**
+    * Ensure that numeric values of different classes are ordered by value.
+    */
+   @Test public void testMixedNumberClasses() throws Exception
+   {
+      ProjectFile file = createProject();
+      file.getTasks().get(0).setNumber(2, Integer.valueOf(10));
+      file.getTasks().get(1).setNumber(2, Double.valueOf(9.5));
+      file.getTasks().get(2).setNumber(2, Integer.valueOf(2));
+      file.getTasks().get(3).setNumber(2, Double.valueOf(10));
+      file.getTasks().get(4).setNumber(2, Long.valueOf(-1));
+      GroupBucket<Task> root = file.getTasks().group(createGroup(TaskField.NUMBER2, null, null));
+
+      List<GroupBucket<Task>> buckets = root.getBuckets();
+      assertEquals(4, buckets.size());
+      assertEquals(-1, ((Number) buckets.get(0).getValue()).doubleValue(), 0);
+      assertEquals(2, ((Number) buckets.get(1).getValue()).doubleValue(), 0);
+      assertEquals(9.5, ((Number) buckets.get(2).getValue()).doubleValue(), 0);
+      assertEquals(10, ((Number) buckets.get(3).getValue()).doubleValue(), 0);
+      assertEquals(2, buckets.get(3).getCount());
+   }
+
+   /**
+    * Ensure that date intervals are counted from the clause's start date.
+    */
+   @Test public void testDateIntervalWithStartAt() throws Exception
+   {
+      ProjectFile file = createProject();
+      GroupBucket<Task> root = file.getTasks().group(createGroup(TaskField.START, Integer.valueOf(7), DATE_FORMAT.parse("02/01/2019")));
+
+      List<GroupBucket<Task>> buckets = root.getBuckets();
+      assertEquals(4, buckets.size());
+      assertBucket(buckets.get(0), DATE_FORMAT.parse("02/01/2019"), DATE_FORMAT.parse("09/01/2019"), 2);
+      assertBucket(buckets.get(1), DATE_FORMAT.parse("09/01/2019"), DATE_FORMAT.parse("16/01/2019"), 1);
+      assertBucket(buckets.get(2), DATE_FORMAT.parse("16/01/2019"), DATE_FORMAT.parse("23/01/2019"), 1);
+      assertBucket(buckets.get(3), DATE_FORMAT.parse("23/01/2019"), DATE_FORMAT.parse("30/01/2019"), 1);
+      assertDateBuckets(buckets);
+   }
+
+   /**
+    * Ensure that date intervals are counted from the project start date
+    * when the clause does not define a start date, and that every row
+    * falls within the interval represented by its bucket.
+    */
+   @Test public void testDateIntervalWithoutStartAt() throws Exception
+   {
+      ProjectFile file = createProject();
+      file.getProjectProperties().setStartDate(DATE_FORMAT.parse("07/01/2019"));
+      GroupBucket<Task> root = file.getTasks().group(createGroup(TaskField.START, Integer.valueOf(7), null));
+
+      List<GroupBucket<Task>> buckets = root.getBuckets();
+      assertEquals(3, buckets.size());
+      assertBucket(buckets.get(0), DATE_FORMAT.parse("07/01/2019"), DATE_FORMAT.parse("14/01/2019"), 3);
+      assertBucket(buckets.get(1), DATE_FORMAT.parse("14/01/2019"), DATE_FORMAT.parse("21/01/2019"), 1);
+      assertBucket(buckets.get(2), DATE_FORMAT.parse("21/01/2019"), DATE_FORMAT.parse("28/01/2019"), 1);
+      assertDateBuckets(buckets);
+
+      file.getProjectProperties().setStartDate(null);
+      assertDateBuckets(file.getTasks().group(createGroup(TaskField.START, Integer.valueOf(7), null)).getBuckets());
+   }
+
+   /**
+    * Create a project containing tasks with a range of values.
+    *
+    * @return project file
+    */
+   private ProjectFile createProject() throws Exception
+   {
+      ProjectFile file = new ProjectFile();
+      file.getProjectProperties().setDefaultDurationUnits(TimeUnit.DAYS);
+      addTask(file, "A", "07/01/2019", Duration.getInstance(8, TimeUnit.HOURS), Duration.getInstance(1, TimeUnit.DAYS), 1);
+      addTask(file, "B", "08/01/2019", Duration.getInstance(120, TimeUnit.MINUTES), Duration.getInstance(2, TimeUnit.DAYS), 2);
+      addTask(file, "C", "10/01/2019", Duration.getInstance(12, TimeUnit.HOURS), Duration.getInstance(8, TimeUnit.HOURS), 3);
+      addTask(file, "D", "16/01/2019", Duration.getInstance(10, TimeUnit.HOURS), Duration.getInstance(2, TimeUnit.DAYS), 4);
+      addTask(file, "E", "24/01/2019", Duration.getInstance(1, TimeUnit.WEEKS), Duration.getInstance(1, TimeUnit.WEEKS), 5);
+      return file;
+   }
+
+   /**
+    * Add a task to the project.
+    *
+    * @param file parent project
+    * @param name task name
+    * @param start start date
+    * @param work task work
+    * @param duration task duration
+    * @param number value for the Number1 field
+    */
+   private void addTask(ProjectFile file, String name, String start, Duration work, Duration duration, int number) throws Exception
+   {
+      Task task = file.addTask();
+      task.setID(Integer.valueOf(file.getTasks().size()));
+      task.setName(name);
+      task.setStart(DATE_FORMAT.parse(start));
+      task.setWork(work);
+      task.setDuration(duration);
+      task.setNumber(1, Integer.valueOf(number));
+   }
+
+   /**
+    * Create a group definition with a single clause.
+    *
+    * @param field field to group by
+    * @param interval group interval, or null for no interval
+    * @param startAt start of the first interval
+    * @return group definition
+    */
+   private Group createGroup(FieldType field, Object interval, Object startAt)
+   {
+      GroupClause clause = new GroupClause();
+      clause.setField(field);
+      clause.setAscending(true);
+      clause.setGroupInterval(interval);
+      clause.setStartAt(startAt);
+
+      Group group = new Group(Integer.valueOf(1), "Test", false);
+      group.addGroupClause(clause);
+      return group;
+   }
+
+   /**
+    * Validate a bucket.
+    *
+    * @param bucket bucket to validate
+    * @param value expected value
+    * @param intervalEnd expected end of the interval
+    * @param count expected row count
+    */
+   private void assertBucket(GroupBucket<Task> bucket, Object value, Object intervalEnd, int count)
+   {
+      assertEquals(value, bucket.getValue());
+      assertEquals(intervalEnd, bucket.getIntervalEnd());
+      assertEquals(count, bucket.getCount());
+   }
+
+   /**
+    * Ensure that each row in a list of date buckets falls within
+    * the interval represented by its bucket.
+    *
+    * @param buckets buckets to validate
+    */
+   private void assertDateBuckets(List<GroupBucket<Task>> buckets)
+   {
+      for (GroupBucket<Task> bucket : buckets)
+      {
+         Date start = (Date) bucket.getValue();
+         Date end = (Date) bucket.getIntervalEnd();
+         for (Task task : bucket.getRows())
+         {
+            assertFalse(task.getStart().before(start));
+            assertTrue(task.getStart().before(end));
+         }
+      }
+   }
+
+   private static final SimpleDateFormat DATE_FORMAT = new SimpleDateFormat("dd/MM/yyyy");
+}
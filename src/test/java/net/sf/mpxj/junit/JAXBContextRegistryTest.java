@@ -0,0 +1,168 @@
+/*
+ * file:       JAXBContextRegistryTest.java
+ * author:     Jon Iles
+ * copyright:  (c) Packwood Software 2019
+ * date:       27/02/2019
+ */
+
+/*
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation, Inc.,
+ * 59 Temple Place, Suite 330, Boston, MA 02111-1307, USA.
+ */
+
+package net.sf.mpxj.junit;
+
+import static org.junit.Assert.*;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Marshaller;
+import javax.xml.bind.Unmarshaller;
+import javax.xml.bind.ValidationEvent;
+import javax.xml.bind.ValidationEventHandler;
+
+import org.junit.Test;
+
+import net.sf.mpxj.common.JAXBContextRegistry;
+
+/**
+ * Tests to ensure that the JAXB context registry shares contexts, and hands
+ * out marshallers and unmarshallers in their default configuration.
+ */
+public class JAXBContextRegistryTest
+{
+   /**
+    * Ensure that a marshaller configured to write a fragment is reset
+    * before it is handed out again.
+    */
+   @Test public void testMarshallerReset() throws Exception
+   {
+      Marshaller marshaller = JAXBContextRegistry.getMarshaller(CONTEXT_PATH);
+      marshaller.setProperty(Marshaller.JAXB_FRAGMENT, Boolean.TRUE);
+      marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, Boolean.TRUE);
+      marshaller.setProperty(Marshaller.JAXB_ENCODING, "ISO-8859-1");
+      marshaller.setEventHandler(HANDLER);
+
+      Marshaller reused = JAXBContextRegistry.getMarshaller(CONTEXT_PATH);
+      assertSame(marshaller, reused);
+      assertEquals(Boolean.FALSE, reused.getProperty(Marshaller.JAXB_FRAGMENT));
+      assertEquals(Boolean.FALSE, reused.getProperty(Marshaller.JAXB_FORMATTED_OUTPUT));
+      assertEquals("UTF-8", reused.getProperty(Marshaller.JAXB_ENCODING));
+      assertNotSame(HANDLER, reused.getEventHandler());
+   }
+
+   /**
+    * Ensure that an unmarshaller's event handler is reset before
+    * it is handed out again.
+    */
+   @Test public void testUnmarshallerReset() throws Exception
+   {
+      Unmarshaller unmarshaller = JAXBContextRegistry.getUnmarshaller(CONTEXT_PATH);
+      unmarshaller.setEventHandler(HANDLER);
+
+      Unmarshaller reused = JAXBContextRegistry.getUnmarshaller(CONTEXT_PATH);
+      assertSame(unmarshaller, reused);
+      assertNotSame(HANDLER, reused.getEventHandler());
+   }
+
+   /**
+    * Ensure that each thread is given its own marshaller,
+    * created from the shared context.
+    */
+   @Test public void testThreads() throws Exception
+   {
+      final Marshaller marshaller = JAXBContextRegistry.getMarshaller(CONTEXT_PATH);
+      final JAXBContext context = JAXBContextRegistry.getContext(CONTEXT_PATH);
+
+      ExecutorService executor = Executors.newSingleThreadExecutor();
+      try
+      {
+         Boolean result = executor.submit(new Callable<Boolean>()
+         {
+            @Override public Boolean call() throws Exception
+            {
+               Marshaller other = JAXBContextRegistry.getMarshaller(CONTEXT_PATH);
+               return Boolean.valueOf(other != marshaller && other == JAXBContextRegistry.getMarshaller(CONTEXT_PATH) && context == JAXBContextRegistry.getContext(CONTEXT_PATH));
+            }
+         }).get();
+         assertTrue(result.booleanValue());
+      }
+
+      finally
+      {
+         executor.shutdown();
+      }
+   }
+
+   /**
+    * Ensure that contexts are constructed once, and that their
+    * construction time is recorded.
+    */
+   @Test public void testWarm() throws Exception
+   {
+      JAXBContextRegistry.warm(CONTEXT_PATH);
+      JAXBContext context = JAXBContextRegistry.getContext(CONTEXT_PATH);
+      assertNotNull(context);
+      assertSame(context, JAXBContextRegistry.getContext(CONTEXT_PATH));
+      assertNotNull(JAXBContextRegistry.getCreationTime(CONTEXT_PATH));
+      assertTrue(JAXBContextRegistry.getCreationTimes().containsKey(CONTEXT_PATH));
+   }
+
+   /**
+    * Ensure that a failure to construct a context is remembered
+    * and the original exception rethrown.
+    */
+   @Test public void testFailure()
+   {
+      JAXBException first = null;
+      try
+      {
+         JAXBContextRegistry.getContext(INVALID_CONTEXT_PATH);
+      }
+
+      catch (JAXBException ex)
+      {
+         first = ex;
+      }
+      assertNotNull(first);
+
+      try
+      {
+         JAXBContextRegistry.getContext(INVALID_CONTEXT_PATH);
+         fail("Expected JAXBException");
+      }
+
+      catch (JAXBException ex)
+      {
+         assertSame(first, ex);
+      }
+
+      assertNull(JAXBContextRegistry.getCreationTime(INVALID_CONTEXT_PATH));
+   }
+
+   private static final String CONTEXT_PATH = "net.sf.mpxj.mspdi.schema";
+   private static final String INVALID_CONTEXT_PATH = "net.sf.mpxj.junit.noschema";
+
+   private static final ValidationEventHandler HANDLER = new ValidationEventHandler()
+   {
+      @Override public boolean handleEvent(ValidationEvent event)
+      {
+         return true;
+      }
+   };
+}
@@ -0,0 +1,278 @@
+/*
+ * file:       MerlinBulkLoadTest.java
+ * author:     Jon Iles
+ * copyright:  (c) Packwood Software 2019
+ * date:       27/02/2019
+ */
+
+/*
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation, Inc.,
+ * 59 Temple Place, Suite 330, Boston, MA 02111-1307, USA.
+ */
+
+package net.sf.mpxj.junit;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+
+import org.junit.Assume;
+import org.junit.Test;
+
+import net.sf.mpxj.ProjectFile;
+import net.sf.mpxj.Task;
+import net.sf.mpxj.merlin.MerlinReader;
+
+/**
+ * Tests to ensure that reading a Merlin database with bulk loading enabled
+ * produces the same result as issuing a query for each parent task and
+ * each calendar. The database holds a second project, whose tasks and
+ * calendar rules must not appear in the project read.
+ */
+public class MerlinBulkLoadTest
+{
+   /**
+    * Compare bulk and per-parent reads.
+    */
+   @Test public void testBulkLoad() throws Exception
+   {
+      File file = File.createTempFile("merlin", ".sqlite");
+      try
+      {
+         Assume.assumeTrue(createDatabase(file));
+
+         MerlinReader reader = new MerlinReader();
+         assertFalse(reader.getBulkLoad());
+         ProjectFile expected = reader.read(file);
+
+         reader = new MerlinReader();
+         reader.setBulkLoad(true);
+         ProjectFile actual = reader.read(file);
+
+         assertEquals("Project 1", expected.getProjectProperties().getName());
+         assertEquals(TASK_COUNT, expected.getTasks().size());
+         for (Task task : expected.getTasks())
+         {
+            assertTrue(task.getName().startsWith("Project 1 "));
+         }
+         assertEquals(ProjectDescription.describe(expected), ProjectDescription.describe(actual));
+      }
+
+      finally
+      {
+         file.delete();
+      }
+   }
+
+   /**
+    * Create a database containing two projects.
+    *
+    * @param file database file
+    * @return true if the database was created, false if the SQLite driver is not available
+    */
+   private boolean createDatabase(File file) throws Exception
+   {
+      try
+      {
+         Class.forName("org.sqlite.JDBC");
+      }
+
+      catch (ClassNotFoundException ex)
+      {
+         return false;
+      }
+
+      Connection connection = DriverManager.getConnection("jdbc:sqlite:" + file.getAbsolutePath());
+      try
+      {
+         Statement statement = connection.createStatement();
+         for (String sql : SCHEMA)
+         {
+            statement.executeUpdate(sql);
+         }
+         statement.close();
+
+         insert(connection, "z_primarykey", "Z_ENT,Z_NAME", Integer.valueOf(ACTIVITY), "Activity");
+         insert(connection, "z_primarykey", "Z_ENT,Z_NAME", Integer.valueOf(ASSIGNMENT), "Assignment");
+         insert(connection, "z_primarykey", "Z_ENT,Z_NAME", Integer.valueOf(WEEK_DAY_RULE), "CalendarWeekDayRule");
+         insert(connection, "z_primarykey", "Z_ENT,Z_NAME", Integer.valueOf(EXCEPTION_RULE), "CalendarExceptionRule");
+
+         //
+         // Project 2 is written first, so its rows are interleaved
+         // with and precede those of project 1.
+         //
+         addProject(connection, 2);
+         addProject(connection, 1);
+      }
+
+      finally
+      {
+         connection.close();
+      }
+
+      return true;
+   }
+
+   /**
+    * Add a project with calendars, resources, a task hierarchy,
+    * assignments and dependencies.
+    *
+    * @param connection database connection
+    * @param project project ID
+    */
+   private void addProject(Connection connection, int project) throws Exception
+   {
+      int base = project * 1000;
+      Integer projectID = Integer.valueOf(project);
+
+      insert(connection, "zproject", "Z_PK,ZFIRSTDAYOFWEEK,ZSCHEDULINGDIRECTION,ZHOURSPERDAY,ZDAYSPERMONTH,ZHOURSPERWEEK,ZCURRENCYSYMBOL,ZTITLE,ZUNIQUEID", projectID, Integer.valueOf(1), Integer.valueOf(1), Integer.valueOf(8), Integer.valueOf(20), Integer.valueOf(40), "$", "Project " + project, uuid(base));
+
+      //
+      // Calendars with week day and exception rules
+      //
+      for (int calendar = 1; calendar <= 2; calendar++)
+      {
+         Integer calendarID = Integer.valueOf(base + calendar);
+         insert(connection, "zcalendar", "Z_PK,ZPROJECT,ZTITLE", calendarID, projectID, "Calendar " + project + " " + calendar);
+         for (int day = 1; day <= 5; day++)
+         {
+            insert(connection, "zcalendarrule", "Z_PK,Z_ENT,ZCALENDAR1,ZWEEKDAY,ZTIMEINTERVALS", Integer.valueOf(base + calendar * 10 + day), Integer.valueOf(WEEK_DAY_RULE), calendarID, Integer.valueOf(day), "<array><dayTimeInterval startTime=\"0" + (7 + calendar) + ":00:00\" endTime=\"12:00:00\"/><dayTimeInterval startTime=\"13:00:00\" endTime=\"17:00:00\"/></array>");
+         }
+         insert(connection, "zcalendarrule", "Z_PK,Z_ENT,ZCALENDAR,ZSTARTDAY,ZENDDAY", Integer.valueOf(base + calendar * 10 + 9), Integer.valueOf(EXCEPTION_RULE), calendarID, Integer.valueOf(100 * calendar), Integer.valueOf(100 * calendar + project));
+      }
+
+      //
+      // Resources
+      //
+      for (int resource = 1; resource <= 3; resource++)
+      {
+         insert(connection, "zresource", "Z_PK,ZPROJECT,ZORDERINPROJECT,ZTITLE_,ZINITIALS,ZUNIQUEID,ZTYPE,ZAVAILABLEUNITS_,ZRESOURCECALENDAR", Integer.valueOf(base + 100 + resource), projectID, Integer.valueOf(4 - resource), "Resource " + project + " " + resource, "R" + resource, uuid(base + 100 + resource), Integer.valueOf(0), Double.valueOf(1), resource == 1 ? Integer.valueOf(base + 2) : null);
+      }
+
+      //
+      // Tasks. Each top level task has children, and each child has
+      // grandchildren, with the order values reversed so that the
+      // order of the rows differs from the order of the keys.
+      //
+      int id = base + 200;
+      int taskCount = 0;
+      for (int top = 0; top < 3; top++)
+      {
+         int topID = ++id;
+         addTask(connection, project, topID, null, 3 - top);
+         ++taskCount;
+         for (int child = 0; child < 3; child++)
+         {
+            int childID = ++id;
+            addTask(connection, project, childID, Integer.valueOf(topID), 3 - child);
+            ++taskCount;
+            for (int grandchild = 0; grandchild < 2; grandchild++)
+            {
+               int grandchildID = ++id;
+               addTask(connection, project, grandchildID, Integer.valueOf(childID), 2 - grandchild);
+               ++taskCount;
+
+               insert(connection, "zscheduleitem", "Z_PK,Z_ENT,ZPROJECT,ZACTIVITY_,ZRESOURCE,ZORDERINACTIVITY,ZUNIQUEID,ZGIVENWORK_,ZRESOURCEUNITS_", Integer.valueOf(base + 500 + grandchildID - base - 200), Integer.valueOf(ASSIGNMENT), projectID, Integer.valueOf(grandchildID), Integer.valueOf(base + 101 + grandchild), Integer.valueOf(1), uuid(base + 500 + grandchildID - base - 200), "8h", Double.valueOf(1));
+
+               if (grandchild == 1)
+               {
+                  insert(connection, "zdependency", "Z_PK,ZPROJECT,ZNEXTACTIVITY_,ZPREVIOUSACTIVITY_,ZLAG_,ZTYPE", Integer.valueOf(base + 800 + grandchildID - base - 200), projectID, Integer.valueOf(grandchildID), Integer.valueOf(grandchildID - 1), "1d", Integer.valueOf(0));
+               }
+            }
+         }
+      }
+      assertEquals(TASK_COUNT, taskCount);
+   }
+
+   /**
+    * Add an activity.
+    *
+    * @param connection database connection
+    * @param project project ID
+    * @param id activity ID
+    * @param parentID parent activity ID, or null for a top level activity
+    * @param order order within the parent activity
+    */
+   private void addTask(Connection connection, int project, int id, Integer parentID, int order) throws Exception
+   {
+      Integer calendarID = id % 2 == 0 ? Integer.valueOf(project * 1000 + 1) : null;
+      insert(connection, "zscheduleitem", "Z_PK,Z_ENT,ZPROJECT,ZPARENTACTIVITY_,ZORDERINPARENTACTIVITY,ZTITLE,ZPRIORITY,ZUNIQUEID,ZGIVENDURATION_,ZGIVENWORK_,ZGIVENCALENDAR", Integer.valueOf(id), Integer.valueOf(ACTIVITY), Integer.valueOf(project), parentID, Integer.valueOf(order), "Project " + project + " Task " + id, Integer.valueOf(500), uuid(id), (id % 5 + 1) + "d", (id % 3 + 1) * 8 + "h", calendarID);
+   }
+
+   /**
+    * Insert a row.
+    *
+    * @param connection database connection
+    * @param table table name
+    * @param columns comma separated column names
+    * @param values column values
+    */
+   private void insert(Connection connection, String table, String columns, Object... values) throws Exception
+   {
+      StringBuilder sql = new StringBuilder("insert into ").append(table).append(" (").append(columns).append(") values (");
+      for (int index = 0; index < values.length; index++)
+      {
+         sql.append(index == 0 ? "?" : ",?");
+      }
+      sql.append(')');
+
+      PreparedStatement ps = connection.prepareStatement(sql.toString());
+      try
+      {
+         for (int index = 0; index < values.length; index++)
+         {
+            ps.setObject(index + 1, values[index]);
+         }
+         ps.executeUpdate();
+      }
+
+      finally
+      {
+         ps.close();
+      }
+   }
+
+   /**
+    * Create a unique ID in the encoded form used by Merlin.
+    *
+    * @param value value used to make the ID unique
+    * @return encoded unique ID
+    */
+   private String uuid(int value)
+   {
+      String digits = Integer.toString(value, 36);
+      return "AAAAAAAAAAAAAAAAAAAAAA".substring(digits.length()) + digits.toUpperCase();
+   }
+
+   private static final int TASK_COUNT = 27;
+   private static final int ACTIVITY = 1;
+   private static final int ASSIGNMENT = 2;
+   private static final int WEEK_DAY_RULE = 3;
+   private static final int EXCEPTION_RULE = 4;
+
+   private static final String[] SCHEMA =
+   {
+      "create table z_primarykey (Z_ENT INTEGER, Z_NAME VARCHAR)",
+      "create table zproject (Z_PK INTEGER, ZFIRSTDAYOFWEEK INTEGER, ZSCHEDULINGDIRECTION INTEGER, ZHOURSPERDAY INTEGER, ZDAYSPERMONTH INTEGER, ZHOURSPERWEEK INTEGER, ZGIVENSTATUSDATE INTEGER, ZCURRENCYSYMBOL VARCHAR, ZTITLE VARCHAR, ZUNIQUEID VARCHAR)",
+      "create table zcalendar (Z_PK INTEGER, ZPROJECT INTEGER, ZTITLE VARCHAR)",
+      "create table zcalendarrule (Z_PK INTEGER, Z_ENT INTEGER, ZCALENDAR INTEGER, ZCALENDAR1 INTEGER, ZWEEKDAY INTEGER, ZTIMEINTERVALS VARCHAR, ZSTARTDAY INTEGER, ZENDDAY INTEGER)",
+      "create table zresource (Z_PK INTEGER, ZPROJECT INTEGER, ZORDERINPROJECT INTEGER, ZEMAIL VARCHAR, ZINITIALS VARCHAR, ZTITLE_ VARCHAR, ZUNIQUEID VARCHAR, ZTYPE INTEGER, ZMATERIALUNIT VARCHAR, ZAVAILABLEUNITS_ DOUBLE, ZRESOURCECALENDAR INTEGER)",
+      "create table zscheduleitem (Z_PK INTEGER, Z_ENT INTEGER, ZPROJECT INTEGER, ZPARENTACTIVITY_ INTEGER, ZORDERINPARENTACTIVITY INTEGER, ZORDERINACTIVITY INTEGER, ZTITLE VARCHAR, ZPRIORITY INTEGER, ZISMILESTONE INTEGER, ZGIVENACTUALENDDATE_ INTEGER, ZGIVENACTUALSTARTDATE_ INTEGER, ZOBJECTDESCRIPTION VARCHAR, ZGIVENDURATION_ VARCHAR, ZGIVENWORKOVERTIME_ VARCHAR, ZGIVENWORK_ VARCHAR, ZLEVELINGDELAY_ VARCHAR, ZGIVENACTUALWORKOVERTIME_ VARCHAR, ZGIVENACTUALWORK_ VARCHAR, ZGIVENREMAININGWORK_ VARCHAR, ZUNIQUEID VARCHAR, ZGIVENCALENDAR INTEGER, ZGIVENENDDATEMAX_ INTEGER, ZGIVENENDDATEMIN_ INTEGER, ZGIVENSTARTDATEMAX_ INTEGER, ZGIVENSTARTDATEMIN_ INTEGER, ZACTIVITY_ INTEGER, ZRESOURCE INTEGER, ZRESOURCEUNITS_ DOUBLE)",
+      "create table zdependency (Z_PK INTEGER, ZPROJECT INTEGER, ZNEXTACTIVITY_ INTEGER, ZPREVIOUSACTIVITY_ INTEGER, ZLAG_ VARCHAR, ZTYPE INTEGER)"
+   };
+}
@@ -0,0 +1,157 @@
+/*
+ * file:       MppDecodingExecutorTest.java
+ * author:     Jon Iles
+ * copyright:  (c) Packwood Software 2019
+ * date:       27/02/2019
+ */
+
+/*
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation, Inc.,
+ * 59 Temple Place, Suite 330, Boston, MA 02111-1307, USA.
+ */
+
+package net.sf.mpxj.junit;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.Test;
+
+import net.sf.mpxj.AssignmentField;
+import net.sf.mpxj.FieldContainer;
+import net.sf.mpxj.FieldType;
+import net.sf.mpxj.ProjectFile;
+import net.sf.mpxj.ResourceField;
+import net.sf.mpxj.TaskField;
+import net.sf.mpxj.mpp.MPPReader;
+
+/**
+ * Tests to ensure that MPP files decoded concurrently
+ * are identical to those decoded sequentially.
+ */
+public class MppDecodingExecutorTest
+{
+   /**
+    * Test MPP14 files.
+    */
+   @Test public void testMpp14() throws Exception
+   {
+      testFiles("-mpp14.mpp");
+   }
+
+   /**
+    * Test MPP12 files.
+    */
+   @Test public void testMpp12() throws Exception
+   {
+      testFiles("-mpp12.mpp");
+   }
+
+   /**
+    * Read each file sequentially and concurrently, and compare the results.
+    *
+    * @param suffix file name suffix
+    */
+   private void testFiles(String suffix) throws Exception
+   {
+      ExecutorService executor = Executors.newFixedThreadPool(4);
+      try
+      {
+         for (File file : listFiles(suffix))
+         {
+            ProjectFile expected = new MPPReader().read(file);
+
+            MPPReader reader = new MPPReader();
+            reader.setDecodingExecutor(executor);
+            ProjectFile actual = reader.read(file);
+
+            String name = file.getName();
+            assertEquals(name, expected.getTasks().size(), actual.getTasks().size());
+            for (int index = 0; index < expected.getTasks().size(); index++)
+            {
+               compare(name, expected.getTasks().get(index), actual.getTasks().get(index), TaskField.values());
+            }
+
+            assertEquals(name, expected.getResources().size(), actual.getResources().size());
+            for (int index = 0; index < expected.getResources().size(); index++)
+            {
+               compare(name, expected.getResources().get(index), actual.getResources().get(index), ResourceField.values());
+            }
+
+            assertEquals(name, expected.getResourceAssignments().size(), actual.getResourceAssignments().size());
+            for (int index = 0; index < expected.getResourceAssignments().size(); index++)
+            {
+               compare(name, expected.getResourceAssignments().get(index), actual.getResourceAssignments().get(index), AssignmentField.values());
+            }
+         }
+      }
+
+      finally
+      {
+         executor.shutdown();
+      }
+   }
+
+   /**
+    * Compare the values of each field held by two containers.
+    *
+    * @param name file name
+    * @param expected expected values
+    * @param actual actual values
+    * @param fields fields to compare
+    */
+   private void compare(String name, FieldContainer expected, FieldContainer actual, FieldType[] fields)
+   {
+      for (FieldType field : fields)
+      {
+         assertEquals(name + " " + field, String.valueOf(expected.getCurrentValue(field)), String.valueOf(actual.getCurrentValue(field)));
+      }
+   }
+
+   /**
+    * Retrieve the generated test files with the given suffix.
+    *
+    * @param suffix file name suffix
+    * @return list of files
+    */
+   private List<File> listFiles(String suffix)
+   {
+      List<File> result = new ArrayList<File>();
+      File[] directories = new File(MpxjTestData.filePath("generated")).listFiles();
+      if (directories != null)
+      {
+         for (File directory : directories)
+         {
+            File[] files = directory.listFiles();
+            if (files != null)
+            {
+               for (File file : files)
+               {
+                  if (file.getName().endsWith(suffix))
+                  {
+                     result.add(file);
+                  }
+               }
+            }
+         }
+      }
+      assertFalse(result.isEmpty());
+      return result;
+   }
+}
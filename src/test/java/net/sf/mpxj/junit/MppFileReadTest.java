@@ -0,0 +1,173 @@
+/*
+ * file:       MppFileReadTest.java
+ * author:     Jon Iles
+ * copyright:  (c) Packwood Software 2019
+ * date:       27/02/2019
+ */
+
+/*
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation, Inc.,
+ * 59 Temple Place, Suite 330, Boston, MA 02111-1307, USA.
+ */
+
+package net.sf.mpxj.junit;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import org.junit.Test;
+
+import net.sf.mpxj.ProjectFile;
+import net.sf.mpxj.Relation;
+import net.sf.mpxj.Resource;
+import net.sf.mpxj.ResourceAssignment;
+import net.sf.mpxj.Task;
+import net.sf.mpxj.mpp.MPPReader;
+import net.sf.mpxj.reader.UniversalProjectReader;
+
+/**
+ * Tests to ensure that MPP files read directly from the file system
+ * match those read from a stream.
+ */
+public class MppFileReadTest
+{
+   /**
+    * Compare reading from a file, a file name and a stream.
+    */
+   @Test public void testReadFile() throws Exception
+   {
+      for (String name : FILES)
+      {
+         File file = new File(MpxjTestData.filePath(name));
+         String expected = describe(readStream(file));
+
+         assertEquals(name, expected, describe(new MPPReader().read(file)));
+         assertEquals(name, expected, describe(new MPPReader().read(file.getAbsolutePath())));
+         assertEquals(name, expected, describe(new UniversalProjectReader().read(file)));
+      }
+   }
+
+   /**
+    * Ensure that the file is released once it has been read.
+    */
+   @Test public void testFileReleased() throws Exception
+   {
+      File file = File.createTempFile("mpxj", ".mpp");
+      try
+      {
+         copy(new File(MpxjTestData.filePath(FILES[0])), file);
+         assertNotNull(new MPPReader().read(file));
+         assertNotNull(new UniversalProjectReader().read(file));
+      }
+
+      finally
+      {
+         assertTrue(file.delete());
+      }
+   }
+
+   /**
+    * Read an MPP file from a stream.
+    *
+    * @param file file to read
+    * @return project file
+    */
+   private ProjectFile readStream(File file) throws Exception
+   {
+      InputStream is = new FileInputStream(file);
+      try
+      {
+         return new MPPReader().read(is);
+      }
+
+      finally
+      {
+         is.close();
+      }
+   }
+
+   /**
+    * Create a text description of a project.
+    *
+    * @param project project to describe
+    * @return project description
+    */
+   private String describe(ProjectFile project)
+   {
+      StringBuilder sb = new StringBuilder();
+      sb.append(project.getProjectProperties().getName()).append(' ').append(project.getCalendars().size()).append('\n');
+
+      for (Task task : project.getTasks())
+      {
+         sb.append("T ").append(task.getUniqueID()).append(' ').append(task.getID()).append(' ').append(task.getName()).append(' ');
+         sb.append(task.getStart()).append(' ').append(task.getFinish()).append(' ').append(task.getDuration()).append('\n');
+         for (Relation relation : task.getPredecessors())
+         {
+            sb.append("  P ").append(relation.getTargetTask().getUniqueID()).append(' ').append(relation.getType()).append(' ').append(relation.getLag()).append('\n');
+         }
+      }
+
+      for (Resource resource : project.getResources())
+      {
+         sb.append("R ").append(resource.getUniqueID()).append(' ').append(resource.getName()).append('\n');
+      }
+
+      for (ResourceAssignment assignment : project.getResourceAssignments())
+      {
+         sb.append("A ").append(assignment.getTaskUniqueID()).append(' ').append(assignment.getResourceUniqueID()).append(' ').append(assignment.getWork()).append('\n');
+      }
+
+      return sb.toString();
+   }
+
+   /**
+    * Copy a file.
+    *
+    * @param source source file
+    * @param target target file
+    */
+   private void copy(File source, File target) throws Exception
+   {
+      InputStream is = new FileInputStream(source);
+      OutputStream os = new FileOutputStream(target);
+      try
+      {
+         byte[] buffer = new byte[8192];
+         int length;
+         while ((length = is.read(buffer)) != -1)
+         {
+            os.write(buffer, 0, length);
+         }
+      }
+
+      finally
+      {
+         os.close();
+         is.close();
+      }
+   }
+
+   private static final String[] FILES =
+   {
+      "legacy/sample.mpp",
+      "legacy/sample98.mpp",
+      "mpp14relations.mpp",
+      "mpp12assignmentfields.mpp"
+   };
+}
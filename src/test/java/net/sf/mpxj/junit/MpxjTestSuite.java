@@ -26,6 +26,8 @@ package net.sf.mpxj.junit;
 import org.junit.runner.RunWith;
 import org.junit.runners.Suite;
 
+import net.sf.mpxj.FieldStoreTest;
+import net.sf.mpxj.LazyFieldStoreTest;
 import net.sf.mpxj.junit.assignment.AssignmentAssignmentsTest;
 import net.sf.mpxj.junit.assignment.AssignmentFlagsTest;
 import net.sf.mpxj.junit.assignment.AssignmentTextTest;
@@ -33,8 +35,11 @@ import net.sf.mpxj.junit.assignment.DeletedAssignmentTest;
 import net.sf.mpxj.junit.calendar.CalendarCalendarsTest;
 import net.sf.mpxj.junit.calendar.InvalidCalendarTest;
 import net.sf.mpxj.junit.calendar.RecurringExceptionsTest;
+import net.sf.mpxj.junit.calendar.WorkingTimeIndexTest;
 import net.sf.mpxj.junit.legacy.BasicTest;
+import net.sf.mpxj.junit.primavera.PrimaveraDatabaseBulkLoadTest;
 import net.sf.mpxj.junit.primavera.PrimaveraDatabaseReaderTest;
+import net.sf.mpxj.junit.primavera.PrimaveraXerMultiProjectTest;
 import net.sf.mpxj.junit.project.DefaultDurationFormatTest;
 import net.sf.mpxj.junit.project.ProjectPropertiesOnlyTest;
 import net.sf.mpxj.junit.project.ProjectPropertiesTest;
@@ -50,6 +55,7 @@ import net.sf.mpxj.junit.task.TaskBaselinesTest;
 import net.sf.mpxj.junit.task.TaskCostsTest;
 import net.sf.mpxj.junit.task.TaskDatesTest;
 import net.sf.mpxj.junit.task.TaskDeletionTest;
+import net.sf.mpxj.junit.task.TaskDerivedFieldsTest;
 import net.sf.mpxj.junit.task.TaskDurationsTest;
 import net.sf.mpxj.junit.task.TaskFinishesTest;
 import net.sf.mpxj.junit.task.TaskFlagsTest;
@@ -60,6 +66,10 @@ import net.sf.mpxj.junit.task.TaskPercentCompleteTest;
 import net.sf.mpxj.junit.task.TaskStartsTest;
 import net.sf.mpxj.junit.task.TaskTextTest;
 import net.sf.mpxj.junit.task.TaskTextValuesTest;
+import net.sf.mpxj.mpp.FieldMapTest;
+import net.sf.mpxj.mpp.Var2DataTest;
+import net.sf.mpxj.primavera.RowTest;
+import net.sf.mpxj.primavera.XerFieldParserTest;
 
 /**
  * Test suite to collect together MPXJ tests.
@@ -145,7 +155,30 @@ import net.sf.mpxj.junit.task.TaskTextValuesTest;
    ResourceTextTest.class,
    RecurringExceptionsTest.class,
    RecurringDataTest.class,
-   CustomerDataTest.class
+   CustomerDataTest.class,
+   PrimaveraXerMultiProjectTest.class,
+   RowTest.class,
+   XerFieldParserTest.class,
+   TokenizerTest.class,
+   FieldStoreTest.class,
+   TaskDerivedFieldsTest.class,
+   TimeRangeCacheTest.class,
+   WorkingTimeIndexTest.class,
+   FieldMapTest.class,
+   Var2DataTest.class,
+   LazyFieldStoreTest.class,
+   FieldProjectionTest.class,
+   MppDecodingExecutorTest.class,
+   StreamingReadTest.class,
+   MppFileReadTest.class,
+   GenericCriteriaTest.class,
+   FilterTest.class,
+   GroupTest.class,
+   MspdiIncrementalReadTest.class,
+   MspdiIncrementalWriteTest.class,
+   JAXBContextRegistryTest.class,
+   MerlinBulkLoadTest.class,
+   PrimaveraDatabaseBulkLoadTest.class
 }) public class MpxjTestSuite
 {
    // No class body required
@@ -0,0 +1,116 @@
+/*
+ * file:       MspdiIncrementalReadTest.java
+ * author:     Jon Iles
+ * copyright:  (c) Packwood Software 2019
+ * date:       27/02/2019
+ */
+
+/*
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation, Inc.,
+ * 59 Temple Place, Suite 330, Boston, MA 02111-1307, USA.
+ */
+
+package net.sf.mpxj.junit;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+
+import org.junit.Test;
+
+import net.sf.mpxj.ProjectFile;
+import net.sf.mpxj.mspdi.MSPDIReader;
+
+/**
+ * Tests to ensure that reading MSPDI files using incremental parsing
+ * produces the same result as the default SAX based parser.
+ */
+public class MspdiIncrementalReadTest
+{
+   /**
+    * Test MSPDI files covering calendars, relations, resources,
+    * assignments, custom fields and timephased data.
+    */
+   @Test public void testFiles() throws Exception
+   {
+      for (String name : FILE_NAMES)
+      {
+         testFile(new File(MpxjTestData.filePath(name)));
+      }
+   }
+
+   /**
+    * Test the MSPDI files generated for the field specific tests.
+    */
+   @Test public void testGeneratedFiles() throws Exception
+   {
+      File[] directories = new File(MpxjTestData.filePath("generated")).listFiles();
+      assertNotNull(directories);
+
+      int count = 0;
+      for (File directory : directories)
+      {
+         File[] files = directory.listFiles();
+         if (files != null)
+         {
+            for (File file : files)
+            {
+               if (file.getName().endsWith(".xml"))
+               {
+                  testFile(file);
+                  ++count;
+               }
+            }
+         }
+      }
+      assertTrue(count > 0);
+   }
+
+   /**
+    * Read a file using both parsers, and compare the results.
+    *
+    * @param file MSPDI file
+    */
+   private void testFile(File file) throws Exception
+   {
+      MSPDIReader reader = new MSPDIReader();
+      assertFalse(reader.getIncrementalParsing());
+      ProjectFile expected = reader.read(file);
+
+      reader = new MSPDIReader();
+      reader.setIncrementalParsing(true);
+      ProjectFile actual = reader.read(file);
+
+      assertFalse(file.getName(), expected.getTasks().isEmpty() && expected.getResources().isEmpty());
+      assertEquals(file.getName(), ProjectDescription.describe(expected), ProjectDescription.describe(actual));
+   }
+
+   private static final String[] FILE_NAMES =
+   {
+      "legacy/sample.xml",
+      "baselines.xml",
+      "enterprise.xml",
+      "mspdiassignmentcustom.xml",
+      "mspdiassignmentfields.xml",
+      "mspdiavailability.xml",
+      "mspdicostratetable.xml",
+      "mspdiduration.xml",
+      "mspdinulltasks.xml",
+      "mspdirelations.xml",
+      "mspdiresource.xml",
+      "mspdisplittask.xml",
+      "mspditimephased.xml",
+      "mspditimephasedsegments.xml"
+   };
+}
@@ -0,0 +1,189 @@
+/*
+ * file:       MspdiIncrementalWriteTest.java
+ * author:     Jon Iles
+ * copyright:  (c) Packwood Software 2019
+ * date:       27/02/2019
+ */
+
+/*
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation, Inc.,
+ * 59 Temple Place, Suite 330, Boston, MA 02111-1307, USA.
+ */
+
+package net.sf.mpxj.junit;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.text.SimpleDateFormat;
+import java.util.List;
+
+import org.junit.Test;
+
+import net.sf.mpxj.Duration;
+import net.sf.mpxj.ProjectFile;
+import net.sf.mpxj.Resource;
+import net.sf.mpxj.ResourceAssignment;
+import net.sf.mpxj.Task;
+import net.sf.mpxj.TimeUnit;
+import net.sf.mpxj.mpx.MPXReader;
+import net.sf.mpxj.mspdi.MSPDIReader;
+import net.sf.mpxj.mspdi.MSPDIWriter;
+
+/**
+ * Tests to ensure that files written using incremental writing are read
+ * back identically to files written using the default path.
+ */
+public class MspdiIncrementalWriteTest
+{
+   /**
+    * Round trip MSPDI files covering custom fields, assignments
+    * and timephased data.
+    */
+   @Test public void testMspdiFiles() throws Exception
+   {
+      for (String name : MSPDI_FILE_NAMES)
+      {
+         testProject(name, new MSPDIReader().read(MpxjTestData.filePath(name)));
+      }
+   }
+
+   /**
+    * Round trip an MPX file.
+    */
+   @Test public void testMpxFile() throws Exception
+   {
+      testProject("legacy/sample.mpx", new MPXReader().read(MpxjTestData.filePath("legacy/sample.mpx")));
+   }
+
+   /**
+    * Ensure that extended attributes found in use by the pre-pass and
+    * dummy assignments for progressed tasks without assignments are
+    * written by both paths.
+    */
+   @Test public void testExtendedAttributesAndDummyAssignments() throws Exception
+   {
+      ProjectFile project = new ProjectFile();
+      project.addDefaultBaseCalendar();
+
+      Resource resource = project.addResource();
+      resource.setName("Resource 1");
+      resource.setText(5, "Resource Text");
+      resource.setNumber(2, Integer.valueOf(42));
+
+      Task assigned = project.addTask();
+      assigned.setName("Assigned");
+      assigned.setText(1, "Task Text");
+      assigned.setFlag(3, true);
+      setDates(assigned, "07/01/2019", "08/01/2019", 2);
+      assigned.addResourceAssignment(resource);
+
+      Task progressed = project.addTask();
+      progressed.setName("Progressed");
+      progressed.setNumber(4, Integer.valueOf(7));
+      setDates(progressed, "07/01/2019", "09/01/2019", 3);
+      progressed.setPercentageComplete(Integer.valueOf(50));
+      progressed.setActualStart(progressed.getStart());
+
+      ProjectFile[] results = testProject("extended attributes", project);
+      for (ProjectFile result : results)
+      {
+         Task task = result.getTaskByUniqueID(assigned.getUniqueID());
+         assertEquals("Task Text", task.getText(1));
+         assertTrue(task.getFlag(3));
+         assertEquals("Resource Text", result.getResourceByUniqueID(resource.getUniqueID()).getText(5));
+         assertEquals(42, result.getResourceByUniqueID(resource.getUniqueID()).getNumber(2).intValue());
+
+         task = result.getTaskByUniqueID(progressed.getUniqueID());
+         assertEquals(7, task.getNumber(4).intValue());
+         List<ResourceAssignment> assignments = task.getResourceAssignments();
+         assertEquals(1, assignments.size());
+         assertNull(assignments.get(0).getResource());
+      }
+
+      //
+      // The dummy assignment is not added to the project being written
+      //
+      assertTrue(project.getTaskByUniqueID(progressed.getUniqueID()).getResourceAssignments().isEmpty());
+   }
+
+   /**
+    * Write a project using both paths, read each file back,
+    * and compare the results.
+    *
+    * @param name project name, used in assertion messages
+    * @param project project to write
+    * @return projects read back from the default and incremental output
+    */
+   private ProjectFile[] testProject(String name, ProjectFile project) throws Exception
+   {
+      MSPDIWriter writer = new MSPDIWriter();
+      assertFalse(writer.getIncrementalWriting());
+      ProjectFile expected = roundTrip(writer, project);
+
+      writer = new MSPDIWriter();
+      writer.setIncrementalWriting(true);
+      ProjectFile actual = roundTrip(writer, project);
+
+      assertEquals(name, ProjectDescription.describe(expected), ProjectDescription.describe(actual));
+
+      return new ProjectFile[]
+      {
+         expected,
+         actual
+      };
+   }
+
+   /**
+    * Write a project and read it back.
+    *
+    * @param writer MSPDI writer
+    * @param project project to write
+    * @return project read back from the written data
+    */
+   private ProjectFile roundTrip(MSPDIWriter writer, ProjectFile project) throws Exception
+   {
+      ByteArrayOutputStream os = new ByteArrayOutputStream();
+      writer.write(project, os);
+      return new MSPDIReader().read(new ByteArrayInputStream(os.toByteArray()));
+   }
+
+   /**
+    * Set a task's dates and duration.
+    *
+    * @param task task
+    * @param start start date
+    * @param finish finish date
+    * @param days duration in days
+    */
+   private void setDates(Task task, String start, String finish, int days) throws Exception
+   {
+      task.setStart(DATE_FORMAT.parse(start));
+      task.setFinish(DATE_FORMAT.parse(finish));
+      task.setDuration(Duration.getInstance(days, TimeUnit.DAYS));
+   }
+
+   private static final SimpleDateFormat DATE_FORMAT = new SimpleDateFormat("dd/MM/yyyy");
+
+   private static final String[] MSPDI_FILE_NAMES =
+   {
+      "legacy/sample.xml",
+      "mspdiassignmentcustom.xml",
+      "mspdiassignmentfields.xml",
+      "mspdirelations.xml",
+      "mspdiresource.xml",
+      "mspditimephased.xml"
+   };
+}
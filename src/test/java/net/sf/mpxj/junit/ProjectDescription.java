@@ -0,0 +1,217 @@
+/*
+ * file:       ProjectDescription.java
+ * author:     Jon Iles
+ * copyright:  (c) Packwood Software 2019
+ * date:       27/02/2019
+ */
+
+/*
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation, Inc.,
+ * 59 Temple Place, Suite 330, Boston, MA 02111-1307, USA.
+ */
+
+package net.sf.mpxj.junit;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import net.sf.mpxj.AssignmentField;
+import net.sf.mpxj.FieldContainer;
+import net.sf.mpxj.FieldType;
+import net.sf.mpxj.ProjectCalendar;
+import net.sf.mpxj.ProjectField;
+import net.sf.mpxj.ProjectFile;
+import net.sf.mpxj.Relation;
+import net.sf.mpxj.Resource;
+import net.sf.mpxj.ResourceAssignment;
+import net.sf.mpxj.ResourceField;
+import net.sf.mpxj.Task;
+import net.sf.mpxj.TaskField;
+import net.sf.mpxj.TimephasedWork;
+
+/**
+ * Creates a text description of a project, including the project properties,
+ * calendars, tasks, predecessors, resources, assignments and timephased data.
+ * Two projects holding the same data produce the same description, allowing
+ * the results of different read and write paths to be compared.
+ */
+public final class ProjectDescription
+{
+   /**
+    * Private constructor to prevent instantiation.
+    */
+   private ProjectDescription()
+   {
+      // Private constructor to prevent instantiation
+   }
+
+   /**
+    * Describe a project.
+    *
+    * @param project project file
+    * @return project description
+    */
+   public static String describe(ProjectFile project)
+   {
+      StringBuilder sb = new StringBuilder();
+      sb.append("PROPERTIES ").append(describe(project.getProjectProperties(), ProjectField.values())).append('\n');
+
+      for (ProjectCalendar calendar : project.getCalendars())
+      {
+         sb.append("CALENDAR ").append(calendar).append('\n');
+      }
+
+      for (Task task : project.getTasks())
+      {
+         sb.append("TASK ").append(describe(task, TaskField.values())).append('\n');
+         for (Relation relation : task.getPredecessors())
+         {
+            sb.append("  PREDECESSOR ").append(relation.getTargetTask().getUniqueID()).append(' ').append(relation.getType()).append(' ').append(relation.getLag()).append('\n');
+         }
+      }
+
+      for (Resource resource : project.getResources())
+      {
+         sb.append("RESOURCE ").append(describe(resource, ResourceField.values())).append('\n');
+      }
+
+      for (ResourceAssignment assignment : project.getResourceAssignments())
+      {
+         sb.append("ASSIGNMENT ").append(describe(assignment, AssignmentField.values())).append('\n');
+         describeTimephasedWork(sb, "WORK", assignment.getTimephasedWork());
+         describeTimephasedWork(sb, "ACTUAL WORK", assignment.getTimephasedActualWork());
+      }
+
+      return sb.toString();
+   }
+
+   /**
+    * Describe the field values of an entity.
+    *
+    * @param container entity
+    * @param fields fields to describe
+    * @return entity description
+    */
+   public static String describe(FieldContainer container, FieldType[] fields)
+   {
+      StringBuilder sb = new StringBuilder();
+      for (FieldType field : fields)
+      {
+         Object value = container.getCachedValue(field);
+         if (value != null)
+         {
+            sb.append(field.name()).append('=').append(format(value)).append(' ');
+         }
+      }
+      return sb.toString();
+   }
+
+   /**
+    * Describe a list of timephased work items.
+    *
+    * @param sb description
+    * @param label label for this list
+    * @param items timephased work
+    */
+   private static void describeTimephasedWork(StringBuilder sb, String label, List<TimephasedWork> items)
+   {
+      if (items != null)
+      {
+         for (TimephasedWork item : items)
+         {
+            sb.append("  ").append(label).append(' ').append(item).append('\n');
+         }
+      }
+   }
+
+   /**
+    * Format a field value. References to other entities are represented
+    * by their identifiers, and values without their own text
+    * representation are represented by their class name, so that the
+    * description does not depend on object identity.
+    *
+    * @param value field value
+    * @return formatted value
+    */
+   private static String format(Object value)
+   {
+      String result;
+
+      if (value instanceof Task)
+      {
+         result = "Task " + ((Task) value).getUniqueID();
+      }
+      else
+      {
+         if (value instanceof Resource)
+         {
+            result = "Resource " + ((Resource) value).getUniqueID();
+         }
+         else
+         {
+            if (value instanceof ProjectCalendar)
+            {
+               result = "Calendar " + ((ProjectCalendar) value).getUniqueID();
+            }
+            else
+            {
+               if (value instanceof Collection)
+               {
+                  StringBuilder sb = new StringBuilder("[");
+                  for (Object item : (Collection<?>) value)
+                  {
+                     sb.append(format(item)).append(' ');
+                  }
+                  result = sb.append(']').toString();
+               }
+               else
+               {
+                  if (value instanceof byte[])
+                  {
+                     result = Arrays.toString((byte[]) value);
+                  }
+                  else
+                  {
+                     result = hasToString(value) ? value.toString() : value.getClass().getName();
+                  }
+               }
+            }
+         }
+      }
+
+      return result;
+   }
+
+   /**
+    * Determine if a value's class provides its own text representation.
+    *
+    * @param value value to test
+    * @return true if toString is overridden
+    */
+   private static boolean hasToString(Object value)
+   {
+      boolean result;
+      try
+      {
+         result = value.getClass().getMethod("toString").getDeclaringClass() != Object.class;
+      }
+
+      catch (NoSuchMethodException ex)
+      {
+         result = false;
+      }
+      return result;
+   }
+}
@@ -0,0 +1,188 @@
+/*
+ * file:       StreamingReadTest.java
+ * author:     Jon Iles
+ * copyright:  (c) Packwood Software 2019
+ * date:       27/02/2019
+ */
+
+/*
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation, Inc.,
+ * 59 Temple Place, Suite 330, Boston, MA 02111-1307, USA.
+ */
+
+package net.sf.mpxj.junit;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import net.sf.mpxj.AssignmentField;
+import net.sf.mpxj.FieldContainer;
+import net.sf.mpxj.FieldType;
+import net.sf.mpxj.ProjectCalendar;
+import net.sf.mpxj.ProjectFile;
+import net.sf.mpxj.Relation;
+import net.sf.mpxj.Resource;
+import net.sf.mpxj.ResourceAssignment;
+import net.sf.mpxj.ResourceField;
+import net.sf.mpxj.Task;
+import net.sf.mpxj.TaskField;
+import net.sf.mpxj.listener.DefaultProjectListener;
+import net.sf.mpxj.mpp.MPPReader;
+import net.sf.mpxj.mspdi.MSPDIReader;
+import net.sf.mpxj.reader.AbstractProjectReader;
+
+/**
+ * Tests to ensure that listeners see fully populated entities when
+ * reading in streaming mode, and that the project returned still
+ * holds the task hierarchy and relations.
+ */
+public class StreamingReadTest
+{
+   /**
+    * Test MPP files.
+    */
+   @Test public void testMpp() throws Exception
+   {
+      testFile(new MPPReader(), new MPPReader(), "legacy/sample.mpp");
+      testFile(new MPPReader(), new MPPReader(), "mpp14relations.mpp");
+      testFile(new MPPReader(), new MPPReader(), "mpp14assignmentfields.mpp");
+   }
+
+   /**
+    * Test MSPDI files.
+    */
+   @Test public void testMspdi() throws Exception
+   {
+      testFile(new MSPDIReader(), new MSPDIReader(), "legacy/sample.xml");
+      testFile(new MSPDIReader(), new MSPDIReader(), "mspdirelations.xml");
+      testFile(new MSPDIReader(), new MSPDIReader(), "mspdiresource.xml");
+   }
+
+   /**
+    * Read a file with and without streaming, and compare the results.
+    *
+    * @param reader reader used without streaming
+    * @param streamingReader reader used with streaming
+    * @param name file name
+    */
+   private void testFile(AbstractProjectReader reader, AbstractProjectReader streamingReader, String name) throws Exception
+   {
+      File file = new File(MpxjTestData.filePath(name));
+
+      RecordingListener expectedListener = new RecordingListener();
+      reader.addProjectListener(expectedListener);
+      ProjectFile expected = reader.read(file);
+
+      RecordingListener actualListener = new RecordingListener();
+      streamingReader.setStreaming(true);
+      streamingReader.addProjectListener(actualListener);
+      ProjectFile actual = streamingReader.read(file);
+
+      //
+      // Listeners see the same fully populated entities
+      //
+      assertFalse(name, expectedListener.m_tasks.isEmpty());
+      assertEquals(name, expectedListener.m_tasks, actualListener.m_tasks);
+      assertEquals(name, expectedListener.m_resources, actualListener.m_resources);
+      assertEquals(name, expectedListener.m_assignments, actualListener.m_assignments);
+
+      //
+      // The project retains the hierarchy and relations, but not the assignments
+      //
+      assertFalse(actual.getEventManager().getStreaming());
+      assertEquals(name, describeStructure(expected), describeStructure(actual));
+      assertEquals(name, 0, actual.getResourceAssignments().size());
+   }
+
+   /**
+    * Describe the task hierarchy, relations and resources.
+    *
+    * @param project project file
+    * @return project description
+    */
+   private String describeStructure(ProjectFile project)
+   {
+      StringBuilder sb = new StringBuilder();
+      for (Task task : project.getTasks())
+      {
+         sb.append("T ").append(task.getUniqueID()).append(' ').append(task.getID()).append(' ').append(task.getName()).append(' ');
+         sb.append(task.getOutlineLevel()).append(' ').append(task.getParentTask() == null ? null : task.getParentTask().getUniqueID()).append('\n');
+
+         for (Relation relation : task.getPredecessors())
+         {
+            sb.append("  P ").append(relation.getTargetTask().getUniqueID()).append(' ').append(relation.getType()).append(' ').append(relation.getLag()).append('\n');
+         }
+      }
+
+      for (Resource resource : project.getResources())
+      {
+         sb.append("R ").append(resource.getUniqueID()).append(' ').append(resource.getName()).append('\n');
+      }
+
+      return sb.toString();
+   }
+
+   /**
+    * Describe the field values of an entity.
+    *
+    * @param container entity
+    * @param fields fields to describe
+    * @return entity description
+    */
+   private static String describe(FieldContainer container, FieldType[] fields)
+   {
+      StringBuilder sb = new StringBuilder();
+      for (FieldType field : fields)
+      {
+         Object value = container.getCachedValue(field);
+         if (value != null)
+         {
+            sb.append(field).append('=').append(value).append(' ');
+         }
+      }
+      return sb.toString();
+   }
+
+   /**
+    * Listener which records the state of each entity when it is read.
+    */
+   private static final class RecordingListener extends DefaultProjectListener
+   {
+      @Override public void taskRead(Task task)
+      {
+         m_tasks.add(describe(task, TaskField.values()));
+      }
+
+      @Override public void resourceRead(Resource resource)
+      {
+         m_resources.add(describe(resource, ResourceField.values()));
+      }
+
+      @Override public void assignmentRead(ResourceAssignment assignment)
+      {
+         ProjectCalendar calendar = assignment.getCalendar();
+         String calendarName = calendar == null ? null : calendar.getName();
+         m_assignments.add(describe(assignment, AssignmentField.values()) + "calendar=" + calendarName);
+      }
+
+      final List<String> m_tasks = new ArrayList<String>();
+      final List<String> m_resources = new ArrayList<String>();
+      final List<String> m_assignments = new ArrayList<String>();
+   }
+}
@@ -0,0 +1,185 @@
+/*
+ * file:       TimeRangeCacheTest.java
+ * author:     Jon Iles
+ * copyright:  (c) Packwood Software 2019
+ * date:       27/02/2019
+ */
+
+/*
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation, Inc.,
+ * 59 Temple Place, Suite 330, Boston, MA 02111-1307, USA.
+ */
+
+package net.sf.mpxj.junit;
+
+import static org.junit.Assert.*;
+
+import java.text.DateFormat;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+import net.sf.mpxj.Duration;
+import net.sf.mpxj.ProjectCalendar;
+import net.sf.mpxj.ProjectFile;
+import net.sf.mpxj.TimeUnit;
+import net.sf.mpxj.common.TimeRangeCache;
+
+/**
+ * Tests for the cache used to hold working time calculations.
+ */
+public class TimeRangeCacheTest
+{
+   /**
+    * Ensure that values are only returned for an exact key match,
+    * and that the cache is bounded.
+    */
+   @Test public void testCache()
+   {
+      TimeRangeCache<Long> cache = new TimeRangeCache<Long>(100);
+      assertNull(cache.get(1, 2));
+
+      cache.put(1, 2, Long.valueOf(3));
+      assertEquals(Long.valueOf(3), cache.get(1, 2));
+      assertNull(cache.get(2, 1));
+      assertNull(cache.get(1, 3));
+
+      cache.put(1, 2, Long.valueOf(4));
+      assertEquals(Long.valueOf(4), cache.get(1, 2));
+
+      for (int loop = 0; loop < 10000; loop++)
+      {
+         cache.put(loop, loop * 2L, Long.valueOf(loop));
+      }
+
+      int retained = 0;
+      for (int loop = 0; loop < 10000; loop++)
+      {
+         Long value = cache.get(loop, loop * 2L);
+         if (value != null)
+         {
+            assertEquals(loop, value.longValue());
+            ++retained;
+         }
+      }
+      assertTrue(retained > 0);
+      assertTrue(retained <= 128);
+      assertEquals(Long.valueOf(9999), cache.get(9999, 19998));
+
+      cache.clear();
+      assertNull(cache.get(9999, 19998));
+   }
+
+   /**
+    * Ensure that concurrent readers and writers only ever see
+    * the value stored for the key they request.
+    */
+   @Test public void testConcurrentAccess() throws Exception
+   {
+      final TimeRangeCache<Long> cache = new TimeRangeCache<Long>(64);
+      ExecutorService executor = Executors.newFixedThreadPool(4);
+      try
+      {
+         List<Future<Integer>> futures = new ArrayList<Future<Integer>>();
+         for (int thread = 0; thread < 4; thread++)
+         {
+            final int seed = thread;
+            futures.add(executor.submit(new Callable<Integer>()
+            {
+               @Override public Integer call()
+               {
+                  Random random = new Random(seed);
+                  int errors = 0;
+                  for (int loop = 0; loop < 100000; loop++)
+                  {
+                     long start = random.nextInt(1000);
+                     long end = start + random.nextInt(1000);
+                     Long value = cache.get(start, end);
+                     if (value == null)
+                     {
+                        cache.put(start, end, Long.valueOf(start * 1000 + end));
+                     }
+                     else
+                     {
+                        if (value.longValue() != start * 1000 + end)
+                        {
+                           ++errors;
+                        }
+                     }
+                  }
+                  return Integer.valueOf(errors);
+               }
+            }));
+         }
+
+         for (Future<Integer> future : futures)
+         {
+            assertEquals(0, future.get().intValue());
+         }
+      }
+
+      finally
+      {
+         executor.shutdown();
+      }
+   }
+
+   /**
+    * Ensure that calendar calculations return the same results when
+    * they are served from the cache, and that cached values are discarded
+    * when the calendar changes.
+    */
+   @Test public void testCalendarWork() throws Exception
+   {
+      DateFormat df = new SimpleDateFormat("dd/MM/yyyy HH:mm");
+      ProjectFile file = new ProjectFile();
+      ProjectCalendar calendar = file.addDefaultBaseCalendar();
+      calendar.addCalendarException(df.parse("20/03/2006 00:00"), df.parse("21/03/2006 23:59"));
+
+      Date start = df.parse("14/03/2006 08:00");
+      Random random = new Random(1);
+      List<Date> ends = new ArrayList<Date>();
+      List<Duration> expected = new ArrayList<Duration>();
+      for (int loop = 0; loop < 500; loop++)
+      {
+         Date end = new Date(start.getTime() + random.nextInt(60 * 24 * 30) * 60000L);
+         ends.add(end);
+         expected.add(calendar.getWork(start, end, TimeUnit.MINUTES));
+      }
+
+      for (int pass = 0; pass < 2; pass++)
+      {
+         for (int index = 0; index < ends.size(); index++)
+         {
+            assertEquals(expected.get(index), calendar.getWork(start, ends.get(index), TimeUnit.MINUTES));
+         }
+      }
+
+      //
+      // Cached values must not survive a change to the calendar
+      //
+      Date end = df.parse("22/03/2006 17:00");
+      assertEquals(Duration.getInstance(5 * 480, TimeUnit.MINUTES), calendar.getWork(start, end, TimeUnit.MINUTES));
+      calendar.addCalendarException(df.parse("22/03/2006 00:00"), df.parse("22/03/2006 23:59"));
+      assertEquals(Duration.getInstance(4 * 480, TimeUnit.MINUTES), calendar.getWork(start, end, TimeUnit.MINUTES));
+   }
+}
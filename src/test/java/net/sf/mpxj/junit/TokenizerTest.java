@@ -0,0 +1,227 @@
+/*
+ * file:       TokenizerTest.java
+ * author:     Jon Iles
+ * copyright:  (c) Packwood Software 2019
+ * date:       27/02/2019
+ */
+
+/*
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation, Inc.,
+ * 59 Temple Place, Suite 330, Boston, MA 02111-1307, USA.
+ */
+
+package net.sf.mpxj.junit;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import net.sf.mpxj.common.InputStreamTokenizer;
+import net.sf.mpxj.common.ReaderTokenizer;
+import net.sf.mpxj.common.Tokenizer;
+
+/**
+ * Tests for the buffered ReaderTokenizer and token interning.
+ */
+public class TokenizerTest
+{
+   /**
+    * Ensure that the buffered ReaderTokenizer produces the same tokens as
+    * the unbuffered InputStreamTokenizer, with tokens, quoted values and
+    * line endings straddling the boundaries of the Reader's buffer.
+    */
+   @Test public void testBufferBoundaries() throws Exception
+   {
+      String text = createText();
+      List<String> expected = getTokens(new InputStreamTokenizer(new ByteArrayInputStream(text.getBytes("US-ASCII"))), false);
+      assertTrue(expected.size() > 1000);
+
+      assertEquals(expected, getTokens(new ReaderTokenizer(new StringReader(text)), false));
+      assertEquals(expected, getTokens(new ReaderTokenizer(new StringReader(text)), true));
+      assertEquals(expected, getTokens(new ReaderTokenizer(new ChunkedReader(text)), false));
+      assertEquals(expected, getTokens(new ReaderTokenizer(new ChunkedReader(text)), true));
+   }
+
+   /**
+    * Ensure that an empty input is handled.
+    */
+   @Test public void testEmpty() throws Exception
+   {
+      Tokenizer tk = new ReaderTokenizer(new StringReader(""));
+      assertEquals(Tokenizer.TT_EOF, tk.nextToken());
+      assertEquals(Tokenizer.TT_EOF, tk.nextToken());
+   }
+
+   /**
+    * Ensure that interning returns the same instance for repeated short tokens,
+    * and never returns a token with the wrong content.
+    */
+   @Test public void testInternTokens() throws Exception
+   {
+      String longToken = "ABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789";
+      Tokenizer tk = new ReaderTokenizer(new StringReader("Y,N,Y,N," + longToken + "," + longToken + "\n"));
+      tk.setInternTokens(true);
+
+      List<String> tokens = new ArrayList<String>();
+      while (tk.nextToken() == Tokenizer.TT_WORD)
+      {
+         assertEquals(tk.getTokenSequence().toString(), tk.getToken());
+         tokens.add(tk.getToken());
+      }
+
+      assertEquals(6, tokens.size());
+      assertEquals("Y", tokens.get(0));
+      assertSame(tokens.get(0), tokens.get(2));
+      assertSame(tokens.get(1), tokens.get(3));
+      assertEquals(longToken, tokens.get(4));
+      assertEquals(tokens.get(4), tokens.get(5));
+      assertNotSame(tokens.get(4), tokens.get(5));
+
+      //
+      // Many distinct values will collide in the cache,
+      // ensure that each one is still returned correctly.
+      //
+      StringBuilder sb = new StringBuilder();
+      for (int loop = 0; loop < 20000; loop++)
+      {
+         sb.append(loop).append(',').append(loop % 7).append('\n');
+      }
+
+      tk = new ReaderTokenizer(new StringReader(sb.toString()));
+      tk.setInternTokens(true);
+      for (int loop = 0; loop < 20000; loop++)
+      {
+         assertEquals(Tokenizer.TT_WORD, tk.nextToken());
+         assertEquals(String.valueOf(loop), tk.getToken());
+         assertEquals(Tokenizer.TT_WORD, tk.nextToken());
+         assertEquals(String.valueOf(loop % 7), tk.getToken());
+         assertEquals(Tokenizer.TT_EOL, tk.nextToken());
+      }
+      assertEquals(Tokenizer.TT_EOF, tk.nextToken());
+   }
+
+   /**
+    * Read all tokens, recording the token type and text.
+    *
+    * @param tk tokenizer
+    * @param internTokens true if tokens should be interned
+    * @return list of tokens
+    */
+   private List<String> getTokens(Tokenizer tk, boolean internTokens) throws IOException
+   {
+      tk.setInternTokens(internTokens);
+      List<String> result = new ArrayList<String>();
+      int type;
+      while ((type = tk.nextToken()) != Tokenizer.TT_EOF)
+      {
+         result.add(type == Tokenizer.TT_WORD ? "W:" + tk.getToken() : String.valueOf(type));
+      }
+      return result;
+   }
+
+   /**
+    * Create test data long enough to span several buffers, containing
+    * tokens of varying length, quoted values and both line ending styles.
+    *
+    * @return test data
+    */
+   private String createText()
+   {
+      Random random = new Random(1);
+      StringBuilder sb = new StringBuilder();
+      while (sb.length() < 40000)
+      {
+         int columns = 1 + random.nextInt(10);
+         for (int column = 0; column < columns; column++)
+         {
+            if (column != 0)
+            {
+               sb.append(',');
+            }
+
+            switch (random.nextInt(4))
+            {
+               case 0:
+               {
+                  // empty token
+                  break;
+               }
+
+               case 1:
+               {
+                  sb.append("\"quoted, \"\"value\"\" ").append(random.nextInt(100)).append('"');
+                  break;
+               }
+
+               default:
+               {
+                  int length = random.nextInt(60);
+                  for (int index = 0; index < length; index++)
+                  {
+                     sb.append((char) ('a' + random.nextInt(26)));
+                  }
+                  break;
+               }
+            }
+         }
+         sb.append(random.nextBoolean() ? "\r\n" : "\n");
+      }
+      return sb.toString();
+   }
+
+   /**
+    * Reader which returns a small, varying number of characters from each read.
+    */
+   private static final class ChunkedReader extends Reader
+   {
+      /**
+       * Constructor.
+       *
+       * @param text text to read
+       */
+      public ChunkedReader(String text)
+      {
+         m_text = text;
+      }
+
+      @Override public int read(char[] cbuf, int off, int len)
+      {
+         if (m_index == m_text.length())
+         {
+            return -1;
+         }
+
+         int count = Math.min(Math.min(len, 1 + (m_index % 13)), m_text.length() - m_index);
+         m_text.getChars(m_index, m_index + count, cbuf, off);
+         m_index += count;
+         return count;
+      }
+
+      @Override public void close()
+      {
+         // Nothing to close
+      }
+
+      private final String m_text;
+      private int m_index;
+   }
+}
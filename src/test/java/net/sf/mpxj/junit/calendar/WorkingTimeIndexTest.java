@@ -0,0 +1,206 @@
+/*
+ * file:       WorkingTimeIndexTest.java
+ * author:     Jon Iles
+ * copyright:  (c) Packwood Software 2019
+ * date:       27/02/2019
+ */
+
+/*
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation, Inc.,
+ * 59 Temple Place, Suite 330, Boston, MA 02111-1307, USA.
+ */
+
+package net.sf.mpxj.junit.calendar;
+
+import static org.junit.Assert.*;
+
+import java.text.DateFormat;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Random;
+
+import org.junit.Test;
+
+import net.sf.mpxj.DateRange;
+import net.sf.mpxj.Day;
+import net.sf.mpxj.Duration;
+import net.sf.mpxj.ProjectCalendar;
+import net.sf.mpxj.ProjectCalendarException;
+import net.sf.mpxj.ProjectCalendarHours;
+import net.sf.mpxj.ProjectFile;
+import net.sf.mpxj.TimeUnit;
+
+/**
+ * Tests to ensure that calendar calculations using the working time index
+ * match those made by walking through the calendar day by day.
+ */
+public class WorkingTimeIndexTest
+{
+   /**
+    * Compare getWork results for a base calendar.
+    */
+   @Test public void testBaseCalendarWork() throws Exception
+   {
+      ProjectCalendar expected = createBaseCalendar(new ProjectFile());
+      ProjectCalendar actual = createBaseCalendar(createIndexedFile());
+      testWork(expected, actual);
+   }
+
+   /**
+    * Compare getDate results for a base calendar.
+    */
+   @Test public void testBaseCalendarDate() throws Exception
+   {
+      ProjectCalendar expected = createBaseCalendar(new ProjectFile());
+      ProjectCalendar actual = createBaseCalendar(createIndexedFile());
+      testDate(expected, actual);
+   }
+
+   /**
+    * Compare getWork results for a derived calendar.
+    */
+   @Test public void testDerivedCalendarWork() throws Exception
+   {
+      ProjectCalendar expected = createDerivedCalendar(new ProjectFile());
+      ProjectCalendar actual = createDerivedCalendar(createIndexedFile());
+      testWork(expected, actual);
+   }
+
+   /**
+    * Compare getDate results for a derived calendar.
+    */
+   @Test public void testDerivedCalendarDate() throws Exception
+   {
+      ProjectCalendar expected = createDerivedCalendar(new ProjectFile());
+      ProjectCalendar actual = createDerivedCalendar(createIndexedFile());
+      testDate(expected, actual);
+   }
+
+   /**
+    * Compare the work between random pairs of dates, both inside
+    * and outside the range covered by the index.
+    *
+    * @param expected calendar without an index
+    * @param actual calendar with an index
+    */
+   private void testWork(ProjectCalendar expected, ProjectCalendar actual) throws Exception
+   {
+      Random random = new Random(1);
+      for (int loop = 0; loop < 2000; loop++)
+      {
+         Date start = randomDate(random);
+         Date end = randomDate(random);
+         assertEquals(start + " " + end, expected.getWork(start, end, TimeUnit.MINUTES), actual.getWork(start, end, TimeUnit.MINUTES));
+      }
+   }
+
+   /**
+    * Compare the dates calculated from random start dates and durations,
+    * both inside and outside the range covered by the index.
+    *
+    * @param expected calendar without an index
+    * @param actual calendar with an index
+    */
+   private void testDate(ProjectCalendar expected, ProjectCalendar actual) throws Exception
+   {
+      Random random = new Random(1);
+      for (int loop = 0; loop < 2000; loop++)
+      {
+         Date start = randomDate(random);
+         Duration duration = Duration.getInstance(random.nextInt(2000) * 15, TimeUnit.MINUTES);
+         boolean returnNextWorkStart = random.nextBoolean();
+         assertEquals(start + " " + duration, expected.getDate(start, duration, returnNextWorkStart), actual.getDate(start, duration, returnNextWorkStart));
+      }
+   }
+
+   /**
+    * Generate a random date, on a quarter hour, between November 2018
+    * and February 2020.
+    *
+    * @param random random number generator
+    * @return random date
+    */
+   private Date randomDate(Random random) throws Exception
+   {
+      return new Date(df().parse("01/11/2018 00:00").getTime() + random.nextInt(4 * 24 * 480) * 15 * 60000L);
+   }
+
+   /**
+    * Create a project with a working time index covering 2019.
+    *
+    * @return project file
+    */
+   private ProjectFile createIndexedFile() throws Exception
+   {
+      ProjectFile file = new ProjectFile();
+      file.getProjectConfig().setWorkingTimeIndexHorizon(new DateRange(df().parse("01/01/2019 00:00"), df().parse("31/12/2019 00:00")));
+      return file;
+   }
+
+   /**
+    * Create a base calendar with non-working and working exceptions.
+    *
+    * @param file parent project
+    * @return calendar
+    */
+   private ProjectCalendar createBaseCalendar(ProjectFile file) throws Exception
+   {
+      DateFormat df = df();
+      ProjectCalendar calendar = file.addDefaultBaseCalendar();
+      calendar.addCalendarException(df.parse("01/01/2019 00:00"), df.parse("01/01/2019 23:59"));
+      calendar.addCalendarException(df.parse("19/04/2019 00:00"), df.parse("22/04/2019 23:59"));
+      calendar.addCalendarException(df.parse("24/12/2019 00:00"), df.parse("03/01/2020 23:59"));
+
+      ProjectCalendarException exception = calendar.addCalendarException(df.parse("06/07/2019 00:00"), df.parse("06/07/2019 23:59"));
+      exception.addRange(new DateRange(df.parse("06/07/2019 09:00"), df.parse("06/07/2019 13:30")));
+
+      exception = calendar.addCalendarException(df.parse("10/12/2018 00:00"), df.parse("10/12/2018 23:59"));
+      exception.addRange(new DateRange(df.parse("10/12/2018 10:00"), df.parse("10/12/2018 12:00")));
+
+      return calendar;
+   }
+
+   /**
+    * Create a derived calendar, with its own working days and exceptions.
+    *
+    * @param file parent project
+    * @return calendar
+    */
+   private ProjectCalendar createDerivedCalendar(ProjectFile file) throws Exception
+   {
+      DateFormat df = df();
+      ProjectCalendar parent = createBaseCalendar(file);
+      ProjectCalendar calendar = file.addDefaultDerivedCalendar();
+      calendar.setParent(parent);
+
+      calendar.setWorkingDay(Day.SATURDAY, true);
+      ProjectCalendarHours hours = calendar.addCalendarHours(Day.SATURDAY);
+      hours.addRange(new DateRange(df.parse("01/01/2019 08:00"), df.parse("01/01/2019 12:00")));
+
+      calendar.setWorkingDay(Day.WEDNESDAY, false);
+      calendar.addCalendarException(df.parse("14/08/2019 00:00"), df.parse("16/08/2019 23:59"));
+
+      return calendar;
+   }
+
+   /**
+    * Retrieve a date format.
+    *
+    * @return date format
+    */
+   private DateFormat df()
+   {
+      return new SimpleDateFormat("dd/MM/yyyy HH:mm");
+   }
+}
@@ -0,0 +1,744 @@
+/*
+ * file:       PrimaveraDatabaseBulkLoadTest.java
+ * author:     Jon Iles
+ * copyright:  (c) Packwood Software 2019
+ * date:       27/02/2019
+ */
+
+/*
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation, Inc.,
+ * 59 Temple Place, Suite 330, Boston, MA 02111-1307, USA.
+ */
+
+package net.sf.mpxj.junit.primavera;
+
+import static org.junit.Assert.*;
+
+import java.io.BufferedReader;
+import java.io.FileInputStream;
+import java.io.InputStreamReader;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import org.junit.Assume;
+import org.junit.Test;
+
+import net.sf.mpxj.ProjectFile;
+import net.sf.mpxj.junit.MpxjTestData;
+import net.sf.mpxj.junit.ProjectDescription;
+import net.sf.mpxj.primavera.PrimaveraDatabaseReader;
+
+/**
+ * Tests to ensure that reading all projects from a P6 database with bulk
+ * loading enabled produces the same result as issuing queries for each
+ * project. The database is an H2 copy of the P6 tables read by
+ * PrimaveraDatabaseReader, holding the project from an XER file and a copy
+ * of that project, along with calendars, resources and user defined field
+ * values which are shared by both projects.
+ */
+public class PrimaveraDatabaseBulkLoadTest
+{
+   /**
+    * Compare bulk and per-project reads.
+    */
+   @Test public void testBulkLoad() throws Exception
+   {
+      try
+      {
+         Class.forName("org.h2.Driver");
+      }
+
+      catch (ClassNotFoundException ex)
+      {
+         Assume.assumeNoException(ex);
+      }
+
+      Connection connection = DriverManager.getConnection("jdbc:h2:mem:");
+      try
+      {
+         createDatabase(connection);
+
+         PrimaveraDatabaseReader reader = new PrimaveraDatabaseReader();
+         reader.setConnection(connection);
+         assertFalse(reader.getBulkLoad());
+         Map<String, ProjectFile> expected = getProjects(reader.readAll());
+
+         reader = new PrimaveraDatabaseReader();
+         reader.setConnection(connection);
+         reader.setBulkLoad(true);
+         Map<String, ProjectFile> actual = getProjects(reader.readAll());
+
+         assertEquals(2, expected.size());
+         assertEquals(expected.keySet(), actual.keySet());
+
+         for (Map.Entry<String, ProjectFile> entry : expected.entrySet())
+         {
+            String name = entry.getKey();
+            ProjectFile project = entry.getValue();
+            boolean copy = name.endsWith(SUFFIX);
+            assertNotNull(name, project.getTaskByUniqueID(Integer.valueOf(TASK_IDS[0] + (copy ? ID_OFFSET : 0))));
+            assertNull(name, project.getTaskByUniqueID(Integer.valueOf(TASK_IDS[0] + (copy ? 0 : ID_OFFSET))));
+            assertNotNull(name, project.getCalendarByName(SHARED_CALENDAR_NAME));
+            assertNotNull(name, project.getCalendarByName(PROJECT_CALENDAR_NAME + name));
+            assertNull(name, project.getCalendarByName(DELETED_CALENDAR_NAME));
+            assertEquals(name, copy ? 1 : 2, project.getResources().size());
+
+            assertEquals(name, ProjectDescription.describe(project), ProjectDescription.describe(actual.get(name)));
+         }
+      }
+
+      finally
+      {
+         connection.close();
+      }
+   }
+
+   /**
+    * Index the projects read from the database by name.
+    *
+    * @param projects list of projects
+    * @return projects indexed by name
+    */
+   private Map<String, ProjectFile> getProjects(List<ProjectFile> projects)
+   {
+      Map<String, ProjectFile> result = new HashMap<String, ProjectFile>();
+      for (ProjectFile project : projects)
+      {
+         result.put(project.getProjectProperties().getName(), project);
+      }
+      return result;
+   }
+
+   /**
+    * Populate the database. Rows which are not associated with a project
+    * are written first, as the queries used when reading a single project
+    * return these rows in table order, whereas bulk loading places them
+    * before the rows for the project.
+    *
+    * @param connection database connection
+    */
+   private void createDatabase(Connection connection) throws Exception
+   {
+      readXerFile(connection, MpxjTestData.filePath("generated/task-percentcomplete/percent-complete-8.4.xer"));
+
+      for (String[] table : TABLES)
+      {
+         String[] columns = new String[table.length - 1];
+         for (int index = 1; index < table.length; index++)
+         {
+            String[] definition = table[index].split(" ");
+            columns[index - 1] = definition[0];
+            m_columnTypes.put(table[0] + "." + definition[0], SQL_TYPES.get(definition[1]));
+         }
+         createTable(connection, table[0], columns);
+      }
+
+      Timestamp date = new Timestamp(DATE_FORMAT.parse("2015-02-24 08:00").getTime());
+      Integer sharedCalendarID = Integer.valueOf(SHARED_CALENDAR_ID);
+
+      insert(connection, "prefer", "prefer_id,curr_id,day_hr_cnt,week_hr_cnt,week_start_day_num,create_date,update_date", Integer.valueOf(1), Integer.valueOf(1), Double.valueOf(8), Double.valueOf(40), Integer.valueOf(1), date, date);
+      addCalendar(connection, 179, DELETED_CALENDAR_NAME, null, date);
+
+      for (int resource = 1; resource <= 3; resource++)
+      {
+         Integer resourceID = Integer.valueOf(resource);
+         insert(connection, "rsrc", "rsrc_id,rsrc_seq_num,rsrc_name,rsrc_short_name,rsrc_type,clndr_id,cost_qty_type,delete_date", resourceID, Integer.valueOf(4 - resource), "Resource " + resource, "R" + resource, "RT_Labor", sharedCalendarID, "QT_Hour", resource == 3 ? date : null);
+         insert(connection, "rsrcrate", "rsrc_rate_id,rsrc_id,cost_per_qty,max_qty_per_hr,start_date", Integer.valueOf(resource), resourceID, Double.valueOf(10 * resource), Double.valueOf(1), date);
+         insert(connection, "udfvalue", "udf_type_id,fk_id,proj_id,udf_text", Integer.valueOf(RESOURCE_TEXT), resourceID, null, "Resource Text " + resource);
+      }
+      insert(connection, "rsrcrate", "rsrc_rate_id,rsrc_id,cost_per_qty,max_qty_per_hr,start_date", Integer.valueOf(4), Integer.valueOf(1), Double.valueOf(15), Double.valueOf(0.5), new Timestamp(DATE_FORMAT.parse("2015-04-01 08:00").getTime()));
+
+      insert(connection, "actvtype", "actv_code_type_id,actv_code_type", Integer.valueOf(1), "Phase");
+      insert(connection, "actvtype", "actv_code_type_id,actv_code_type", Integer.valueOf(2), "Area");
+      insert(connection, "actvcode", "actv_code_id,actv_code_type_id,short_name,actv_code_name", Integer.valueOf(1), Integer.valueOf(1), "D", "Design");
+      insert(connection, "actvcode", "actv_code_id,actv_code_type_id,short_name,actv_code_name", Integer.valueOf(2), Integer.valueOf(1), "B", "Build");
+      insert(connection, "actvcode", "actv_code_id,actv_code_type_id,short_name,actv_code_name", Integer.valueOf(3), Integer.valueOf(2), "N", "North");
+
+      insert(connection, "udftype", "udf_type_id,table_name,logical_data_type,udf_type_label", Integer.valueOf(TASK_TEXT), "TASK", "FT_TEXT", "Task Text");
+      insert(connection, "udftype", "udf_type_id,table_name,logical_data_type,udf_type_label", Integer.valueOf(RESOURCE_TEXT), "RSRC", "FT_TEXT", "Resource Text");
+      insert(connection, "udftype", "udf_type_id,table_name,logical_data_type,udf_type_label", Integer.valueOf(ASSIGNMENT_NUMBER), "TASKRSRC", "FT_FLOAT_2_DECIMALS", "Assignment Number");
+
+      addProject(connection, 0, "", "rcal_Predecessor", date);
+      addProject(connection, ID_OFFSET, SUFFIX, "rcal_Successor", date);
+   }
+
+   /**
+    * Add the project specific rows for the original project or its copy.
+    * The first project assigns resources 1 and 2, the second assigns
+    * resource 2 only. Both have an assignment to the deleted resource 3,
+    * and a deleted assignment to resource 1.
+    *
+    * @param connection database connection
+    * @param offset offset applied to the IDs from the XER file
+    * @param suffix suffix applied to the project name
+    * @param lagCalendar lag calendar scheduling option
+    * @param date date used for deleted rows
+    */
+   private void addProject(Connection connection, int offset, String suffix, String lagCalendar, Timestamp date) throws Exception
+   {
+      Integer projectID = Integer.valueOf(PROJECT_ID + offset);
+      Integer[] taskIDs = new Integer[TASK_IDS.length];
+      for (int index = 0; index < TASK_IDS.length; index++)
+      {
+         taskIDs[index] = Integer.valueOf(TASK_IDS[index] + offset);
+      }
+
+      addCalendar(connection, 180 + offset, PROJECT_CALENDAR_NAME + PROJECT_NAME + suffix, projectID, null);
+      insert(connection, "projprop", "proj_id,prop_name,prop_value", projectID, "scheduling", "(0||scheduling(sched_calendar_on_relationship_lag|" + lagCalendar + ")())");
+
+      Integer[] resourceIDs =
+      {
+         Integer.valueOf(offset == 0 ? 1 : 2),
+         Integer.valueOf(2),
+         Integer.valueOf(3),
+         Integer.valueOf(1)
+      };
+
+      for (int index = 0; index < resourceIDs.length; index++)
+      {
+         Integer assignmentID = Integer.valueOf(offset + index + 1);
+         insert(connection, "taskrsrc", "taskrsrc_id,task_id,proj_id,rsrc_id,remain_qty,target_qty,act_reg_qty,act_ot_qty,remain_cost,act_reg_cost,act_ot_cost,target_cost,target_qty_per_hr,delete_date", assignmentID, taskIDs[index], projectID, resourceIDs[index], Double.valueOf(8 * index), Double.valueOf(16), Double.valueOf(16 - 8 * index), Double.valueOf(0), Double.valueOf(80 * index), Double.valueOf(160 - 80 * index), Double.valueOf(0), Double.valueOf(160), Double.valueOf(1), index == 3 ? date : null);
+         insert(connection, "udfvalue", "udf_type_id,fk_id,proj_id,udf_number", Integer.valueOf(ASSIGNMENT_NUMBER), assignmentID, projectID, Double.valueOf(offset + index));
+      }
+
+      insert(connection, "taskpred", "task_pred_id,task_id,pred_task_id,proj_id,pred_type,lag_hr_cnt", Integer.valueOf(offset + 1), taskIDs[1], taskIDs[0], projectID, "PR_FS", Double.valueOf(8));
+      insert(connection, "taskpred", "task_pred_id,task_id,pred_task_id,proj_id,pred_type,lag_hr_cnt", Integer.valueOf(offset + 2), taskIDs[2], taskIDs[1], projectID, "PR_SS", Double.valueOf(0));
+
+      insert(connection, "taskactv", "task_id,actv_code_type_id,actv_code_id,proj_id", taskIDs[0], Integer.valueOf(1), Integer.valueOf(1), projectID);
+      insert(connection, "taskactv", "task_id,actv_code_type_id,actv_code_id,proj_id", taskIDs[1], Integer.valueOf(1), Integer.valueOf(offset == 0 ? 1 : 2), projectID);
+      if (offset == 0)
+      {
+         insert(connection, "taskactv", "task_id,actv_code_type_id,actv_code_id,proj_id", taskIDs[2], Integer.valueOf(2), Integer.valueOf(3), projectID);
+      }
+
+      insert(connection, "udfvalue", "udf_type_id,fk_id,proj_id,udf_text", Integer.valueOf(TASK_TEXT), taskIDs[0], projectID, "Task Text" + suffix);
+   }
+
+   /**
+    * Add a calendar derived from the shared calendar in the XER file.
+    *
+    * @param connection database connection
+    * @param id calendar ID
+    * @param name calendar name
+    * @param projectID project ID, or null for a calendar shared by all projects
+    * @param deleteDate deletion date, or null if the calendar has not been deleted
+    */
+   private void addCalendar(Connection connection, int id, String name, Integer projectID, Timestamp deleteDate) throws Exception
+   {
+      String data;
+      PreparedStatement ps = connection.prepareStatement("select clndr_data from calendar where clndr_id=?");
+      try
+      {
+         ps.setInt(1, SHARED_CALENDAR_ID);
+         ResultSet rs = ps.executeQuery();
+         assertTrue(rs.next());
+         data = rs.getString(1);
+         rs.close();
+      }
+
+      finally
+      {
+         ps.close();
+      }
+
+      insert(connection, "calendar", "clndr_id,default_flag,clndr_name,proj_id,base_clndr_id,clndr_type,day_hr_cnt,week_hr_cnt,month_hr_cnt,year_hr_cnt,rsrc_private,clndr_data,delete_date", Integer.valueOf(id), "N", name, projectID, Integer.valueOf(SHARED_CALENDAR_ID), projectID == null ? "CA_Base" : "CA_Project", Double.valueOf(8), Double.valueOf(40), Double.valueOf(172), Double.valueOf(2000), "N", data, deleteDate);
+   }
+
+   /**
+    * Create tables from an XER file. Each row belonging to a project is
+    * followed by a copy of the row, with its IDs offset and its name
+    * suffixed, so that the rows of the two projects are interleaved.
+    *
+    * @param connection database connection
+    * @param fileName XER file name
+    */
+   private void readXerFile(Connection connection, String fileName) throws Exception
+   {
+      Map<String, String[]> tableColumns = new LinkedHashMap<String, String[]>();
+      Map<String, List<String[]>> tableRows = new HashMap<String, List<String[]>>();
+
+      BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(fileName), "Windows-1252"));
+      try
+      {
+         String tableName = null;
+         for (String line = reader.readLine(); line != null; line = reader.readLine())
+         {
+            String[] record = line.split("\t", -1);
+            String[] values = Arrays.copyOfRange(record, 1, record.length);
+
+            if (record[0].equals("%T"))
+            {
+               tableName = values[0].toLowerCase();
+               tableRows.put(tableName, new ArrayList<String[]>());
+            }
+            else
+            {
+               if (record[0].equals("%F"))
+               {
+                  tableColumns.put(tableName, values);
+               }
+               else
+               {
+                  if (record[0].equals("%R"))
+                  {
+                     tableRows.get(tableName).add(values);
+                  }
+               }
+            }
+         }
+      }
+
+      finally
+      {
+         reader.close();
+      }
+
+      for (Map.Entry<String, String[]> entry : tableColumns.entrySet())
+      {
+         writeXerTable(connection, entry.getKey(), entry.getValue(), tableRows.get(entry.getKey()));
+      }
+   }
+
+   /**
+    * Create a table from the columns and rows read from an XER file.
+    *
+    * @param connection database connection
+    * @param tableName table name
+    * @param columns column names
+    * @param rows row values
+    */
+   private void writeXerTable(Connection connection, String tableName, String[] columns, List<String[]> rows) throws Exception
+   {
+      for (int index = 0; index < columns.length; index++)
+      {
+         m_columnTypes.put(tableName + "." + columns[index], Integer.valueOf(getColumnType(columns[index], rows, index)));
+      }
+      createTable(connection, tableName, columns);
+
+      int projectIndex = Arrays.asList(columns).indexOf("proj_id");
+      for (String[] values : rows)
+      {
+         Object[] row = new Object[columns.length];
+         for (int index = 0; index < columns.length; index++)
+         {
+            row[index] = getValue(getColumnType(tableName, columns[index]), values[index]);
+         }
+         insert(connection, tableName, columns, row);
+
+         if (projectIndex != -1 && row[projectIndex] != null)
+         {
+            for (int index = 0; index < columns.length; index++)
+            {
+               if (OFFSET_COLUMNS.contains(columns[index]) && row[index] != null)
+               {
+                  row[index] = Integer.valueOf(((Integer) row[index]).intValue() + ID_OFFSET);
+               }
+               else
+               {
+                  if (columns[index].equals("proj_short_name"))
+                  {
+                     row[index] = row[index] + SUFFIX;
+                  }
+               }
+            }
+            insert(connection, tableName, columns, row);
+         }
+      }
+   }
+
+   /**
+    * Create a table. Tables are given a delete_date column if they
+    * don't have one, as the reader excludes deleted rows.
+    *
+    * @param connection database connection
+    * @param tableName table name
+    * @param columns column names
+    */
+   private void createTable(Connection connection, String tableName, String[] columns) throws Exception
+   {
+      StringBuilder sql = new StringBuilder("create table ").append(tableName).append(" (");
+      for (String column : columns)
+      {
+         sql.append(column).append(' ').append(getColumnTypeName(getColumnType(tableName, column))).append(", ");
+      }
+
+      if (Arrays.asList(columns).contains("delete_date"))
+      {
+         sql.setLength(sql.length() - 2);
+      }
+      else
+      {
+         sql.append("delete_date timestamp");
+         m_columnTypes.put(tableName + ".delete_date", Integer.valueOf(Types.TIMESTAMP));
+      }
+      sql.append(')');
+
+      Statement statement = connection.createStatement();
+      try
+      {
+         statement.executeUpdate(sql.toString());
+      }
+
+      finally
+      {
+         statement.close();
+      }
+   }
+
+   /**
+    * Insert a row.
+    *
+    * @param connection database connection
+    * @param tableName table name
+    * @param columns comma separated column names
+    * @param values column values
+    */
+   private void insert(Connection connection, String tableName, String columns, Object... values) throws Exception
+   {
+      insert(connection, tableName, columns.split(","), values);
+   }
+
+   /**
+    * Insert a row.
+    *
+    * @param connection database connection
+    * @param tableName table name
+    * @param columns column names
+    * @param values column values
+    */
+   private void insert(Connection connection, String tableName, String[] columns, Object[] values) throws Exception
+   {
+      StringBuilder sql = new StringBuilder("insert into ").append(tableName).append(" (");
+      for (int index = 0; index < columns.length; index++)
+      {
+         sql.append(index == 0 ? "" : ",").append(columns[index]);
+      }
+      sql.append(") values (");
+      for (int index = 0; index < columns.length; index++)
+      {
+         sql.append(index == 0 ? "?" : ",?");
+      }
+      sql.append(')');
+
+      PreparedStatement ps = connection.prepareStatement(sql.toString());
+      try
+      {
+         for (int index = 0; index < columns.length; index++)
+         {
+            if (values[index] == null)
+            {
+               ps.setNull(index + 1, getColumnType(tableName, columns[index]));
+            }
+            else
+            {
+               ps.setObject(index + 1, values[index]);
+            }
+         }
+         ps.executeUpdate();
+      }
+
+      finally
+      {
+         ps.close();
+      }
+   }
+
+   /**
+    * Convert a value read from an XER file to a column's type.
+    *
+    * @param type SQL type
+    * @param text value from the XER file
+    * @return column value
+    */
+   private Object getValue(int type, String text) throws Exception
+   {
+      Object result;
+      if (text.isEmpty())
+      {
+         result = null;
+      }
+      else
+      {
+         switch (type)
+         {
+            case Types.INTEGER:
+            {
+               result = Integer.valueOf(text);
+               break;
+            }
+
+            case Types.DOUBLE:
+            {
+               result = Double.valueOf(text);
+               break;
+            }
+
+            case Types.TIMESTAMP:
+            {
+               result = new Timestamp(DATE_FORMAT.parse(text).getTime());
+               break;
+            }
+
+            default:
+            {
+               result = text;
+               break;
+            }
+         }
+      }
+      return result;
+   }
+
+   /**
+    * Determine the type of a column read from an XER file. ID and sequence
+    * number columns are integers, date columns are timestamps, columns
+    * holding only numeric values are doubles, and all other columns are text.
+    *
+    * @param column column name
+    * @param rows row values
+    * @param index column index
+    * @return SQL type
+    */
+   private int getColumnType(String column, List<String[]> rows, int index)
+   {
+      int result;
+      if (column.endsWith("_id") || column.endsWith("_num"))
+      {
+         result = Types.INTEGER;
+      }
+      else
+      {
+         if (column.endsWith("_date"))
+         {
+            result = Types.TIMESTAMP;
+         }
+         else
+         {
+            boolean numeric = false;
+            for (String[] row : rows)
+            {
+               String value = row[index];
+               if (!value.isEmpty())
+               {
+                  numeric = NUMERIC_VALUE.matcher(value).matches();
+                  if (!numeric)
+                  {
+                     break;
+                  }
+               }
+            }
+            result = numeric ? Types.DOUBLE : Types.VARCHAR;
+         }
+      }
+      return result;
+   }
+
+   /**
+    * Retrieve the type of a column in a table which has been created.
+    *
+    * @param tableName table name
+    * @param column column name
+    * @return SQL type
+    */
+   private int getColumnType(String tableName, String column)
+   {
+      return m_columnTypes.get(tableName + "." + column).intValue();
+   }
+
+   /**
+    * Retrieve the name of a column type for use when creating a table.
+    *
+    * @param type SQL type
+    * @return SQL type name
+    */
+   private String getColumnTypeName(int type)
+   {
+      String result;
+      switch (type)
+      {
+         case Types.INTEGER:
+         {
+            result = "integer";
+            break;
+         }
+
+         case Types.DOUBLE:
+         {
+            result = "double";
+            break;
+         }
+
+         case Types.TIMESTAMP:
+         {
+            result = "timestamp";
+            break;
+         }
+
+         default:
+         {
+            result = "varchar";
+            break;
+         }
+      }
+      return result;
+   }
+
+   private final Map<String, Integer> m_columnTypes = new HashMap<String, Integer>();
+
+   private static final SimpleDateFormat DATE_FORMAT = new SimpleDateFormat("yyyy-MM-dd HH:mm");
+   private static final Pattern NUMERIC_VALUE = Pattern.compile("-?\\d+(\\.\\d+)?");
+
+   private static final int PROJECT_ID = 4507;
+   private static final String PROJECT_NAME = "EC00640";
+   private static final int[] TASK_IDS =
+   {
+      101717,
+      101718,
+      101719,
+      101720
+   };
+   private static final int SHARED_CALENDAR_ID = 178;
+   private static final String SHARED_CALENDAR_NAME = "Corporate - Standard Full Time";
+   private static final String PROJECT_CALENDAR_NAME = "Project Calendar ";
+   private static final String DELETED_CALENDAR_NAME = "Deleted Calendar";
+
+   private static final int ID_OFFSET = 100000;
+   private static final String SUFFIX = "-COPY";
+   private static final List<String> OFFSET_COLUMNS = Arrays.asList("proj_id", "wbs_id", "parent_wbs_id", "task_id");
+
+   private static final int TASK_TEXT = 1;
+   private static final int RESOURCE_TEXT = 2;
+   private static final int ASSIGNMENT_NUMBER = 3;
+
+   private static final String[][] TABLES =
+   {
+      {
+         "prefer",
+         "prefer_id integer",
+         "curr_id integer",
+         "day_hr_cnt double",
+         "week_hr_cnt double",
+         "week_start_day_num integer",
+         "create_date timestamp",
+         "update_date timestamp"
+      },
+      {
+         "projprop",
+         "proj_id integer",
+         "prop_name varchar",
+         "prop_value varchar"
+      },
+      {
+         "rsrc",
+         "rsrc_id integer",
+         "rsrc_seq_num integer",
+         "rsrc_name varchar",
+         "rsrc_short_name varchar",
+         "rsrc_type varchar",
+         "clndr_id integer",
+         "cost_qty_type varchar"
+      },
+      {
+         "rsrcrate",
+         "rsrc_rate_id integer",
+         "rsrc_id integer",
+         "cost_per_qty double",
+         "max_qty_per_hr double",
+         "start_date timestamp"
+      },
+      {
+         "taskrsrc",
+         "taskrsrc_id integer",
+         "task_id integer",
+         "proj_id integer",
+         "rsrc_id integer",
+         "remain_qty double",
+         "target_qty double",
+         "act_reg_qty double",
+         "act_ot_qty double",
+         "remain_cost double",
+         "act_reg_cost double",
+         "act_ot_cost double",
+         "target_cost double",
+         "target_qty_per_hr double"
+      },
+      {
+         "taskpred",
+         "task_pred_id integer",
+         "task_id integer",
+         "pred_task_id integer",
+         "proj_id integer",
+         "pred_type varchar",
+         "lag_hr_cnt double"
+      },
+      {
+         "actvtype",
+         "actv_code_type_id integer",
+         "actv_code_type varchar"
+      },
+      {
+         "actvcode",
+         "actv_code_id integer",
+         "actv_code_type_id integer",
+         "short_name varchar",
+         "actv_code_name varchar"
+      },
+      {
+         "taskactv",
+         "task_id integer",
+         "actv_code_type_id integer",
+         "actv_code_id integer",
+         "proj_id integer"
+      },
+      {
+         "udftype",
+         "udf_type_id integer",
+         "table_name varchar",
+         "logical_data_type varchar",
+         "udf_type_label varchar"
+      },
+      {
+         "udfvalue",
+         "udf_type_id integer",
+         "fk_id integer",
+         "proj_id integer",
+         "udf_text varchar",
+         "udf_number double",
+         "udf_date timestamp",
+         "udf_code_id integer"
+      }
+   };
+
+   private static final Map<String, Integer> SQL_TYPES = new HashMap<String, Integer>();
+   static
+   {
+      SQL_TYPES.put("integer", Integer.valueOf(Types.INTEGER));
+      SQL_TYPES.put("double", Integer.valueOf(Types.DOUBLE));
+      SQL_TYPES.put("timestamp", Integer.valueOf(Types.TIMESTAMP));
+      SQL_TYPES.put("varchar", Integer.valueOf(Types.VARCHAR));
+   }
+}
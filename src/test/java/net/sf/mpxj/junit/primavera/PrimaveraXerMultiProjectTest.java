@@ -0,0 +1,337 @@
+/*
+ * file:       PrimaveraXerMultiProjectTest.java
+ * author:     Jon Iles
+ * copyright:  (c) Packwood Software 2019
+ * date:       27/02/2019
+ */
+
+/*
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation, Inc.,
+ * 59 Temple Place, Suite 330, Boston, MA 02111-1307, USA.
+ */
+
+package net.sf.mpxj.junit.primavera;
+
+import static org.junit.Assert.*;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.Test;
+
+import net.sf.mpxj.ProjectFile;
+import net.sf.mpxj.Relation;
+import net.sf.mpxj.ResourceAssignment;
+import net.sf.mpxj.Task;
+import net.sf.mpxj.junit.MpxjTestData;
+import net.sf.mpxj.primavera.PrimaveraXERFileReader;
+
+/**
+ * Tests reading XER files containing multiple projects.
+ * The test data is created by duplicating each project specific
+ * row from a single project XER file, giving the copy a new project ID
+ * and new task and WBS IDs.
+ */
+public class PrimaveraXerMultiProjectTest
+{
+   /**
+    * Ensure that all projects are listed.
+    */
+   @Test public void testListProjects() throws Exception
+   {
+      Map<Integer, String> projects = new PrimaveraXERFileReader().listProjects(getInputStream());
+      assertEquals(2, projects.size());
+      assertTrue(projects.containsKey(getFirstProjectID()));
+      assertTrue(projects.containsKey(getSecondProjectID()));
+      assertEquals(projects.get(getFirstProjectID()) + SUFFIX, projects.get(getSecondProjectID()));
+   }
+
+   /**
+    * Ensure that each project read from the multi-project file is identical
+    * to the project read from the original single project file.
+    */
+   @Test public void testReadAll() throws Exception
+   {
+      String expected = describe(new PrimaveraXERFileReader().read(new FileInputStream(MpxjTestData.filePath(FILE_NAME))), 0);
+
+      List<ProjectFile> projects = new PrimaveraXERFileReader().readAll(getInputStream());
+      assertEquals(2, projects.size());
+      assertEquals(expected, describe(projects.get(0), 0));
+      assertEquals(expected, describe(projects.get(1), ID_OFFSET));
+   }
+
+   /**
+    * Ensure that selecting a single project by ID retrieves only
+    * the data for that project from the indexed tables.
+    */
+   @Test public void testReadByProjectID() throws Exception
+   {
+      String expected = describe(new PrimaveraXERFileReader().read(new FileInputStream(MpxjTestData.filePath(FILE_NAME))), 0);
+
+      PrimaveraXERFileReader reader = new PrimaveraXERFileReader();
+      reader.setProjectID(getSecondProjectID().intValue());
+      ProjectFile project = reader.read(getInputStream());
+      assertEquals(expected, describe(project, ID_OFFSET));
+      assertEquals(getProjectName() + SUFFIX, project.getProjectProperties().getName());
+   }
+
+   /**
+    * Ensure that the project filter discards rows belonging to other projects.
+    */
+   @Test public void testProjectFilter() throws Exception
+   {
+      PrimaveraXERFileReader reader = new PrimaveraXERFileReader();
+      reader.setProjectFilter(Collections.singleton(getSecondProjectID()));
+      List<ProjectFile> projects = reader.readAll(getInputStream());
+      assertEquals(1, projects.size());
+      assertEquals(getProjectName() + SUFFIX, projects.get(0).getProjectProperties().getName());
+
+      reader = new PrimaveraXERFileReader();
+      reader.setProjectFilter(new HashSet<Integer>(Arrays.asList(getFirstProjectID(), getSecondProjectID())));
+      assertEquals(2, reader.readAll(getInputStream()).size());
+
+      reader = new PrimaveraXERFileReader();
+      reader.setProjectFilter(Collections.singleton(Integer.valueOf(-1)));
+      assertEquals(0, reader.readAll(getInputStream()).size());
+   }
+
+   /**
+    * Ensure that reading projects concurrently produces the same
+    * result as reading them sequentially.
+    */
+   @Test public void testReadAllWithExecutor() throws Exception
+   {
+      List<ProjectFile> sequential = new PrimaveraXERFileReader().readAll(getInputStream(), true);
+
+      ExecutorService executor = Executors.newFixedThreadPool(2);
+      try
+      {
+         List<ProjectFile> concurrent = new PrimaveraXERFileReader().readAll(getInputStream(), true, executor);
+         assertEquals(sequential.size(), concurrent.size());
+         for (int index = 0; index < sequential.size(); index++)
+         {
+            assertEquals(describe(sequential.get(index), 0), describe(concurrent.get(index), 0));
+         }
+      }
+
+      finally
+      {
+         executor.shutdown();
+      }
+   }
+
+   /**
+    * Create a text description of a project's tasks, relations and assignments.
+    *
+    * @param project project to describe
+    * @param offset offset to remove from task unique IDs
+    * @return project description
+    */
+   private String describe(ProjectFile project, int offset)
+   {
+      StringBuilder sb = new StringBuilder();
+      sb.append(project.getCalendars().size()).append(' ').append(project.getResources().size()).append('\n');
+
+      for (Task task : project.getTasks())
+      {
+         sb.append(task.getUniqueID().intValue() - offset).append(' ');
+         sb.append(task.getName()).append(' ');
+         sb.append(task.getParentTask() == null ? "-" : task.getParentTask().getName()).append(' ');
+         sb.append(task.getStart()).append(' ');
+         sb.append(task.getFinish()).append(' ');
+         sb.append(task.getDuration()).append(' ');
+         sb.append(task.getPercentageComplete()).append(' ');
+         sb.append(task.getCost()).append('\n');
+
+         List<Relation> predecessors = task.getPredecessors();
+         if (predecessors != null)
+         {
+            for (Relation relation : predecessors)
+            {
+               sb.append("  P ").append(relation.getTargetTask().getUniqueID().intValue() - offset).append(' ').append(relation.getType()).append(' ').append(relation.getLag()).append('\n');
+            }
+         }
+      }
+
+      for (ResourceAssignment assignment : project.getResourceAssignments())
+      {
+         sb.append("A ").append(assignment.getTask().getUniqueID().intValue() - offset).append(' ').append(assignment.getResourceUniqueID()).append(' ').append(assignment.getWork()).append('\n');
+      }
+
+      return sb.toString();
+   }
+
+   /**
+    * Retrieve the project ID from the original test file.
+    *
+    * @return project ID
+    */
+   private Integer getFirstProjectID() throws Exception
+   {
+      return new PrimaveraXERFileReader().listProjects(new FileInputStream(MpxjTestData.filePath(FILE_NAME))).keySet().iterator().next();
+   }
+
+   /**
+    * Retrieve the project ID of the duplicated project.
+    *
+    * @return project ID
+    */
+   private Integer getSecondProjectID() throws Exception
+   {
+      return Integer.valueOf(getFirstProjectID().intValue() + ID_OFFSET);
+   }
+
+   /**
+    * Retrieve the project name from the original test file.
+    *
+    * @return project name
+    */
+   private String getProjectName() throws Exception
+   {
+      return new PrimaveraXERFileReader().listProjects(new FileInputStream(MpxjTestData.filePath(FILE_NAME))).values().iterator().next();
+   }
+
+   /**
+    * Create an input stream containing the multi-project XER data.
+    *
+    * @return input stream
+    */
+   private InputStream getInputStream() throws Exception
+   {
+      return new ByteArrayInputStream(createMultiProjectData().getBytes("UTF-8"));
+   }
+
+   /**
+    * Create a multi-project XER file from a single project file by
+    * duplicating every row which carries a project ID. The duplicate
+    * rows follow the original rows in each table.
+    *
+    * @return XER file content
+    */
+   private String createMultiProjectData() throws Exception
+   {
+      StringBuilder result = new StringBuilder();
+      List<String> duplicates = new ArrayList<String>();
+      List<String> fields = null;
+
+      BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(MpxjTestData.filePath(FILE_NAME)), "UTF-8"));
+      try
+      {
+         String line;
+         while ((line = reader.readLine()) != null)
+         {
+            String[] values = line.split("\t", -1);
+            if (!values[0].equals("%R"))
+            {
+               appendLines(result, duplicates);
+            }
+
+            if (values[0].equals("%F"))
+            {
+               fields = Arrays.asList(values);
+            }
+            else
+            {
+               if (values[0].equals("%R"))
+               {
+                  int projectIndex = fields.indexOf("proj_id");
+                  if (projectIndex != -1 && !values[projectIndex].isEmpty())
+                  {
+                     duplicates.add(duplicateRow(fields, values));
+                  }
+               }
+            }
+
+            result.append(line).append("\r\n");
+         }
+      }
+
+      finally
+      {
+         reader.close();
+      }
+
+      return result.toString();
+   }
+
+   /**
+    * Create a copy of a row for the duplicate project.
+    *
+    * @param fields field names
+    * @param values row values
+    * @return duplicate row
+    */
+   private String duplicateRow(List<String> fields, String[] values)
+   {
+      StringBuilder sb = new StringBuilder();
+      for (int index = 0; index < values.length; index++)
+      {
+         String value = values[index];
+         String field = index < fields.size() ? fields.get(index) : "";
+         if (!value.isEmpty())
+         {
+            if (OFFSET_FIELDS.contains(field))
+            {
+               value = String.valueOf(Integer.parseInt(value) + ID_OFFSET);
+            }
+            else
+            {
+               if (field.equals("proj_short_name"))
+               {
+                  value = value + SUFFIX;
+               }
+            }
+         }
+
+         if (index != 0)
+         {
+            sb.append('\t');
+         }
+         sb.append(value);
+      }
+      return sb.toString();
+   }
+
+   /**
+    * Append any pending duplicate rows.
+    *
+    * @param result XER file content
+    * @param lines pending rows
+    */
+   private void appendLines(StringBuilder result, List<String> lines)
+   {
+      for (String line : lines)
+      {
+         result.append(line).append("\r\n");
+      }
+      lines.clear();
+   }
+
+   private static final String FILE_NAME = "generated/task-percentcomplete/percent-complete-8.4.xer";
+   private static final int ID_OFFSET = 100000;
+   private static final String SUFFIX = "-COPY";
+   private static final Set<String> OFFSET_FIELDS = new HashSet<String>(Arrays.asList("proj_id", "task_id", "wbs_id", "parent_wbs_id", "pred_task_id", "task_pred_id", "taskrsrc_id"));
+}
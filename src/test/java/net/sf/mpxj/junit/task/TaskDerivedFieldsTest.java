@@ -0,0 +1,299 @@
+/*
+ * file:       TaskDerivedFieldsTest.java
+ * author:     Jon Iles
+ * copyright:  (c) Packwood Software 2019
+ * date:       27/02/2019
+ */
+
+/*
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation, Inc.,
+ * 59 Temple Place, Suite 330, Boston, MA 02111-1307, USA.
+ */
+
+package net.sf.mpxj.junit.task;
+
+import static org.junit.Assert.*;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+
+import org.junit.Test;
+
+import net.sf.mpxj.Duration;
+import net.sf.mpxj.ProjectCalendar;
+import net.sf.mpxj.ProjectFile;
+import net.sf.mpxj.Task;
+import net.sf.mpxj.TaskMode;
+import net.sf.mpxj.TimeUnit;
+
+/**
+ * Tests to ensure that the cached values of derived task fields
+ * are discarded when the fields they are calculated from are changed.
+ */
+public class TaskDerivedFieldsTest
+{
+   /**
+    * Ensure that the variance fields are recalculated.
+    */
+   @Test public void testVariances() throws Exception
+   {
+      Task task = createTask();
+
+      task.setBaselineStart(date("07/01/2019 08:00"));
+      task.setStart(date("08/01/2019 08:00"));
+      assertEquals(days(1), task.getStartVariance());
+      task.setStart(date("09/01/2019 08:00"));
+      assertEquals(days(2), task.getStartVariance());
+      task.setBaselineStart(date("08/01/2019 08:00"));
+      assertEquals(days(1), task.getStartVariance());
+
+      task.setBaselineFinish(date("07/01/2019 17:00"));
+      task.setFinish(date("08/01/2019 17:00"));
+      assertEquals(days(1), task.getFinishVariance());
+      task.setFinish(date("10/01/2019 17:00"));
+      assertEquals(days(3), task.getFinishVariance());
+      task.setBaselineFinish(date("09/01/2019 17:00"));
+      assertEquals(days(1), task.getFinishVariance());
+
+      task.setBaselineCost(Double.valueOf(100));
+      task.setCost(Double.valueOf(150));
+      assertEquals(50, task.getCostVariance().doubleValue(), 0);
+      task.setCost(Double.valueOf(175));
+      assertEquals(75, task.getCostVariance().doubleValue(), 0);
+      task.setBaselineCost(Double.valueOf(200));
+      assertEquals(-25, task.getCostVariance().doubleValue(), 0);
+
+      task.setBaselineDuration(days(2));
+      task.setDuration(days(3));
+      assertEquals(days(1), task.getDurationVariance());
+      task.setDuration(days(5));
+      assertEquals(days(3), task.getDurationVariance());
+      task.setBaselineDuration(days(4));
+      assertEquals(days(1), task.getDurationVariance());
+
+      task.setBaselineWork(hours(8));
+      task.setWork(hours(16));
+      assertEquals(hours(8), task.getWorkVariance());
+      task.setWork(hours(24));
+      assertEquals(hours(16), task.getWorkVariance());
+      task.setBaselineWork(hours(20));
+      assertEquals(hours(4), task.getWorkVariance());
+   }
+
+   /**
+    * Ensure that the earned value variance fields are recalculated.
+    */
+   @Test public void testEarnedValue() throws Exception
+   {
+      Task task = createTask();
+
+      task.setBCWP(Double.valueOf(100));
+      task.setACWP(Double.valueOf(80));
+      task.setBCWS(Double.valueOf(90));
+      assertEquals(20, task.getCV().doubleValue(), 0);
+      assertEquals(10, task.getSV().doubleValue(), 0);
+
+      task.setACWP(Double.valueOf(70));
+      assertEquals(30, task.getCV().doubleValue(), 0);
+
+      task.setBCWS(Double.valueOf(120));
+      assertEquals(-20, task.getSV().doubleValue(), 0);
+
+      task.setBCWP(Double.valueOf(150));
+      assertEquals(80, task.getCV().doubleValue(), 0);
+      assertEquals(30, task.getSV().doubleValue(), 0);
+   }
+
+   /**
+    * Ensure that the slack and critical fields are recalculated.
+    */
+   @Test public void testSlackAndCritical() throws Exception
+   {
+      Task task = createTask();
+      task.setDuration(days(2));
+      task.setEarlyStart(date("07/01/2019 08:00"));
+      task.setLateStart(date("07/01/2019 08:00"));
+      task.setEarlyFinish(date("08/01/2019 17:00"));
+      task.setLateFinish(date("08/01/2019 17:00"));
+
+      assertEquals(days(0), task.getStartSlack());
+      assertEquals(days(0), task.getFinishSlack());
+      assertEquals(days(0), task.getTotalSlack());
+      assertTrue(task.getCritical());
+
+      task.setLateStart(date("09/01/2019 08:00"));
+      assertEquals(days(2), task.getStartSlack());
+      assertEquals(days(2), task.getTotalSlack());
+      assertFalse(task.getCritical());
+
+      task.setLateFinish(date("09/01/2019 17:00"));
+      assertEquals(days(1), task.getFinishSlack());
+      assertEquals(days(1), task.getTotalSlack());
+      assertFalse(task.getCritical());
+
+      task.setLateStart(date("07/01/2019 08:00"));
+      task.setLateFinish(date("08/01/2019 17:00"));
+      assertEquals(days(0), task.getTotalSlack());
+      assertTrue(task.getCritical());
+
+      task.setEarlyStart(date("04/01/2019 08:00"));
+      assertEquals(days(1), task.getStartSlack());
+      assertFalse(task.getCritical());
+
+      task.setEarlyStart(date("07/01/2019 08:00"));
+      assertTrue(task.getCritical());
+
+      task.setEarlyFinish(date("07/01/2019 17:00"));
+      assertEquals(days(1), task.getFinishSlack());
+      assertFalse(task.getCritical());
+
+      task.setEarlyFinish(date("08/01/2019 17:00"));
+      assertTrue(task.getCritical());
+
+      task.setDuration(hours(16));
+      assertEquals(hours(0), task.getTotalSlack());
+
+      task.setTotalSlack(days(5));
+      assertFalse(task.getCritical());
+
+      task.setTotalSlack(days(0));
+      assertTrue(task.getCritical());
+
+      task.setPercentageComplete(Double.valueOf(100));
+      assertFalse(task.getCritical());
+   }
+
+   /**
+    * Ensure that the critical flag of a manually scheduled task
+    * is recalculated when its text fields change.
+    */
+   @Test public void testManuallyScheduledCritical() throws Exception
+   {
+      Task task = createTask();
+      task.setTaskMode(TaskMode.MANUALLY_SCHEDULED);
+      task.setTotalSlack(days(0));
+      assertTrue(task.getCritical());
+
+      task.setStartText("Next week");
+      assertFalse(task.getCritical());
+
+      task.setStartText(null);
+      assertTrue(task.getCritical());
+
+      task.setFinishText("Soon");
+      assertFalse(task.getCritical());
+
+      task.setFinishText(null);
+      task.setDurationText("A few days");
+      assertFalse(task.getCritical());
+   }
+
+   /**
+    * Ensure that values set explicitly for derived fields are retained
+    * when the fields they would otherwise be calculated from change.
+    */
+   @Test public void testExplicitValuesRetained() throws Exception
+   {
+      Task task = createTask();
+
+      task.setStartVariance(days(3));
+      task.setBaselineStart(date("07/01/2019 08:00"));
+      task.setStart(date("08/01/2019 08:00"));
+      assertEquals(days(3), task.getStartVariance());
+
+      task.setCritical(true);
+      task.setTotalSlack(days(5));
+      task.setPercentageComplete(Double.valueOf(100));
+      assertTrue(task.getCritical());
+      assertEquals(days(5), task.getTotalSlack());
+   }
+
+   /**
+    * Ensure that the complete through field is recalculated.
+    */
+   @Test public void testCompleteThrough() throws Exception
+   {
+      Task task = createTask();
+      ProjectCalendar calendar = task.getEffectiveCalendar();
+
+      task.setDuration(days(4));
+      task.setActualStart(date("07/01/2019 08:00"));
+      task.setPercentageComplete(Double.valueOf(50));
+      assertEquals(calendar.getDate(date("07/01/2019 08:00"), days(2), true), task.getCompleteThrough());
+
+      task.setPercentageComplete(Double.valueOf(25));
+      assertEquals(calendar.getDate(date("07/01/2019 08:00"), days(1), true), task.getCompleteThrough());
+
+      task.setDuration(days(8));
+      assertEquals(calendar.getDate(date("07/01/2019 08:00"), days(2), true), task.getCompleteThrough());
+
+      task.setActualStart(date("14/01/2019 08:00"));
+      assertEquals(calendar.getDate(date("14/01/2019 08:00"), days(2), true), task.getCompleteThrough());
+
+      task.setActualFinish(date("23/01/2019 17:00"));
+      task.setPercentageComplete(Double.valueOf(100));
+      assertEquals(date("23/01/2019 17:00"), task.getCompleteThrough());
+
+      task.setActualFinish(date("24/01/2019 17:00"));
+      assertEquals(date("24/01/2019 17:00"), task.getCompleteThrough());
+
+      task.setPercentageComplete(Double.valueOf(0));
+      assertNull(task.getCompleteThrough());
+   }
+
+   /**
+    * Create a task in a new project with a default calendar.
+    *
+    * @return new task
+    */
+   private Task createTask()
+   {
+      ProjectFile file = new ProjectFile();
+      file.setDefaultCalendar(file.addDefaultBaseCalendar());
+      return file.addTask();
+   }
+
+   /**
+    * Parse a date.
+    *
+    * @param value date text
+    * @return Date instance
+    */
+   private Date date(String value) throws Exception
+   {
+      return new SimpleDateFormat("dd/MM/yyyy HH:mm").parse(value);
+   }
+
+   /**
+    * Create a duration in days.
+    *
+    * @param value number of days
+    * @return Duration instance
+    */
+   private Duration days(double value)
+   {
+      return Duration.getInstance(value, TimeUnit.DAYS);
+   }
+
+   /**
+    * Create a duration in hours.
+    *
+    * @param value number of hours
+    * @return Duration instance
+    */
+   private Duration hours(double value)
+   {
+      return Duration.getInstance(value, TimeUnit.HOURS);
+   }
+}
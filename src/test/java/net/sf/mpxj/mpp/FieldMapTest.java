@@ -0,0 +1,224 @@
+/*
+ * file:       FieldMapTest.java
+ * author:     Jon Iles
+ * copyright:  (c) Packwood Software 2019
+ * date:       27/02/2019
+ */
+
+/*
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation, Inc.,
+ * 59 Temple Place, Suite 330, Boston, MA 02111-1307, USA.
+ */
+
+package net.sf.mpxj.mpp;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+import net.sf.mpxj.FieldContainer;
+import net.sf.mpxj.FieldType;
+import net.sf.mpxj.ProjectFile;
+import net.sf.mpxj.ResourceField;
+import net.sf.mpxj.TaskField;
+import net.sf.mpxj.listener.FieldListener;
+
+/**
+ * Tests to ensure that the compiled field items used to populate
+ * each entity match the content of the field map. FieldMap and Var2Data
+ * are package-private, which is why this test is in the mpp package.
+ */
+public class FieldMapTest
+{
+   /**
+    * Populate tasks using the MPP14 field map.
+    */
+   @Test public void testMpp14Tasks() throws Exception
+   {
+      ProjectFile file = new ProjectFile();
+      FieldMap map = new FieldMap14(file.getProjectProperties(), file.getCustomFields());
+      map.createTaskFieldMap(new Props());
+      testFieldMap(map, TaskField.class, TaskField.values());
+   }
+
+   /**
+    * Populate resources using the MPP14 field map.
+    */
+   @Test public void testMpp14Resources() throws Exception
+   {
+      ProjectFile file = new ProjectFile();
+      FieldMap map = new FieldMap14(file.getProjectProperties(), file.getCustomFields());
+      map.createResourceFieldMap(new Props());
+      testFieldMap(map, ResourceField.class, ResourceField.values());
+   }
+
+   /**
+    * Populate tasks using the MPP12 field map.
+    */
+   @Test public void testMpp12Tasks() throws Exception
+   {
+      ProjectFile file = new ProjectFile();
+      FieldMap map = new FieldMap12(file.getProjectProperties(), file.getCustomFields());
+      map.createTaskFieldMap(new Props());
+      testFieldMap(map, TaskField.class, TaskField.values());
+   }
+
+   /**
+    * Populate resources using the MPP12 field map.
+    */
+   @Test public void testMpp12Resources() throws Exception
+   {
+      ProjectFile file = new ProjectFile();
+      FieldMap map = new FieldMap12(file.getProjectProperties(), file.getCustomFields());
+      map.createResourceFieldMap(new Props());
+      testFieldMap(map, ResourceField.class, ResourceField.values());
+   }
+
+   /**
+    * Populate a container from random data, and ensure that every field in
+    * the map belonging to the requested class, and no other field, is set
+    * exactly once with the value read directly from the map.
+    *
+    * @param map field map
+    * @param type field type class
+    * @param fields all fields of the requested class
+    */
+   private void testFieldMap(FieldMap map, Class<? extends FieldType> type, FieldType[] fields) throws Exception
+   {
+      Set<FieldType> expectedFields = new HashSet<FieldType>();
+      for (FieldType field : fields)
+      {
+         if (map.getFieldLocation(field) != null)
+         {
+            expectedFields.add(field);
+         }
+      }
+      assertFalse(expectedFields.isEmpty());
+
+      Integer id = Integer.valueOf(1);
+      Random random = new Random(1);
+      byte[][] fixedData = new byte[][]
+      {
+         randomBytes(random, map.getMaxFixedDataSize(0) + 8),
+         randomBytes(random, map.getMaxFixedDataSize(1) + 8)
+      };
+      Var2Data varData = createVarData(random, map, id, expectedFields);
+
+      RecordingContainer container = new RecordingContainer();
+      map.populateContainer(type, container, id, fixedData, varData);
+
+      assertEquals(expectedFields, container.m_values.keySet());
+      assertEquals(expectedFields.size(), container.m_count);
+      for (FieldType field : expectedFields)
+      {
+         assertEquals(field.toString(), String.valueOf(map.getFieldData(id, field, fixedData, varData)), String.valueOf(container.m_values.get(field)));
+      }
+
+      map.clear();
+      container = new RecordingContainer();
+      map.populateContainer(type, container, id, fixedData, varData);
+      assertEquals(0, container.m_count);
+   }
+
+   /**
+    * Create a Var2Data block holding random data for each var data field.
+    *
+    * @param random random number generator
+    * @param map field map
+    * @param id entity ID
+    * @param fields fields present in the map
+    * @return Var2Data instance
+    */
+   private Var2Data createVarData(Random random, FieldMap map, Integer id, Set<FieldType> fields) throws Exception
+   {
+      MapVarMeta meta = new MapVarMeta();
+      ByteArrayOutputStream os = new ByteArrayOutputStream();
+      for (FieldType field : fields)
+      {
+         if (map.getFieldLocation(field) == FieldMap.FieldLocation.VAR_DATA)
+         {
+            byte[] data = randomBytes(random, 8);
+            data[6] = 0;
+            data[7] = 0;
+            meta.add(id, map.getVarDataKey(field), os.size());
+            os.write(new byte[]
+            {
+               (byte) data.length,
+               0,
+               0,
+               0
+            });
+            os.write(data);
+         }
+      }
+      return new Var2Data(meta, new ByteArrayInputStream(os.toByteArray()));
+   }
+
+   /**
+    * Create an array of random bytes.
+    *
+    * @param random random number generator
+    * @param size array size
+    * @return byte array
+    */
+   private byte[] randomBytes(Random random, int size)
+   {
+      byte[] result = new byte[size];
+      random.nextBytes(result);
+      return result;
+   }
+
+   /**
+    * Container which records the values set by the field map.
+    */
+   private static final class RecordingContainer implements FieldContainer
+   {
+      @Override public void set(FieldType field, Object value)
+      {
+         m_values.put(field, value);
+         ++m_count;
+      }
+
+      @Override public Object getCachedValue(FieldType field)
+      {
+         return m_values.get(field);
+      }
+
+      @Override public Object getCurrentValue(FieldType field)
+      {
+         return m_values.get(field);
+      }
+
+      @Override public void addFieldListener(FieldListener listener)
+      {
+         // Not required
+      }
+
+      @Override public void removeFieldListener(FieldListener listener)
+      {
+         // Not required
+      }
+
+      final Map<FieldType, Object> m_values = new LinkedHashMap<FieldType, Object>();
+      int m_count;
+   }
+}
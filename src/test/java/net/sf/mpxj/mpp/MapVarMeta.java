@@ -0,0 +1,110 @@
+/*
+ * file:       MapVarMeta.java
+ * author:     Jon Iles
+ * copyright:  (c) Packwood Software 2019
+ * date:       27/02/2019
+ */
+
+/*
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation, Inc.,
+ * 59 Temple Place, Suite 330, Boston, MA 02111-1307, USA.
+ */
+
+package net.sf.mpxj.mpp;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Simple VarMeta implementation used to describe test data. This lives
+ * in the mpp package as it implements the package-private VarMeta interface.
+ */
+final class MapVarMeta implements VarMeta
+{
+   /**
+    * Record the offset of an item.
+    *
+    * @param id unique ID of the entity to which the item belongs
+    * @param type data type identifier
+    * @param offset offset of the item in the Var2Data block
+    */
+   public void add(Integer id, Integer type, int offset)
+   {
+      Map<Integer, Integer> map = m_map.get(id);
+      if (map == null)
+      {
+         map = new TreeMap<Integer, Integer>();
+         m_map.put(id, map);
+      }
+      map.put(type, Integer.valueOf(offset));
+      m_offsets.add(Integer.valueOf(offset));
+   }
+
+   @Override public int getItemCount()
+   {
+      return m_offsets.size();
+   }
+
+   @Override public int getDataSize()
+   {
+      return 0;
+   }
+
+   @Override public Integer[] getUniqueIdentifierArray()
+   {
+      return m_map.keySet().toArray(new Integer[m_map.size()]);
+   }
+
+   @Override public Set<Integer> getUniqueIdentifierSet()
+   {
+      return m_map.keySet();
+   }
+
+   @Override public Integer getOffset(Integer id, Integer type)
+   {
+      Map<Integer, Integer> map = m_map.get(id);
+      return map == null ? null : map.get(type);
+   }
+
+   @Override public int[] getOffsets()
+   {
+      int[] result = new int[m_offsets.size()];
+      for (int index = 0; index < result.length; index++)
+      {
+         result[index] = m_offsets.get(index).intValue();
+      }
+      return result;
+   }
+
+   @Override public Set<Integer> getTypes(Integer id)
+   {
+      return m_map.get(id).keySet();
+   }
+
+   @Override public boolean containsKey(Integer key)
+   {
+      return m_map.containsKey(key);
+   }
+
+   @Override public String toString(FieldMap fieldMap)
+   {
+      return m_map.toString();
+   }
+
+   private final Map<Integer, Map<Integer, Integer>> m_map = new TreeMap<Integer, Map<Integer, Integer>>();
+   private final List<Integer> m_offsets = new ArrayList<Integer>();
+}
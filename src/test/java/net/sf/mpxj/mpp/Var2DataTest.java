@@ -0,0 +1,253 @@
+/*
+ * file:       Var2DataTest.java
+ * author:     Jon Iles
+ * copyright:  (c) Packwood Software 2019
+ * date:       27/02/2019
+ */
+
+/*
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation, Inc.,
+ * 59 Temple Place, Suite 330, Boston, MA 02111-1307, USA.
+ */
+
+package net.sf.mpxj.mpp;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+/**
+ * Tests to ensure that items are located correctly in a Var2Data block.
+ * Var2Data is package-private, so this test is held in the mpp package.
+ */
+public class Var2DataTest
+{
+   /**
+    * Ensure that each item is read from its own offset.
+    */
+   @Test public void testItems() throws Exception
+   {
+      MapVarMeta meta = new MapVarMeta();
+      ByteArrayOutputStream os = new ByteArrayOutputStream();
+
+      addItem(meta, os, ID, TYPE_STRING, unicode("Task Name"));
+      addItem(meta, os, ID, TYPE_INT, new byte[]
+      {
+         0x78,
+         0x56,
+         0x34,
+         0x12
+      });
+      addItem(meta, os, ID, TYPE_SHORT, new byte[]
+      {
+         0x34,
+         0x12
+      });
+      addItem(meta, os, ID, TYPE_ASCII, "ABC\0DEF".getBytes("US-ASCII"));
+      addItem(meta, os, ID, TYPE_EMPTY, new byte[0]);
+
+      Var2Data data = new Var2Data(meta, new ByteArrayInputStream(os.toByteArray()));
+      assertEquals("Task Name", data.getUnicodeString(ID, TYPE_STRING));
+      assertEquals(0x12345678, data.getInt(ID, TYPE_INT));
+      assertEquals(0x1234, data.getShort(ID, TYPE_SHORT));
+      assertEquals(0x34, data.getByte(ID, TYPE_SHORT));
+      assertEquals("ABC", data.getString(ID, TYPE_ASCII));
+      assertEquals("", data.getUnicodeString(ID, TYPE_EMPTY));
+      assertEquals(0, data.getInt(ID, TYPE_EMPTY));
+      assertEquals(0, data.getShort(ID, TYPE_EMPTY));
+
+      //
+      // Short items must not be decoded past their own data
+      //
+      assertEquals(0, data.getInt(ID, TYPE_SHORT));
+
+      //
+      // Missing items
+      //
+      assertNull(data.getByteArray(ID, Integer.valueOf(99)));
+      assertNull(data.getUnicodeString(Integer.valueOf(2), TYPE_STRING));
+      assertEquals(0, data.getInt(Integer.valueOf(2), TYPE_INT));
+   }
+
+   /**
+    * Ensure that the caller receives its own copy of an item's data.
+    */
+   @Test public void testByteArrayCopy() throws Exception
+   {
+      MapVarMeta meta = new MapVarMeta();
+      ByteArrayOutputStream os = new ByteArrayOutputStream();
+      byte[] item = new byte[]
+      {
+         1,
+         2,
+         3
+      };
+      addItem(meta, os, ID, TYPE_INT, item);
+
+      Var2Data data = new Var2Data(meta, new ByteArrayInputStream(os.toByteArray()));
+      byte[] first = data.getByteArray(ID, TYPE_INT);
+      assertTrue(Arrays.equals(item, first));
+      first[0] = 99;
+      assertTrue(Arrays.equals(item, data.getByteArray(ID, TYPE_INT)));
+   }
+
+   /**
+    * Ensure that items with a corrupt size, or an offset outside the block,
+    * are ignored without affecting the items which follow them.
+    */
+   @Test public void testCorruptItems() throws Exception
+   {
+      MapVarMeta meta = new MapVarMeta();
+      ByteArrayOutputStream os = new ByteArrayOutputStream();
+
+      addItem(meta, os, ID, TYPE_STRING, unicode("Before"));
+
+      //
+      // Item claiming to be larger than the remaining data
+      //
+      meta.add(ID, TYPE_CORRUPT, os.size());
+      writeInt(os, 100000);
+      os.write(unicode("Corrupt"));
+
+      //
+      // Item with a negative size
+      //
+      meta.add(ID, TYPE_NEGATIVE, os.size());
+      writeInt(os, -1);
+
+      addItem(meta, os, ID, TYPE_ASCII, "After".getBytes("US-ASCII"));
+
+      //
+      // Items whose offsets fall outside the block
+      //
+      meta.add(ID, TYPE_OUTSIDE, os.size() + 100);
+      meta.add(ID, TYPE_NEGATIVE_OFFSET, -4);
+
+      //
+      // An item whose size field is truncated by the end of the block
+      //
+      meta.add(ID, TYPE_TRUNCATED, os.size());
+      os.write(new byte[]
+      {
+         1,
+         0
+      });
+
+      Var2Data data = new Var2Data(meta, new ByteArrayInputStream(os.toByteArray()));
+      assertEquals("Before", data.getUnicodeString(ID, TYPE_STRING));
+      assertEquals("After", data.getString(ID, TYPE_ASCII));
+      assertNull(data.getByteArray(ID, TYPE_CORRUPT));
+      assertNull(data.getByteArray(ID, TYPE_NEGATIVE));
+      assertNull(data.getByteArray(ID, TYPE_OUTSIDE));
+      assertNull(data.getByteArray(ID, TYPE_NEGATIVE_OFFSET));
+      assertNull(data.getByteArray(ID, TYPE_TRUNCATED));
+      assertEquals(0, data.getInt(ID, TYPE_CORRUPT));
+   }
+
+   /**
+    * Ensure that items are located correctly when the offsets
+    * are not listed in ascending order, or are shared by several items.
+    */
+   @Test public void testUnorderedOffsets() throws Exception
+   {
+      MapVarMeta meta = new MapVarMeta();
+      ByteArrayOutputStream os = new ByteArrayOutputStream();
+
+      int firstOffset = os.size();
+      writeItem(os, unicode("First"));
+      int secondOffset = os.size();
+      writeItem(os, unicode("Second"));
+      int thirdOffset = os.size();
+      writeItem(os, unicode("Third"));
+
+      meta.add(ID, Integer.valueOf(3), thirdOffset);
+      meta.add(ID, Integer.valueOf(1), firstOffset);
+      meta.add(ID, Integer.valueOf(2), secondOffset);
+      meta.add(Integer.valueOf(2), Integer.valueOf(1), secondOffset);
+
+      Var2Data data = new Var2Data(meta, new ByteArrayInputStream(os.toByteArray()));
+      assertEquals("First", data.getUnicodeString(ID, Integer.valueOf(1)));
+      assertEquals("Second", data.getUnicodeString(ID, Integer.valueOf(2)));
+      assertEquals("Third", data.getUnicodeString(ID, Integer.valueOf(3)));
+      assertEquals("Second", data.getUnicodeString(Integer.valueOf(2), Integer.valueOf(1)));
+   }
+
+   /**
+    * Append an item to the block and record its offset.
+    *
+    * @param meta meta data
+    * @param os block data
+    * @param id entity ID
+    * @param type data type
+    * @param data item data
+    */
+   private void addItem(MapVarMeta meta, ByteArrayOutputStream os, Integer id, Integer type, byte[] data) throws Exception
+   {
+      meta.add(id, type, os.size());
+      writeItem(os, data);
+   }
+
+   /**
+    * Write an item's size followed by its data.
+    *
+    * @param os block data
+    * @param data item data
+    */
+   private void writeItem(ByteArrayOutputStream os, byte[] data) throws Exception
+   {
+      writeInt(os, data.length);
+      os.write(data);
+   }
+
+   /**
+    * Write a little endian integer.
+    *
+    * @param os block data
+    * @param value integer value
+    */
+   private void writeInt(ByteArrayOutputStream os, int value)
+   {
+      os.write(value);
+      os.write(value >> 8);
+      os.write(value >> 16);
+      os.write(value >> 24);
+   }
+
+   /**
+    * Encode a null terminated unicode string.
+    *
+    * @param value string value
+    * @return encoded string
+    */
+   private byte[] unicode(String value) throws Exception
+   {
+      return (value + "\0").getBytes("UTF-16LE");
+   }
+
+   private static final Integer ID = Integer.valueOf(1);
+   private static final Integer TYPE_STRING = Integer.valueOf(1);
+   private static final Integer TYPE_INT = Integer.valueOf(2);
+   private static final Integer TYPE_SHORT = Integer.valueOf(3);
+   private static final Integer TYPE_ASCII = Integer.valueOf(4);
+   private static final Integer TYPE_EMPTY = Integer.valueOf(5);
+   private static final Integer TYPE_CORRUPT = Integer.valueOf(6);
+   private static final Integer TYPE_NEGATIVE = Integer.valueOf(7);
+   private static final Integer TYPE_OUTSIDE = Integer.valueOf(8);
+   private static final Integer TYPE_NEGATIVE_OFFSET = Integer.valueOf(9);
+   private static final Integer TYPE_TRUNCATED = Integer.valueOf(10);
+}
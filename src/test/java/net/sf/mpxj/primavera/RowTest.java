@@ -0,0 +1,108 @@
+/*
+ * file:       RowTest.java
+ * author:     Jon Iles
+ * copyright:  (c) Packwood Software 2019
+ * date:       27/02/2019
+ */
+
+/*
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation, Inc.,
+ * 59 Temple Place, Suite 330, Boston, MA 02111-1307, USA.
+ */
+
+package net.sf.mpxj.primavera;
+
+import static org.junit.Assert.*;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+/**
+ * Ensure that rows backed by arrays behave in the same way as rows backed by maps.
+ * This test lives in the primavera package rather than under net.sf.mpxj.junit
+ * as ArrayRow and MapRow are package-private.
+ */
+public class RowTest
+{
+   /**
+    * Compare the values retrieved from an ArrayRow and a MapRow holding the same data.
+    */
+   @Test public void testArrayRowMatchesMapRow()
+   {
+      String[] names =
+      {
+         "proj_id",
+         "task_name",
+         "phys_complete_pct",
+         "target_drtn_hr_cnt",
+         "act_start_date",
+         "flag",
+         "numeric_flag",
+         "guid",
+         "empty"
+      };
+
+      Object[] values =
+      {
+         Integer.valueOf(42),
+         "Task 1",
+         Double.valueOf(12.5),
+         Double.valueOf(16),
+         new Date(1551225600000L),
+         "Y",
+         Integer.valueOf(1),
+         "{D0B4C9A3-58D3-4C6E-8A0A-3F2E1E6B9C11}",
+         null
+      };
+
+      Map<String, Integer> columns = new HashMap<String, Integer>();
+      Map<String, Object> map = new HashMap<String, Object>();
+      for (int index = 0; index < names.length; index++)
+      {
+         columns.put(names[index], Integer.valueOf(index));
+         map.put(names[index], values[index]);
+      }
+
+      Row arrayRow = new ArrayRow(columns, values);
+      Row mapRow = new MapRow(map);
+
+      assertEquals(mapRow.getInteger("proj_id"), arrayRow.getInteger("proj_id"));
+      assertEquals(42, arrayRow.getInt("proj_id"));
+      assertEquals(mapRow.getString("task_name"), arrayRow.getString("task_name"));
+      assertEquals(mapRow.getDouble("phys_complete_pct"), arrayRow.getDouble("phys_complete_pct"));
+      assertEquals(mapRow.getInteger("phys_complete_pct"), arrayRow.getInteger("phys_complete_pct"));
+      assertEquals(mapRow.getDuration("target_drtn_hr_cnt"), arrayRow.getDuration("target_drtn_hr_cnt"));
+      assertEquals(mapRow.getDate("act_start_date"), arrayRow.getDate("act_start_date"));
+      assertTrue(arrayRow.getBoolean("flag"));
+      assertTrue(arrayRow.getBoolean("numeric_flag"));
+      assertEquals(mapRow.getUUID("guid"), arrayRow.getUUID("guid"));
+
+      for (String name : new String[]
+      {
+         "empty",
+         "unknown"
+      })
+      {
+         assertNull(arrayRow.getString(name));
+         assertNull(arrayRow.getInteger(name));
+         assertNull(arrayRow.getDouble(name));
+         assertNull(arrayRow.getDate(name));
+         assertFalse(arrayRow.getBoolean(name));
+         assertEquals(0, arrayRow.getInt(name));
+      }
+   }
+}
@@ -0,0 +1,209 @@
+/*
+ * file:       XerFieldParserTest.java
+ * author:     Jon Iles
+ * copyright:  (c) Packwood Software 2019
+ * date:       27/02/2019
+ */
+
+/*
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation, Inc.,
+ * 59 Temple Place, Suite 330, Boston, MA 02111-1307, USA.
+ */
+
+package net.sf.mpxj.primavera;
+
+import static org.junit.Assert.*;
+
+import java.text.SimpleDateFormat;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.Random;
+import java.util.TimeZone;
+
+import org.junit.Test;
+
+/**
+ * Compare the results of the XER field parser with the general purpose
+ * date and number parsers it replaces. XerFieldParser is package-private,
+ * hence this test is held in the primavera package.
+ */
+public class XerFieldParserTest
+{
+   /**
+    * Compare date time values with SimpleDateFormat, across daylight
+    * saving transitions.
+    */
+   @Test public void testDateTime() throws Exception
+   {
+      TimeZone defaultTimeZone = TimeZone.getDefault();
+      try
+      {
+         TimeZone.setDefault(TimeZone.getTimeZone("Europe/London"));
+         SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd HH:mm");
+         XerFieldParser parser = new XerFieldParser();
+
+         Calendar calendar = Calendar.getInstance();
+         calendar.clear();
+         calendar.set(2018, Calendar.JANUARY, 1, 0, 0);
+         Date end = new Date(calendar.getTimeInMillis() + (2L * 366 * 24 * 60 * 60 * 1000));
+         while (calendar.getTime().before(end))
+         {
+            String text = format.format(calendar.getTime());
+            assertEquals(text, format.parse(text), parser.parseDate(text));
+            calendar.add(Calendar.MINUTE, 37);
+         }
+      }
+
+      finally
+      {
+         TimeZone.setDefault(defaultTimeZone);
+      }
+   }
+
+   /**
+    * Compare date values with SimpleDateFormat, including repeated values
+    * which are served from the parser's cache.
+    */
+   @Test public void testDate() throws Exception
+   {
+      SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd");
+      XerFieldParser parser = new XerFieldParser();
+
+      String[] values =
+      {
+         "2019-02-27",
+         "2019-02-27",
+         "2019-02-28",
+         "2000-02-29",
+         "1999-12-31",
+         "1999-12-31"
+      };
+
+      for (String value : values)
+      {
+         assertEquals(value, format.parse(value), parser.parseDate(value));
+      }
+
+      assertEquals(new SimpleDateFormat("yyyy-MM-dd HH:mm").parse("2019-02-27 00:00"), parser.parseDate("2019-02-27 00:00"));
+   }
+
+   /**
+    * Ensure that values which don't match the expected layouts are rejected.
+    */
+   @Test public void testInvalidDate()
+   {
+      XerFieldParser parser = new XerFieldParser();
+      String[] values =
+      {
+         "",
+         "2019-02-2",
+         "2019/02/27",
+         "2019-02-27T10:00",
+         "2019-02-27 10.00",
+         "2019-02-27 10:00:00",
+         "2019-0A-27",
+         "27-02-2019"
+      };
+
+      for (String value : values)
+      {
+         assertNull(value, parser.parseDate(value));
+      }
+   }
+
+   /**
+    * Compare numbers with Double.parseDouble.
+    */
+   @Test public void testNumbers()
+   {
+      XerFieldParser parser = new XerFieldParser();
+      String[] values =
+      {
+         "0",
+         "-0",
+         "1",
+         "-1",
+         "1.",
+         ".5",
+         "0.1",
+         "0.3",
+         "123.456",
+         "-123.456",
+         " 42 ",
+         "0000012.5000",
+         "100000000000000",
+         "999999999999999",
+         "1234567890123456789",
+         "0.0000000000000000000001",
+         "0.00000000000000000000001",
+         "3.14159265358979323846",
+         "2.220446049250313"
+      };
+
+      for (String value : values)
+      {
+         assertEquals(value, Double.valueOf(Double.parseDouble(value.trim())), parser.parseDouble(value, '.'));
+      }
+
+      Random random = new Random(1);
+      for (int loop = 0; loop < 10000; loop++)
+      {
+         String value = Long.toString(random.nextLong() % 1000000000000L);
+         int scale = random.nextInt(8);
+         if (scale != 0 && value.length() > scale + 1)
+         {
+            value = value.substring(0, value.length() - scale) + "." + value.substring(value.length() - scale);
+         }
+         assertEquals(value, Double.valueOf(Double.parseDouble(value)), parser.parseDouble(value, '.'));
+      }
+   }
+
+   /**
+    * Ensure that an alternative decimal separator is honoured.
+    */
+   @Test public void testDecimalSeparator()
+   {
+      XerFieldParser parser = new XerFieldParser();
+      assertEquals(Double.valueOf(123.456), parser.parseDouble("123,456", ','));
+      assertEquals(Double.valueOf(-0.5), parser.parseDouble("-0,5", ','));
+      assertNull(parser.parseDouble("123.456", ','));
+   }
+
+   /**
+    * Ensure that values which aren't plain decimal numbers are rejected.
+    */
+   @Test public void testInvalidNumbers()
+   {
+      XerFieldParser parser = new XerFieldParser();
+      String[] values =
+      {
+         "",
+         " ",
+         "-",
+         ".",
+         "1.2.3",
+         "1e5",
+         "1,000",
+         "+1",
+         "--1",
+         "abc",
+         "12a"
+      };
+
+      for (String value : values)
+      {
+         assertNull(value, parser.parseDouble(value, '.'));
+      }
+   }
+}